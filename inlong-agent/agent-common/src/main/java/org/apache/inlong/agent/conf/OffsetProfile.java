@@ -49,6 +49,13 @@ public class OffsetProfile extends AbstractConfiguration {
         setInodeInfo(inodeInfo);
     }
 
+    /**
+     * copy the offset profile, the json values are immutable so they are shared with the copy
+     */
+    public OffsetProfile(OffsetProfile offsetProfile) {
+        getConfigStorage().putAll(offsetProfile.getConfigStorage());
+    }
+
     public String toJsonStr() {
         return GSON.toJson(getConfigStorage());
     }
@@ -76,14 +76,30 @@ public class AgentConstants {
     public static final String AGENT_ENABLE_OOM_EXIT = "agent.enable.oom.exit";
     public static final boolean DEFAULT_ENABLE_OOM_EXIT = false;
 
+    // split the file lines a word at a time instead of byte by byte
+    public static final String AGENT_FILE_SWAR_SPLIT_ENABLE = "agent.file.swarSplit.enable";
+    public static final boolean DEFAULT_AGENT_FILE_SWAR_SPLIT_ENABLE = true;
+    // the interval of the full scan reconciling the file watch events
+    public static final String AGENT_FILE_RECONCILE_INTERVAL_MS = "agent.file.reconcile.interval.ms";
+    public static final long DEFAULT_AGENT_FILE_RECONCILE_INTERVAL_MS = 5 * 60 * 1000L;
+
     public static final String AGENT_SCAN_RANGE = "agent.scan.range";
     public static final String AGENT_OFFSET_TTL = "agent.offset.ttl";
+    // the interval writing the offsets kept in memory to the store, 0 writes every offset directly
+    public static final String AGENT_OFFSET_FLUSH_INTERVAL_MS = "agent.offset.flush.interval.ms";
+    public static final long DEFAULT_AGENT_OFFSET_FLUSH_INTERVAL_MS = 1000L;
     public static final String DEFAULT_AGENT_SCAN_RANGE = "-2";
     public static final String DEFAULT_AGENT_SCAN_RANGE_DAY = "-2";
     public static final String DEFAULT_AGENT_SCAN_RANGE_HOUR = "-2";
     public static final String DEFAULT_AGENT_SCAN_RANGE_MINUTE = "-120";
     public static final String AGENT_INSTANCE_LIMIT = "agent.instance.limit";
     public static final int DEFAULT_AGENT_INSTANCE_LIMIT = 100;
+    // run the instances, sources and sinks as steps on a shared worker pool instead of a thread each
+    public static final String AGENT_INSTANCE_SCHEDULER_ENABLE = "agent.instance.scheduler.enable";
+    public static final boolean DEFAULT_AGENT_INSTANCE_SCHEDULER_ENABLE = true;
+    public static final String AGENT_INSTANCE_SCHEDULER_WORKER_NUM = "agent.instance.scheduler.worker.num";
+    public static final int DEFAULT_AGENT_INSTANCE_SCHEDULER_WORKER_NUM = Math.max(4,
+            Runtime.getRuntime().availableProcessors() * 2);
 
     // pulsar sink config
     public static final String PULSAR_CLIENT_IO_TREHAD_NUM = "agent.sink.pulsar.client.io.thread.num";
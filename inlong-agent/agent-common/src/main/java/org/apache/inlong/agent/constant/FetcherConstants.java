@@ -63,4 +63,7 @@ public class FetcherConstants {
 
     public static final String AGENT_GLOBAL_WRITER_PERMIT = "agent.global.writer.permit";
     public static final int DEFAULT_AGENT_GLOBAL_WRITER_PERMIT = 128 * 1000 * 1000;
+
+    // the bytes shared by all the permits, default is the sum of the reader source, reader queue and writer permits
+    public static final String AGENT_GLOBAL_MEMORY_BUDGET = "agent.global.memory.budget";
 }
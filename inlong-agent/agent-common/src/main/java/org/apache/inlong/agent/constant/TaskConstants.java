@@ -60,6 +60,9 @@ public class TaskConstants extends CommonConstants {
     public static final String FILE_MAX_NUM = "task.fileTask.maxFileCount";
     public static final String PREDEFINE_FIELDS = "task.predefinedFields";
     public static final String TASK_AUDIT_VERSION = "task.auditVersion";
+    // the weight of the task sharing the agent memory with the other tasks
+    public static final String TASK_MEMORY_WEIGHT = "task.memoryWeight";
+    public static final int DEFAULT_TASK_MEMORY_WEIGHT = 1;
 
     // Kafka task
     public static final String TASK_KAFKA_TOPIC = "task.kafkaTask.topic";
@@ -54,6 +54,20 @@ public class AgentMetricItem extends MetricItem {
     public static final String M_PLUGIN_SEND_FAIL_COUNT = "pluginSendFailCount";
     public static final String M_PLUGIN_READ_SUCCESS_COUNT = "pluginReadSuccessCount";
     public static final String M_PLUGIN_SEND_SUCCESS_COUNT = "pluginSendSuccessCount";
+    // scheduled step
+    public static final String M_STEP_RUN_COUNT = "stepRunCount";
+    public static final String M_STEP_CPU_TIME_NS = "stepCpuTimeNs";
+    public static final String M_STEP_QUEUE_LATENCY_MS = "stepQueueLatencyMs";
+    // file discovery
+    public static final String M_FILE_DISCOVERY_COUNT = "fileDiscoveryCount";
+    public static final String M_FILE_DISCOVERY_LATENCY_MS = "fileDiscoveryLatencyMs";
+    public static final String M_FILE_SCAN_COUNT = "fileScanCount";
+    public static final String M_FILE_SCAN_COST_MS = "fileScanCostMs";
+    public static final String M_FILE_SCAN_FILE_COUNT = "fileScanFileCount";
+    // memory
+    public static final String M_MEMORY_USED_BYTES = "memoryUsedBytes";
+    public static final String M_MEMORY_WAIT_COUNT = "memoryWaitCount";
+    public static final String M_MEMORY_WAIT_MS = "memoryWaitMs";
 
     @Dimension
     public String pluginId;
@@ -92,4 +106,26 @@ public class AgentMetricItem extends MetricItem {
     public AtomicLong pluginReadSuccessCount = new AtomicLong(0);
     @CountMetric
     public AtomicLong pluginSendSuccessCount = new AtomicLong(0);
+    @CountMetric
+    public AtomicLong stepRunCount = new AtomicLong(0);
+    @CountMetric
+    public AtomicLong stepCpuTimeNs = new AtomicLong(0);
+    @CountMetric
+    public AtomicLong stepQueueLatencyMs = new AtomicLong(0);
+    @CountMetric
+    public AtomicLong fileDiscoveryCount = new AtomicLong(0);
+    @CountMetric
+    public AtomicLong fileDiscoveryLatencyMs = new AtomicLong(0);
+    @CountMetric
+    public AtomicLong fileScanCount = new AtomicLong(0);
+    @CountMetric
+    public AtomicLong fileScanCostMs = new AtomicLong(0);
+    @CountMetric
+    public AtomicLong fileScanFileCount = new AtomicLong(0);
+    @GaugeMetric
+    public AtomicLong memoryUsedBytes = new AtomicLong(0);
+    @CountMetric
+    public AtomicLong memoryWaitCount = new AtomicLong(0);
+    @CountMetric
+    public AtomicLong memoryWaitMs = new AtomicLong(0);
 }
@@ -19,6 +19,9 @@ package org.apache.inlong.agent.metrics;
 
 import org.apache.inlong.common.metric.MetricDomain;
 import org.apache.inlong.common.metric.MetricItemSet;
+import org.apache.inlong.common.metric.MetricUtils;
+
+import java.util.Map;
 
 @MetricDomain(name = "Agent")
 public class AgentMetricItemSet extends MetricItemSet<AgentMetricItem> {
@@ -36,4 +39,11 @@ public class AgentMetricItemSet extends MetricItemSet<AgentMetricItem> {
     protected AgentMetricItem createItem() {
         return new AgentMetricItem();
     }
+
+    /**
+     * remove the metric item of the dimensions, which is no longer reported
+     */
+    public void removeMetricItem(Map<String, String> dimensions) {
+        this.itemMap.remove(MetricUtils.getDimensionsKey(dimensions));
+    }
 }
@@ -32,6 +32,15 @@ public interface Source {
      */
     Message read();
 
+    /**
+     * Read message without waiting for the data to come, used by the scheduled instance steps
+     *
+     * @return message, null if no message is ready
+     */
+    default Message readNoWait() {
+        return read();
+    }
+
     /**
      * init
      *
@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.agent.store;
+
+import org.apache.inlong.agent.conf.OffsetProfile;
+import org.apache.inlong.agent.utils.AgentUtils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Store for offset which keeps the latest offset of each instance in memory, the offsets changed since the last
+ * flush are written to the store in one batch
+ */
+public class BufferedOffsetStore extends OffsetStore {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BufferedOffsetStore.class);
+    private final Map<String, OffsetProfile> offsets = new ConcurrentHashMap<>();
+    private final Map<String, OffsetProfile> dirtyOffsets = new ConcurrentHashMap<>();
+    private final Set<String> removedKeys = ConcurrentHashMap.newKeySet();
+
+    public BufferedOffsetStore(Store store) {
+        super(store);
+        for (OffsetProfile offset : super.listAllOffsets()) {
+            offsets.put(getKey(offset.getTaskId(), offset.getInstanceId()), offset);
+        }
+        LOGGER.info("load offsets count {}", offsets.size());
+    }
+
+    @Override
+    public List<OffsetProfile> listAllOffsets() {
+        List<OffsetProfile> offsetList = new ArrayList<>(offsets.size());
+        offsets.values().forEach(offsetProfile -> offsetList.add(copyOf(offsetProfile)));
+        return offsetList;
+    }
+
+    @Override
+    public OffsetProfile getOffset(String taskId, String instanceId) {
+        OffsetProfile offsetProfile = offsets.get(getKey(taskId, instanceId));
+        return offsetProfile == null ? null : copyOf(offsetProfile);
+    }
+
+    @Override
+    public void deleteOffset(String taskId, String instanceId) {
+        String keyName = getKey(taskId, instanceId);
+        offsets.remove(keyName);
+        dirtyOffsets.remove(keyName);
+        removedKeys.add(keyName);
+    }
+
+    @Override
+    public void setOffset(OffsetProfile offsetProfile) {
+        offsetProfile.setLastUpdateTime(AgentUtils.getCurrentTime());
+        if (offsetProfile.allRequiredKeyExist()) {
+            String keyName = getKey(offsetProfile.getTaskId(), offsetProfile.getInstanceId());
+            offsets.put(keyName, offsetProfile);
+            dirtyOffsets.put(keyName, offsetProfile);
+            removedKeys.remove(keyName);
+        }
+    }
+
+    /**
+     * write the offsets changed since the last flush to the store in one batch
+     */
+    @Override
+    public synchronized void flush() {
+        Map<String, OffsetProfile> flushOffsets = new HashMap<>(dirtyOffsets.size());
+        for (String keyName : dirtyOffsets.keySet()) {
+            OffsetProfile offsetProfile = dirtyOffsets.remove(keyName);
+            if (offsetProfile != null) {
+                flushOffsets.put(keyName, offsetProfile);
+            }
+        }
+        List<String> keys = new ArrayList<>(removedKeys.size());
+        for (String keyName : removedKeys) {
+            if (removedKeys.remove(keyName)) {
+                keys.add(keyName);
+            }
+        }
+        if (flushOffsets.isEmpty() && keys.isEmpty()) {
+            return;
+        }
+        List<KeyValueEntity> entities = new ArrayList<>(flushOffsets.size());
+        flushOffsets.forEach((keyName, offsetProfile) -> entities.add(toEntity(keyName, offsetProfile)));
+        try {
+            store.batchWrite(entities, keys);
+        } catch (Exception e) {
+            // retry the changes not overwritten in the meantime by the next flush
+            flushOffsets.forEach((keyName, offsetProfile) -> {
+                if (offsets.get(keyName) == offsetProfile) {
+                    dirtyOffsets.putIfAbsent(keyName, offsetProfile);
+                }
+            });
+            keys.forEach(keyName -> {
+                if (!offsets.containsKey(keyName)) {
+                    removedKeys.add(keyName);
+                }
+            });
+            LOGGER.error("flush offsets count {} removed count {} error", entities.size(), keys.size(), e);
+            return;
+        }
+        LOGGER.debug("flush offsets count {} removed count {}", entities.size(), keys.size());
+    }
+
+    /**
+     * the cached offset is shared with the flush, so the callers get a copy as they do from the store
+     */
+    private static OffsetProfile copyOf(OffsetProfile offsetProfile) {
+        return new OffsetProfile(offsetProfile);
+    }
+}
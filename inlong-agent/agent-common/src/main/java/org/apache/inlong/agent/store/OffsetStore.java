@@ -34,7 +34,7 @@ import java.util.List;
 public class OffsetStore {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(OffsetStore.class);
-    private final Store store;
+    protected final Store store;
 
     public OffsetStore(Store store) {
         this.store = store;
@@ -66,12 +66,20 @@ public class OffsetStore {
         if (offsetProfile.allRequiredKeyExist()) {
             String keyName = getKey(offsetProfile.getTaskId(),
                     offsetProfile.getInstanceId());
-            KeyValueEntity entity = new KeyValueEntity(keyName,
-                    offsetProfile.toJsonStr(), offsetProfile.get(TaskConstants.INSTANCE_ID));
-            store.put(entity);
+            store.put(toEntity(keyName, offsetProfile));
         }
     }
 
+    /**
+     * write the offsets kept in memory to the store, nothing to do as the offsets are written directly
+     */
+    public void flush() {
+    }
+
+    protected KeyValueEntity toEntity(String keyName, OffsetProfile offsetProfile) {
+        return new KeyValueEntity(keyName, offsetProfile.toJsonStr(), offsetProfile.get(TaskConstants.INSTANCE_ID));
+    }
+
     public String getKey(String taskId, String instanceId) {
         if (store.getUniqueKey().isEmpty()) {
             return CommonConstants.OFFSET_ID_PREFIX + store.getSplitter() + taskId
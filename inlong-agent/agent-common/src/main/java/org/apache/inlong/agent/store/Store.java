@@ -34,6 +34,17 @@ public interface Store extends Closeable {
      */
     void put(KeyValueEntity entity);
 
+    /**
+     * store and remove keyValues in one write, the keyValues are stored before the keys are removed.
+     *
+     * @param entities key/values to store
+     * @param removedKeys keys to remove
+     */
+    default void batchWrite(List<KeyValueEntity> entities, List<String> removedKeys) {
+        entities.forEach(this::put);
+        removedKeys.forEach(this::remove);
+    }
+
     /**
      * remove keyValue by key.
      *
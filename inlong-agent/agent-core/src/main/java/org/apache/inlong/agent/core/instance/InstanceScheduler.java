@@ -0,0 +1,254 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.agent.core.instance;
+
+import org.apache.inlong.agent.common.AgentThreadFactory;
+import org.apache.inlong.agent.conf.AgentConfiguration;
+import org.apache.inlong.agent.metrics.AgentMetricItem;
+import org.apache.inlong.agent.utils.AgentUtils;
+import org.apache.inlong.agent.utils.ThreadUtils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.apache.inlong.agent.constant.AgentConstants.AGENT_INSTANCE_SCHEDULER_ENABLE;
+import static org.apache.inlong.agent.constant.AgentConstants.AGENT_INSTANCE_SCHEDULER_WORKER_NUM;
+import static org.apache.inlong.agent.constant.AgentConstants.DEFAULT_AGENT_INSTANCE_SCHEDULER_ENABLE;
+import static org.apache.inlong.agent.constant.AgentConstants.DEFAULT_AGENT_INSTANCE_SCHEDULER_WORKER_NUM;
+
+/**
+ * Run the steps of instances, sources and sinks.
+ *
+ * A step does a bounded piece of work and returns the delay before the next step instead of sleeping,
+ * so the steps of thousands of mostly idle instances share a small worker pool. The steps that may block,
+ * such as polling a remote consumer, keep running on a thread each, as all steps do if the scheduler is
+ * disabled.
+ */
+public class InstanceScheduler {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(InstanceScheduler.class);
+    public static final long NEXT_STEP_NOW = 0;
+    public static final long STEP_FINISHED = -1;
+    private static volatile InstanceScheduler instanceScheduler = null;
+    private final boolean enable;
+    private final ScheduledThreadPoolExecutor workers;
+    private final ThreadPoolExecutor dedicatedPool = new ThreadPoolExecutor(
+            0, Integer.MAX_VALUE,
+            1L, TimeUnit.SECONDS,
+            new SynchronousQueue<>(),
+            new AgentThreadFactory("instance-step"));
+    private final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+    private final boolean cpuTimeEnabled;
+
+    private InstanceScheduler() {
+        AgentConfiguration conf = AgentConfiguration.getAgentConf();
+        enable = conf.getBoolean(AGENT_INSTANCE_SCHEDULER_ENABLE, DEFAULT_AGENT_INSTANCE_SCHEDULER_ENABLE);
+        int workerNum = conf.getInt(AGENT_INSTANCE_SCHEDULER_WORKER_NUM, DEFAULT_AGENT_INSTANCE_SCHEDULER_WORKER_NUM);
+        workers = new ScheduledThreadPoolExecutor(Math.max(1, workerNum),
+                new AgentThreadFactory("instance-scheduler"));
+        // the delayed steps cancelled by the wakeups are not left in the queue
+        workers.setRemoveOnCancelPolicy(true);
+        cpuTimeEnabled = threadMXBean.isCurrentThreadCpuTimeSupported() && threadMXBean.isThreadCpuTimeEnabled();
+        LOGGER.info("instance scheduler enable {} worker num {}", enable, workerNum);
+    }
+
+    /**
+     * scheduler singleton
+     */
+    public static InstanceScheduler getInstance() {
+        if (instanceScheduler == null) {
+            synchronized (InstanceScheduler.class) {
+                if (instanceScheduler == null) {
+                    instanceScheduler = new InstanceScheduler();
+                }
+            }
+        }
+        return instanceScheduler;
+    }
+
+    /**
+     * Submit a step task, the first step runs as soon as possible
+     *
+     * @param name the task name, used as the thread name if the task runs on its own thread
+     * @param task the step task
+     * @param metric the metric item to record the step cpu time and queue latency, may be null
+     * @param blocking whether the step may block the thread, a blocking task runs on its own thread
+     * @return the scheduled step
+     */
+    public ScheduledStep submit(String name, StepTask task, AgentMetricItem metric, boolean blocking) {
+        ScheduledStep step = new ScheduledStep(name, task, metric);
+        step.expectTime = AgentUtils.getCurrentTime();
+        if (enable && !blocking) {
+            step.schedule(NEXT_STEP_NOW);
+        } else {
+            dedicatedPool.execute(step::runLoop);
+        }
+        return step;
+    }
+
+    public int getWorkerQueueSize() {
+        return workers.getQueue().size();
+    }
+
+    /**
+     * Step task
+     */
+    @FunctionalInterface
+    public interface StepTask {
+
+        /**
+         * run a bounded piece of work without sleeping
+         *
+         * @return the delay in milliseconds before the next step, NEXT_STEP_NOW to yield and run again as
+         *         soon as possible, or STEP_FINISHED if the task is finished
+         */
+        long runStep();
+    }
+
+    /**
+     * The scheduled step of a task
+     */
+    public class ScheduledStep implements Runnable {
+
+        private final String name;
+        private final StepTask task;
+        private final AgentMetricItem metric;
+        // the time the step is expected to run, the lateness is the queue latency
+        private volatile long expectTime;
+        private volatile boolean done = false;
+        // the pending delayed step, and whether the step is woken while running
+        private ScheduledFuture<?> future;
+        private boolean woken = false;
+
+        private ScheduledStep(String name, StepTask task, AgentMetricItem metric) {
+            this.name = name;
+            this.task = task;
+            this.metric = metric;
+        }
+
+        @Override
+        public void run() {
+            long delay = runStep();
+            if (delay < 0) {
+                done = true;
+                return;
+            }
+            schedule(delay);
+        }
+
+        private synchronized void schedule(long delay) {
+            if (woken) {
+                woken = false;
+                delay = NEXT_STEP_NOW;
+            }
+            future = null;
+            expectTime = AgentUtils.getCurrentTime() + delay;
+            try {
+                if (delay == NEXT_STEP_NOW) {
+                    workers.execute(this);
+                } else {
+                    future = workers.schedule(this, delay, TimeUnit.MILLISECONDS);
+                }
+            } catch (RejectedExecutionException e) {
+                LOGGER.error("schedule step {} rejected", name, e);
+                done = true;
+            }
+        }
+
+        private void runLoop() {
+            AgentThreadFactory.nameThread(name);
+            long delay;
+            while ((delay = runStep()) >= 0) {
+                expectTime = AgentUtils.getCurrentTime() + delay;
+                if (delay > 0) {
+                    waitForDelay(delay);
+                }
+            }
+            done = true;
+        }
+
+        private synchronized void waitForDelay(long delay) {
+            try {
+                if (!woken) {
+                    wait(delay);
+                }
+            } catch (InterruptedException e) {
+                LOGGER.error("wait for step {} interrupted", name);
+            }
+            woken = false;
+        }
+
+        /**
+         * Run the next step as soon as possible instead of after its delay, such as when the memory the step waits
+         * for is granted. If the step is running, the step after it runs without delay.
+         */
+        public synchronized void wakeup() {
+            if (future != null && future.cancel(false)) {
+                future = null;
+                expectTime = AgentUtils.getCurrentTime();
+                try {
+                    workers.execute(this);
+                } catch (RejectedExecutionException e) {
+                    LOGGER.error("wakeup step {} rejected", name, e);
+                    done = true;
+                }
+                return;
+            }
+            woken = true;
+            notifyAll();
+        }
+
+        private long runStep() {
+            long startTime = AgentUtils.getCurrentTime();
+            long startCpuTime = cpuTimeEnabled ? threadMXBean.getCurrentThreadCpuTime() : 0;
+            long delay;
+            try {
+                delay = task.runStep();
+            } catch (Throwable e) {
+                LOGGER.error("run step {} error: ", name, e);
+                ThreadUtils.threadThrowableHandler(Thread.currentThread(), e);
+                delay = STEP_FINISHED;
+            }
+            if (metric != null) {
+                metric.stepRunCount.incrementAndGet();
+                metric.stepQueueLatencyMs.addAndGet(Math.max(0, startTime - expectTime));
+                if (cpuTimeEnabled) {
+                    metric.stepCpuTimeNs.addAndGet(threadMXBean.getCurrentThreadCpuTime() - startCpuTime);
+                }
+            }
+            return delay;
+        }
+
+        public boolean isDone() {
+            return done;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+}
@@ -18,56 +18,84 @@
 package org.apache.inlong.agent.core.task;
 
 import org.apache.inlong.agent.conf.AgentConfiguration;
+import org.apache.inlong.agent.metrics.AgentMetricItem;
+import org.apache.inlong.agent.metrics.AgentMetricItemSet;
 import org.apache.inlong.agent.utils.AgentUtils;
+import org.apache.inlong.common.metric.MetricRegister;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
 
+import static org.apache.inlong.agent.constant.FetcherConstants.AGENT_GLOBAL_MEMORY_BUDGET;
 import static org.apache.inlong.agent.constant.FetcherConstants.AGENT_GLOBAL_READER_QUEUE_PERMIT;
 import static org.apache.inlong.agent.constant.FetcherConstants.AGENT_GLOBAL_READER_SOURCE_PERMIT;
 import static org.apache.inlong.agent.constant.FetcherConstants.AGENT_GLOBAL_WRITER_PERMIT;
 import static org.apache.inlong.agent.constant.FetcherConstants.DEFAULT_AGENT_GLOBAL_READER_QUEUE_PERMIT;
 import static org.apache.inlong.agent.constant.FetcherConstants.DEFAULT_AGENT_GLOBAL_READER_SOURCE_PERMIT;
 import static org.apache.inlong.agent.constant.FetcherConstants.DEFAULT_AGENT_GLOBAL_WRITER_PERMIT;
+import static org.apache.inlong.agent.constant.TaskConstants.DEFAULT_TASK_MEMORY_WEIGHT;
+import static org.apache.inlong.agent.metrics.AgentMetricItem.KEY_INLONG_GROUP_ID;
+import static org.apache.inlong.agent.metrics.AgentMetricItem.KEY_INLONG_STREAM_ID;
+import static org.apache.inlong.agent.metrics.AgentMetricItem.KEY_PLUGIN_ID;
 
 /**
  * used to limit global memory to avoid oom
+ *
+ * The memory is a hierarchy of byte budgets: the agent budget is shared by the pools of the permit types, the
+ * capacity of a pool is shared by the tasks according to their weights, and the share of a task by its instances.
+ * A pool is used freely while nobody waits for it. Once an instance waits, only the tasks and instances under
+ * their fair share acquire directly, and the released bytes are granted to the waiting instance of the task using
+ * the least bytes per weight, which is woken instead of polling.
  */
 public class MemoryManager {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(MemoryManager.class);
+    // the owner of the permits acquired without a task, which never waits
+    private static final String UNTRACKED_ID = "";
+    private static final AgentMetricItemSet METRIC_ITEM_SET =
+            new AgentMetricItemSet(MemoryManager.class.getSimpleName());
+    static {
+        MetricRegister.register(METRIC_ITEM_SET);
+    }
     private static volatile MemoryManager memoryManager = null;
     private final AgentConfiguration conf;
-    private ConcurrentHashMap<String, Semaphore> semaphoreMap = new ConcurrentHashMap<>();
+    private ConcurrentHashMap<String, BytePool> poolMap = new ConcurrentHashMap<>();
+    private ConcurrentHashMap<String, TaskInfo> taskInfoMap = new ConcurrentHashMap<>();
     private ConcurrentHashMap<String, Long> lastPrintTime = new ConcurrentHashMap<>();
     private static final int PRINT_INTERVAL_MS = 1000;
     private Set<String> defaultSemaphoreTypes = new HashSet<>();
+    // the agent budget not configured is the sum of the pool capacities
+    private final boolean budgetConfigured;
+    private volatile long agentBudget;
+    private final AtomicLong agentUsed = new AtomicLong(0);
+    // whether an acquiring failed by the agent budget, so the bytes released should be granted in all pools
+    private volatile boolean agentLimited = false;
 
     private MemoryManager() {
         this.conf = AgentConfiguration.getAgentConf();
-        Semaphore semaphore = null;
-        semaphore = new Semaphore(
-                conf.getInt(AGENT_GLOBAL_READER_SOURCE_PERMIT, DEFAULT_AGENT_GLOBAL_READER_SOURCE_PERMIT));
-        semaphoreMap.put(AGENT_GLOBAL_READER_SOURCE_PERMIT, semaphore);
-        lastPrintTime.put(AGENT_GLOBAL_READER_SOURCE_PERMIT, 0L);
-        defaultSemaphoreTypes.add(AGENT_GLOBAL_READER_SOURCE_PERMIT);
-
-        semaphore = new Semaphore(
-                conf.getInt(AGENT_GLOBAL_READER_QUEUE_PERMIT, DEFAULT_AGENT_GLOBAL_READER_QUEUE_PERMIT));
-        semaphoreMap.put(AGENT_GLOBAL_READER_QUEUE_PERMIT, semaphore);
-        lastPrintTime.put(AGENT_GLOBAL_READER_QUEUE_PERMIT, 0L);
-        defaultSemaphoreTypes.add(AGENT_GLOBAL_READER_QUEUE_PERMIT);
-
-        semaphore = new Semaphore(
-                conf.getInt(AGENT_GLOBAL_WRITER_PERMIT, DEFAULT_AGENT_GLOBAL_WRITER_PERMIT));
-        semaphoreMap.put(AGENT_GLOBAL_WRITER_PERMIT, semaphore);
-        lastPrintTime.put(AGENT_GLOBAL_WRITER_PERMIT, 0L);
-        defaultSemaphoreTypes.add(AGENT_GLOBAL_WRITER_PERMIT);
+        long total = addDefaultPool(AGENT_GLOBAL_READER_SOURCE_PERMIT, DEFAULT_AGENT_GLOBAL_READER_SOURCE_PERMIT);
+        total += addDefaultPool(AGENT_GLOBAL_READER_QUEUE_PERMIT, DEFAULT_AGENT_GLOBAL_READER_QUEUE_PERMIT);
+        total += addDefaultPool(AGENT_GLOBAL_WRITER_PERMIT, DEFAULT_AGENT_GLOBAL_WRITER_PERMIT);
+        budgetConfigured = conf.hasKey(AGENT_GLOBAL_MEMORY_BUDGET);
+        agentBudget = conf.getLong(AGENT_GLOBAL_MEMORY_BUDGET, total);
+        LOGGER.info("memory manager agent budget {}", agentBudget);
+    }
+
+    private long addDefaultPool(String semaphoreType, int defaultPermit) {
+        int permit = conf.getInt(semaphoreType, defaultPermit);
+        poolMap.put(semaphoreType, new BytePool(semaphoreType, permit));
+        lastPrintTime.put(semaphoreType, 0L);
+        defaultSemaphoreTypes.add(semaphoreType);
+        return permit;
     }
 
     /**
@@ -85,56 +113,127 @@ public class MemoryManager {
     }
 
     public void addSemaphore(String semaphoreType, int permit) {
-        if (semaphoreMap.containsKey(semaphoreType)) {
+        if (poolMap.containsKey(semaphoreType)) {
             return;
         }
         synchronized (MemoryManager.class) {
-            if (semaphoreMap.containsKey(semaphoreType)) {
+            if (poolMap.containsKey(semaphoreType)) {
                 return;
             }
-            Semaphore semaphore = new Semaphore(permit);
-            semaphoreMap.put(semaphoreType, semaphore);
+            poolMap.put(semaphoreType, new BytePool(semaphoreType, permit));
             lastPrintTime.put(semaphoreType, 0L);
+            if (!budgetConfigured) {
+                agentBudget += permit;
+            }
+        }
+    }
+
+    /**
+     * register the task sharing the memory, the task not registered has the default weight and no metrics,
+     * registering it again updates its weight
+     */
+    public void registerTask(String taskId, String inlongGroupId, String inlongStreamId, int weight) {
+        int newWeight = Math.max(1, weight);
+        TaskInfo taskInfo =
+                taskInfoMap.computeIfAbsent(taskId, id -> new TaskInfo(inlongGroupId, inlongStreamId, newWeight));
+        if (taskInfo.weight == newWeight) {
+            return;
+        }
+        LOGGER.info("task {} memory weight changed from {} to {}", taskId, taskInfo.weight, newWeight);
+        taskInfo.weight = newWeight;
+        poolMap.values().forEach(pool -> pool.updateWeight(taskId, newWeight));
+    }
+
+    /**
+     * unregister the task removed, drop its weight and metrics
+     */
+    public void unregisterTask(String taskId) {
+        TaskInfo taskInfo = taskInfoMap.remove(taskId);
+        if (taskInfo != null) {
+            taskInfo.removeMetrics();
         }
     }
 
     public boolean tryAcquire(String semaphoreName, int permit) {
-        Semaphore semaphore = semaphoreMap.get(semaphoreName);
-        if (semaphore == null) {
-            LOGGER.error("tryAcquire {} not exist");
+        return tryAcquire(semaphoreName, permit, UNTRACKED_ID, UNTRACKED_ID, null);
+    }
+
+    /**
+     * Try to acquire the permit for the instance of the task without blocking. If failed, the instance waits in
+     * the pool until the permit is granted to it, then the waker is called and the next acquiring of the same permit
+     * succeeds.
+     *
+     * @param semaphoreName the permit type
+     * @param permit the bytes to acquire
+     * @param taskId the task id
+     * @param instanceId the instance id
+     * @param waker called once the permit is granted, may be null if the instance polls
+     * @return true if acquired
+     */
+    public boolean tryAcquire(String semaphoreName, int permit, String taskId, String instanceId, Runnable waker) {
+        BytePool pool = poolMap.get(semaphoreName);
+        if (pool == null) {
+            LOGGER.error("tryAcquire {} not exist", semaphoreName);
             return false;
         }
-        return semaphore.tryAcquire(permit);
+        return pool.tryAcquire(taskId, instanceId, permit, waker);
     }
 
     public void release(String semaphoreName, int permit) {
-        Semaphore semaphore = semaphoreMap.get(semaphoreName);
-        if (semaphore == null) {
-            LOGGER.error("release {} not exist");
+        release(semaphoreName, permit, UNTRACKED_ID, UNTRACKED_ID);
+    }
+
+    public void release(String semaphoreName, int permit, String taskId, String instanceId) {
+        BytePool pool = poolMap.get(semaphoreName);
+        if (pool == null) {
+            LOGGER.error("release {} not exist", semaphoreName);
+            return;
+        }
+        pool.release(taskId, instanceId, permit);
+    }
+
+    /**
+     * stop the instance waiting for the permit, the permit already granted to it is released
+     */
+    public void cancelWait(String semaphoreName, String taskId, String instanceId) {
+        BytePool pool = poolMap.get(semaphoreName);
+        if (pool == null) {
+            LOGGER.error("cancelWait {} not exist", semaphoreName);
             return;
         }
-        semaphore.release(permit);
+        pool.cancelWait(taskId, instanceId);
     }
 
     public int getLeft(String semaphoreName) {
-        Semaphore semaphore = semaphoreMap.get(semaphoreName);
-        if (semaphore == null) {
-            LOGGER.error("getLeft {} not exist");
+        BytePool pool = poolMap.get(semaphoreName);
+        if (pool == null) {
+            LOGGER.error("getLeft {} not exist", semaphoreName);
             return -1;
         }
-        return semaphore.availablePermits();
+        return pool.getLeft();
+    }
+
+    /**
+     * get the bytes used by the task in the pool, including the bytes granted to its waiting instances
+     */
+    public long getUsed(String semaphoreName, String taskId) {
+        BytePool pool = poolMap.get(semaphoreName);
+        if (pool == null) {
+            LOGGER.error("getUsed {} not exist", semaphoreName);
+            return -1;
+        }
+        return pool.getUsed(taskId);
     }
 
     public void printDetail(String semaphoreName, String detail) {
-        Semaphore semaphore = semaphoreMap.get(semaphoreName);
-        if (semaphore == null) {
+        BytePool pool = poolMap.get(semaphoreName);
+        if (pool == null) {
             LOGGER.error("printDetail {} not exist", semaphoreName);
             return;
         }
         if (AgentUtils.getCurrentTime() - lastPrintTime.get(semaphoreName) > PRINT_INTERVAL_MS) {
-            LOGGER.info("{} permit left {} wait {} {}", detail, semaphore.availablePermits(),
-                    semaphore.getQueueLength(),
-                    semaphoreName);
+            LOGGER.info("{} permit left {} wait {} tasks {} agent used {} {}", detail, pool.getLeft(),
+                    pool.getWaitingCount(), pool.getTaskCount(), agentUsed.get(), semaphoreName);
             lastPrintTime.put(semaphoreName, AgentUtils.getCurrentTime());
         }
     }
@@ -143,10 +242,370 @@ public class MemoryManager {
         printDetail(AGENT_GLOBAL_READER_SOURCE_PERMIT, "printAll");
         printDetail(AGENT_GLOBAL_READER_QUEUE_PERMIT, "printAll");
         printDetail(AGENT_GLOBAL_WRITER_PERMIT, "printAll");
-        semaphoreMap.entrySet().forEach(entry -> {
+        poolMap.entrySet().forEach(entry -> {
             if (!defaultSemaphoreTypes.contains(entry.getKey())) {
                 printDetail(entry.getKey(), "printAll");
             }
         });
     }
+
+    private boolean reserveAgentBudget(long bytes) {
+        while (true) {
+            long used = agentUsed.get();
+            if (used + bytes > agentBudget) {
+                agentLimited = true;
+                return false;
+            }
+            if (agentUsed.compareAndSet(used, used + bytes)) {
+                return true;
+            }
+        }
+    }
+
+    private void wake(List<Waiter> granted) {
+        for (Waiter waiter : granted) {
+            if (waiter.waker == null) {
+                continue;
+            }
+            try {
+                waiter.waker.run();
+            } catch (Throwable t) {
+                LOGGER.error("wake {} error", waiter.instanceId, t);
+            }
+        }
+    }
+
+    /**
+     * the bytes released by a pool may be waited by the other pools if the agent budget is used up
+     */
+    private void grantAllPools() {
+        if (!agentLimited) {
+            return;
+        }
+        agentLimited = false;
+        poolMap.values().forEach(pool -> wake(pool.grantWaiters()));
+    }
+
+    private static class TaskInfo {
+
+        private final String inlongGroupId;
+        private final String inlongStreamId;
+        private volatile int weight;
+        private final ConcurrentHashMap<String, AgentMetricItem> metrics = new ConcurrentHashMap<>();
+
+        private TaskInfo(String inlongGroupId, String inlongStreamId, int weight) {
+            this.inlongGroupId = inlongGroupId;
+            this.inlongStreamId = inlongStreamId;
+            this.weight = weight;
+        }
+
+        private AgentMetricItem getMetric(String poolName) {
+            return metrics.computeIfAbsent(poolName,
+                    name -> METRIC_ITEM_SET.findMetricItem(getDimensions(name)));
+        }
+
+        private void removeMetrics() {
+            metrics.keySet().forEach(name -> METRIC_ITEM_SET.removeMetricItem(getDimensions(name)));
+            metrics.clear();
+        }
+
+        private Map<String, String> getDimensions(String poolName) {
+            Map<String, String> dimensions = new HashMap<>();
+            dimensions.put(KEY_PLUGIN_ID, poolName);
+            dimensions.put(KEY_INLONG_GROUP_ID, inlongGroupId);
+            dimensions.put(KEY_INLONG_STREAM_ID, inlongStreamId);
+            return dimensions;
+        }
+    }
+
+    /**
+     * the bytes used by a task in a pool, exists while the task uses bytes or waits
+     */
+    private static class TaskAccount {
+
+        private final String taskId;
+        private int weight;
+        private final AgentMetricItem metric;
+        private final Map<String, InstanceAccount> instances = new HashMap<>();
+        private long used = 0;
+
+        private TaskAccount(String taskId, int weight, AgentMetricItem metric) {
+            this.taskId = taskId;
+            this.weight = weight;
+            this.metric = metric;
+        }
+    }
+
+    private static class InstanceAccount {
+
+        private long used = 0;
+        private Waiter waiter;
+    }
+
+    private static class Waiter {
+
+        private final TaskAccount task;
+        private final InstanceAccount instance;
+        private final String instanceId;
+        private final long bytes;
+        private final Runnable waker;
+        private final long waitStartTime = AgentUtils.getCurrentTime();
+        private boolean granted = false;
+
+        private Waiter(TaskAccount task, InstanceAccount instance, String instanceId, long bytes, Runnable waker) {
+            this.task = task;
+            this.instance = instance;
+            this.instanceId = instanceId;
+            this.bytes = bytes;
+            this.waker = waker;
+        }
+    }
+
+    /**
+     * the bytes of a permit type shared by the tasks
+     */
+    private class BytePool {
+
+        private final String name;
+        private final long capacity;
+        // the bytes used by the tasks, including the bytes granted to the waiting instances
+        private long used = 0;
+        // the sum of the weights of the tasks using bytes or waiting
+        private long activeWeight = 0;
+        private final Map<String, TaskAccount> accounts = new HashMap<>();
+        private final List<Waiter> waiters = new ArrayList<>();
+
+        private BytePool(String name, long capacity) {
+            this.name = name;
+            this.capacity = capacity;
+        }
+
+        private boolean tryAcquire(String taskId, String instanceId, long bytes, Runnable waker) {
+            long limited = limitBytes(bytes);
+            if (limited < bytes) {
+                LOGGER.warn("acquire {} bytes of {} over the capacity, limited to {}", bytes, name, limited);
+            }
+            List<Waiter> granted = new ArrayList<>();
+            boolean acquired;
+            synchronized (this) {
+                acquired = acquireLocked(taskId, instanceId, limited, waker, granted);
+            }
+            wake(granted);
+            return acquired;
+        }
+
+        private boolean acquireLocked(String taskId, String instanceId, long bytes, Runnable waker,
+                List<Waiter> granted) {
+            TaskAccount task = accounts.get(taskId);
+            InstanceAccount instance = task == null ? null : task.instances.get(instanceId);
+            if (instance != null && instance.waiter != null) {
+                Waiter waiter = instance.waiter;
+                if (!waiter.granted) {
+                    granted.addAll(grantWaitersLocked());
+                    if (!waiter.granted) {
+                        return false;
+                    }
+                }
+                instance.waiter = null;
+                if (waiter.bytes == bytes) {
+                    return true;
+                }
+                // the bytes granted are not the bytes acquired now
+                releaseLocked(task, instanceId, waiter.bytes);
+                task = accounts.get(taskId);
+                instance = task == null ? null : task.instances.get(instanceId);
+            }
+            if (canAcquire(taskId, task, instance, bytes) && reserveAgentBudget(bytes)) {
+                addUsed(taskId, instanceId, bytes);
+                return true;
+            }
+            if (!UNTRACKED_ID.equals(taskId)) {
+                task = getOrCreateAccount(taskId);
+                instance = task.instances.computeIfAbsent(instanceId, id -> new InstanceAccount());
+                instance.waiter = new Waiter(task, instance, instanceId, bytes, waker);
+                waiters.add(instance.waiter);
+                if (task.metric != null) {
+                    task.metric.memoryWaitCount.incrementAndGet();
+                }
+            }
+            return false;
+        }
+
+        /**
+         * nobody waits, or the task and the instance are under their fair shares
+         */
+        private boolean canAcquire(String taskId, TaskAccount task, InstanceAccount instance, long bytes) {
+            if (used + bytes > capacity) {
+                return false;
+            }
+            if (waiters.isEmpty()) {
+                return true;
+            }
+            long taskUsed = task == null ? 0 : task.used;
+            long instanceUsed = instance == null ? 0 : instance.used;
+            int weight = task == null ? getWeight(taskId) : task.weight;
+            long taskShare = capacity * weight / (activeWeight + (task == null ? weight : 0));
+            int instanceCount = task == null ? 1 : task.instances.size() + (instance == null ? 1 : 0);
+            return taskUsed + bytes <= taskShare && instanceUsed + bytes <= taskShare / instanceCount;
+        }
+
+        /**
+         * grant the bytes to the waiting instances of the tasks using the least bytes per weight, stop at the first
+         * one not fitting so that it is not starved by the smaller ones
+         */
+        private synchronized List<Waiter> grantWaiters() {
+            return grantWaitersLocked();
+        }
+
+        private List<Waiter> grantWaitersLocked() {
+            List<Waiter> granted = new ArrayList<>();
+            while (!waiters.isEmpty()) {
+                Waiter next = waiters.get(0);
+                for (Waiter waiter : waiters) {
+                    if (waiter.task.used * next.task.weight < next.task.used * waiter.task.weight) {
+                        next = waiter;
+                    }
+                }
+                if (used + next.bytes > capacity || !reserveAgentBudget(next.bytes)) {
+                    break;
+                }
+                waiters.remove(next);
+                next.granted = true;
+                addUsed(next.task, next.instance, next.bytes);
+                if (next.task.metric != null) {
+                    next.task.metric.memoryWaitMs.addAndGet(AgentUtils.getCurrentTime() - next.waitStartTime);
+                }
+                granted.add(next);
+            }
+            return granted;
+        }
+
+        private void release(String taskId, String instanceId, long bytes) {
+            List<Waiter> granted;
+            synchronized (this) {
+                TaskAccount task = accounts.get(taskId);
+                releaseLocked(task, instanceId, limitBytes(bytes));
+                granted = grantWaitersLocked();
+            }
+            wake(granted);
+            grantAllPools();
+        }
+
+        private void cancelWait(String taskId, String instanceId) {
+            List<Waiter> granted;
+            synchronized (this) {
+                TaskAccount task = accounts.get(taskId);
+                InstanceAccount instance = task == null ? null : task.instances.get(instanceId);
+                if (instance == null || instance.waiter == null) {
+                    return;
+                }
+                Waiter waiter = instance.waiter;
+                instance.waiter = null;
+                if (waiter.granted) {
+                    releaseLocked(task, instanceId, waiter.bytes);
+                } else {
+                    waiters.remove(waiter);
+                    if (task.metric != null) {
+                        task.metric.memoryWaitMs.addAndGet(AgentUtils.getCurrentTime() - waiter.waitStartTime);
+                    }
+                    removeIfIdle(task, instanceId, instance);
+                }
+                granted = grantWaitersLocked();
+            }
+            wake(granted);
+            grantAllPools();
+        }
+
+        /**
+         * the bytes over the capacity or the agent budget would never fit and block the waiters behind them, so
+         * they are limited to take the whole pool, and released the same way
+         */
+        private long limitBytes(long bytes) {
+            return Math.min(bytes, Math.min(capacity, agentBudget));
+        }
+
+        private void releaseLocked(TaskAccount task, String instanceId, long bytes) {
+            long released = Math.min(bytes, used);
+            used -= released;
+            agentUsed.addAndGet(-released);
+            if (task == null) {
+                return;
+            }
+            task.used = Math.max(0, task.used - bytes);
+            if (task.metric != null) {
+                task.metric.memoryUsedBytes.set(task.used);
+            }
+            InstanceAccount instance = task.instances.get(instanceId);
+            if (instance != null) {
+                instance.used = Math.max(0, instance.used - bytes);
+                removeIfIdle(task, instanceId, instance);
+            }
+        }
+
+        private void addUsed(String taskId, String instanceId, long bytes) {
+            TaskAccount task = getOrCreateAccount(taskId);
+            addUsed(task, task.instances.computeIfAbsent(instanceId, id -> new InstanceAccount()), bytes);
+        }
+
+        private void addUsed(TaskAccount task, InstanceAccount instance, long bytes) {
+            used += bytes;
+            task.used += bytes;
+            instance.used += bytes;
+            if (task.metric != null) {
+                task.metric.memoryUsedBytes.set(task.used);
+            }
+        }
+
+        private TaskAccount getOrCreateAccount(String taskId) {
+            return accounts.computeIfAbsent(taskId, id -> {
+                TaskInfo taskInfo = taskInfoMap.get(id);
+                TaskAccount task = new TaskAccount(id, getWeight(id),
+                        taskInfo == null ? null : taskInfo.getMetric(name));
+                activeWeight += task.weight;
+                return task;
+            });
+        }
+
+        private void removeIfIdle(TaskAccount task, String instanceId, InstanceAccount instance) {
+            if (instance.used > 0 || instance.waiter != null) {
+                return;
+            }
+            task.instances.remove(instanceId);
+            if (task.instances.isEmpty()) {
+                accounts.remove(task.taskId);
+                activeWeight -= task.weight;
+            }
+        }
+
+        private synchronized void updateWeight(String taskId, int weight) {
+            TaskAccount task = accounts.get(taskId);
+            if (task == null) {
+                return;
+            }
+            activeWeight += weight - task.weight;
+            task.weight = weight;
+        }
+
+        private int getWeight(String taskId) {
+            TaskInfo taskInfo = taskInfoMap.get(taskId);
+            return taskInfo == null ? DEFAULT_TASK_MEMORY_WEIGHT : taskInfo.weight;
+        }
+
+        private synchronized int getLeft() {
+            return (int) (capacity - used);
+        }
+
+        private synchronized long getUsed(String taskId) {
+            TaskAccount task = accounts.get(taskId);
+            return task == null ? 0 : task.used;
+        }
+
+        private synchronized int getWaitingCount() {
+            return waiters.size();
+        }
+
+        private synchronized int getTaskCount() {
+            return accounts.size();
+        }
+    }
 }
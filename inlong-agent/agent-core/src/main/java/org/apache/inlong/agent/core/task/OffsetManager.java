@@ -25,6 +25,7 @@ import org.apache.inlong.agent.conf.TaskProfile;
 import org.apache.inlong.agent.constant.AgentConstants;
 import org.apache.inlong.agent.constant.CycleUnitType;
 import org.apache.inlong.agent.metrics.audit.AuditUtils;
+import org.apache.inlong.agent.store.BufferedOffsetStore;
 import org.apache.inlong.agent.store.InstanceStore;
 import org.apache.inlong.agent.store.OffsetStore;
 import org.apache.inlong.agent.store.Store;
@@ -56,6 +57,7 @@ public class OffsetManager extends AbstractDaemon {
     public static final long SEVEN_DAY_TIMEOUT_INTERVAL_MS = 7 * 24 * 3600 * 1000;
     private static volatile OffsetManager offsetManager = null;
     private final OffsetStore offsetStore;
+    private final long flushInterval;
     private final InstanceStore instanceStore;
     private final TaskStore taskStore;
 
@@ -64,7 +66,13 @@ public class OffsetManager extends AbstractDaemon {
             Store offsetBasicStore) {
         taskStore = new TaskStore(taskBasicStore);
         instanceStore = new InstanceStore(instanceBasicStore);
-        offsetStore = new OffsetStore(offsetBasicStore);
+        flushInterval = AgentConfiguration.getAgentConf().getLong(AgentConstants.AGENT_OFFSET_FLUSH_INTERVAL_MS,
+                AgentConstants.DEFAULT_AGENT_OFFSET_FLUSH_INTERVAL_MS);
+        if (flushInterval > 0) {
+            offsetStore = new BufferedOffsetStore(offsetBasicStore);
+        } else {
+            offsetStore = new OffsetStore(offsetBasicStore);
+        }
     }
 
     /**
@@ -88,6 +96,24 @@ public class OffsetManager extends AbstractDaemon {
         };
     }
 
+    /**
+     * thread for flushing the offsets kept in memory to the store.
+     */
+    private Runnable flushThread() {
+        return () -> {
+            Thread.currentThread().setName("offset-manager-flush");
+            while (isRunnable()) {
+                try {
+                    AgentUtils.silenceSleepInMs(flushInterval);
+                    offsetStore.flush();
+                } catch (Throwable ex) {
+                    LOGGER.error("offset-manager-flush: ", ex);
+                    ThreadUtils.threadThrowableHandler(Thread.currentThread(), ex);
+                }
+            }
+        };
+    }
+
     /**
      * task position manager singleton, can only generated by agent manager
      */
@@ -186,11 +212,15 @@ public class OffsetManager extends AbstractDaemon {
     @Override
     public void start() throws Exception {
         submitWorker(coreThread());
+        if (flushInterval > 0) {
+            submitWorker(flushThread());
+        }
     }
 
     @Override
     public void stop() throws Exception {
-
+        waitForTerminate();
+        offsetStore.flush();
     }
 
     public static long getScanCycleRange(String cycleUnit) {
@@ -530,6 +530,7 @@ public class TaskManager extends AbstractDaemon {
         }
         oldTask.destroy();
         taskMap.remove(oldTask.getTaskId());
+        MemoryManager.getInstance().unregisterTask(taskId);
         LOGGER.info(
                 "delete task {} from memory, taskMap size {}, runningPool task total {}, runningPool task active {}",
                 oldTask.getTaskId(), taskMap.size(), runningPool.getTaskCount(),
@@ -580,5 +581,6 @@ public class TaskManager extends AbstractDaemon {
         stopAllTasks();
         waitForTerminate();
         runningPool.shutdown();
+        OffsetManager.getInstance().stop();
     }
 }
@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.agent.core;
+
+import org.apache.inlong.agent.conf.AgentConfiguration;
+import org.apache.inlong.agent.constant.AgentConstants;
+import org.apache.inlong.agent.core.instance.InstanceScheduler;
+import org.apache.inlong.agent.core.instance.InstanceScheduler.ScheduledStep;
+import org.apache.inlong.agent.metrics.AgentMetricItem;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.awaitility.Awaitility.await;
+
+public class TestInstanceScheduler {
+
+    private static final int TASK_COUNT = 500;
+    private static final int STEP_COUNT = 10;
+    private static final int WORKER_NUM = 4;
+
+    @BeforeClass
+    public static void setup() {
+        // set before the scheduler singleton is created
+        AgentConfiguration.getAgentConf().setInt(AgentConstants.AGENT_INSTANCE_SCHEDULER_WORKER_NUM, WORKER_NUM);
+    }
+
+    @Test
+    public void testSharedWorkers() {
+        Set<String> threadNames = ConcurrentHashMap.newKeySet();
+        List<AgentMetricItem> metrics = new ArrayList<>();
+        List<ScheduledStep> steps = new ArrayList<>();
+        for (int i = 0; i < TASK_COUNT; i++) {
+            AgentMetricItem metric = new AgentMetricItem();
+            AtomicInteger count = new AtomicInteger(0);
+            metrics.add(metric);
+            steps.add(InstanceScheduler.getInstance().submit("step-" + i, () -> {
+                threadNames.add(Thread.currentThread().getName());
+                int step = count.incrementAndGet();
+                if (step >= STEP_COUNT) {
+                    return InstanceScheduler.STEP_FINISHED;
+                }
+                return step % 2 == 0 ? InstanceScheduler.NEXT_STEP_NOW : 5;
+            }, metric, false));
+        }
+        await().atMost(30, TimeUnit.SECONDS).until(() -> steps.stream().allMatch(ScheduledStep::isDone));
+        for (AgentMetricItem metric : metrics) {
+            Assert.assertEquals(STEP_COUNT, metric.stepRunCount.get());
+        }
+        // all the tasks share the scheduler workers
+        Assert.assertTrue(threadNames.size() <= WORKER_NUM);
+        threadNames.forEach(name -> Assert.assertTrue(name.startsWith("instance-scheduler")));
+    }
+
+    @Test
+    public void testBlockingAndFailedStep() {
+        AtomicInteger count = new AtomicInteger(0);
+        ScheduledStep blocking = InstanceScheduler.getInstance().submit("blocking-step", () -> {
+            Assert.assertTrue(Thread.currentThread().getName().contains("blocking-step"));
+            return count.incrementAndGet() < 3 ? 1 : InstanceScheduler.STEP_FINISHED;
+        }, null, true);
+        await().atMost(10, TimeUnit.SECONDS).until(blocking::isDone);
+        Assert.assertEquals(3, count.get());
+        // a failed step finishes the task
+        ScheduledStep failed = InstanceScheduler.getInstance().submit("failed-step", () -> {
+            throw new IllegalStateException("step failed");
+        }, null, false);
+        await().atMost(10, TimeUnit.SECONDS).until(failed::isDone);
+    }
+
+    @Test
+    public void testWakeup() {
+        AtomicInteger count = new AtomicInteger(0);
+        ScheduledStep step = InstanceScheduler.getInstance().submit("wakeup-step",
+                () -> count.incrementAndGet() < 2 ? 60 * 1000 : InstanceScheduler.STEP_FINISHED, null, false);
+        await().atMost(10, TimeUnit.SECONDS).until(() -> count.get() == 1);
+        // the step delayed for a minute runs as soon as it is woken
+        step.wakeup();
+        await().atMost(10, TimeUnit.SECONDS).until(step::isDone);
+        Assert.assertEquals(2, count.get());
+    }
+}
@@ -24,6 +24,8 @@ import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static org.apache.inlong.agent.constant.FetcherConstants.AGENT_GLOBAL_READER_QUEUE_PERMIT;
 import static org.apache.inlong.agent.constant.FetcherConstants.AGENT_GLOBAL_READER_SOURCE_PERMIT;
 import static org.apache.inlong.agent.constant.FetcherConstants.AGENT_GLOBAL_WRITER_PERMIT;
@@ -72,4 +74,92 @@ public class TestMemoryManager {
         Assert.assertTrue(suc);
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testFairShare() {
+        String pool = "test.fair.permit";
+        MemoryManager manager = MemoryManager.getInstance();
+        manager.addSemaphore(pool, 100);
+        manager.registerTask("task1", "group1", "stream1", 1);
+        manager.registerTask("task2", "group1", "stream2", 3);
+        AtomicInteger task1Woken = new AtomicInteger(0);
+        AtomicInteger task2Woken = new AtomicInteger(0);
+        // the hot task uses the whole pool while nobody waits
+        Assert.assertTrue(manager.tryAcquire(pool, 100, "task1", "ins1", task1Woken::incrementAndGet));
+        Assert.assertFalse(manager.tryAcquire(pool, 40, "task2", "ins2", task2Woken::incrementAndGet));
+        Assert.assertFalse(manager.tryAcquire(pool, 10, "task1", "ins1", task1Woken::incrementAndGet));
+        // the released bytes are granted to the task using the least bytes per weight first
+        manager.release(pool, 60, "task1", "ins1");
+        Assert.assertEquals(1, task2Woken.get());
+        Assert.assertEquals(1, task1Woken.get());
+        Assert.assertTrue(manager.tryAcquire(pool, 40, "task2", "ins2", task2Woken::incrementAndGet));
+        Assert.assertTrue(manager.tryAcquire(pool, 10, "task1", "ins1", task1Woken::incrementAndGet));
+        Assert.assertEquals(50, manager.getUsed(pool, "task1"));
+        Assert.assertEquals(40, manager.getUsed(pool, "task2"));
+        Assert.assertEquals(10, manager.getLeft(pool));
+        // the bytes released are kept for the first waiter instead of the smaller later ones
+        Assert.assertFalse(manager.tryAcquire(pool, 60, "task1", "ins1", task1Woken::incrementAndGet));
+        manager.release(pool, 40, "task2", "ins2");
+        Assert.assertEquals(1, task1Woken.get());
+        // while task1 waits, task2 under its fair share acquires directly but task1 over its share does not
+        Assert.assertTrue(manager.tryAcquire(pool, 30, "task2", "ins3", task2Woken::incrementAndGet));
+        Assert.assertFalse(manager.tryAcquire(pool, 10, "task1", "ins4", task1Woken::incrementAndGet));
+        // the waiting stops with the instance, and the bytes granted meanwhile are released
+        manager.cancelWait(pool, "task1", "ins1");
+        Assert.assertEquals(2, task1Woken.get());
+        manager.cancelWait(pool, "task1", "ins4");
+        manager.release(pool, 30, "task2", "ins3");
+        manager.release(pool, 50, "task1", "ins1");
+        Assert.assertEquals(100, manager.getLeft(pool));
+        Assert.assertEquals(0, manager.getUsed(pool, "task1"));
+        Assert.assertEquals(0, manager.getUsed(pool, "task2"));
+    }
+
+    @Test
+    public void testWeightUpdate() {
+        String pool = "test.weight.permit";
+        MemoryManager manager = MemoryManager.getInstance();
+        manager.addSemaphore(pool, 100);
+        manager.registerTask("task3", "group1", "stream3", 1);
+        manager.registerTask("task4", "group1", "stream4", 1);
+        // task3 waits, so task4 acquires only within its fair share
+        Assert.assertTrue(manager.tryAcquire(pool, 30, "task3", "ins5", null));
+        Assert.assertFalse(manager.tryAcquire(pool, 80, "task3", "ins5", null));
+        Assert.assertFalse(manager.tryAcquire(pool, 60, "task4", "ins6", null));
+        manager.cancelWait(pool, "task4", "ins6");
+        // registering again updates the weight and so the fair share
+        manager.registerTask("task4", "group1", "stream4", 3);
+        Assert.assertTrue(manager.tryAcquire(pool, 60, "task4", "ins6", null));
+        manager.release(pool, 60, "task4", "ins6");
+        // the task unregistered falls back to the default weight
+        manager.unregisterTask("task4");
+        Assert.assertFalse(manager.tryAcquire(pool, 60, "task4", "ins6", null));
+        manager.cancelWait(pool, "task4", "ins6");
+        manager.cancelWait(pool, "task3", "ins5");
+        manager.release(pool, 30, "task3", "ins5");
+        Assert.assertEquals(100, manager.getLeft(pool));
+    }
+
+    @Test
+    public void testOverCapacity() {
+        String pool = "test.capacity.permit";
+        MemoryManager manager = MemoryManager.getInstance();
+        manager.addSemaphore(pool, 100);
+        AtomicInteger task5Woken = new AtomicInteger(0);
+        AtomicInteger task6Woken = new AtomicInteger(0);
+        Assert.assertTrue(manager.tryAcquire(pool, 50, "task5", "ins7", task5Woken::incrementAndGet));
+        // the request over the capacity waits for the whole pool instead of blocking the pool forever
+        Assert.assertFalse(manager.tryAcquire(pool, 150, "task6", "ins8", task6Woken::incrementAndGet));
+        manager.release(pool, 50, "task5", "ins7");
+        Assert.assertEquals(1, task6Woken.get());
+        Assert.assertTrue(manager.tryAcquire(pool, 150, "task6", "ins8", task6Woken::incrementAndGet));
+        Assert.assertEquals(0, manager.getLeft(pool));
+        // the waiters behind it are granted once it is released
+        Assert.assertFalse(manager.tryAcquire(pool, 10, "task5", "ins7", task5Woken::incrementAndGet));
+        manager.release(pool, 150, "task6", "ins8");
+        Assert.assertEquals(1, task5Woken.get());
+        Assert.assertTrue(manager.tryAcquire(pool, 10, "task5", "ins7", task5Woken::incrementAndGet));
+        manager.release(pool, 10, "task5", "ins7");
+        Assert.assertEquals(100, manager.getLeft(pool));
+        Assert.assertEquals(0, manager.getUsed(pool, "task6"));
+    }
+}
@@ -21,7 +21,10 @@ import org.apache.inlong.agent.conf.InstanceProfile;
 import org.apache.inlong.agent.core.instance.ActionType;
 import org.apache.inlong.agent.core.instance.InstanceAction;
 import org.apache.inlong.agent.core.instance.InstanceManager;
+import org.apache.inlong.agent.core.instance.InstanceScheduler;
 import org.apache.inlong.agent.core.task.OffsetManager;
+import org.apache.inlong.agent.metrics.AgentMetricItem;
+import org.apache.inlong.agent.metrics.AgentMetricItemSet;
 import org.apache.inlong.agent.metrics.audit.AuditUtils;
 import org.apache.inlong.agent.plugin.Instance;
 import org.apache.inlong.agent.plugin.Message;
@@ -31,14 +34,20 @@ import org.apache.inlong.agent.state.State;
 import org.apache.inlong.agent.utils.AgentUtils;
 import org.apache.inlong.agent.utils.ThreadUtils;
 import org.apache.inlong.common.enums.InstanceStateEnum;
+import org.apache.inlong.common.metric.MetricRegister;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 import static org.apache.inlong.agent.constant.TaskConstants.TASK_AUDIT_VERSION;
+import static org.apache.inlong.agent.metrics.AgentMetricItem.KEY_INLONG_GROUP_ID;
+import static org.apache.inlong.agent.metrics.AgentMetricItem.KEY_INLONG_STREAM_ID;
+import static org.apache.inlong.agent.metrics.AgentMetricItem.KEY_PLUGIN_ID;
 
 /**
  * common instance contains source and sink.
@@ -55,6 +64,12 @@ public abstract class CommonInstance extends Instance {
     private static final int DESTROY_LOOP_WAIT_TIME_MS = 10;
     private static final int CHECK_FINISH_AT_LEAST_COUNT = 5;
     private final int WRITE_FAILED_WAIT_TIME_MS = 10;
+    private static final int MAX_MSG_COUNT_PER_STEP = 1000;
+    private static final AgentMetricItemSet METRIC_ITEM_SET =
+            new AgentMetricItemSet(CommonInstance.class.getSimpleName());
+    static {
+        MetricRegister.register(METRIC_ITEM_SET);
+    }
     private InstanceManager instanceManager;
     private volatile boolean running = false;
     private volatile boolean inited = false;
@@ -62,6 +77,10 @@ public abstract class CommonInstance extends Instance {
     private int heartbeatCheckCount = 0;
     private long heartBeatStartTime = AgentUtils.getCurrentTime();
     protected long auditVersion;
+    // the message failed to write to sink, only accessed by the instance steps
+    private Message pendingMsg;
+    private boolean readEnd = false;
+    private AgentMetricItem instanceMetric;
 
     @Override
     public boolean init(Object srcManager, InstanceProfile srcProfile) {
@@ -70,6 +89,11 @@ public abstract class CommonInstance extends Instance {
             profile = srcProfile;
             auditVersion = Long.parseLong(srcProfile.get(TASK_AUDIT_VERSION));
             setInodeInfo(profile);
+            Map<String, String> dimensions = new HashMap<>();
+            dimensions.put(KEY_PLUGIN_ID, this.getClass().getSimpleName());
+            dimensions.put(KEY_INLONG_GROUP_ID, profile.getInlongGroupId());
+            dimensions.put(KEY_INLONG_STREAM_ID, profile.getInlongStreamId());
+            instanceMetric = METRIC_ITEM_SET.findMetricItem(dimensions);
             LOGGER.info("task id: {} submit new instance {} profile detail {}.", profile.getTaskId(),
                     profile.getInstanceId(), profile.toJsonStr());
             source = (Source) Class.forName(profile.getSourceClass()).newInstance();
@@ -122,58 +146,94 @@ public abstract class CommonInstance extends Instance {
 
     @Override
     public void run() {
-        Thread.currentThread().setName("instance-core-" + getTaskId() + "-" + getInstanceId());
         running = true;
         try {
-            doRun();
+            source.start();
         } catch (Throwable e) {
             LOGGER.error("do run error: ", e);
             ThreadUtils.threadThrowableHandler(Thread.currentThread(), e);
+            running = false;
+            return;
         }
-        running = false;
+        InstanceScheduler.getInstance().submit("instance-core-" + getTaskId() + "-" + getInstanceId(),
+                this::runStep, instanceMetric, false);
     }
 
-    private void doRun() {
-        source.start();
-        while (!isFinished()) {
+    private long runStep() {
+        long delay;
+        try {
+            delay = doRunStep();
+        } catch (Throwable e) {
+            LOGGER.error("do run error: ", e);
+            ThreadUtils.threadThrowableHandler(Thread.currentThread(), e);
+            delay = InstanceScheduler.STEP_FINISHED;
+        }
+        if (delay == InstanceScheduler.STEP_FINISHED) {
+            running = false;
+        }
+        return delay;
+    }
+
+    /**
+     * Move at most MAX_MSG_COUNT_PER_STEP messages from source to sink, the message failed to write is
+     * written again in the next step.
+     *
+     * @return the delay before the next step
+     */
+    private long doRunStep() {
+        if (isFinished()) {
+            return InstanceScheduler.STEP_FINISHED;
+        }
+        if (readEnd) {
+            return handleReadEnd();
+        }
+        if (pendingMsg != null) {
+            if (!writeToSink(pendingMsg)) {
+                return WRITE_FAILED_WAIT_TIME_MS;
+            }
+            pendingMsg = null;
+        }
+        for (int i = 0; i < MAX_MSG_COUNT_PER_STEP; i++) {
             if (!source.sourceExist()) {
                 if (handleDeleted()) {
-                    break;
-                } else {
-                    LOGGER.error("instance manager action queue is full: taskId {}",
-                            instanceManager.getTaskId());
-                    AgentUtils.silenceSleepInMs(CORE_THREAD_SLEEP_TIME);
-                    continue;
+                    return InstanceScheduler.STEP_FINISHED;
                 }
+                LOGGER.error("instance manager action queue is full: taskId {}",
+                        instanceManager.getTaskId());
+                return CORE_THREAD_SLEEP_TIME;
             }
-            Message msg = source.read();
+            Message msg = source.readNoWait();
             if (msg == null) {
                 if (source.sourceFinish() && sink.sinkFinish()) {
                     checkFinishCount++;
                     if (checkFinishCount > CHECK_FINISH_AT_LEAST_COUNT) {
-                        handleReadEnd();
-                        break;
+                        readEnd = true;
+                        return handleReadEnd();
                     }
                 } else {
                     checkFinishCount = 0;
                 }
                 heartbeatStatic();
-                AgentUtils.silenceSleepInMs(CORE_THREAD_SLEEP_TIME);
-            } else {
-                boolean suc = false;
-                while (!isFinished() && !suc) {
-                    suc = sink.write(msg);
-                    if (!suc) {
-                        heartbeatStatic();
-                        AgentUtils.silenceSleepInMs(WRITE_FAILED_WAIT_TIME_MS);
-                    }
-                }
-                heartbeatCheckCount++;
-                if (heartbeatCheckCount > HEARTBEAT_CHECK_GAP) {
-                    heartbeatStatic();
-                }
+                return CORE_THREAD_SLEEP_TIME;
             }
+            if (!writeToSink(msg)) {
+                pendingMsg = msg;
+                return WRITE_FAILED_WAIT_TIME_MS;
+            }
+        }
+        return InstanceScheduler.NEXT_STEP_NOW;
+    }
+
+    private boolean writeToSink(Message msg) {
+        if (!sink.write(msg)) {
+            heartbeatStatic();
+            return false;
+        }
+        heartbeatCheckCount++;
+        if (heartbeatCheckCount > HEARTBEAT_CHECK_GAP) {
+            heartbeatStatic();
         }
+        return true;
     }
 
     private void heartbeatStatic() {
@@ -185,12 +245,13 @@ public abstract class CommonInstance extends Instance {
         }
     }
 
-    private void handleReadEnd() {
-        while (!isFinished() && !instanceManager.submitAction(new InstanceAction(ActionType.FINISH, profile))) {
-            LOGGER.error("instance manager action queue is full: taskId {}",
-                    instanceManager.getTaskId());
-            AgentUtils.silenceSleepInMs(CORE_THREAD_SLEEP_TIME);
+    private long handleReadEnd() {
+        if (instanceManager.submitAction(new InstanceAction(ActionType.FINISH, profile))) {
+            return InstanceScheduler.STEP_FINISHED;
         }
+        LOGGER.error("instance manager action queue is full: taskId {}",
+                instanceManager.getTaskId());
+        return CORE_THREAD_SLEEP_TIME;
     }
 
     private boolean handleDeleted() {
@@ -17,10 +17,10 @@
 
 package org.apache.inlong.agent.plugin.sinks;
 
-import org.apache.inlong.agent.common.AgentThreadFactory;
 import org.apache.inlong.agent.conf.InstanceProfile;
 import org.apache.inlong.agent.conf.OffsetProfile;
 import org.apache.inlong.agent.constant.CommonConstants;
+import org.apache.inlong.agent.core.instance.InstanceScheduler;
 import org.apache.inlong.agent.core.task.MemoryManager;
 import org.apache.inlong.agent.core.task.OffsetManager;
 import org.apache.inlong.agent.message.EndMessage;
@@ -43,8 +43,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.SynchronousQueue;
-import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
@@ -61,11 +59,6 @@ public class ProxySink extends AbstractSink {
     private final int LOOP_WAIT_TIME_MS = 10;
     public final int SAVE_OFFSET_INTERVAL_MS = 1000;
     public volatile long lastFlushOffset = AgentUtils.getCurrentTime();
-    private static final ThreadPoolExecutor EXECUTOR_SERVICE = new ThreadPoolExecutor(
-            0, Integer.MAX_VALUE,
-            1L, TimeUnit.SECONDS,
-            new SynchronousQueue<>(),
-            new AgentThreadFactory("proxy-sink"));
     private MessageFilter messageFilter;
     private Sender sender;
     private byte[] fieldSplitter;
@@ -77,6 +70,9 @@ public class ProxySink extends AbstractSink {
     private final ReentrantReadWriteLock packageAckInfoLock = new ReentrantReadWriteLock(true);
     private volatile boolean offsetRunning = false;
     private OffsetManager offsetManager;
+    // the batch not sent by the last flush step, sent first in the next step
+    private SenderMessage pendingMessage;
+    private int pendingRetry = 0;
 
     @Override
     public boolean write(Message message) {
@@ -95,8 +91,9 @@ public class ProxySink extends AbstractSink {
                 return true;
             }
             ProxyMessage proxyMessage = new ProxyMessage(message);
-            boolean writerPermitSuc = MemoryManager.getInstance()
-                    .tryAcquire(AGENT_GLOBAL_WRITER_PERMIT, message.getBody().length);
+            // the instance retries the message in its next step, the permit granted meanwhile is kept for it
+            boolean writerPermitSuc = MemoryManager.getInstance().tryAcquire(AGENT_GLOBAL_WRITER_PERMIT,
+                    message.getBody().length, profile.getTaskId(), profile.getInstanceId(), null);
             if (!writerPermitSuc) {
                 MemoryManager.getInstance().printDetail(AGENT_GLOBAL_WRITER_PERMIT, "proxy sink");
                 return false;
@@ -106,7 +103,9 @@ public class ProxySink extends AbstractSink {
             if (suc) {
                 addAckInfo(proxyMessage.getAckInfo());
             } else {
-                MemoryManager.getInstance().release(AGENT_GLOBAL_WRITER_PERMIT, message.getBody().length);
+                MemoryManager.getInstance().release(AGENT_GLOBAL_WRITER_PERMIT, message.getBody().length,
+                        profile.getTaskId(),
+                        profile.getInstanceId());
                 // increment the count of failed sinks
                 sinkMetric.sinkFailCount.incrementAndGet();
             }
@@ -130,37 +129,53 @@ public class ProxySink extends AbstractSink {
     }
 
     /**
-     * flush cache by batch
+     * flush cache by batch, the batches wait in cache while the sender resends the failed ones
      *
-     * @return thread runner
+     * @return the delay before the next step
      */
-    private Runnable coreThread() {
-        return () -> {
-            AgentThreadFactory.nameThread(
-                    "flushCache-" + profile.getTaskId() + "-" + profile.getInstanceId());
-            LOGGER.info("start flush cache {}:{} flush interval {}", inlongGroupId, sourceName, batchFlushInterval);
-            running = true;
-            while (!shutdown) {
-                try {
-                    sendMessageFromCache();
-                } catch (Throwable e) {
-                    LOGGER.error("send message from cache error: ", e);
-                }
-                AgentUtils.silenceSleepInMs(batchFlushInterval);
-            }
+    private long flushCacheStep() {
+        if (shutdown) {
             LOGGER.info("stop flush cache {}:{}", inlongGroupId, sourceName);
             running = false;
-        };
+            return InstanceScheduler.STEP_FINISHED;
+        }
+        long delay = 0;
+        try {
+            delay = sendMessageFromCache();
+        } catch (Throwable e) {
+            LOGGER.error("send message from cache error: ", e);
+        }
+        return Math.max(delay, batchFlushInterval);
     }
 
-    public void sendMessageFromCache() {
+    /**
+     * send the cached batches without waiting for the sender
+     *
+     * @return 0 if all the batches are sent, else the delay before sending the pending one again
+     */
+    public long sendMessageFromCache() {
+        if (pendingMessage != null) {
+            long delay = sender.trySendBatch(pendingMessage, pendingRetry);
+            if (delay > 0) {
+                pendingRetry++;
+                return delay;
+            }
+            pendingMessage = null;
+            pendingRetry = 0;
+        }
         ConcurrentHashMap<String, LinkedBlockingQueue<ProxyMessage>> messageQueueMap = cache.getMessageQueueMap();
         for (Map.Entry<String, LinkedBlockingQueue<ProxyMessage>> entry : messageQueueMap.entrySet()) {
             SenderMessage senderMessage = cache.fetchSenderMessage(entry.getKey(), entry.getValue());
             if (senderMessage == null) {
                 continue;
             }
-            sender.sendBatch(senderMessage);
+            long delay = sender.trySendBatch(senderMessage, 0);
+            if (delay > 0) {
+                // keep the batch, and try it again in the next step
+                pendingMessage = senderMessage;
+                pendingRetry = 1;
+                return delay;
+            }
             if (AgentUtils.getCurrentTime() - lastPrintTime > TimeUnit.SECONDS.toMillis(1)) {
                 lastPrintTime = AgentUtils.getCurrentTime();
                 LOGGER.info("send groupId {}, streamId {}, message size {}, taskId {}, "
@@ -170,6 +185,7 @@ public class ProxySink extends AbstractSink {
                         senderMessage.getDataTime());
             }
         }
+        return 0;
     }
 
     @Override
@@ -181,8 +197,16 @@ public class ProxySink extends AbstractSink {
         offsetManager = OffsetManager.getInstance();
         sender = SenderManager.getInstance().getSender(profile.getTaskId(), profile);
         try {
-            EXECUTOR_SERVICE.execute(coreThread());
-            EXECUTOR_SERVICE.execute(flushOffset());
+            LOGGER.info("start flush cache {}:{} flush interval {}", inlongGroupId, sourceName, batchFlushInterval);
+            running = true;
+            InstanceScheduler.getInstance().submit(
+                    "flushCache-" + profile.getTaskId() + "-" + profile.getInstanceId(),
+                    this::flushCacheStep, sinkMetric, false);
+            LOGGER.info("start flush offset {}:{}", inlongGroupId, sourceName);
+            offsetRunning = true;
+            InstanceScheduler.getInstance().submit(
+                    "flushOffset-" + profile.getTaskId() + "-" + profile.getInstanceId(),
+                    this::flushOffsetStep, sinkMetric, false);
             inited = true;
         } catch (Throwable ex) {
             shutdown = true;
@@ -238,24 +262,19 @@ public class ProxySink extends AbstractSink {
     /**
      * flushOffset
      *
-     * @return thread runner
+     * @return the delay before the next step
      */
-    private Runnable flushOffset() {
-        return () -> {
-            AgentThreadFactory.nameThread(
-                    "flushOffset-" + profile.getTaskId() + "-" + profile.getInstanceId());
-            LOGGER.info("start flush offset {}:{}", inlongGroupId, sourceName);
-            offsetRunning = true;
-            while (!shutdown) {
-                if (AgentUtils.getCurrentTime() - lastFlushOffset > SAVE_OFFSET_INTERVAL_MS) {
-                    doFlushOffset();
-                    lastFlushOffset = AgentUtils.getCurrentTime();
-                }
-                AgentUtils.silenceSleepInMs(LOOP_WAIT_TIME_MS);
-            }
+    private long flushOffsetStep() {
+        if (shutdown) {
             LOGGER.info("stop flush offset {}:{}", inlongGroupId, sourceName);
             offsetRunning = false;
-        };
+            return InstanceScheduler.STEP_FINISHED;
+        }
+        if (AgentUtils.getCurrentTime() - lastFlushOffset > SAVE_OFFSET_INTERVAL_MS) {
+            doFlushOffset();
+            lastFlushOffset = AgentUtils.getCurrentTime();
+        }
+        return LOOP_WAIT_TIME_MS;
     }
 
     /**
@@ -273,7 +292,8 @@ public class ProxySink extends AbstractSink {
                 break;
             }
         }
-        MemoryManager.getInstance().release(AGENT_GLOBAL_WRITER_PERMIT, lenToRelease);
+        MemoryManager.getInstance().release(AGENT_GLOBAL_WRITER_PERMIT, lenToRelease, profile.getTaskId(),
+                profile.getInstanceId());
         if (info != null) {
             LOGGER.info("save offset {} taskId {} instanceId {} ackInfoList {}", info.getOffset(), profile.getTaskId(),
                     profile.getInstanceId(), ackInfoList.size());
@@ -288,8 +308,12 @@ public class ProxySink extends AbstractSink {
         doFlushOffset();
         packageAckInfoLock.writeLock().lock();
         for (int i = 0; i < ackInfoList.size();) {
-            MemoryManager.getInstance().release(AGENT_GLOBAL_WRITER_PERMIT, ackInfoList.remove(i).getLen());
+            MemoryManager.getInstance().release(AGENT_GLOBAL_WRITER_PERMIT, ackInfoList.remove(i).getLen(),
+                    profile.getTaskId(),
+                    profile.getInstanceId());
         }
         packageAckInfoLock.writeLock().unlock();
+        MemoryManager.getInstance().cancelWait(AGENT_GLOBAL_WRITER_PERMIT, profile.getTaskId(),
+                profile.getInstanceId());
     }
 }
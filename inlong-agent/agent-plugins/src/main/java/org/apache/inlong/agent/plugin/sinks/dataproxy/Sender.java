@@ -233,6 +233,20 @@ public class Sender {
         }
     }
 
+    /**
+     * Send message to proxy by batch without waiting, the failed batches are resent first
+     *
+     * @param message the message to send
+     * @param retry the count of the failed tries of the message
+     * @return 0 if the message is sent, else the delay before trying it again
+     */
+    public long trySendBatch(SenderMessage message, int retry) {
+        if (shutdown || !resendQueue.isEmpty()) {
+            return retrySleepTime;
+        }
+        return sendBatchOnce(message, retry) ? 0 : retrySleepTime;
+    }
+
     public void sendBatch(SenderMessage message) {
         while (!shutdown && !resendQueue.isEmpty()) {
             AgentUtils.silenceSleepInMs(retrySleepTime);
@@ -246,42 +260,44 @@ public class Sender {
      * Send message to proxy by batch, use message cache.
      */
     private void sendBatchWithRetryCount(SenderMessage message, int retry) {
-        boolean suc = false;
-        while (!suc && !shutdown) {
-            try {
-                AgentSenderCallback cb = new AgentSenderCallback(message, retry);
-                AuditUtils.add(AuditUtils.AUDIT_ID_AGENT_TRY_SEND, message.getGroupId(),
-                        message.getStreamId(), message.getDataTime(), message.getMsgCnt(),
-                        message.getTotalSize(), auditVersion);
-                AuditUtils.add(AuditUtils.AUDIT_ID_AGENT_TRY_SEND_REAL_TIME, message.getGroupId(),
-                        message.getStreamId(), AgentUtils.getCurrentTime(), message.getMsgCnt(),
-                        message.getTotalSize(), auditVersion);
-                asyncSendByMessageSender(cb, message.getDataList(), message.getGroupId(),
-                        message.getStreamId(), message.getDataTime(), SEQUENTIAL_ID.getNextUuid(),
-                        message.getExtraMap(), proxySend);
-                getMetricItem(message.getGroupId(), message.getStreamId()).pluginSendCount.addAndGet(
-                        message.getMsgCnt());
-                suc = true;
-            } catch (Exception exception) {
-                AuditUtils.add(AuditUtils.AUDIT_ID_AGENT_SEND_EXCEPTION, message.getGroupId(),
-                        message.getStreamId(), message.getDataTime(), message.getMsgCnt(),
-                        message.getTotalSize(), auditVersion);
-                AuditUtils.add(AuditUtils.AUDIT_ID_AGENT_SEND_EXCEPTION_REAL_TIME, message.getGroupId(),
-                        message.getStreamId(), AgentUtils.getCurrentTime(), message.getMsgCnt(),
-                        message.getTotalSize(), auditVersion);
-                suc = false;
-                if (retry > maxSenderRetry) {
-                    if (retry % 10 == 0) {
-                        LOGGER.error("max retry reached, sample log Exception caught", exception);
-                    }
-                } else {
-                    LOGGER.error("Exception caught", exception);
+        while (!shutdown && !sendBatchOnce(message, retry)) {
+            retry++;
+            AgentUtils.silenceSleepInMs(retrySleepTime);
+        }
+    }
+
+    private boolean sendBatchOnce(SenderMessage message, int retry) {
+        try {
+            AgentSenderCallback cb = new AgentSenderCallback(message, retry);
+            AuditUtils.add(AuditUtils.AUDIT_ID_AGENT_TRY_SEND, message.getGroupId(),
+                    message.getStreamId(), message.getDataTime(), message.getMsgCnt(),
+                    message.getTotalSize(), auditVersion);
+            AuditUtils.add(AuditUtils.AUDIT_ID_AGENT_TRY_SEND_REAL_TIME, message.getGroupId(),
+                    message.getStreamId(), AgentUtils.getCurrentTime(), message.getMsgCnt(),
+                    message.getTotalSize(), auditVersion);
+            asyncSendByMessageSender(cb, message.getDataList(), message.getGroupId(),
+                    message.getStreamId(), message.getDataTime(), SEQUENTIAL_ID.getNextUuid(),
+                    message.getExtraMap(), proxySend);
+            getMetricItem(message.getGroupId(), message.getStreamId()).pluginSendCount.addAndGet(
+                    message.getMsgCnt());
+            return true;
+        } catch (Exception exception) {
+            AuditUtils.add(AuditUtils.AUDIT_ID_AGENT_SEND_EXCEPTION, message.getGroupId(),
+                    message.getStreamId(), message.getDataTime(), message.getMsgCnt(),
+                    message.getTotalSize(), auditVersion);
+            AuditUtils.add(AuditUtils.AUDIT_ID_AGENT_SEND_EXCEPTION_REAL_TIME, message.getGroupId(),
+                    message.getStreamId(), AgentUtils.getCurrentTime(), message.getMsgCnt(),
+                    message.getTotalSize(), auditVersion);
+            if (retry > maxSenderRetry) {
+                if (retry % 10 == 0) {
+                    LOGGER.error("max retry reached, sample log Exception caught", exception);
                 }
-                retry++;
-                AgentUtils.silenceSleepInMs(retrySleepTime);
-                ThreadUtils.threadThrowableHandler(Thread.currentThread(), exception);
+            } else {
+                LOGGER.error("Exception caught", exception);
             }
+            ThreadUtils.threadThrowableHandler(Thread.currentThread(), exception);
         }
+        return false;
     }
 
     private void asyncSendByMessageSender(MsgSendCallback cb,
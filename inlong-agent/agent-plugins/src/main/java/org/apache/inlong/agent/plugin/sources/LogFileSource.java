@@ -17,6 +17,7 @@
 
 package org.apache.inlong.agent.plugin.sources;
 
+import org.apache.inlong.agent.conf.AgentConfiguration;
 import org.apache.inlong.agent.conf.InstanceProfile;
 import org.apache.inlong.agent.conf.OffsetProfile;
 import org.apache.inlong.agent.constant.DataCollectType;
@@ -28,6 +29,7 @@ import org.apache.inlong.agent.except.FileException;
 import org.apache.inlong.agent.metrics.audit.AuditUtils;
 import org.apache.inlong.agent.plugin.sources.extend.DefaultExtendedHandler;
 import org.apache.inlong.agent.plugin.sources.file.AbstractSource;
+import org.apache.inlong.agent.plugin.sources.file.LineSplitter;
 import org.apache.inlong.agent.plugin.task.logcollection.local.FileDataUtils;
 import org.apache.inlong.agent.utils.AgentUtils;
 import org.apache.inlong.agent.utils.file.FileUtils;
@@ -47,8 +49,11 @@ import java.io.LineNumberReader;
 import java.io.RandomAccessFile;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
+import static org.apache.inlong.agent.constant.AgentConstants.AGENT_FILE_SWAR_SPLIT_ENABLE;
+import static org.apache.inlong.agent.constant.AgentConstants.DEFAULT_AGENT_FILE_SWAR_SPLIT_ENABLE;
 import static org.apache.inlong.agent.constant.TaskConstants.FILE_CONTENT_STYLE;
 
 /**
@@ -84,6 +89,7 @@ public class LogFileSource extends AbstractSource {
     private String inodeInfo;
     private volatile long lastInodeUpdateTime = 0;
     private RandomAccessFile randomAccessFile;
+    private LineSplitter lineSplitter;
 
     public LogFileSource() {
     }
@@ -98,7 +104,12 @@ public class LogFileSource extends AbstractSource {
         try {
             LOGGER.info("LogFileSource init: {}", profile.toJsonStr());
             fileName = profile.getInstanceId();
-            bufferToReadFile = new byte[SIZE_OF_BUFFER_TO_READ_FILE];
+            if (AgentConfiguration.getAgentConf().getBoolean(
+                    AGENT_FILE_SWAR_SPLIT_ENABLE, DEFAULT_AGENT_FILE_SWAR_SPLIT_ENABLE)) {
+                lineSplitter = new LineSplitter(SIZE_OF_BUFFER_TO_READ_FILE, maxPackSize);
+            } else {
+                bufferToReadFile = new byte[SIZE_OF_BUFFER_TO_READ_FILE];
+            }
             isIncrement = isIncrement(profile);
             file = new File(fileName);
             inodeInfo = profile.get(TaskConstants.INODE_INFO);
@@ -152,6 +163,11 @@ public class LogFileSource extends AbstractSource {
         return "log-file-source-" + taskId + "-" + fileName;
     }
 
+    @Override
+    protected boolean isReadBlocking() {
+        return false;
+    }
+
     private List<SourceData> readFromPos(long pos) throws IOException {
         List<SourceData> lines = new ArrayList<>();
         bytePosition = readLines(randomAccessFile, pos, lines, BATCH_READ_LINE_COUNT, BATCH_READ_LINE_TOTAL_LEN);
@@ -255,6 +271,9 @@ public class LogFileSource extends AbstractSource {
         if (maxLineCount == 0) {
             return pos;
         }
+        if (lineSplitter != null) {
+            return splitLines(reader, pos, lines, maxLineCount, maxLineTotalLen);
+        }
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
         reader.seek(pos);
         long rePos = pos; // position to re-read
@@ -275,16 +294,7 @@ public class LogFileSource extends AbstractSource {
                         if (overLen) {
                             LOGGER.warn("readLines over len finally string len {}",
                                     new String(baos.toByteArray()).length());
-                            long auditTime = 0;
-                            if (isRealTime) {
-                                auditTime = AgentUtils.getCurrentTime();
-                            } else {
-                                auditTime = profile.getSinkDataTime();
-                            }
-                            AuditUtils.add(AuditUtils.AUDIT_ID_AGENT_READ_FAILED, inlongGroupId, inlongStreamId,
-                                    auditTime, 1, maxPackSize, auditVersion);
-                            AuditUtils.add(AuditUtils.AUDIT_ID_AGENT_READ_FAILED_REAL_TIME, inlongGroupId,
-                                    inlongStreamId, AgentUtils.getCurrentTime(), 1, maxPackSize, auditVersion);
+                            auditOverLenLine();
                         }
                         baos.reset();
                         overLen = false;
@@ -314,6 +324,40 @@ public class LogFileSource extends AbstractSource {
         return rePos;
     }
 
+    /**
+     * Read new lines by the line splitter, with the same result as the byte by byte reading.
+     */
+    private long splitLines(RandomAccessFile reader, long pos, List<SourceData> lines, int maxLineCount,
+            int maxLineTotalLen) throws IOException {
+        int[] lineTotalLen = new int[1];
+        long rePos = lineSplitter.split(reader.getChannel(), pos, (buffer, length, nextPos, overLen) -> {
+            linePosition++;
+            // the line buffer is reused, the line data is queued
+            lines.add(new SourceData(Arrays.copyOf(buffer, length), getOffsetString(linePosition, nextPos)));
+            lineTotalLen[0] += length;
+            if (overLen) {
+                LOGGER.warn("readLines over len finally string len {}", new String(buffer, 0, length).length());
+                auditOverLenLine();
+            }
+            return lines.size() < maxLineCount && lineTotalLen[0] < maxLineTotalLen;
+        });
+        reader.seek(rePos);
+        return rePos;
+    }
+
+    private void auditOverLenLine() {
+        long auditTime = 0;
+        if (isRealTime) {
+            auditTime = AgentUtils.getCurrentTime();
+        } else {
+            auditTime = profile.getSinkDataTime();
+        }
+        AuditUtils.add(AuditUtils.AUDIT_ID_AGENT_READ_FAILED, inlongGroupId, inlongStreamId,
+                auditTime, 1, maxPackSize, auditVersion);
+        AuditUtils.add(AuditUtils.AUDIT_ID_AGENT_READ_FAILED_REAL_TIME, inlongGroupId,
+                inlongStreamId, AgentUtils.getCurrentTime(), 1, maxPackSize, auditVersion);
+    }
+
     private String getOffsetString(Long lineOffset, Long byteOffset) {
         return lineOffset + OFFSET_SEP + byteOffset;
     }
@@ -17,10 +17,11 @@
 
 package org.apache.inlong.agent.plugin.sources.file;
 
-import org.apache.inlong.agent.common.AgentThreadFactory;
 import org.apache.inlong.agent.conf.InstanceProfile;
 import org.apache.inlong.agent.conf.OffsetProfile;
 import org.apache.inlong.agent.constant.CycleUnitType;
+import org.apache.inlong.agent.core.instance.InstanceScheduler;
+import org.apache.inlong.agent.core.instance.InstanceScheduler.ScheduledStep;
 import org.apache.inlong.agent.core.task.MemoryManager;
 import org.apache.inlong.agent.core.task.OffsetManager;
 import org.apache.inlong.agent.message.DefaultMessage;
@@ -47,8 +48,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.SynchronousQueue;
-import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -57,9 +56,11 @@ import static org.apache.inlong.agent.constant.CommonConstants.PROXY_KEY_STREAM_
 import static org.apache.inlong.agent.constant.CommonConstants.PROXY_PACKAGE_MAX_SIZE;
 import static org.apache.inlong.agent.constant.FetcherConstants.AGENT_GLOBAL_READER_QUEUE_PERMIT;
 import static org.apache.inlong.agent.constant.FetcherConstants.AGENT_GLOBAL_READER_SOURCE_PERMIT;
+import static org.apache.inlong.agent.constant.TaskConstants.DEFAULT_TASK_MEMORY_WEIGHT;
 import static org.apache.inlong.agent.constant.TaskConstants.OFFSET;
 import static org.apache.inlong.agent.constant.TaskConstants.TASK_AUDIT_VERSION;
 import static org.apache.inlong.agent.constant.TaskConstants.TASK_CYCLE_UNIT;
+import static org.apache.inlong.agent.constant.TaskConstants.TASK_MEMORY_WEIGHT;
 import static org.apache.inlong.agent.metrics.AgentMetricItem.KEY_INLONG_GROUP_ID;
 import static org.apache.inlong.agent.metrics.AgentMetricItem.KEY_INLONG_STREAM_ID;
 import static org.apache.inlong.agent.metrics.AgentMetricItem.KEY_PLUGIN_ID;
@@ -81,6 +82,8 @@ public abstract class AbstractSource implements Source {
     protected final Integer BATCH_READ_LINE_TOTAL_LEN = 1024 * 1024;
     protected final Integer CACHE_QUEUE_SIZE = 10 * BATCH_READ_LINE_COUNT;
     protected final Integer WAIT_TIMEOUT_MS = 10;
+    // the step waiting for the memory is woken once granted, the timeout only guards against a missed wakeup
+    protected final Integer PERMIT_WAIT_TIMEOUT_MS = 1000;
     private final Integer SOURCE_NO_UPDATE_INTERVAL_MS = 5 * 60 * 1000;
     private final Integer CORE_THREAD_PRINT_INTERVAL_MS = 1000;
     protected BlockingQueue<SourceData> queue;
@@ -104,13 +107,20 @@ public abstract class AbstractSource implements Source {
     protected boolean isRealTime = false;
     protected volatile long emptyCount = 0;
     protected int maxPackSize;
-    private static final ThreadPoolExecutor EXECUTOR_SERVICE = new ThreadPoolExecutor(
-            0, Integer.MAX_VALUE,
-            1L, TimeUnit.SECONDS,
-            new SynchronousQueue<>(),
-            new AgentThreadFactory("source-pool"));
     protected OffsetProfile offsetProfile;
     protected boolean sourceError = false;
+    // the lines read but not put into the queue yet, only accessed by the source steps
+    private List<SourceData> pendingLines;
+    private int pendingIndex;
+    private boolean queuePermitAcquired = false;
+    private long lastPrintTime = 0;
+    private volatile ScheduledStep step;
+    private final Runnable stepWaker = () -> {
+        ScheduledStep current = step;
+        if (current != null) {
+            current.wakeup();
+        }
+    };
 
     @Override
     public void init(InstanceProfile profile) {
@@ -128,6 +138,8 @@ public abstract class AbstractSource implements Source {
         }
         initOffset();
         registerMetric();
+        MemoryManager.getInstance().registerTask(taskId, inlongGroupId, inlongStreamId,
+                profile.getInt(TASK_MEMORY_WEIGHT, DEFAULT_TASK_MEMORY_WEIGHT));
         initExtendHandler();
         initSource(profile);
     }
@@ -142,28 +154,52 @@ public abstract class AbstractSource implements Source {
 
     @Override
     public void start() {
-        EXECUTOR_SERVICE.execute(run());
+        running = true;
+        step = InstanceScheduler.getInstance().submit(getThreadName(), this::runStep, sourceMetric, isReadBlocking());
     }
 
-    private Runnable run() {
-        return () -> {
-            AgentThreadFactory.nameThread(getThreadName());
-            running = true;
-            try {
-                doRun();
-            } catch (Throwable e) {
-                LOGGER.error("do run error maybe file deleted: ", e);
-                ThreadUtils.threadThrowableHandler(Thread.currentThread(), e);
-            }
+    /**
+     * Whether reading from the source may block the thread, such as polling a remote consumer.
+     * The sources reading without blocking run their steps on the shared scheduler workers.
+     *
+     * @return true if reading may block
+     */
+    protected boolean isReadBlocking() {
+        return true;
+    }
+
+    private long runStep() {
+        long delay;
+        try {
+            delay = doRunStep();
+        } catch (Throwable e) {
+            LOGGER.error("do run error maybe file deleted: ", e);
+            ThreadUtils.threadThrowableHandler(Thread.currentThread(), e);
+            delay = InstanceScheduler.STEP_FINISHED;
+        }
+        if (delay == InstanceScheduler.STEP_FINISHED) {
+            releasePendingLines();
             running = false;
-        };
+        }
+        return delay;
     }
 
-    private void doRun() {
-        long lastPrintTime = 0;
-        while (isRunnable()) {
+    /**
+     * Read a batch from the source and put it into the queue, the lines left by the queue permit or
+     * the queue capacity are put in the next steps.
+     *
+     * @return the delay before the next step
+     */
+    private long doRunStep() {
+        if (!isRunnable()) {
+            return InstanceScheduler.STEP_FINISHED;
+        }
+        if (pendingLines == null) {
             if (!prepareToRead()) {
-                break;
+                return InstanceScheduler.STEP_FINISHED;
+            }
+            if (!tryAcquirePermit(AGENT_GLOBAL_READER_SOURCE_PERMIT, BATCH_READ_LINE_TOTAL_LEN)) {
+                return PERMIT_WAIT_TIMEOUT_MS;
             }
             List<SourceData> lines = readFromSource();
             if (lines == null || lines.isEmpty()) {
@@ -172,40 +208,39 @@ public abstract class AbstractSource implements Source {
                 } else {
                     emptyCount = 0;
                 }
-                MemoryManager.getInstance().release(AGENT_GLOBAL_READER_SOURCE_PERMIT, BATCH_READ_LINE_TOTAL_LEN);
-                AgentUtils.silenceSleepInMs(WAIT_TIMEOUT_MS);
-                continue;
+                MemoryManager.getInstance().release(AGENT_GLOBAL_READER_SOURCE_PERMIT, BATCH_READ_LINE_TOTAL_LEN,
+                        taskId, instanceId);
+                return WAIT_TIMEOUT_MS;
             }
             emptyCount = 0;
-            for (int i = 0; i < lines.size(); i++) {
-                boolean suc4Queue = waitForPermit(AGENT_GLOBAL_READER_QUEUE_PERMIT, lines.get(i).getData().length);
-                if (!suc4Queue) {
-                    break;
-                }
-                putIntoQueue(lines.get(i));
-            }
-            MemoryManager.getInstance().release(AGENT_GLOBAL_READER_SOURCE_PERMIT, BATCH_READ_LINE_TOTAL_LEN);
-            if (AgentUtils.getCurrentTime() - lastPrintTime > CORE_THREAD_PRINT_INTERVAL_MS) {
-                lastPrintTime = AgentUtils.getCurrentTime();
-                printCurrentState();
-            }
+            pendingLines = lines;
+            pendingIndex = 0;
+        }
+        long delay = putPendingIntoQueue();
+        if (delay != InstanceScheduler.NEXT_STEP_NOW) {
+            return delay;
+        }
+        pendingLines = null;
+        MemoryManager.getInstance().release(AGENT_GLOBAL_READER_SOURCE_PERMIT, BATCH_READ_LINE_TOTAL_LEN, taskId,
+                instanceId);
+        if (AgentUtils.getCurrentTime() - lastPrintTime > CORE_THREAD_PRINT_INTERVAL_MS) {
+            lastPrintTime = AgentUtils.getCurrentTime();
+            printCurrentState();
         }
+        return InstanceScheduler.NEXT_STEP_NOW;
     }
 
     protected abstract void printCurrentState();
 
     /**
-     * Before reading the data source, some preparation operations need to be done, such as memory control semaphore
-     * application and data source legitimacy verification
+     * Before reading the data source, some preparation operations need to be done, such as data source
+     * legitimacy verification
      *
      * @return true if prepared ok
      */
     private boolean prepareToRead() {
         try {
-            if (!doPrepareToRead()) {
-                return false;
-            }
-            return waitForPermit(AGENT_GLOBAL_READER_SOURCE_PERMIT, BATCH_READ_LINE_TOTAL_LEN);
+            return doPrepareToRead();
         } catch (Throwable e) {
             LOGGER.error("prepare to read {} error:", instanceId, e);
             sourceError = true;
@@ -227,41 +262,54 @@ public abstract class AbstractSource implements Source {
      */
     protected abstract List<SourceData> readFromSource();
 
-    private boolean waitForPermit(String permitName, int permitLen) {
-        boolean suc = false;
-        while (!suc) {
-            suc = MemoryManager.getInstance().tryAcquire(permitName, permitLen);
-            if (!suc) {
-                MemoryManager.getInstance().printDetail(permitName, "source");
-                if (!isRunnable()) {
-                    return false;
+    private boolean tryAcquirePermit(String permitName, int permitLen) {
+        boolean suc = MemoryManager.getInstance().tryAcquire(permitName, permitLen, taskId, instanceId, stepWaker);
+        if (!suc) {
+            MemoryManager.getInstance().printDetail(permitName, "source");
+        }
+        return suc;
+    }
+
+    /**
+     * Put the pending lines into the queue without waiting
+     *
+     * @return NEXT_STEP_NOW if all the pending lines are put, otherwise the delay before putting the rest
+     */
+    private long putPendingIntoQueue() {
+        for (; pendingIndex < pendingLines.size(); pendingIndex++) {
+            SourceData sourceData = pendingLines.get(pendingIndex);
+            if (!queuePermitAcquired) {
+                if (!tryAcquirePermit(AGENT_GLOBAL_READER_QUEUE_PERMIT, sourceData.getData().length)) {
+                    return PERMIT_WAIT_TIMEOUT_MS;
                 }
-                AgentUtils.silenceSleepInMs(WAIT_TIMEOUT_MS);
+                queuePermitAcquired = true;
+            }
+            if (!queue.offer(sourceData)) {
+                return WAIT_TIMEOUT_MS;
             }
+            queuePermitAcquired = false;
+            LOGGER.debug("Put in source queue {} {}", new String(sourceData.getData()), inlongGroupId);
         }
-        return true;
+        return InstanceScheduler.NEXT_STEP_NOW;
     }
 
     /**
-     * After preparation work, we started to truly read data from the data source
+     * Drop the lines not put into the queue when the source stops, and release their permits
      */
-    private void putIntoQueue(SourceData sourceData) {
-        if (sourceData == null) {
+    private void releasePendingLines() {
+        MemoryManager.getInstance().cancelWait(AGENT_GLOBAL_READER_SOURCE_PERMIT, taskId, instanceId);
+        MemoryManager.getInstance().cancelWait(AGENT_GLOBAL_READER_QUEUE_PERMIT, taskId, instanceId);
+        if (pendingLines == null) {
             return;
         }
-        try {
-            boolean offerSuc = false;
-            while (isRunnable() && !offerSuc) {
-                offerSuc = queue.offer(sourceData, WAIT_TIMEOUT_MS, TimeUnit.MILLISECONDS);
-            }
-            if (!offerSuc) {
-                MemoryManager.getInstance().release(AGENT_GLOBAL_READER_QUEUE_PERMIT, sourceData.getData().length);
-            }
-            LOGGER.debug("Put in source queue {} {}", new String(sourceData.getData()), inlongGroupId);
-        } catch (InterruptedException e) {
-            MemoryManager.getInstance().release(AGENT_GLOBAL_READER_QUEUE_PERMIT, sourceData.getData().length);
-            LOGGER.error("fetchData offer failed", e);
+        if (queuePermitAcquired) {
+            MemoryManager.getInstance().release(AGENT_GLOBAL_READER_QUEUE_PERMIT,
+                    pendingLines.get(pendingIndex).getData().length, taskId, instanceId);
+            queuePermitAcquired = false;
         }
+        MemoryManager.getInstance().release(AGENT_GLOBAL_READER_SOURCE_PERMIT, BATCH_READ_LINE_TOTAL_LEN, taskId,
+                instanceId);
+        pendingLines = null;
     }
 
     /**
@@ -310,7 +358,16 @@ public abstract class AbstractSource implements Source {
 
     @Override
     public Message read() {
-        SourceData sourceData = readFromQueue();
+        return readMessage(WAIT_TIMEOUT_MS);
+    }
+
+    @Override
+    public Message readNoWait() {
+        return readMessage(0);
+    }
+
+    private Message readMessage(long timeoutMs) {
+        SourceData sourceData = readFromQueue(timeoutMs);
         while (sourceData != null) {
             Message msg = createMessage(sourceData);
             if (filterSourceData(msg)) {
@@ -328,7 +385,7 @@ public abstract class AbstractSource implements Source {
                         AgentUtils.getCurrentTime(), 1, sourceData.getData().length, auditVersion);
                 return msg;
             }
-            sourceData = readFromQueue();
+            sourceData = readFromQueue(timeoutMs);
         }
         return null;
     }
@@ -340,10 +397,10 @@ public abstract class AbstractSource implements Source {
         return true;
     }
 
-    private SourceData readFromQueue() {
+    private SourceData readFromQueue(long timeoutMs) {
         SourceData sourceData = null;
         try {
-            sourceData = queue.poll(WAIT_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            sourceData = queue.poll(timeoutMs, TimeUnit.MILLISECONDS);
         } catch (InterruptedException e) {
             LOGGER.warn("poll {} data get interrupted.", instanceId);
         }
@@ -352,7 +409,8 @@ public abstract class AbstractSource implements Source {
             return null;
         }
         LOGGER.debug("Read from source queue {} {}", new String(sourceData.getData()), inlongGroupId);
-        MemoryManager.getInstance().release(AGENT_GLOBAL_READER_QUEUE_PERMIT, sourceData.getData().length);
+        MemoryManager.getInstance().release(AGENT_GLOBAL_READER_QUEUE_PERMIT, sourceData.getData().length, taskId,
+                instanceId);
         return sourceData;
     }
 
@@ -415,7 +473,8 @@ public abstract class AbstractSource implements Source {
                 LOGGER.warn("poll {} data get interrupted.", instanceId, e);
             }
             if (sourceData != null) {
-                MemoryManager.getInstance().release(AGENT_GLOBAL_READER_QUEUE_PERMIT, sourceData.getData().length);
+                MemoryManager.getInstance().release(AGENT_GLOBAL_READER_QUEUE_PERMIT, sourceData.getData().length,
+                        taskId, instanceId);
             }
         }
         queue.clear();
@@ -0,0 +1,167 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.agent.plugin.sources.file;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * Split the lines of a file by line feed.
+ *
+ * The file is bulk read into a reusable heap buffer, and the line feed and carriage return
+ * are searched a word (8 bytes) at a time. The buffer is heap rather than direct, so it is
+ * freed with the source instead of waiting for the GC to clean the native memory. The line content is copied segment by segment into
+ * a reusable line buffer, the carriage returns are dropped, and the content over the max line
+ * length is truncated, the same as reading the file byte by byte.
+ * Not thread-safe, each source owns a splitter.
+ */
+public class LineSplitter {
+
+    private static final long ONES = 0x0101010101010101L;
+    private static final long HIGHS = 0x8080808080808080L;
+    private static final long LF_PATTERN = ONES * '\n';
+    private static final long CR_PATTERN = ONES * '\r';
+    private static final int INIT_LINE_BUFFER_SIZE = 1024;
+
+    private final ByteBuffer readBuffer;
+    private final int maxLineLen;
+    private byte[] lineBuffer;
+
+    /**
+     * Constructor
+     *
+     * @param readBufferSize the size of the buffer to read file
+     * @param maxLineLen the max content length of a line, the content over it is truncated
+     */
+    public LineSplitter(int readBufferSize, int maxLineLen) {
+        this.readBuffer = ByteBuffer.allocate(readBufferSize).order(ByteOrder.LITTLE_ENDIAN);
+        this.maxLineLen = maxLineLen;
+        this.lineBuffer = new byte[Math.min(INIT_LINE_BUFFER_SIZE, Math.max(1, maxLineLen))];
+    }
+
+    /**
+     * Split lines from the position, until the end of file or the handler stops.
+     * The last line without line feed is not handed over.
+     *
+     * @param channel the file to read
+     * @param pos the position to read from
+     * @param handler the line handler
+     * @return the position after the last handed line
+     * @throws IOException if an I/O error occurs.
+     */
+    public long split(FileChannel channel, long pos, LineHandler handler) throws IOException {
+        long rePos = pos;
+        long readPos = pos;
+        int lineLen = 0;
+        boolean overLen = false;
+        int num;
+        readBuffer.clear();
+        while ((num = channel.read(readBuffer, readPos)) > 0) {
+            int start = 0;
+            while (start < num) {
+                int lfIndex = indexOf(readBuffer, start, num, LF_PATTERN, (byte) '\n');
+                int end = lfIndex < 0 ? num : lfIndex;
+                // append the segment to the line without carriage returns
+                while (start < end) {
+                    int crIndex = indexOf(readBuffer, start, end, CR_PATTERN, (byte) '\r');
+                    int chunkEnd = crIndex < 0 ? end : crIndex;
+                    int chunkLen = chunkEnd - start;
+                    int copyLen = Math.min(chunkLen, maxLineLen - lineLen);
+                    if (copyLen > 0) {
+                        ensureLineBuffer(lineLen + copyLen);
+                        readBuffer.position(start);
+                        readBuffer.get(lineBuffer, lineLen, copyLen);
+                        lineLen += copyLen;
+                    }
+                    if (copyLen < chunkLen) {
+                        overLen = true;
+                    }
+                    start = crIndex < 0 ? end : crIndex + 1;
+                }
+                if (lfIndex < 0) {
+                    break;
+                }
+                rePos = readPos + lfIndex + 1;
+                start = lfIndex + 1;
+                boolean goOn = handler.onLine(lineBuffer, lineLen, rePos, overLen);
+                lineLen = 0;
+                overLen = false;
+                if (!goOn) {
+                    return rePos;
+                }
+            }
+            readPos += num;
+            readBuffer.clear();
+        }
+        return rePos;
+    }
+
+    /**
+     * Find the first index of a byte in the buffer, a word at a time
+     *
+     * @param buffer the little endian buffer
+     * @param from the start index, inclusive
+     * @param to the end index, exclusive
+     * @param pattern the byte repeated in each byte of a word
+     * @param value the byte to find
+     * @return the index, or -1 if not found
+     */
+    static int indexOf(ByteBuffer buffer, int from, int to, long pattern, byte value) {
+        int i = from;
+        for (; i + Long.BYTES <= to; i += Long.BYTES) {
+            long word = buffer.getLong(i) ^ pattern;
+            // the lowest high bit marks the first zero byte, the matched byte
+            long found = (word - ONES) & ~word & HIGHS;
+            if (found != 0) {
+                return i + (Long.numberOfTrailingZeros(found) >>> 3);
+            }
+        }
+        for (; i < to; i++) {
+            if (buffer.get(i) == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void ensureLineBuffer(int length) {
+        if (lineBuffer.length < length) {
+            lineBuffer = Arrays.copyOf(lineBuffer, Math.min(maxLineLen, Math.max(length, lineBuffer.length * 2)));
+        }
+    }
+
+    /**
+     * Line handler
+     */
+    public interface LineHandler {
+
+        /**
+         * handle a line
+         *
+         * @param buffer the reusable line buffer, only valid during the call
+         * @param length the line length
+         * @param nextPos the position after the line feed
+         * @param overLen whether the line is truncated
+         * @return whether to continue splitting
+         */
+        boolean onLine(byte[] buffer, int length, long nextPos, boolean overLen);
+    }
+}
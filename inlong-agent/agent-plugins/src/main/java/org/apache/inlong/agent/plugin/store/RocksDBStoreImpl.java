@@ -33,6 +33,8 @@ import org.rocksdb.RocksDB;
 import org.rocksdb.RocksDBException;
 import org.rocksdb.RocksIterator;
 import org.rocksdb.Statistics;
+import org.rocksdb.WriteBatch;
+import org.rocksdb.WriteOptions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -168,6 +170,22 @@ public class RocksDBStoreImpl implements Store {
         }
     }
 
+    @Override
+    public void batchWrite(List<KeyValueEntity> entities, List<String> removedKeys) {
+        ColumnFamilyHandle handle = columnHandlesMap.get(defaultFamilyName);
+        try (WriteBatch batch = new WriteBatch(); WriteOptions options = new WriteOptions()) {
+            for (KeyValueEntity entity : entities) {
+                batch.put(handle, entity.getKey().getBytes(), GSON.toJson(entity).getBytes());
+            }
+            for (String key : removedKeys) {
+                batch.delete(handle, key.getBytes());
+            }
+            db.write(options, batch);
+        } catch (Exception e) {
+            throw new RuntimeException("batch write to rocks db error", e);
+        }
+    }
+
     @Override
     public KeyValueEntity remove(String key) {
         requireNonNull(key);
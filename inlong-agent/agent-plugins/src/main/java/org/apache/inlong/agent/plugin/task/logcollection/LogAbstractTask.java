@@ -193,7 +193,7 @@ public abstract class LogAbstractTask extends AbstractTask {
         LOGGER.info("add to eventMap taskId {} dataTime {} fileName {}", taskProfile.getTaskId(), dataTime, fileName);
     }
 
-    private boolean isInEventMap(String fileName, String dataTime) {
+    protected boolean isInEventMap(String fileName, String dataTime) {
         Map<String, InstanceProfile> fileToProfile = eventMap.get(dataTime);
         if (fileToProfile == null) {
             return false;
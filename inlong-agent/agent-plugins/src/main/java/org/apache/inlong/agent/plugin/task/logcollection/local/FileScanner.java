@@ -21,6 +21,8 @@ import org.apache.inlong.agent.plugin.utils.regex.PatternUtil;
 import org.apache.inlong.agent.plugin.utils.regex.Scanner;
 import org.apache.inlong.agent.plugin.utils.regex.Scanner.FinalPatternInfo;
 import org.apache.inlong.agent.utils.DateTransUtils;
+import org.apache.inlong.agent.utils.file.DirNameRegexMatchPredicate;
+import org.apache.inlong.agent.utils.file.FileNameRegexMatchPredicate;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -28,7 +30,9 @@ import org.slf4j.LoggerFactory;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import static org.apache.inlong.agent.constant.CommonConstants.DEFAULT_FILE_MAX_NUM;
 
@@ -54,18 +58,30 @@ public class FileScanner {
 
     public static List<BasicFileInfo> scanTaskBetweenTimes(String originPattern, String cycleUnit, String timeOffset,
             long startTime, long endTime, boolean isRetry) {
-        List<BasicFileInfo> infos = new ArrayList<>();
         List<FinalPatternInfo> finalPatternInfos = Scanner.getFinalPatternInfos(originPattern, cycleUnit, timeOffset,
                 startTime, endTime, isRetry);
+        // the data times under the same directory share one listing instead of listing it once per data time
+        List<ScanPattern> scanPatterns = new ArrayList<>();
+        Map<String, List<ScanPattern>> dirToPatterns = new LinkedHashMap<>();
         for (FinalPatternInfo finalPatternInfo : finalPatternInfos) {
             ArrayList<String> allPaths = PatternUtil.cutDirectoryByWildcard(finalPatternInfo.finalPattern);
             String firstDir = allPaths.get(0);
             String secondDir = allPaths.get(0) + File.separator + allPaths.get(1);
-            ArrayList<String> fileList = getUpdatedOrNewFiles(firstDir, secondDir, finalPatternInfo.finalPattern, 3,
-                    DEFAULT_FILE_MAX_NUM);
-            for (String file : fileList) {
-                // TODO the time is not YYYYMMDDHH
-                String dataTime = DateTransUtils.millSecConvertToTimeStr(finalPatternInfo.dataTime, cycleUnit);
+            ScanPattern scanPattern = new ScanPattern(finalPatternInfo, secondDir);
+            scanPatterns.add(scanPattern);
+            dirToPatterns.computeIfAbsent(firstDir, dir -> new ArrayList<>()).add(scanPattern);
+        }
+        for (Map.Entry<String, List<ScanPattern>> entry : dirToPatterns.entrySet()) {
+            collectUpdatedOrNewFiles(entry.getKey(), entry.getValue(), 3, DEFAULT_FILE_MAX_NUM);
+        }
+        List<BasicFileInfo> infos = new ArrayList<>();
+        for (ScanPattern scanPattern : scanPatterns) {
+            // sort by last-modified time (older -> newer)
+            Collections.sort(scanPattern.readyFiles, new FileTimeComparator());
+            // TODO the time is not YYYYMMDDHH
+            String dataTime = DateTransUtils.millSecConvertToTimeStr(scanPattern.finalPatternInfo.dataTime, cycleUnit);
+            for (File f : scanPattern.readyFiles) {
+                String file = f.getAbsolutePath();
                 BasicFileInfo info = new BasicFileInfo(file, dataTime);
                 logger.info("scan new task fileName {} ,dataTime {}", file, dataTime);
                 infos.add(info);
@@ -74,27 +90,67 @@ public class FileScanner {
         return infos;
     }
 
-    private static ArrayList<String> getUpdatedOrNewFiles(String firstDir, String secondDir,
-            String fileName, long depth, int maxFileNum) {
-        ArrayList<String> ret = new ArrayList<String>();
-        ArrayList<File> readyFiles = new ArrayList<File>();
-        if (!new File(firstDir).isDirectory()) {
-            return ret;
+    /**
+     * List the directory once, and hand each file to the patterns matching it
+     */
+    private static void collectUpdatedOrNewFiles(String firstDir, List<ScanPattern> scanPatterns, long depth,
+            int maxFileNum) {
+        File baseDir = new File(firstDir);
+        if (!baseDir.isDirectory()) {
+            return;
         }
-        for (File pathname : Files.find(firstDir).yieldFilesAndDirectories()
-                .recursive().withDepth((int) depth).withDirNameRegex(secondDir)
-                .withFileNameRegex(fileName)) {
-            if (readyFiles.size() >= maxFileNum) {
+        int baseLen = baseDir.getAbsolutePath().length();
+        int fullCount = 0;
+        for (File pathname : Files.find(baseDir).yieldFilesAndDirectories()
+                .recursive().withDepth((int) depth)
+                .withDirFilter(dir -> scanPatterns.stream().anyMatch(pattern -> pattern.dirFilter.apply(dir)))
+                .withFileFilter(file -> scanPatterns.stream().anyMatch(pattern -> pattern.fileFilter.apply(file)))) {
+            for (ScanPattern scanPattern : scanPatterns) {
+                if (scanPattern.readyFiles.size() >= maxFileNum || !scanPattern.matches(pathname, baseLen)) {
+                    continue;
+                }
+                scanPattern.readyFiles.add(pathname);
+                if (scanPattern.readyFiles.size() >= maxFileNum) {
+                    fullCount++;
+                }
+            }
+            if (fullCount >= scanPatterns.size()) {
                 break;
             }
-            readyFiles.add(pathname);
         }
-        // sort by last-modified time (older -> newer)
-        Collections.sort(readyFiles, new FileTimeComparator());
-        for (File f : readyFiles) {
-            // System.out.println(f.getAbsolutePath());
-            ret.add(f.getAbsolutePath());
+    }
+
+    /**
+     * The patterns of a data time, compiled once per scan
+     */
+    private static class ScanPattern {
+
+        private final FinalPatternInfo finalPatternInfo;
+        private final FileNameRegexMatchPredicate fileFilter;
+        private final DirNameRegexMatchPredicate dirFilter;
+        private final List<File> readyFiles = new ArrayList<>();
+
+        private ScanPattern(FinalPatternInfo finalPatternInfo, String secondDir) {
+            this.finalPatternInfo = finalPatternInfo;
+            this.fileFilter = new FileNameRegexMatchPredicate(finalPatternInfo.finalPattern, true);
+            this.dirFilter = new DirNameRegexMatchPredicate(secondDir, true);
+        }
+
+        /**
+         * The file matches the file pattern, and the directories under the base directory match the
+         * directory pattern, the same as a listing of this pattern only.
+         */
+        private boolean matches(File file, int baseLen) {
+            if (!fileFilter.apply(file)) {
+                return false;
+            }
+            for (File dir = file.getParentFile(); dir != null && dir.getAbsolutePath().length() > baseLen; dir =
+                    dir.getParentFile()) {
+                if (!dirFilter.apply(dir)) {
+                    return false;
+                }
+            }
+            return true;
         }
-        return ret;
     }
 }
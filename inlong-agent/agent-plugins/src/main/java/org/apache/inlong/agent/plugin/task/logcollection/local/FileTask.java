@@ -17,9 +17,12 @@
 
 package org.apache.inlong.agent.plugin.task.logcollection.local;
 
+import org.apache.inlong.agent.conf.AgentConfiguration;
 import org.apache.inlong.agent.conf.TaskProfile;
 import org.apache.inlong.agent.constant.CycleUnitType;
 import org.apache.inlong.agent.constant.TaskConstants;
+import org.apache.inlong.agent.metrics.AgentMetricItem;
+import org.apache.inlong.agent.metrics.AgentMetricItemSet;
 import org.apache.inlong.agent.plugin.task.logcollection.LogAbstractTask;
 import org.apache.inlong.agent.plugin.task.logcollection.local.FileScanner.BasicFileInfo;
 import org.apache.inlong.agent.plugin.utils.regex.DateUtils;
@@ -28,6 +31,7 @@ import org.apache.inlong.agent.plugin.utils.regex.PatternUtil;
 import org.apache.inlong.agent.utils.AgentUtils;
 import org.apache.inlong.agent.utils.DateTransUtils;
 import org.apache.inlong.agent.utils.file.FileUtils;
+import org.apache.inlong.common.metric.MetricRegister;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -44,6 +48,7 @@ import java.nio.file.WatchKey;
 import java.nio.file.WatchService;
 import java.text.ParseException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -53,6 +58,12 @@ import java.util.regex.Matcher;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import static org.apache.inlong.agent.constant.AgentConstants.AGENT_FILE_RECONCILE_INTERVAL_MS;
+import static org.apache.inlong.agent.constant.AgentConstants.DEFAULT_AGENT_FILE_RECONCILE_INTERVAL_MS;
+import static org.apache.inlong.agent.metrics.AgentMetricItem.KEY_INLONG_GROUP_ID;
+import static org.apache.inlong.agent.metrics.AgentMetricItem.KEY_INLONG_STREAM_ID;
+import static org.apache.inlong.agent.metrics.AgentMetricItem.KEY_PLUGIN_ID;
+
 /**
  * Watch directory, if new valid files are created, create instance correspondingly.
  */
@@ -65,8 +76,15 @@ public class FileTask extends LogAbstractTask {
     private boolean realTime = false;
     private Set<String> originPatterns;
     private long lastScanTime = 0;
-    public final long SCAN_INTERVAL = 1 * 60 * 1000;
+    // the full scan reconciles the files missed by the watch events, such as the lost events
+    private long reconcileInterval;
+    private volatile boolean needReconcile = false;
     private volatile long coreThreadUpdateTime = 0;
+    private static final AgentMetricItemSet METRIC_ITEM_SET = new AgentMetricItemSet(FileTask.class.getSimpleName());
+    static {
+        MetricRegister.register(METRIC_ITEM_SET);
+    }
+    private AgentMetricItem taskMetric;
 
     @Override
     protected int getInstanceLimit() {
@@ -78,6 +96,13 @@ public class FileTask extends LogAbstractTask {
         super.initTask();
         timeOffset = taskProfile.get(TaskConstants.TASK_FILE_TIME_OFFSET, "");
         retry = taskProfile.isRetry();
+        reconcileInterval = AgentConfiguration.getAgentConf().getLong(AGENT_FILE_RECONCILE_INTERVAL_MS,
+                DEFAULT_AGENT_FILE_RECONCILE_INTERVAL_MS);
+        Map<String, String> dimensions = new HashMap<>();
+        dimensions.put(KEY_PLUGIN_ID, this.getClass().getSimpleName());
+        dimensions.put(KEY_INLONG_GROUP_ID, taskProfile.getInlongGroupId());
+        dimensions.put(KEY_INLONG_STREAM_ID, taskProfile.getInlongStreamId());
+        taskMetric = METRIC_ITEM_SET.findMetricItem(dimensions);
         originPatterns = Stream.of(taskProfile.get(TaskConstants.FILE_DIR_FILTER_PATTERNS).split(","))
                 .collect(Collectors.toSet());
         if (taskProfile.getCycleUnit().compareToIgnoreCase(CycleUnitType.REAL_TIME) == 0) {
@@ -207,7 +232,8 @@ public class FileTask extends LogAbstractTask {
 
     @Override
     protected void runForNormal() {
-        if (AgentUtils.getCurrentTime() - lastScanTime > SCAN_INTERVAL) {
+        if (needReconcile || AgentUtils.getCurrentTime() - lastScanTime > reconcileInterval) {
+            needReconcile = false;
             scanExistingFile();
             lastScanTime = AgentUtils.getCurrentTime();
         }
@@ -217,9 +243,11 @@ public class FileTask extends LogAbstractTask {
 
     @Override
     protected void scanExistingFile() {
+        long scanStartTime = AgentUtils.getCurrentTime();
         originPatterns.forEach((originPattern) -> {
             List<BasicFileInfo> fileInfos = scanExistingFileByPattern(originPattern);
             LOGGER.info("taskId {} scan {} get file count {}", getTaskId(), originPattern, fileInfos.size());
+            taskMetric.fileScanFileCount.addAndGet(fileInfos.size());
             fileInfos.forEach((fileInfo) -> {
                 String fileName = fileInfo.fileName;
                 Long fileUpdateTime = FileUtils.getFileLastModifyTime(fileName);
@@ -229,6 +257,8 @@ public class FileTask extends LogAbstractTask {
                 }
             });
         });
+        taskMetric.fileScanCount.incrementAndGet();
+        taskMetric.fileScanCostMs.addAndGet(AgentUtils.getCurrentTime() - scanStartTime);
     }
 
     private List<BasicFileInfo> scanExistingFileByPattern(String originPattern) {
@@ -305,6 +335,8 @@ public class FileTask extends LogAbstractTask {
             if (Files.isDirectory(child)) {
                 LOGGER.info("The find creation event is triggered by a directory: {}", child.getFileName());
                 entity.registerRecursively(child);
+                // the files may be created before the directory is watched
+                scanNewDirectory(child.toFile(), entity);
                 continue;
             }
             handleFilePath(child, entity);
@@ -318,10 +350,8 @@ public class FileTask extends LogAbstractTask {
          * Can't simply continue when it detects that an event maybe ignored.
          */
         if (kind == StandardWatchEventKinds.OVERFLOW) {
-            LOGGER.error("An event is unclear and lost");
-            /*
-             * TODO: should we do a full scan to avoid lost events?
-             */
+            LOGGER.error("An event is unclear and lost, reconcile by a full scan");
+            needReconcile = true;
             return null;
         }
         final WatchEvent<Path> watchEventPath = (WatchEvent<Path>) watchEvent;
@@ -332,6 +362,22 @@ public class FileTask extends LogAbstractTask {
         return contextPath.resolve(eventPath);
     }
 
+    private void scanNewDirectory(File dir, WatchEntity entity) {
+        File[] files = dir.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            if (file.isDirectory()) {
+                if (entity.isWatched(file.toPath())) {
+                    scanNewDirectory(file, entity);
+                }
+            } else if (file.isFile()) {
+                handleFilePath(file.toPath(), entity);
+            }
+        }
+    }
+
     private void handleFilePath(Path filePath, WatchEntity entity) {
         String newFileName = filePath.toFile().getAbsolutePath();
         LOGGER.info("new file {} {}", newFileName, entity.getPattern());
@@ -343,8 +389,17 @@ public class FileTask extends LogAbstractTask {
                 LOGGER.error("File Timeout {} {}", newFileName, dataTime);
                 return;
             }
+            if (isInEventMap(newFileName, dataTime)) {
+                // found again by the scan of its new directory
+                return;
+            }
             Long fileUpdateTime = FileUtils.getFileLastModifyTime(newFileName);
             addToEvenMap(newFileName, dataTime, fileUpdateTime, taskProfile.getCycleUnit());
+            if (isInEventMap(newFileName, dataTime)) {
+                taskMetric.fileDiscoveryCount.incrementAndGet();
+                taskMetric.fileDiscoveryLatencyMs.addAndGet(
+                        Math.max(0, AgentUtils.getCurrentTime() - fileUpdateTime));
+            }
         }
     }
 
@@ -59,6 +59,8 @@ public class WatchEntity {
     private final boolean containRegexPattern;
     private final Map<WatchKey, Path> keys = new ConcurrentHashMap<WatchKey, Path>();
     private final Map<String, WatchKey> pathToKeys = new ConcurrentHashMap<String, WatchKey>();
+    // the directory patterns by the separator index, compiled once
+    private final Map<Integer, Pattern> dirPatterns = new ConcurrentHashMap<>();
     private final String dirSeparator = System.getProperty("file.separator");
     private String cycleUnit;
     private long lastCheckTime;
@@ -212,6 +214,10 @@ public class WatchEntity {
     }
 
     private Pattern getPattern(int index) {
+        return dirPatterns.computeIfAbsent(index, this::compileDirPattern);
+    }
+
+    private Pattern compileDirPattern(int index) {
         String dirPattern = "";
         if (index == -1) {
             dirPattern = originPatternWithoutFileName;
@@ -228,6 +234,10 @@ public class WatchEntity {
         return matcher.matches() || matcher.lookingAt();
     }
 
+    public boolean isWatched(Path dir) {
+        return pathToKeys.containsKey(dir.toAbsolutePath().toString());
+    }
+
     public Path getPath(WatchKey key) {
         return keys.get(key);
     }
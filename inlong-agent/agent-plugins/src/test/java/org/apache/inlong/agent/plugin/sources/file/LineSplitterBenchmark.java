@@ -0,0 +1,152 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.agent.plugin.sources.file;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LogFileSource line split throughput benchmark.
+ *
+ * Splits a 64 MB log file of the given line length. With legacySplitter=true the file is
+ * read through RandomAccessFile and split byte by byte into a ByteArrayOutputStream, as
+ * LogFileSource.readLines did before LineSplitter; with legacySplitter=false it is split by
+ * LineSplitter. Both copy each line into its own array, as the source queues it.
+ *
+ * Run it through the main method from the test classpath, the score is the file split time.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class LineSplitterBenchmark {
+
+    private static final int FILE_SIZE = 64 * 1024 * 1024;
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_LINE_LEN = 1024 * 1024;
+
+    @Param({"100", "1000", "10000"})
+    public int lineLen;
+
+    @Param({"true", "false"})
+    public boolean legacySplitter;
+
+    private File file;
+    private RandomAccessFile reader;
+    private LineSplitter lineSplitter;
+    private byte[] bufferToReadFile;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        file = File.createTempFile("line-splitter-bench", ".log");
+        file.deleteOnExit();
+        Random random = new Random(17);
+        byte[] line = new byte[lineLen];
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file))) {
+            for (int written = 0; written < FILE_SIZE; written += lineLen + 1) {
+                for (int i = 0; i < lineLen; i++) {
+                    line[i] = (byte) (' ' + random.nextInt(95));
+                }
+                out.write(line);
+                out.write('\n');
+            }
+        }
+        reader = new RandomAccessFile(file, "r");
+        lineSplitter = new LineSplitter(READ_BUFFER_SIZE, MAX_LINE_LEN);
+        bufferToReadFile = new byte[READ_BUFFER_SIZE];
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        reader.close();
+        file.delete();
+    }
+
+    @Benchmark
+    public long split(Blackhole blackhole) throws IOException {
+        if (legacySplitter) {
+            return legacySplit(blackhole);
+        }
+        return lineSplitter.split(reader.getChannel(), 0, (buffer, length, nextPos, overLen) -> {
+            blackhole.consume(Arrays.copyOf(buffer, length));
+            return true;
+        });
+    }
+
+    private long legacySplit(Blackhole blackhole) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        long pos = 0;
+        long rePos = 0;
+        int num;
+        reader.seek(0);
+        while ((num = reader.read(bufferToReadFile)) != -1) {
+            for (int i = 0; i < num; i++) {
+                byte ch = bufferToReadFile[i];
+                switch (ch) {
+                    case '\n':
+                        rePos = pos + i + 1;
+                        blackhole.consume(baos.toByteArray());
+                        baos.reset();
+                        break;
+                    case '\r':
+                        break;
+                    default:
+                        if (baos.size() < MAX_LINE_LEN) {
+                            baos.write(ch);
+                        }
+                }
+            }
+            pos = reader.getFilePointer();
+        }
+        return rePos;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(LineSplitterBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.agent.plugin.sources.file;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class TestLineSplitter {
+
+    @Test
+    public void testIndexOf() {
+        ByteBuffer buffer = ByteBuffer.allocate(32).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < 32; i++) {
+            buffer.put(i, (byte) 'a');
+        }
+        long lfPattern = 0x0101010101010101L * '\n';
+        Assert.assertEquals(-1, LineSplitter.indexOf(buffer, 0, 32, lfPattern, (byte) '\n'));
+        for (int pos : new int[]{0, 7, 8, 13, 31}) {
+            buffer.put(pos, (byte) '\n');
+            Assert.assertEquals(pos, LineSplitter.indexOf(buffer, 0, 32, lfPattern, (byte) '\n'));
+            buffer.put(pos, (byte) 'a');
+        }
+        // 0x8a - 0x0a borrow does not hide the match
+        buffer.put(3, (byte) 0x8a);
+        buffer.put(5, (byte) '\n');
+        Assert.assertEquals(5, LineSplitter.indexOf(buffer, 1, 32, lfPattern, (byte) '\n'));
+        Assert.assertEquals(-1, LineSplitter.indexOf(buffer, 6, 32, lfPattern, (byte) '\n'));
+    }
+
+    @Test
+    public void testSplitAsByteByByte() throws Exception {
+        Random random = new Random(7);
+        byte[] alphabet = {'a', 'b', 'c', '\r', (byte) 0x8a};
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        for (int i = 0; i < 5000; i++) {
+            // mostly short lines, some of them over the max length, the last one without line feed
+            int len = random.nextInt(10) == 0 ? random.nextInt(200) : random.nextInt(20);
+            for (int j = 0; j < len; j++) {
+                content.write(alphabet[random.nextInt(alphabet.length)]);
+            }
+            if (i < 4999) {
+                content.write('\n');
+            }
+        }
+        File file = File.createTempFile("line-splitter", ".log");
+        file.deleteOnExit();
+        Files.write(file.toPath(), content.toByteArray());
+        List<String> expected = new ArrayList<>();
+        long expectedPos = splitByteByByte(content.toByteArray(), 64, expected);
+        for (int readBufferSize : new int[]{16, 1000, 64 * 1024}) {
+            LineSplitter splitter = new LineSplitter(readBufferSize, 64);
+            List<String> lines = new ArrayList<>();
+            try (RandomAccessFile reader = new RandomAccessFile(file, "r")) {
+                long pos = splitter.split(reader.getChannel(), 0, (buffer, length, nextPos, overLen) -> {
+                    lines.add(new String(buffer, 0, length, StandardCharsets.ISO_8859_1)
+                            + (overLen ? "#over" : "") + "@" + nextPos);
+                    return true;
+                });
+                Assert.assertEquals(expectedPos, pos);
+                Assert.assertEquals(expected, lines);
+                // stop by the handler
+                List<Long> positions = new ArrayList<>();
+                pos = splitter.split(reader.getChannel(), 0, (buffer, length, nextPos, overLen) -> {
+                    positions.add(nextPos);
+                    return positions.size() < 3;
+                });
+                Assert.assertEquals(3, positions.size());
+                Assert.assertEquals(positions.get(2).longValue(), pos);
+            }
+        }
+    }
+
+    private long splitByteByByte(byte[] content, int maxLineLen, List<String> lines) {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        boolean overLen = false;
+        long rePos = 0;
+        for (int i = 0; i < content.length; i++) {
+            byte ch = content[i];
+            if (ch == '\n') {
+                rePos = i + 1;
+                lines.add(new String(line.toByteArray(), StandardCharsets.ISO_8859_1)
+                        + (overLen ? "#over" : "") + "@" + rePos);
+                line.reset();
+                overLen = false;
+            } else if (ch != '\r') {
+                if (line.size() < maxLineLen) {
+                    line.write(ch);
+                } else {
+                    overLen = true;
+                }
+            }
+        }
+        return rePos;
+    }
+}
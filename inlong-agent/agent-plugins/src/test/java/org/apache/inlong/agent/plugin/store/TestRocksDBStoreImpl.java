@@ -17,8 +17,11 @@
 
 package org.apache.inlong.agent.plugin.store;
 
+import org.apache.inlong.agent.conf.OffsetProfile;
 import org.apache.inlong.agent.plugin.AgentBaseTestsHelper;
+import org.apache.inlong.agent.store.BufferedOffsetStore;
 import org.apache.inlong.agent.store.KeyValueEntity;
+import org.apache.inlong.agent.store.OffsetStore;
 import org.apache.inlong.agent.store.StateSearchKey;
 
 import org.junit.AfterClass;
@@ -27,6 +30,8 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
 
 public class TestRocksDBStoreImpl {
 
@@ -76,4 +81,41 @@ public class TestRocksDBStoreImpl {
         KeyValueEntity entityResult = store.get("searchKey1");
         Assert.assertNull(entityResult);
     }
+
+    @Test
+    public void testBatchWrite() {
+        store.put(new KeyValueEntity("batchKey1", "batchResult1", "test"));
+        store.batchWrite(Arrays.asList(new KeyValueEntity("batchKey2", "batchResult2", null),
+                new KeyValueEntity("batchKey3", "batchResult3", "test")), Collections.singletonList("batchKey1"));
+        Assert.assertNull(store.get("batchKey1"));
+        KeyValueEntity entity = store.get("batchKey2");
+        Assert.assertEquals("batchResult2", entity.getJsonValue());
+        Assert.assertNull(entity.getFileName());
+        Assert.assertEquals(StateSearchKey.ACCEPTED, entity.getStateSearchKey());
+        Assert.assertEquals(2, store.findAll("batchKey").size());
+    }
+
+    @Test
+    public void testBufferedOffsetStore() throws IOException {
+        RocksDBStoreImpl offsetBasicStore = new RocksDBStoreImpl("/offsetdb");
+        BufferedOffsetStore offsetStore = new BufferedOffsetStore(offsetBasicStore);
+        offsetStore.setOffset(new OffsetProfile("1", "/data/log/1.log", "100", "inode1"));
+        offsetStore.setOffset(new OffsetProfile("1", "/data/log/2.log", "200", "inode2"));
+        offsetStore.setOffset(new OffsetProfile("1", "/data/log/1.log", "101", "inode1"));
+        // served from memory before the flush
+        Assert.assertEquals("101", offsetStore.getOffset("1", "/data/log/1.log").getOffset());
+        // the cached offset is not shared with the callers
+        Assert.assertNotSame(offsetStore.getOffset("1", "/data/log/1.log"),
+                offsetStore.getOffset("1", "/data/log/1.log"));
+        Assert.assertNull(offsetBasicStore.get(offsetStore.getKey("1", "/data/log/1.log")));
+        offsetStore.flush();
+        offsetStore.deleteOffset("1", "/data/log/2.log");
+        Assert.assertEquals(1, offsetStore.listAllOffsets().size());
+        offsetStore.flush();
+        // the flushed offsets are loaded again
+        OffsetStore loaded = new BufferedOffsetStore(offsetBasicStore);
+        Assert.assertEquals("101", loaded.getOffset("1", "/data/log/1.log").getOffset());
+        Assert.assertNull(loaded.getOffset("1", "/data/log/2.log"));
+        offsetBasicStore.close();
+    }
 }
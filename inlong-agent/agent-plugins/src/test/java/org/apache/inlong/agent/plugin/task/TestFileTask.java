@@ -22,7 +22,10 @@ import org.apache.inlong.agent.conf.TaskProfile;
 import org.apache.inlong.agent.constant.CycleUnitType;
 import org.apache.inlong.agent.core.task.TaskManager;
 import org.apache.inlong.agent.plugin.AgentBaseTestsHelper;
+import org.apache.inlong.agent.plugin.task.logcollection.local.FileScanner;
+import org.apache.inlong.agent.plugin.task.logcollection.local.FileScanner.BasicFileInfo;
 import org.apache.inlong.agent.plugin.task.logcollection.local.FileTask;
+import org.apache.inlong.agent.utils.DateTransUtils;
 import org.apache.inlong.common.enums.TaskStateEnum;
 
 import org.junit.AfterClass;
@@ -35,13 +38,19 @@ import org.powermock.api.mockito.PowerMockito;
 import org.powermock.core.classloader.annotations.PowerMockIgnore;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
+import org.powermock.reflect.Whitebox;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
@@ -110,6 +119,83 @@ public class TestFileTask {
                 CycleUnitType.MINUTE, Arrays.asList("202410302359"), "202410300000", "202410310000");
     }
 
+    @Test
+    public void testScanMergedListing() throws Exception {
+        // the data times under the same directory are found by one listing
+        List<BasicFileInfo> infos = FileScanner.scanTaskBetweenTimes(
+                resourceParentPath + "/YYYYMMDDHHmm_[0-9]+/test_[0-9]+.txt", CycleUnitType.MINUTE, "0m",
+                DateTransUtils.timeStrConvertToMillSec("202309280000", CycleUnitType.MINUTE),
+                DateTransUtils.timeStrConvertToMillSec("202309302300", CycleUnitType.MINUTE), true);
+        Assert.assertEquals(2, infos.size());
+        Assert.assertEquals(LOADER.getResource("testScan/202309281030_1/test_1.txt").getPath(), infos.get(0).fileName);
+        Assert.assertEquals("202309281030", infos.get(0).dataTime);
+        Assert.assertEquals(LOADER.getResource("testScan/202309301059_1/test_1.txt").getPath(), infos.get(1).fileName);
+        Assert.assertEquals("202309301059", infos.get(1).dataTime);
+    }
+
+    @Test
+    public void testWatchCreation() throws Exception {
+        File watchDir = new File(helper.getTestRootDir().toFile(), "testWatch");
+        Assert.assertTrue(watchDir.mkdirs());
+        Set<String> fileNames = ConcurrentHashMap.newKeySet();
+        FileTask task = getNormalTask(5, watchDir.getAbsolutePath() + "/YYYYMMDD_[0-9]+/test_[0-9]+.txt", fileNames);
+        EXECUTOR_SERVICE.submit(task);
+        // the files in a new directory are found by the creation events
+        String today = DateTransUtils.millSecConvertToTimeStr(System.currentTimeMillis(), CycleUnitType.DAY);
+        File dataDir = new File(watchDir, today + "_1");
+        Assert.assertTrue(dataDir.mkdirs());
+        File firstFile = new File(dataDir, "test_1.txt");
+        Assert.assertTrue(firstFile.createNewFile());
+        await().atMost(10, TimeUnit.SECONDS).until(() -> fileNames.contains(firstFile.getAbsolutePath()));
+        // the files in a watched directory are found by the creation events
+        File secondFile = new File(dataDir, "test_2.txt");
+        Assert.assertTrue(secondFile.createNewFile());
+        await().atMost(10, TimeUnit.SECONDS).until(() -> fileNames.contains(secondFile.getAbsolutePath()));
+        task.destroy();
+    }
+
+    @Test
+    public void testReconcileOnOverflow() throws Exception {
+        File watchDir = new File(helper.getTestRootDir().toFile(), "testReconcile");
+        String today = DateTransUtils.millSecConvertToTimeStr(System.currentTimeMillis(), CycleUnitType.DAY);
+        File dataDir = new File(watchDir, today + "_1");
+        Assert.assertTrue(dataDir.mkdirs());
+        File file = new File(dataDir, "test_1.txt");
+        Assert.assertTrue(file.createNewFile());
+        Set<String> fileNames = ConcurrentHashMap.newKeySet();
+        FileTask task = getNormalTask(6, watchDir.getAbsolutePath() + "/YYYYMMDD_[0-9]+/test_[0-9]+.txt", fileNames);
+        // the first round scans the existing files
+        Whitebox.invokeMethod(task, "runForNormal");
+        Assert.assertTrue(fileNames.contains(file.getAbsolutePath()));
+        // the following rounds only handle the watch events until the reconcile interval
+        fileNames.clear();
+        Whitebox.invokeMethod(task, "runForNormal");
+        Assert.assertTrue(fileNames.isEmpty());
+        // the lost events are reconciled by a full scan in the next round
+        WatchEvent<?> overflow = Mockito.mock(WatchEvent.class);
+        Mockito.doReturn(StandardWatchEventKinds.OVERFLOW).when(overflow).kind();
+        Path child = Whitebox.invokeMethod(task, "resolvePathFromEvent", overflow, watchDir.toPath());
+        Assert.assertNull(child);
+        Whitebox.invokeMethod(task, "runForNormal");
+        Assert.assertTrue(fileNames.contains(file.getAbsolutePath()));
+        task.destroy();
+    }
+
+    private FileTask getNormalTask(int taskId, String pattern, Set<String> fileNames) throws Exception {
+        TaskProfile taskProfile = helper.getFileTaskProfile(taskId, pattern, "csv", false, "", "",
+                TaskStateEnum.RUNNING, CycleUnitType.DAY, "GMT+8:00", null);
+        FileTask task = PowerMockito.spy(new FileTask());
+        PowerMockito.doAnswer(invocation -> {
+            fileNames.add(invocation.getArgument(0));
+            return null;
+        }).when(task, "addToEvenMap", Mockito.anyString(), Mockito.anyString(), Mockito.anyLong(),
+                Mockito.anyString());
+        Assert.assertTrue(task.isProfileValid(taskProfile));
+        manager.getTaskStore().storeTask(taskProfile);
+        task.init(manager, taskProfile, manager.getInstanceBasicStore());
+        return task;
+    }
+
     private void doTest(int taskId, List<String> resources, String pattern, String cycle, List<String> srcDataTimes,
             String startTime, String endTime)
             throws Exception {
@@ -29,6 +29,8 @@ import org.apache.flume.channel.AbstractChannel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.Date;
 import java.util.Timer;
 import java.util.TimerTask;
@@ -37,6 +39,10 @@ import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * BufferQueueChannel
+ *
+ * With spillEnable=true, the ProxyEvents exceeding the memory permits are spilled to the
+ * DiskSpillStore instead of blocking the sources, and once spilled, the following events
+ * are spilled as well until the spilled events are replayed, so the events keep in order.
  */
 public class BufferQueueChannel extends AbstractChannel {
 
@@ -48,6 +54,14 @@ public class BufferQueueChannel extends AbstractChannel {
     public static final String KEY_MAX_BUFFERQUEUE_SIZE_KB = "maxBufferQueueSizeKb";
     public static final int DEFAULT_MAX_BUFFERQUEUE_SIZE_KB = 128 * 1024;
     public static final String KEY_RELOADINTERVAL = "reloadInterval";
+    public static final String KEY_SPILL_ENABLE = "spillEnable";
+    public static final String KEY_SPILL_DIR = "spillDir";
+    public static final String DEFAULT_SPILL_DIR = "./spill";
+    public static final String KEY_SPILL_SEGMENT_SIZE_MB = "spillSegmentSizeMb";
+    public static final int DEFAULT_SPILL_SEGMENT_SIZE_MB = 64;
+    public static final String KEY_MAX_SPILL_SIZE_MB = "maxSpillSizeMb";
+    public static final long DEFAULT_MAX_SPILL_SIZE_MB = 10240L;
+    public static final String KEY_SPILL_CHECKPOINT_INTERVAL = "spillCheckpointInterval";
 
     private Context context;
     private int maxBufferQueueCount;
@@ -58,6 +72,9 @@ public class BufferQueueChannel extends AbstractChannel {
     protected Timer channelTimer;
     private AtomicLong takeCounter = new AtomicLong(0);
     private AtomicLong putCounter = new AtomicLong(0);
+    private DiskSpillStore spillStore;
+    private AtomicLong spillPutCounter = new AtomicLong(0);
+    private AtomicLong spillTakeCounter = new AtomicLong(0);
 
     /**
      * Constructor
@@ -76,11 +93,19 @@ public class BufferQueueChannel extends AbstractChannel {
         if (event instanceof ProxyEvent) {
             putCounter.incrementAndGet();
             int eventSize = event.getBody().length;
-            this.countSemaphore.acquireUninterruptibly();
-            this.bufferQueue.acquire(eventSize);
             ProxyTransaction transaction = currentTransaction.get();
             Preconditions.checkState(transaction != null, "No transaction exists for this thread");
             ProxyEvent profile = (ProxyEvent) event;
+            if (this.spillStore != null
+                    && (!this.spillStore.isEmpty() || !this.tryAcquire(eventSize))) {
+                spillPutCounter.incrementAndGet();
+                transaction.doSpillPut(profile);
+                return;
+            }
+            if (this.spillStore == null) {
+                this.countSemaphore.acquireUninterruptibly();
+                this.bufferQueue.acquire(eventSize);
+            }
             transaction.doPut(profile);
         }
     }
@@ -99,10 +124,52 @@ public class BufferQueueChannel extends AbstractChannel {
             Preconditions.checkState(transaction != null, "No transaction exists for this thread");
             transaction.doTake(event);
             takeCounter.incrementAndGet();
+        } else if (this.spillStore != null) {
+            event = this.takeSpilled();
         }
         return event;
     }
 
+    /**
+     * take the spilled event after the events in memory
+     *
+     * @return the spilled event, or null if no spilled event
+     */
+    private ProxyEvent takeSpilled() {
+        DiskSpillStore.SpillRecord record;
+        while ((record = this.spillStore.read()) != null) {
+            ProxyTransaction transaction = currentTransaction.get();
+            Preconditions.checkState(transaction != null, "No transaction exists for this thread");
+            try {
+                ProxyEvent event = SpillEventCodec.decode(record.getBody());
+                transaction.doSpillTake(record);
+                spillTakeCounter.incrementAndGet();
+                return event;
+            } catch (IOException e) {
+                LOG.error("Decode spilled event failure, skip it", e);
+                this.spillStore.ack(record);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * try to acquire the memory permits of an event
+     *
+     * @param eventSize
+     * @return true if the permits were acquired
+     */
+    private boolean tryAcquire(int eventSize) {
+        if (!this.countSemaphore.tryAcquire()) {
+            return false;
+        }
+        if (!this.bufferQueue.tryAcquire(eventSize)) {
+            this.countSemaphore.release();
+            return false;
+        }
+        return true;
+    }
+
     /**
      * getTransaction
      *
@@ -110,7 +177,8 @@ public class BufferQueueChannel extends AbstractChannel {
      */
     @Override
     public Transaction getTransaction() {
-        ProxyTransaction newTransaction = new ProxyTransaction(this.countSemaphore, this.bufferQueue);
+        ProxyTransaction newTransaction =
+                new ProxyTransaction(this.countSemaphore, this.bufferQueue, this.spillStore);
         this.currentTransaction.set(newTransaction);
         return newTransaction;
     }
@@ -128,6 +196,20 @@ public class BufferQueueChannel extends AbstractChannel {
         }
     }
 
+    /**
+     * stop
+     */
+    @Override
+    public void stop() {
+        if (channelTimer != null) {
+            channelTimer.cancel();
+        }
+        if (spillStore != null) {
+            spillStore.close();
+        }
+        super.stop();
+    }
+
     /**
      * setReloadTimer
      */
@@ -144,11 +226,32 @@ public class BufferQueueChannel extends AbstractChannel {
                         countSemaphore.availablePermits(),
                         putCounter.getAndSet(0),
                         takeCounter.getAndSet(0));
+                if (spillStore != null) {
+                    LOG.info("spillPending:{},spillDiskSize:{},spillPut:{},spillTake:{}",
+                            spillStore.getPendingCount(),
+                            spillStore.getDiskSize(),
+                            spillPutCounter.getAndSet(0),
+                            spillTakeCounter.getAndSet(0));
+                }
             }
         };
         channelTimer.schedule(channelTask,
                 new Date(System.currentTimeMillis() + reloadInterval),
                 reloadInterval);
+        if (spillStore != null) {
+            long checkpointInterval = context.getLong(KEY_SPILL_CHECKPOINT_INTERVAL, 1000L);
+            TimerTask checkpointTask = new TimerTask() {
+
+                public void run() {
+                    try {
+                        spillStore.checkpoint();
+                    } catch (Throwable e) {
+                        LOG.error("Save spill checkpoint failure", e);
+                    }
+                }
+            };
+            channelTimer.schedule(checkpointTask, checkpointInterval, checkpointInterval);
+        }
     }
 
     /**
@@ -163,5 +266,18 @@ public class BufferQueueChannel extends AbstractChannel {
         this.countSemaphore = new Semaphore(maxBufferQueueCount, true);
         this.maxBufferQueueSizeKb = context.getInteger(KEY_MAX_BUFFERQUEUE_SIZE_KB, DEFAULT_MAX_BUFFERQUEUE_SIZE_KB);
         this.bufferQueue = new BufferQueue<>(maxBufferQueueSizeKb);
+        if (context.getBoolean(KEY_SPILL_ENABLE, false)) {
+            File spillDir = new File(context.getString(KEY_SPILL_DIR, DEFAULT_SPILL_DIR), getName());
+            int segmentSizeMb = context.getInteger(KEY_SPILL_SEGMENT_SIZE_MB, DEFAULT_SPILL_SEGMENT_SIZE_MB);
+            long maxSpillSizeMb = context.getLong(KEY_MAX_SPILL_SIZE_MB, DEFAULT_MAX_SPILL_SIZE_MB);
+            DiskSpillStore store = new DiskSpillStore(spillDir,
+                    segmentSizeMb * 1024 * 1024, maxSpillSizeMb * 1024 * 1024);
+            try {
+                store.open();
+                this.spillStore = store;
+            } catch (IOException e) {
+                LOG.error("Open spill store {} failure, disable spilling", spillDir.getAbsolutePath(), e);
+            }
+        }
     }
 }
@@ -0,0 +1,449 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.dataproxy.channel;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.zip.CRC32;
+
+/**
+ * DiskSpillStore
+ *
+ * The records overflowing the channel memory are appended to memory-mapped segment files,
+ * each record is prefixed by its length and CRC32, a zero length ends the segment.
+ * The records are read back in order, and the read position confirmed by the consumers
+ * is saved to the checkpoint file, so the records not confirmed before a crash are replayed
+ * after restart. The segments before the checkpoint are deleted, and the total size of
+ * the segments is bounded by the max disk size. A batch of records is appended as a whole,
+ * so a failed batch leaves none of its records to be replayed.
+ */
+public class DiskSpillStore {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DiskSpillStore.class);
+    private static final String SEGMENT_PREFIX = "spill.";
+    private static final String CHECKPOINT_FILE = "spill.checkpoint";
+    private static final int RECORD_HEAD_LEN = 8;
+    // the bits of the position in the record offset
+    private static final int POSITION_BITS = 31;
+
+    private final File spillDir;
+    private final int segmentSize;
+    private final long maxDiskSize;
+    private final CRC32 crc32 = new CRC32();
+    // the segment sequences on disk
+    private final TreeSet<Long> segmentSeqs = new TreeSet<>();
+    // the offsets of the records read but not confirmed
+    private final TreeMap<Long, Integer> inFlightOffsets = new TreeMap<>();
+    // the records read and rolled back, returned before the following records
+    private final ArrayDeque<SpillRecord> redoRecords = new ArrayDeque<>();
+    private long writeSeq = -1;
+    private MappedByteBuffer writeBuffer;
+    private long readSeq = 0;
+    private int readPos = 0;
+    private MappedByteBuffer readBuffer;
+    private long readBufferSeq = -1;
+    // the count of records not read, including the rolled back ones
+    private volatile long pendingCount = 0;
+    private long lastCheckpoint = -1;
+
+    /**
+     * Constructor
+     *
+     * @param spillDir     the directory of the segment files
+     * @param segmentSize  the size of each segment file
+     * @param maxDiskSize  the max total size of the segment files
+     */
+    public DiskSpillStore(File spillDir, int segmentSize, long maxDiskSize) {
+        this.spillDir = spillDir;
+        this.segmentSize = segmentSize;
+        this.maxDiskSize = maxDiskSize;
+    }
+
+    /**
+     * Open the store, recover the segments and the checkpoint left on disk,
+     * the following records are appended to a new segment
+     *
+     * @throws IOException  exception while recovering
+     */
+    public synchronized void open() throws IOException {
+        if (!spillDir.exists() && !spillDir.mkdirs()) {
+            throw new IOException("Create spill directory failure: " + spillDir.getAbsolutePath());
+        }
+        File[] files = spillDir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                String fileName = file.getName();
+                if (!file.isFile() || !fileName.startsWith(SEGMENT_PREFIX)
+                        || fileName.equals(CHECKPOINT_FILE)) {
+                    continue;
+                }
+                try {
+                    segmentSeqs.add(Long.parseLong(fileName.substring(SEGMENT_PREFIX.length())));
+                } catch (NumberFormatException e) {
+                    LOG.warn("Skip unknown spill file {}", fileName);
+                }
+            }
+        }
+        File checkpointFile = new File(spillDir, CHECKPOINT_FILE);
+        if (checkpointFile.exists()) {
+            try (DataInputStream input = new DataInputStream(new FileInputStream(checkpointFile))) {
+                this.readSeq = input.readLong();
+                this.readPos = input.readInt();
+            }
+        } else if (!segmentSeqs.isEmpty()) {
+            this.readSeq = segmentSeqs.first();
+            this.readPos = 0;
+        }
+        // drop the segments confirmed before the crash
+        while (!segmentSeqs.isEmpty() && segmentSeqs.first() < readSeq) {
+            deleteSegment(segmentSeqs.pollFirst());
+        }
+        this.pendingCount = countRecords();
+        this.lastCheckpoint = toOffset(readSeq, readPos);
+        rollSegment();
+        LOG.info("Open spill store {}, recovered {} records in {} segments",
+                spillDir.getAbsolutePath(), pendingCount, segmentSeqs.size() - 1);
+    }
+
+    /**
+     * Append a record
+     *
+     * @param record  the record to append
+     * @return  false if the record can not be kept within the max disk size
+     * @throws IOException  exception while creating the segment
+     */
+    public boolean write(byte[] record) throws IOException {
+        return write(Collections.singletonList(record));
+    }
+
+    /**
+     * Append a batch of records, either all or none of them are appended
+     *
+     * @param records  the records to append
+     * @return  false if the records can not be kept within the max disk size
+     * @throws IOException  exception while creating the segment, none of the records is kept
+     */
+    public synchronized boolean write(List<byte[]> records) throws IOException {
+        // check the room of the whole batch before appending
+        int remaining = writeBuffer.remaining();
+        int newSegCnt = 0;
+        for (byte[] record : records) {
+            int recordLen = RECORD_HEAD_LEN + record.length;
+            // keep the room of the zero length end mark
+            if (recordLen + 4 > segmentSize) {
+                return false;
+            }
+            if (remaining < recordLen + 4) {
+                newSegCnt++;
+                remaining = segmentSize;
+            }
+            remaining -= recordLen;
+        }
+        if (newSegCnt > 0
+                && (long) (segmentSeqs.size() + newSegCnt) * segmentSize > maxDiskSize) {
+            return false;
+        }
+        long startSeq = writeSeq;
+        MappedByteBuffer startBuffer = writeBuffer;
+        int startPos = writeBuffer.position();
+        try {
+            for (byte[] record : records) {
+                if (writeBuffer.remaining() < RECORD_HEAD_LEN + record.length + 4) {
+                    rollSegment();
+                }
+                crc32.reset();
+                crc32.update(record, 0, record.length);
+                writeBuffer.putInt(record.length);
+                writeBuffer.putInt((int) crc32.getValue());
+                writeBuffer.put(record);
+            }
+        } catch (IOException e) {
+            // drop the records appended by the batch
+            while (!segmentSeqs.isEmpty() && segmentSeqs.last() > startSeq) {
+                deleteSegment(segmentSeqs.pollLast());
+            }
+            writeSeq = startSeq;
+            writeBuffer = startBuffer;
+            writeBuffer.position(startPos);
+            writeBuffer.putInt(startPos, 0);
+            throw e;
+        }
+        pendingCount += records.size();
+        return true;
+    }
+
+    /**
+     * Read the next record
+     *
+     * @return  the record, or null if no record is available
+     */
+    public synchronized SpillRecord read() {
+        SpillRecord record = redoRecords.pollFirst();
+        if (record != null) {
+            pendingCount--;
+            return record;
+        }
+        while (true) {
+            if (readSeq == writeSeq && readPos >= writeBuffer.position()) {
+                // the records skipped as torn are counted when recovering
+                pendingCount = 0;
+                return null;
+            }
+            MappedByteBuffer buffer;
+            try {
+                buffer = getReadBuffer(readSeq);
+            } catch (IOException e) {
+                LOG.error("Read spill segment {} failure, skip it", readSeq, e);
+                buffer = null;
+            }
+            int recordLen = 0;
+            if (buffer != null && readPos + RECORD_HEAD_LEN <= buffer.limit()) {
+                recordLen = buffer.getInt(readPos);
+            }
+            if (recordLen <= 0 || readPos + RECORD_HEAD_LEN + recordLen > buffer.limit()) {
+                // the end of the segment
+                if (readSeq == writeSeq) {
+                    pendingCount = 0;
+                    return null;
+                }
+                Long nextSeq = segmentSeqs.higher(readSeq);
+                readSeq = nextSeq == null ? writeSeq : nextSeq;
+                readPos = 0;
+                continue;
+            }
+            int checksum = buffer.getInt(readPos + 4);
+            byte[] body = new byte[recordLen];
+            ByteBuffer bodyBuffer = buffer.duplicate();
+            bodyBuffer.position(readPos + RECORD_HEAD_LEN);
+            bodyBuffer.get(body);
+            long offset = toOffset(readSeq, readPos);
+            readPos += RECORD_HEAD_LEN + recordLen;
+            pendingCount--;
+            crc32.reset();
+            crc32.update(body, 0, recordLen);
+            if ((int) crc32.getValue() != checksum) {
+                LOG.warn("Found torn record in spill segment {}, skip the segment tail", readSeq);
+                readPos = buffer.limit();
+                continue;
+            }
+            inFlightOffsets.merge(offset, 1, Integer::sum);
+            return new SpillRecord(offset, body);
+        }
+    }
+
+    /**
+     * Confirm a record read, it will not be replayed after restart
+     *
+     * @param record  the record read
+     */
+    public synchronized void ack(SpillRecord record) {
+        inFlightOffsets.computeIfPresent(record.getOffset(), (k, v) -> v > 1 ? v - 1 : null);
+    }
+
+    /**
+     * Roll back a record read, it will be returned by the next read
+     *
+     * @param record  the record read
+     */
+    public synchronized void redo(SpillRecord record) {
+        redoRecords.addFirst(record);
+        pendingCount++;
+    }
+
+    /**
+     * Save the confirmed read position, and delete the segments before it
+     *
+     * @throws IOException  exception while saving the checkpoint
+     */
+    public synchronized void checkpoint() throws IOException {
+        long confirmed = inFlightOffsets.isEmpty()
+                ? toOffset(readSeq, readPos)
+                : inFlightOffsets.firstKey();
+        if (confirmed == lastCheckpoint) {
+            return;
+        }
+        File tmpFile = new File(spillDir, CHECKPOINT_FILE + ".tmp");
+        try (FileOutputStream fileOutput = new FileOutputStream(tmpFile);
+                DataOutputStream output = new DataOutputStream(fileOutput)) {
+            output.writeLong(confirmed >>> POSITION_BITS);
+            output.writeInt((int) (confirmed & ((1L << POSITION_BITS) - 1)));
+            output.flush();
+            fileOutput.getFD().sync();
+        }
+        Files.move(tmpFile.toPath(), new File(spillDir, CHECKPOINT_FILE).toPath(),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        lastCheckpoint = confirmed;
+        long confirmedSeq = confirmed >>> POSITION_BITS;
+        while (!segmentSeqs.isEmpty() && segmentSeqs.first() < confirmedSeq) {
+            deleteSegment(segmentSeqs.pollFirst());
+        }
+    }
+
+    /**
+     * Close the store, the records not confirmed are kept on disk
+     */
+    public synchronized void close() {
+        try {
+            if (writeBuffer != null) {
+                writeBuffer.force();
+            }
+            checkpoint();
+        } catch (IOException e) {
+            LOG.error("Close spill store {} failure", spillDir.getAbsolutePath(), e);
+        }
+        writeBuffer = null;
+        readBuffer = null;
+    }
+
+    /**
+     * Whether there are records not read
+     */
+    public boolean isEmpty() {
+        return pendingCount <= 0;
+    }
+
+    /**
+     * Get the count of records not read
+     */
+    public long getPendingCount() {
+        return pendingCount;
+    }
+
+    /**
+     * Get the size of the segment files
+     */
+    public synchronized long getDiskSize() {
+        return (long) segmentSeqs.size() * segmentSize;
+    }
+
+    private void rollSegment() throws IOException {
+        if (writeBuffer != null) {
+            writeBuffer.force();
+        }
+        long newSeq = segmentSeqs.isEmpty() ? readSeq : segmentSeqs.last() + 1;
+        try (RandomAccessFile file = new RandomAccessFile(getSegmentFile(newSeq), "rw");
+                FileChannel fileChannel = file.getChannel()) {
+            // the mapping stays valid after the channel is closed
+            writeBuffer = fileChannel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+        segmentSeqs.add(newSeq);
+        writeSeq = newSeq;
+        if (readSeq < segmentSeqs.first()) {
+            readSeq = segmentSeqs.first();
+            readPos = 0;
+        }
+    }
+
+    private MappedByteBuffer getReadBuffer(long seq) throws IOException {
+        if (seq == writeSeq) {
+            return writeBuffer;
+        }
+        if (readBufferSeq != seq) {
+            readBuffer = null;
+            readBufferSeq = -1;
+            if (!segmentSeqs.contains(seq)) {
+                return null;
+            }
+            try (RandomAccessFile file = new RandomAccessFile(getSegmentFile(seq), "r");
+                    FileChannel fileChannel = file.getChannel()) {
+                readBuffer = fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, fileChannel.size());
+            }
+            readBufferSeq = seq;
+        }
+        return readBuffer;
+    }
+
+    private long countRecords() throws IOException {
+        long recordCnt = 0;
+        for (long seq : segmentSeqs) {
+            if (seq < readSeq) {
+                continue;
+            }
+            MappedByteBuffer buffer = getReadBuffer(seq);
+            int pos = seq == readSeq ? readPos : 0;
+            while (pos + RECORD_HEAD_LEN <= buffer.limit()) {
+                int recordLen = buffer.getInt(pos);
+                if (recordLen <= 0 || pos + RECORD_HEAD_LEN + recordLen > buffer.limit()) {
+                    break;
+                }
+                pos += RECORD_HEAD_LEN + recordLen;
+                recordCnt++;
+            }
+        }
+        return recordCnt;
+    }
+
+    private void deleteSegment(long seq) {
+        if (readBufferSeq == seq) {
+            readBuffer = null;
+            readBufferSeq = -1;
+        }
+        File segFile = getSegmentFile(seq);
+        if (!segFile.delete()) {
+            LOG.warn("Delete spill segment {} failure", segFile.getAbsolutePath());
+        }
+    }
+
+    private File getSegmentFile(long seq) {
+        return new File(spillDir, SEGMENT_PREFIX + String.format("%020d", seq));
+    }
+
+    private static long toOffset(long seq, int pos) {
+        return (seq << POSITION_BITS) | pos;
+    }
+
+    /**
+     * The record read from the spill store
+     */
+    public static class SpillRecord {
+
+        private final long offset;
+        private final byte[] body;
+
+        public SpillRecord(long offset, byte[] body) {
+            this.offset = offset;
+            this.body = body;
+        }
+
+        public long getOffset() {
+            return offset;
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+    }
+}
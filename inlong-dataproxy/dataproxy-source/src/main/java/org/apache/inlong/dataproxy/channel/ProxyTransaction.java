@@ -20,10 +20,12 @@ package org.apache.inlong.dataproxy.channel;
 import org.apache.inlong.dataproxy.utils.BufferQueue;
 import org.apache.inlong.sdk.commons.protocol.ProxyEvent;
 
+import org.apache.flume.ChannelException;
 import org.apache.flume.Transaction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.Semaphore;
@@ -39,6 +41,9 @@ public class ProxyTransaction implements Transaction {
     private BufferQueue<ProxyEvent> bufferQueue;
     private List<ProxyEvent> takeList = new ArrayList<>();
     private List<ProxyEvent> putList = new ArrayList<>();
+    private DiskSpillStore spillStore;
+    private List<DiskSpillStore.SpillRecord> spillTakeList = new ArrayList<>();
+    private List<ProxyEvent> spillPutList = new ArrayList<>();
 
     /**
      * Constructor
@@ -51,6 +56,19 @@ public class ProxyTransaction implements Transaction {
         this.bufferQueue = bufferQueue;
     }
 
+    /**
+     * Constructor
+     *
+     * @param countSemaphore
+     * @param bufferQueue
+     * @param spillStore
+     */
+    public ProxyTransaction(Semaphore countSemaphore, BufferQueue<ProxyEvent> bufferQueue,
+            DiskSpillStore spillStore) {
+        this(countSemaphore, bufferQueue);
+        this.spillStore = spillStore;
+    }
+
     /**
      * begin
      */
@@ -63,6 +81,27 @@ public class ProxyTransaction implements Transaction {
      */
     @Override
     public void commit() {
+        // spill first and as a whole, the transaction is rolled back if the disk is full
+        if (!spillPutList.isEmpty()) {
+            boolean result;
+            try {
+                List<byte[]> records = new ArrayList<>(spillPutList.size());
+                for (ProxyEvent event : spillPutList) {
+                    records.add(SpillEventCodec.encode(event));
+                }
+                result = spillStore.write(records);
+            } catch (IOException e) {
+                throw new ChannelException("Spill event to disk failure", e);
+            }
+            if (!result) {
+                throw new ChannelException("Spill store is full");
+            }
+            this.spillPutList.clear();
+        }
+        for (DiskSpillStore.SpillRecord record : spillTakeList) {
+            spillStore.ack(record);
+        }
+        this.spillTakeList.clear();
         for (ProxyEvent event : takeList) {
             countSemaphore.release();
             bufferQueue.release(event.getBody().length);
@@ -88,6 +127,12 @@ public class ProxyTransaction implements Transaction {
             bufferQueue.release(event.getBody().length);
         }
         this.putList.clear();
+        // return the replayed records in order
+        for (int i = spillTakeList.size() - 1; i >= 0; i--) {
+            spillStore.redo(spillTakeList.get(i));
+        }
+        this.spillTakeList.clear();
+        this.spillPutList.clear();
     }
 
     /**
@@ -114,4 +159,22 @@ public class ProxyTransaction implements Transaction {
     public void doPut(ProxyEvent event) {
         this.putList.add(event);
     }
+
+    /**
+     * doSpillTake
+     *
+     * @param record
+     */
+    public void doSpillTake(DiskSpillStore.SpillRecord record) {
+        this.spillTakeList.add(record);
+    }
+
+    /**
+     * doSpillPut
+     *
+     * @param event
+     */
+    public void doSpillPut(ProxyEvent event) {
+        this.spillPutList.add(event);
+    }
 }
@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.dataproxy.channel;
+
+import org.apache.inlong.sdk.commons.protocol.ProxyEvent;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * SpillEventCodec
+ *
+ * Encode the ProxyEvent spilled to disk, and decode it when replaying.
+ */
+public class SpillEventCodec {
+
+    private static final byte CODEC_VERSION = 1;
+
+    private SpillEventCodec() {
+    }
+
+    /**
+     * encode
+     *
+     * @param  event  the event to spill
+     * @return the encoded bytes
+     * @throws IOException
+     */
+    public static byte[] encode(ProxyEvent event) throws IOException {
+        byte[] body = event.getBody();
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(
+                256 + (body == null ? 0 : body.length));
+        DataOutputStream output = new DataOutputStream(buffer);
+        output.writeByte(CODEC_VERSION);
+        writeString(output, event.getInlongGroupId());
+        writeString(output, event.getInlongStreamId());
+        output.writeLong(event.getMsgTime());
+        writeString(output, event.getSourceIp());
+        output.writeLong(event.getSourceTime());
+        writeString(output, event.getTopic());
+        Map<String, String> headers = event.getHeaders();
+        output.writeInt(headers == null ? 0 : headers.size());
+        if (headers != null) {
+            for (Map.Entry<String, String> entry : headers.entrySet()) {
+                writeString(output, entry.getKey());
+                writeString(output, entry.getValue());
+            }
+        }
+        if (body == null) {
+            output.writeInt(-1);
+        } else {
+            output.writeInt(body.length);
+            output.write(body);
+        }
+        output.flush();
+        return buffer.toByteArray();
+    }
+
+    /**
+     * decode
+     *
+     * @param  data  the encoded bytes
+     * @return the event
+     * @throws IOException
+     */
+    public static ProxyEvent decode(byte[] data) throws IOException {
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(data));
+        byte version = input.readByte();
+        if (version != CODEC_VERSION) {
+            throw new IOException("Unsupported spilled event version " + version);
+        }
+        String groupId = readString(input);
+        String streamId = readString(input);
+        long msgTime = input.readLong();
+        String sourceIp = readString(input);
+        long sourceTime = input.readLong();
+        String topic = readString(input);
+        int headerCnt = input.readInt();
+        Map<String, String> headers = new HashMap<>();
+        for (int i = 0; i < headerCnt; i++) {
+            headers.put(readString(input), readString(input));
+        }
+        byte[] body = null;
+        int bodyLen = input.readInt();
+        if (bodyLen >= 0) {
+            body = new byte[bodyLen];
+            input.readFully(body);
+        }
+        ProxyEvent event = new ProxyEvent(groupId, streamId, String.valueOf(msgTime),
+                sourceIp, String.valueOf(sourceTime), headers, body);
+        if (topic != null) {
+            event.setTopic(topic);
+        }
+        return event;
+    }
+
+    private static void writeString(DataOutputStream output, String value) throws IOException {
+        output.writeBoolean(value != null);
+        if (value != null) {
+            output.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream input) throws IOException {
+        return input.readBoolean() ? input.readUTF() : null;
+    }
+}
@@ -66,6 +66,10 @@ public class DataProxyMetricItem extends MetricItem {
     public static final String M_SEND_PACK_COUNT = "sendPackCount";
     public static final String M_SEND_PACK_SIZE = "sendPackSize";
 
+    public static final String M_ENCODE_PACK_COUNT = "encodePackCount";
+    public static final String M_SERIALIZE_DURATION = "serializeDuration";
+    public static final String M_COMPRESS_DURATION = "compressDuration";
+
     @Dimension
     public String clusterId;
     @Dimension
@@ -119,6 +123,14 @@ public class DataProxyMetricItem extends MetricItem {
     public AtomicLong sendPackCount = new AtomicLong(0);
     @CountMetric
     public AtomicLong sendPackSize = new AtomicLong(0);
+    @CountMetric
+    public AtomicLong encodePackCount = new AtomicLong(0);
+    @CountMetric
+    // serialize events to package body(microseconds)
+    public AtomicLong serializeDuration = new AtomicLong(0);
+    @CountMetric
+    // compress package body(microseconds)
+    public AtomicLong compressDuration = new AtomicLong(0);
 
     /**
      * fillInlongId
@@ -315,4 +327,30 @@ public class DataProxyMetricItem extends MetricItem {
         return wholeDuration.get() / longSendSuccessCount;
     }
 
-}
\ No newline at end of file
+    /**
+     * get serializeDuration
+     *
+     * @return the average serialize duration of package(microseconds)
+     */
+    public long getSerializeAverageDuration() {
+        long longEncodePackCount = encodePackCount.get();
+        if (longEncodePackCount <= 0) {
+            return 0;
+        }
+        return serializeDuration.get() / longEncodePackCount;
+    }
+
+    /**
+     * get compressDuration
+     *
+     * @return the average compress duration of package(microseconds)
+     */
+    public long getCompressAverageDuration() {
+        long longEncodePackCount = encodePackCount.get();
+        if (longEncodePackCount <= 0) {
+            return 0;
+        }
+        return compressDuration.get() / longEncodePackCount;
+    }
+
+}
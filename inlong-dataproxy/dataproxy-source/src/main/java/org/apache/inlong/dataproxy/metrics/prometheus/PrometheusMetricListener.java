@@ -44,6 +44,8 @@ import java.util.concurrent.atomic.AtomicLong;
 
 import static org.apache.inlong.common.metric.MetricItemMBean.DOMAIN_SEPARATOR;
 import static org.apache.inlong.common.metric.MetricRegister.JMX_DOMAIN;
+import static org.apache.inlong.dataproxy.metrics.DataProxyMetricItem.M_COMPRESS_DURATION;
+import static org.apache.inlong.dataproxy.metrics.DataProxyMetricItem.M_ENCODE_PACK_COUNT;
 import static org.apache.inlong.dataproxy.metrics.DataProxyMetricItem.M_NODE_DURATION;
 import static org.apache.inlong.dataproxy.metrics.DataProxyMetricItem.M_READ_FAIL_COUNT;
 import static org.apache.inlong.dataproxy.metrics.DataProxyMetricItem.M_READ_FAIL_SIZE;
@@ -55,6 +57,7 @@ import static org.apache.inlong.dataproxy.metrics.DataProxyMetricItem.M_SEND_FAI
 import static org.apache.inlong.dataproxy.metrics.DataProxyMetricItem.M_SEND_SIZE;
 import static org.apache.inlong.dataproxy.metrics.DataProxyMetricItem.M_SEND_SUCCESS_COUNT;
 import static org.apache.inlong.dataproxy.metrics.DataProxyMetricItem.M_SEND_SUCCESS_SIZE;
+import static org.apache.inlong.dataproxy.metrics.DataProxyMetricItem.M_SERIALIZE_DURATION;
 import static org.apache.inlong.dataproxy.metrics.DataProxyMetricItem.M_SINK_DURATION;
 import static org.apache.inlong.dataproxy.metrics.DataProxyMetricItem.M_WHOLE_DURATION;
 
@@ -105,6 +108,10 @@ public class PrometheusMetricListener extends Collector implements MetricListene
         metricValueMap.put(M_SINK_DURATION, metricItem.sinkDuration);
         metricValueMap.put(M_NODE_DURATION, metricItem.nodeDuration);
         metricValueMap.put(M_WHOLE_DURATION, metricItem.wholeDuration);
+        // encode
+        metricValueMap.put(M_ENCODE_PACK_COUNT, metricItem.encodePackCount);
+        metricValueMap.put(M_SERIALIZE_DURATION, metricItem.serializeDuration);
+        metricValueMap.put(M_COMPRESS_DURATION, metricItem.compressDuration);
 
         try {
             this.httpServer = new HTTPServer(CommonConfigHolder.getInstance().getPrometheusHttpPort());
@@ -189,6 +196,10 @@ public class PrometheusMetricListener extends Collector implements MetricListene
         totalCounter.addMetric(Arrays.asList(M_SINK_DURATION), metricItem.sinkDuration.get());
         totalCounter.addMetric(Arrays.asList(M_NODE_DURATION), metricItem.nodeDuration.get());
         totalCounter.addMetric(Arrays.asList(M_WHOLE_DURATION), metricItem.wholeDuration.get());
+        // encode
+        totalCounter.addMetric(Arrays.asList(M_ENCODE_PACK_COUNT), metricItem.encodePackCount.get());
+        totalCounter.addMetric(Arrays.asList(M_SERIALIZE_DURATION), metricItem.serializeDuration.get());
+        totalCounter.addMetric(Arrays.asList(M_COMPRESS_DURATION), metricItem.compressDuration.get());
         List<MetricFamilySamples> mfs = new ArrayList<>();
         mfs.add(totalCounter);
 
@@ -216,6 +227,10 @@ public class PrometheusMetricListener extends Collector implements MetricListene
             addCounterMetricFamily(M_SINK_DURATION, itemValue, idCounter);
             addCounterMetricFamily(M_NODE_DURATION, itemValue, idCounter);
             addCounterMetricFamily(M_WHOLE_DURATION, itemValue, idCounter);
+            // encode
+            addCounterMetricFamily(M_ENCODE_PACK_COUNT, itemValue, idCounter);
+            addCounterMetricFamily(M_SERIALIZE_DURATION, itemValue, idCounter);
+            addCounterMetricFamily(M_COMPRESS_DURATION, itemValue, idCounter);
         }
         mfs.add(idCounter);
         return mfs;
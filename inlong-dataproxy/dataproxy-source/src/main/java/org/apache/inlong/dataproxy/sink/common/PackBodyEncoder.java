@@ -0,0 +1,194 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.dataproxy.sink.common;
+
+import org.apache.inlong.common.enums.InlongCompressType;
+import org.apache.inlong.dataproxy.sink.mq.BatchPackProfile;
+import org.apache.inlong.sdk.commons.protocol.ProxyEvent;
+import org.apache.inlong.sdk.commons.protocol.ProxySdk.MapFieldEntry;
+import org.apache.inlong.sdk.commons.protocol.ProxySdk.MessageObj;
+import org.apache.inlong.sdk.commons.protocol.ProxySdk.MessageObjs;
+
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.UnsafeByteOperations;
+import org.xerial.snappy.Snappy;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * PackBodyEncoder
+ *
+ * Serialize the events of a BatchPackProfile into the MessageObjs body and compress it.
+ * Each thread owns an encoder, so the serialize and compress buffers and the gzip
+ * deflater are reused across packages instead of being allocated per package.
+ */
+public class PackBodyEncoder {
+
+    // the buffers beyond this size are not kept after use
+    private static final int MAX_CACHED_BUFFER_SIZE = 4 * 1024 * 1024;
+    private static final int INIT_BUFFER_SIZE = 64 * 1024;
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0};
+    private static final int GZIP_TRAILER_SIZE = 8;
+    private static final ThreadLocal<PackBodyEncoder> LOCAL_ENCODER =
+            ThreadLocal.withInitial(PackBodyEncoder::new);
+
+    private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+    private final CRC32 crc32 = new CRC32();
+    private byte[] serializeBuffer = new byte[INIT_BUFFER_SIZE];
+    private byte[] compressBuffer = new byte[INIT_BUFFER_SIZE];
+    private long serializeNanos = 0L;
+    private long compressNanos = 0L;
+
+    private PackBodyEncoder() {
+    }
+
+    /**
+     * get the encoder of current thread
+     *
+     * @return the encoder
+     */
+    public static PackBodyEncoder get() {
+        return LOCAL_ENCODER.get();
+    }
+
+    /**
+     * encode
+     *
+     * @param  profile       the package to encode
+     * @param  compressType  the compress type
+     * @return the serialized and compressed body
+     * @throws IOException
+     */
+    public byte[] encode(BatchPackProfile profile, InlongCompressType compressType) throws IOException {
+        // serialize
+        long startTime = System.nanoTime();
+        MessageObjs.Builder objs = MessageObjs.newBuilder();
+        for (ProxyEvent event : profile.getEvents()) {
+            MessageObj.Builder builder = MessageObj.newBuilder();
+            builder.setMsgTime(event.getMsgTime());
+            builder.setSourceIp(event.getSourceIp());
+            for (Map.Entry<String, String> entry : event.getHeaders().entrySet()) {
+                builder.addParams(MapFieldEntry.newBuilder().setKey(entry.getKey()).setValue(entry.getValue()));
+            }
+            // the event body is not modified after received, so it is not copied
+            builder.setBody(UnsafeByteOperations.unsafeWrap(event.getBody()));
+            objs.addMsgs(builder.build());
+        }
+        MessageObjs msgObjs = objs.build();
+        int srcLength = msgObjs.getSerializedSize();
+        if (compressType != InlongCompressType.INLONG_SNAPPY
+                && compressType != InlongCompressType.INLONG_GZ) {
+            byte[] srcBytes = msgObjs.toByteArray();
+            this.serializeNanos = System.nanoTime() - startTime;
+            this.compressNanos = 0L;
+            return srcBytes;
+        }
+        byte[] srcBuffer = getSerializeBuffer(srcLength);
+        CodedOutputStream output = CodedOutputStream.newInstance(srcBuffer, 0, srcLength);
+        msgObjs.writeTo(output);
+        output.checkNoSpaceLeft();
+        long serializedTime = System.nanoTime();
+        this.serializeNanos = serializedTime - startTime;
+        // compress
+        byte[] compressBytes;
+        if (compressType == InlongCompressType.INLONG_SNAPPY) {
+            byte[] dstBuffer = getCompressBuffer(Snappy.maxCompressedLength(srcLength));
+            int dstLength = Snappy.compress(srcBuffer, 0, srcLength, dstBuffer, 0);
+            compressBytes = Arrays.copyOf(dstBuffer, dstLength);
+        } else {
+            compressBytes = gzip(srcBuffer, srcLength);
+        }
+        this.compressNanos = System.nanoTime() - serializedTime;
+        releaseBuffers();
+        return compressBytes;
+    }
+
+    /**
+     * get the serialize duration of the last encoded package
+     *
+     * @return the duration in nanoseconds
+     */
+    public long getSerializeNanos() {
+        return serializeNanos;
+    }
+
+    /**
+     * get the compress duration of the last encoded package
+     *
+     * @return the duration in nanoseconds
+     */
+    public long getCompressNanos() {
+        return compressNanos;
+    }
+
+    private byte[] gzip(byte[] srcBuffer, int srcLength) {
+        byte[] dstBuffer = getCompressBuffer(GZIP_HEADER.length + srcLength / 2 + GZIP_TRAILER_SIZE);
+        System.arraycopy(GZIP_HEADER, 0, dstBuffer, 0, GZIP_HEADER.length);
+        int dstLength = GZIP_HEADER.length;
+        deflater.reset();
+        deflater.setInput(srcBuffer, 0, srcLength);
+        deflater.finish();
+        while (!deflater.finished()) {
+            if (dstLength == dstBuffer.length) {
+                dstBuffer = Arrays.copyOf(dstBuffer, dstBuffer.length * 2);
+                this.compressBuffer = dstBuffer;
+            }
+            dstLength += deflater.deflate(dstBuffer, dstLength, dstBuffer.length - dstLength);
+        }
+        crc32.reset();
+        crc32.update(srcBuffer, 0, srcLength);
+        byte[] compressBytes = Arrays.copyOf(dstBuffer, dstLength + GZIP_TRAILER_SIZE);
+        writeIntLE(compressBytes, dstLength, (int) crc32.getValue());
+        writeIntLE(compressBytes, dstLength + 4, srcLength);
+        return compressBytes;
+    }
+
+    private static void writeIntLE(byte[] buffer, int offset, int value) {
+        buffer[offset] = (byte) value;
+        buffer[offset + 1] = (byte) (value >>> 8);
+        buffer[offset + 2] = (byte) (value >>> 16);
+        buffer[offset + 3] = (byte) (value >>> 24);
+    }
+
+    private byte[] getSerializeBuffer(int length) {
+        if (serializeBuffer.length < length) {
+            serializeBuffer = new byte[Math.max(length, serializeBuffer.length * 2)];
+        }
+        return serializeBuffer;
+    }
+
+    private byte[] getCompressBuffer(int length) {
+        if (compressBuffer.length < length) {
+            compressBuffer = new byte[Math.max(length, compressBuffer.length * 2)];
+        }
+        return compressBuffer;
+    }
+
+    private void releaseBuffers() {
+        if (serializeBuffer.length > MAX_CACHED_BUFFER_SIZE) {
+            serializeBuffer = new byte[INIT_BUFFER_SIZE];
+        }
+        if (compressBuffer.length > MAX_CACHED_BUFFER_SIZE) {
+            compressBuffer = new byte[INIT_BUFFER_SIZE];
+        }
+    }
+}
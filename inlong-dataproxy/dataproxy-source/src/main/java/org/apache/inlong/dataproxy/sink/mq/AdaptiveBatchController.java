@@ -0,0 +1,196 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.dataproxy.sink.mq;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * AdaptiveBatchController
+ *
+ * Size the packages of each uid from its observed arrival rate and downstream send
+ * latency, so that the time an event waits for its package plus the send latency stays
+ * within the configured latency limit:
+ * <ul>
+ * <li>a uid whose minimum package cannot be filled within the latency budget gains
+ * nothing from waiting, so its packages are flushed after the minimum timeout;</li>
+ * <li>otherwise a package collects the events that arrive while the previous one is
+ * being sent, at least the minimum package count, and is flushed when it reaches that
+ * count or when the latency budget runs out.</li>
+ * </ul>
+ * The statistics are smoothed by EWMA. The send latency is reported from the MQ
+ * callback threads, its updates may race, which only loses a sample.
+ */
+public class AdaptiveBatchController {
+
+    private static final double EWMA_WEIGHT = 0.3;
+    private static final long STATE_EXPIRE_MS = 10 * 60 * 1000L;
+
+    private final boolean adaptive;
+    private final long dispatchTimeout;
+    private final long maxLatency;
+    private final long minTimeout;
+    private final long minPackCount;
+    private final long maxPackCount;
+    private final ConcurrentHashMap<String, BatchState> batchStates = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor
+     *
+     * @param adaptive         whether adapt the package limits
+     * @param dispatchTimeout  the fixed package timeout when not adaptive
+     * @param maxLatency       the max time an event spends in package and sending
+     * @param minTimeout       the min package timeout
+     * @param minPackCount     the min package count to wait for
+     * @param maxPackCount     the max package count
+     */
+    public AdaptiveBatchController(boolean adaptive, long dispatchTimeout,
+            long maxLatency, long minTimeout, long minPackCount, long maxPackCount) {
+        this.adaptive = adaptive;
+        this.dispatchTimeout = dispatchTimeout;
+        this.maxLatency = maxLatency;
+        this.minTimeout = Math.min(minTimeout, maxLatency);
+        this.maxPackCount = maxPackCount;
+        this.minPackCount = Math.min(minPackCount, maxPackCount);
+    }
+
+    /**
+     * get the batch state of uid
+     *
+     * @param  uid  the inlong id
+     * @param  now  the current time
+     * @return the batch state
+     */
+    public BatchState getBatchState(String uid, long now) {
+        BatchState state = batchStates.get(uid);
+        if (state == null) {
+            state = new BatchState(now, maxPackCount, adaptive ? minTimeout : dispatchTimeout);
+            BatchState oldState = batchStates.putIfAbsent(uid, state);
+            if (oldState != null) {
+                state = oldState;
+            }
+        }
+        state.lastAccessTime = now;
+        return state;
+    }
+
+    /**
+     * update the arrival rate of uid when its package is output
+     *
+     * @param uid    the inlong id
+     * @param count  the event count of the package
+     * @param now    the current time
+     */
+    public void onPackOutput(String uid, long count, long now) {
+        if (!adaptive) {
+            return;
+        }
+        BatchState state = getBatchState(uid, now);
+        double rate = (double) count / Math.max(1L, now - state.lastOutputTime);
+        state.arrivalRate = state.arrivalRate < 0
+                ? rate
+                : state.arrivalRate + EWMA_WEIGHT * (rate - state.arrivalRate);
+        state.lastOutputTime = now;
+        adjust(state);
+    }
+
+    /**
+     * update the send latency of uid when its package is sent successfully
+     *
+     * @param uid          the inlong id
+     * @param sendLatency  the send latency
+     */
+    public void onPackSent(String uid, long sendLatency) {
+        if (!adaptive) {
+            return;
+        }
+        BatchState state = batchStates.get(uid);
+        if (state == null) {
+            return;
+        }
+        state.sendLatency = state.sendLatency < 0
+                ? sendLatency
+                : state.sendLatency + EWMA_WEIGHT * (sendLatency - state.sendLatency);
+    }
+
+    /**
+     * remove the states of uid not accessed for a while
+     *
+     * @param now  the current time
+     */
+    public void clearExpiredStates(long now) {
+        batchStates.values().removeIf(state -> now - state.lastAccessTime > STATE_EXPIRE_MS);
+    }
+
+    public int getStateCount() {
+        return batchStates.size();
+    }
+
+    private void adjust(BatchState state) {
+        double latency = Math.max(0, state.sendLatency);
+        long budget = Math.max(minTimeout, maxLatency - (long) latency);
+        double minFillTime = state.arrivalRate > 0 ? minPackCount / state.arrivalRate : Double.MAX_VALUE;
+        if (minFillTime > budget) {
+            // low volume
+            state.packCount = maxPackCount;
+            state.timeout = minTimeout;
+            return;
+        }
+        double waitTime = Math.min(budget, Math.max(latency, minFillTime));
+        long packCount = (long) Math.ceil(state.arrivalRate * waitTime);
+        state.packCount = Math.max(minPackCount, Math.min(maxPackCount, packCount));
+        state.timeout = budget;
+    }
+
+    /**
+     * BatchState
+     */
+    public static class BatchState {
+
+        // events per millisecond, -1 if not observed
+        private volatile double arrivalRate = -1;
+        // milliseconds, -1 if not observed
+        private volatile double sendLatency = -1;
+        private volatile long packCount;
+        private volatile long timeout;
+        private volatile long lastOutputTime;
+        private volatile long lastAccessTime;
+
+        private BatchState(long now, long packCount, long timeout) {
+            this.packCount = packCount;
+            this.timeout = timeout;
+            this.lastOutputTime = now;
+            this.lastAccessTime = now;
+        }
+
+        public long getPackCount() {
+            return packCount;
+        }
+
+        public long getTimeout() {
+            return timeout;
+        }
+
+        public double getArrivalRate() {
+            return arrivalRate;
+        }
+
+        public double getSendLatency() {
+            return sendLatency;
+        }
+    }
+}
@@ -17,7 +17,11 @@
 
 package org.apache.inlong.dataproxy.sink.mq;
 
+import org.apache.inlong.common.enums.InlongCompressType;
 import org.apache.inlong.common.msg.AttributeConstants;
+import org.apache.inlong.dataproxy.config.CommonConfigHolder;
+import org.apache.inlong.dataproxy.sink.common.DefaultEventHandler;
+import org.apache.inlong.dataproxy.sink.common.PackBodyEncoder;
 import org.apache.inlong.sdk.commons.protocol.InlongId;
 import org.apache.inlong.sdk.commons.protocol.ProxyEvent;
 import org.apache.inlong.sdk.commons.protocol.ProxyPackEvent;
@@ -31,10 +35,9 @@ import org.slf4j.LoggerFactory;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * BatchPackManager
@@ -46,20 +49,41 @@ public class BatchPackManager {
     public static final String KEY_DISPATCH_TIMEOUT = "dispatchTimeout";
     public static final String KEY_DISPATCH_MAX_PACKCOUNT = "dispatchMaxPackCount";
     public static final String KEY_DISPATCH_MAX_PACKSIZE = "dispatchMaxPackSize";
+    public static final String KEY_DISPATCH_PREPARE_BODY = "dispatchPrepareBody";
+    public static final String KEY_DISPATCH_ADAPTIVE = "dispatchAdaptive";
+    public static final String KEY_DISPATCH_MAX_LATENCY = "dispatchMaxLatency";
+    public static final String KEY_DISPATCH_MIN_TIMEOUT = "dispatchMinTimeout";
+    public static final String KEY_DISPATCH_MIN_PACKCOUNT = "dispatchMinPackCount";
+    public static final String KEY_DISPATCH_TICK = "dispatchTick";
     public static final long DEFAULT_DISPATCH_TIMEOUT = 2000;
     public static final long DEFAULT_DISPATCH_MAX_PACKCOUNT = 256;
     public static final long DEFAULT_DISPATCH_MAX_PACKSIZE = 327680;
+    public static final boolean DEFAULT_DISPATCH_PREPARE_BODY = true;
+    // keep the fixed limits of the existing deployments unless enabled
+    public static final boolean DEFAULT_DISPATCH_ADAPTIVE = false;
+    public static final long DEFAULT_DISPATCH_MIN_TIMEOUT = 50;
+    public static final long DEFAULT_DISPATCH_MIN_PACKCOUNT = 8;
+    public static final long DEFAULT_DISPATCH_TICK = 10;
+    public static final int TIMER_WHEEL_SIZE = 512;
     public static final long MINUTE_MS = 60L * 1000;
 
     private final long dispatchTimeout;
     private final long maxPackCount;
     private final long maxPackSize;
+    // whether serialize and compress the package body before dispatching
+    private final boolean prepareBody;
+    private final InlongCompressType compressType;
     private final MessageQueueZoneSink mqZoneSink;
+    private final long dispatchTick;
+    private final AdaptiveBatchController batchController;
     private final ConcurrentHashMap<String, PackProfile> profileCache = new ConcurrentHashMap<>();
-    // flag that manager need to output overtime data.
-    private final AtomicBoolean needOutputOvertimeData = new AtomicBoolean(false);
+    // flush deadlines of the cached profiles, guarded by timerLock
+    private final PackTimerWheel timerWheel;
+    private final ReentrantLock timerLock = new ReentrantLock();
     private final AtomicLong inCounter = new AtomicLong(0);
     private final AtomicLong outCounter = new AtomicLong(0);
+    private final AtomicLong overtimeCounter = new AtomicLong(0);
+    private volatile long lastStatTime = System.currentTimeMillis();
 
     /**
      * Constructor
@@ -72,6 +96,20 @@ public class BatchPackManager {
         this.dispatchTimeout = context.getLong(KEY_DISPATCH_TIMEOUT, DEFAULT_DISPATCH_TIMEOUT);
         this.maxPackCount = context.getLong(KEY_DISPATCH_MAX_PACKCOUNT, DEFAULT_DISPATCH_MAX_PACKCOUNT);
         this.maxPackSize = context.getLong(KEY_DISPATCH_MAX_PACKSIZE, DEFAULT_DISPATCH_MAX_PACKSIZE);
+        // only the default event handler builds the body from the cached one
+        this.prepareBody = context.getBoolean(KEY_DISPATCH_PREPARE_BODY, DEFAULT_DISPATCH_PREPARE_BODY)
+                && DefaultEventHandler.class.getName().equals(CommonConfigHolder.getInstance().getEventHandler());
+        this.compressType = CommonConfigHolder.getInstance().getDefV1MsgCompressType();
+        // adaptive batching
+        this.batchController = new AdaptiveBatchController(
+                context.getBoolean(KEY_DISPATCH_ADAPTIVE, DEFAULT_DISPATCH_ADAPTIVE),
+                this.dispatchTimeout,
+                context.getLong(KEY_DISPATCH_MAX_LATENCY, this.dispatchTimeout),
+                context.getLong(KEY_DISPATCH_MIN_TIMEOUT, DEFAULT_DISPATCH_MIN_TIMEOUT),
+                context.getLong(KEY_DISPATCH_MIN_PACKCOUNT, DEFAULT_DISPATCH_MIN_PACKCOUNT),
+                this.maxPackCount);
+        this.dispatchTick = context.getLong(KEY_DISPATCH_TICK, DEFAULT_DISPATCH_TICK);
+        this.timerWheel = new PackTimerWheel(dispatchTick, TIMER_WHEEL_SIZE, System.currentTimeMillis());
     }
 
     /**
@@ -83,23 +121,32 @@ public class BatchPackManager {
         String eventUid = event.getUid();
         long dispatchTime = event.getMsgTime() - event.getMsgTime() % MINUTE_MS;
         String dispatchKey = eventUid + "." + dispatchTime;
-        // find dispatch profile
-        PackProfile dispatchProfile = this.profileCache.get(dispatchKey);
-        if (dispatchProfile == null) {
-            dispatchProfile = new BatchPackProfile(eventUid, event.getInlongGroupId(),
-                    event.getInlongStreamId(), dispatchTime);
-            this.profileCache.put(dispatchKey, dispatchProfile);
-        }
-        // add event
-        if (!dispatchProfile.addEvent(event, maxPackCount, maxPackSize)) {
-            BatchPackProfile newDispatchProfile = new BatchPackProfile(eventUid, event.getInlongGroupId(),
-                    event.getInlongStreamId(), dispatchTime);
-            PackProfile oldDispatchProfile = this.profileCache.put(dispatchKey, newDispatchProfile);
-            if (oldDispatchProfile != null) {
-                this.mqZoneSink.acquireAndOfferDispatchedRecord(oldDispatchProfile);
+        long currentTime = System.currentTimeMillis();
+        AdaptiveBatchController.BatchState batchState =
+                this.batchController.getBatchState(eventUid, currentTime);
+        long packCount = batchState.getPackCount();
+        PackProfile[] fullProfile = new PackProfile[1];
+        // only the events of the same dispatch key are serialized
+        this.profileCache.compute(dispatchKey, (key, dispatchProfile) -> {
+            // find dispatch profile
+            if (dispatchProfile == null) {
+                dispatchProfile = createProfile(key, event, dispatchTime, batchState, currentTime);
             }
-            this.outCounter.addAndGet(dispatchProfile.getCount());
-            newDispatchProfile.addEvent(event, maxPackCount, maxPackSize);
+            // add event
+            if (!dispatchProfile.addEvent(event, packCount, maxPackSize)) {
+                fullProfile[0] = dispatchProfile;
+                dispatchProfile = createProfile(key, event, dispatchTime, batchState, currentTime);
+                dispatchProfile.addEvent(event, packCount, maxPackSize);
+            }
+            // output the profile as soon as it is full
+            if (fullProfile[0] == null && dispatchProfile.getCount() >= packCount) {
+                fullProfile[0] = dispatchProfile;
+                return null;
+            }
+            return dispatchProfile;
+        });
+        if (fullProfile[0] != null) {
+            outputProfile(fullProfile[0], currentTime);
         }
         this.inCounter.incrementAndGet();
     }
@@ -122,7 +169,7 @@ public class BatchPackManager {
             if (!dispatchProfile.addEvent(event, maxPackCount, maxPackSize)) {
                 // dispatch profile is full
                 this.outCounter.addAndGet(dispatchProfile.getCount());
-                this.mqZoneSink.acquireAndOfferDispatchedRecord(dispatchProfile);
+                offerPackProfile(dispatchProfile);
                 dispatchProfile = new BatchPackProfile(eventUid, event.getInlongGroupId(), event.getInlongStreamId(),
                         dispatchTime);
                 dispatchProfile.setCallback(callback);
@@ -133,7 +180,7 @@ public class BatchPackManager {
         // last dispatch profile
         if (dispatchProfile.getEvents().size() > 0) {
             this.outCounter.addAndGet(dispatchProfile.getCount());
-            this.mqZoneSink.acquireAndOfferDispatchedRecord(dispatchProfile);
+            offerPackProfile(dispatchProfile);
         }
     }
 
@@ -150,7 +197,7 @@ public class BatchPackManager {
         long dispatchTime = msgTime - msgTime % MINUTE_MS;
         SimplePackProfile profile = new SimplePackProfile(uid, inlongGroupId, inlongStreamId, dispatchTime);
         profile.addEvent(event, maxPackCount, maxPackSize);
-        this.mqZoneSink.acquireAndOfferDispatchedRecord(profile);
+        offerPackProfile(profile);
         this.outCounter.addAndGet(profile.getCount());
         this.inCounter.incrementAndGet();
     }
@@ -160,40 +207,95 @@ public class BatchPackManager {
      * 
      */
     public void outputOvertimeData() {
-        if (!needOutputOvertimeData.getAndSet(false)) {
-            return;
-        }
-        int profileSize = profileCache.size();
-        int dispatchSize = this.mqZoneSink.getDispatchQueueSize();
         long currentTime = System.currentTimeMillis();
-        long createThreshold = currentTime - dispatchTimeout;
-        List<String> removeKeys = new ArrayList<>();
-        long eventCount = 0;
-        for (Entry<String, PackProfile> entry : this.profileCache.entrySet()) {
-            PackProfile dispatchProfile = entry.getValue();
-            eventCount += dispatchProfile.getCount();
-            if (!dispatchProfile.isTimeout(createThreshold)) {
-                continue;
+        List<String> expiredKeys = new ArrayList<>();
+        List<PackProfile> expiredProfiles = new ArrayList<>();
+        this.timerLock.lock();
+        try {
+            this.timerWheel.advance(currentTime, (key, profile) -> {
+                expiredKeys.add(key);
+                expiredProfiles.add(profile);
+            });
+        } finally {
+            this.timerLock.unlock();
+        }
+        // the profiles output before their deadlines are skipped
+        List<PackProfile> overtimeProfiles = new ArrayList<>();
+        for (int i = 0; i < expiredKeys.size(); i++) {
+            if (this.profileCache.remove(expiredKeys.get(i), expiredProfiles.get(i))) {
+                overtimeProfiles.add(expiredProfiles.get(i));
             }
-            removeKeys.add(entry.getKey());
         }
         // output
-        removeKeys.forEach((key) -> {
-            PackProfile dispatchProfile = this.profileCache.remove(key);
-            if (dispatchProfile != null) {
-                this.mqZoneSink.acquireAndOfferDispatchedRecord(dispatchProfile);
-                this.outCounter.addAndGet(dispatchProfile.getCount());
-            }
-        });
+        for (PackProfile profile : overtimeProfiles) {
+            outputProfile(profile, currentTime);
+        }
+        this.overtimeCounter.addAndGet(overtimeProfiles.size());
+        if (currentTime - lastStatTime < dispatchTimeout) {
+            return;
+        }
+        this.lastStatTime = currentTime;
+        this.batchController.clearExpiredStates(currentTime);
         long hisInCnt = inCounter.getAndSet(0);
         long hisOutCnt = outCounter.getAndSet(0);
-        if (!removeKeys.isEmpty()) {
-            logger.info("{} output overtime data, profileCacheSize: before={}, after={},"
-                    + " dispatchQueueSize: before={}, after={}, eventCount: {},"
+        long hisOvertimeCnt = overtimeCounter.getAndSet(0);
+        if (hisOvertimeCnt > 0) {
+            logger.info("{} output overtime data, overtimeProfiles: {}, profileCacheSize: {},"
+                    + " timerEntries: {}, batchStates: {}, dispatchQueueSize: {},"
                     + " inCounter: {}, outCounter: {}",
-                    mqZoneSink.getName(), profileSize, profileCache.size(), dispatchSize,
-                    this.mqZoneSink.getDispatchQueueSize(), eventCount, hisInCnt, hisOutCnt);
+                    mqZoneSink.getName(), hisOvertimeCnt, profileCache.size(),
+                    timerWheel.getEntryCount(), batchController.getStateCount(),
+                    this.mqZoneSink.getDispatchQueueSize(), hisInCnt, hisOutCnt);
+        }
+    }
+
+    /**
+     * onPackSent
+     *
+     * @param profile      the package sent successfully
+     * @param sendLatency  the send latency
+     */
+    public void onPackSent(PackProfile profile, long sendLatency) {
+        this.batchController.onPackSent(profile.getUid(), sendLatency);
+    }
+
+    private BatchPackProfile createProfile(String dispatchKey, ProxyEvent event, long dispatchTime,
+            AdaptiveBatchController.BatchState batchState, long currentTime) {
+        BatchPackProfile profile = new BatchPackProfile(event.getUid(), event.getInlongGroupId(),
+                event.getInlongStreamId(), dispatchTime);
+        this.timerLock.lock();
+        try {
+            this.timerWheel.schedule(dispatchKey, profile, currentTime + batchState.getTimeout());
+        } finally {
+            this.timerLock.unlock();
+        }
+        return profile;
+    }
+
+    private void outputProfile(PackProfile profile, long currentTime) {
+        this.batchController.onPackOutput(profile.getUid(), profile.getCount(), currentTime);
+        offerPackProfile(profile);
+        this.outCounter.addAndGet(profile.getCount());
+    }
+
+    /**
+     * offerPackProfile
+     *
+     * @param profile  the package to dispatch
+     */
+    private void offerPackProfile(PackProfile profile) {
+        if (prepareBody && profile instanceof BatchPackProfile) {
+            PackBodyEncoder encoder = PackBodyEncoder.get();
+            try {
+                profile.setPackBody(compressType, encoder.encode((BatchPackProfile) profile, compressType));
+                this.mqZoneSink.getZoneSinkContext().addEncodeMetric(profile,
+                        encoder.getSerializeNanos(), encoder.getCompressNanos());
+            } catch (Throwable e) {
+                // the body is built again when sending
+                logger.warn("{} prepare package body failure", mqZoneSink.getName(), e);
+            }
         }
+        this.mqZoneSink.acquireAndOfferDispatchedRecord(profile);
     }
 
     /**
@@ -224,9 +326,11 @@ public class BatchPackManager {
     }
 
     /**
-     * setNeedOutputOvertimeData
+     * get dispatchTick
+     *
+     * @return the dispatchTick
      */
-    public void setNeedOutputOvertimeData() {
-        this.needOutputOvertimeData.getAndSet(true);
+    public long getDispatchTick() {
+        return dispatchTick;
     }
 }
@@ -87,6 +87,7 @@ public class BatchPackProfile extends PackProfile {
      * ack
      */
     public void ack() {
+        clearPackBody();
         if (callback != null) {
             callback.ack(this.events.size());
         }
@@ -96,6 +97,7 @@ public class BatchPackProfile extends PackProfile {
      * fail
      */
     public void fail(DataProxyErrCode errCode, String errMsg) {
+        clearPackBody();
         if (callback != null) {
             callback.fail();
         }
@@ -115,11 +115,24 @@ public class MessageQueueZoneSink extends AbstractSink implements Configurable,
             this.scheduledPool.scheduleWithFixedDelay(new Runnable() {
 
                 public void run() {
-                    dispatchManager.setNeedOutputOvertimeData();
                     zoneProducer.clearExpiredProducers();
                 }
             }, this.dispatchManager.getDispatchTimeout(), this.dispatchManager.getDispatchTimeout(),
                     TimeUnit.MILLISECONDS);
+            // flush the overtime packages
+            this.scheduledPool.scheduleWithFixedDelay(new Runnable() {
+
+                public void run() {
+                    try {
+                        dispatchManager.outputOvertimeData();
+                    } catch (Throwable e) {
+                        if (logCounter.shouldPrint()) {
+                            logger.error("{} output overtime data failure", cachedSinkName, e);
+                        }
+                    }
+                }
+            }, this.dispatchManager.getDispatchTick(), this.dispatchManager.getDispatchTick(),
+                    TimeUnit.MILLISECONDS);
             // create producer
             this.zoneProducer = new MessageQueueZoneProducer(this, this.context);
             this.zoneProducer.start();
@@ -187,7 +200,6 @@ public class MessageQueueZoneSink extends AbstractSink implements Configurable,
                 //
             }
         }
-        this.dispatchManager.outputOvertimeData();
         Transaction tx = cachedMsgChannel.getTransaction();
         tx.begin();
         try {
@@ -269,6 +281,14 @@ public class MessageQueueZoneSink extends AbstractSink implements Configurable,
         return cachedSinkName;
     }
 
+    public MessageQueueZoneSinkContext getZoneSinkContext() {
+        return context;
+    }
+
+    public BatchPackManager getDispatchManager() {
+        return dispatchManager;
+    }
+
     public boolean isMqClusterStarted() {
         return mqClusterStarted;
     }
@@ -294,6 +314,10 @@ public class MessageQueueZoneSink extends AbstractSink implements Configurable,
         return this.dispatchQueue.takeRecord();
     }
 
+    public int drainDispatchedRecords(List<PackProfile> records, int maxRecords) {
+        return this.dispatchQueue.drainTo(records, maxRecords);
+    }
+
     public void releaseAcquiredSizePermit(PackProfile record) {
         this.dispatchQueue.release(record.getSize());
     }
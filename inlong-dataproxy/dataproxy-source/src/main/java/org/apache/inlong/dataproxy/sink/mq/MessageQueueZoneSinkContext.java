@@ -33,6 +33,7 @@ import org.apache.flume.conf.Configurable;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 
@@ -139,6 +140,10 @@ public class MessageQueueZoneSinkContext extends SinkContext {
             return;
         }
         BatchPackProfile batchProfile = (BatchPackProfile) currentRecord;
+        final long currentTime = System.currentTimeMillis();
+        if (result && sendTime > 0) {
+            mqZoneSink.getDispatchManager().onPackSent(batchProfile, currentTime - sendTime);
+        }
         Map<String, String> dimensions = new HashMap<>();
         dimensions.put(DataProxyMetricItem.KEY_CLUSTER_ID, this.getProxyClusterId());
         dimensions.put(DataProxyMetricItem.KEY_SOURCE_ID, "-");
@@ -147,7 +152,6 @@ public class MessageQueueZoneSinkContext extends SinkContext {
         fillInlongId(batchProfile, dimensions);
         dimensions.put(DataProxyMetricItem.KEY_SINK_ID, mqName);
         dimensions.put(DataProxyMetricItem.KEY_SINK_DATA_ID, topic);
-        final long currentTime = System.currentTimeMillis();
         batchProfile.getEvents().forEach(event -> {
             long msgTime = event.getMsgTime();
             long auditFormatTime =
@@ -198,6 +202,28 @@ public class MessageQueueZoneSinkContext extends SinkContext {
         metricItem.sendPackSize.addAndGet(sendPackSize);
     }
 
+    /**
+     * addEncodeMetric
+     */
+    public void addEncodeMetric(PackProfile currentRecord, long serializeNanos, long compressNanos) {
+        Map<String, String> dimensions = new HashMap<>();
+        dimensions.put(DataProxyMetricItem.KEY_CLUSTER_ID, this.getProxyClusterId());
+        dimensions.put(DataProxyMetricItem.KEY_SOURCE_ID, "-");
+        dimensions.put(DataProxyMetricItem.KEY_SOURCE_DATA_ID, "-");
+        // metric
+        fillInlongId(currentRecord, dimensions);
+        dimensions.put(DataProxyMetricItem.KEY_SINK_ID, this.getSinkName());
+        dimensions.put(DataProxyMetricItem.KEY_SINK_DATA_ID, "-");
+        long msgTime = currentRecord.getDispatchTime();
+        long auditFormatTime =
+                msgTime - msgTime % CommonConfigHolder.getInstance().getAuditFormatInvlMs();
+        dimensions.put(DataProxyMetricItem.KEY_MESSAGE_TIME, String.valueOf(auditFormatTime));
+        DataProxyMetricItem metricItem = this.getMetricItemSet().findMetricItem(dimensions);
+        metricItem.encodePackCount.incrementAndGet();
+        metricItem.serializeDuration.addAndGet(TimeUnit.NANOSECONDS.toMicros(serializeNanos));
+        metricItem.compressDuration.addAndGet(TimeUnit.NANOSECONDS.toMicros(compressNanos));
+    }
+
     /**
      * addReadFailMetric
      */
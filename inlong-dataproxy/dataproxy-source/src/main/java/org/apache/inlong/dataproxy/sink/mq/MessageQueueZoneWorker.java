@@ -23,6 +23,9 @@ import org.apache.flume.lifecycle.LifecycleState;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * MessageQueueZoneWorker
  */
@@ -31,6 +34,8 @@ public class MessageQueueZoneWorker extends Thread {
     private static final Logger logger = LoggerFactory.getLogger(MessageQueueZoneWorker.class);
     // log print count
     private static final LogCounter logCounter = new LogCounter(10, 100000, 30 * 1000);
+    // the max count of records taken from the dispatch queue at a time
+    private static final int MAX_DRAIN_RECORDS = 64;
     private final String workerName;
     private final long fetchWaitMs;
     private final MessageQueueZoneSink mqZoneSink;
@@ -75,20 +80,30 @@ public class MessageQueueZoneWorker extends Thread {
     @Override
     public void run() {
         logger.info("{} start message zone worker", this.workerName);
-        PackProfile profile = null;
+        int sendIndex = 0;
+        List<PackProfile> profiles = new ArrayList<>(MAX_DRAIN_RECORDS);
         while (status != LifecycleState.STOP) {
+            sendIndex = 0;
             try {
-                profile = this.mqZoneSink.takeDispatchedRecord();
+                PackProfile profile = this.mqZoneSink.takeDispatchedRecord();
                 if (profile == null) {
                     this.sleepOneInterval();
                     continue;
                 }
+                // take the following records in batch
+                profiles.add(profile);
+                this.mqZoneSink.drainDispatchedRecords(profiles, MAX_DRAIN_RECORDS - 1);
                 // send
-                this.zoneProducer.send(profile);
+                for (sendIndex = 0; sendIndex < profiles.size(); sendIndex++) {
+                    this.zoneProducer.send(profiles.get(sendIndex));
+                }
+                profiles.clear();
             } catch (Throwable e1) {
-                if (profile != null) {
-                    this.mqZoneSink.offerDispatchRecord(profile);
+                // give back the records not sent
+                for (int i = sendIndex; i < profiles.size(); i++) {
+                    this.mqZoneSink.offerDispatchRecord(profiles.get(i));
                 }
+                profiles.clear();
                 if (logCounter.shouldPrint()) {
                     logger.error("{} send message failure", workerName, e1);
                 }
@@ -18,6 +18,7 @@
 package org.apache.inlong.dataproxy.sink.mq;
 
 import org.apache.inlong.common.enums.DataProxyErrCode;
+import org.apache.inlong.common.enums.InlongCompressType;
 import org.apache.inlong.dataproxy.config.CommonConfigHolder;
 
 import org.apache.flume.Event;
@@ -38,6 +39,8 @@ public abstract class PackProfile {
     protected final boolean enableRetryAfterFailure;
     protected final int maxRetries;
     protected int retries = 0;
+    // the serialized and compressed body, kept until the package is acked
+    private volatile PackBody packBody = null;
     /**
      * Constructor
      *
@@ -137,6 +140,37 @@ public abstract class PackProfile {
         return createThreshold >= createTime;
     }
 
+    /**
+     * get the cached package body
+     *
+     * @param  compressType  the compress type of the required body
+     * @return the cached body, or null if not built with the compress type
+     */
+    public byte[] getPackBody(InlongCompressType compressType) {
+        PackBody curBody = this.packBody;
+        if (curBody == null || curBody.compressType != compressType) {
+            return null;
+        }
+        return curBody.body;
+    }
+
+    /**
+     * set the cached package body
+     *
+     * @param compressType  the compress type of the body
+     * @param body          the serialized and compressed body
+     */
+    public void setPackBody(InlongCompressType compressType, byte[] body) {
+        this.packBody = new PackBody(compressType, body);
+    }
+
+    /**
+     * clear the cached package body
+     */
+    public void clearPackBody() {
+        this.packBody = null;
+    }
+
     /**
      * ack
      */
@@ -163,4 +197,14 @@ public abstract class PackProfile {
      */
     public abstract boolean addEvent(Event event, long maxPackCount, long maxPackSize);
 
+    private static class PackBody {
+
+        private final InlongCompressType compressType;
+        private final byte[] body;
+
+        private PackBody(InlongCompressType compressType, byte[] body) {
+            this.compressType = compressType;
+            this.body = body;
+        }
+    }
 }
@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.dataproxy.sink.mq;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * PackTimerWheel
+ *
+ * Hashed timer wheel of the package flush deadlines. A package is put into the bucket of
+ * its deadline tick, and each advance only visits the buckets of the elapsed ticks, the
+ * entries whose deadline is in a later round stay in their bucket. A package output
+ * before its deadline is not removed, the expire handler skips it.
+ * Not thread-safe, the caller serializes the access.
+ */
+public class PackTimerWheel {
+
+    private final long tickMs;
+    private final int mask;
+    private final List<TimerEntry>[] buckets;
+    private long currentTick;
+    private int entryCount = 0;
+
+    /**
+     * Constructor
+     *
+     * @param tickMs     the tick duration
+     * @param wheelSize  the bucket count, rounded up to a power of two
+     * @param now        the current time
+     */
+    @SuppressWarnings("unchecked")
+    public PackTimerWheel(long tickMs, int wheelSize, long now) {
+        this.tickMs = Math.max(1L, tickMs);
+        int size = Integer.highestOneBit(Math.max(2, wheelSize) - 1) << 1;
+        this.mask = size - 1;
+        this.buckets = new List[size];
+        for (int i = 0; i < size; i++) {
+            this.buckets[i] = new ArrayList<>();
+        }
+        this.currentTick = now / this.tickMs;
+    }
+
+    /**
+     * schedule the flush of a package
+     *
+     * @param key       the package key
+     * @param profile   the package
+     * @param deadline  the flush time
+     */
+    public void schedule(String key, PackProfile profile, long deadline) {
+        long tick = Math.max(deadline / tickMs, currentTick);
+        buckets[(int) (tick & mask)].add(new TimerEntry(key, profile, deadline));
+        entryCount++;
+    }
+
+    /**
+     * advance the wheel to current time, and hand over the expired packages
+     *
+     * @param now            the current time
+     * @param expireHandler  the handler of the expired package key and package
+     * @return the expired entry count
+     */
+    public int advance(long now, BiConsumer<String, PackProfile> expireHandler) {
+        long targetTick = now / tickMs;
+        if (targetTick < currentTick) {
+            return 0;
+        }
+        int expiredCnt = 0;
+        long tickCount = Math.min(targetTick - currentTick + 1, buckets.length);
+        for (long i = 0; i < tickCount; i++) {
+            List<TimerEntry> bucket = buckets[(int) ((currentTick + i) & mask)];
+            int keepIndex = 0;
+            for (int j = 0; j < bucket.size(); j++) {
+                TimerEntry entry = bucket.get(j);
+                if (entry.deadline <= now) {
+                    expireHandler.accept(entry.key, entry.profile);
+                    expiredCnt++;
+                } else {
+                    bucket.set(keepIndex++, entry);
+                }
+            }
+            bucket.subList(keepIndex, bucket.size()).clear();
+        }
+        // the current tick is not over, visit it again at next advance
+        currentTick = targetTick;
+        entryCount -= expiredCnt;
+        return expiredCnt;
+    }
+
+    public int getEntryCount() {
+        return entryCount;
+    }
+
+    private static class TimerEntry {
+
+        private final String key;
+        private final PackProfile profile;
+        private final long deadline;
+
+        private TimerEntry(String key, PackProfile profile, long deadline) {
+            this.key = key;
+            this.profile = profile;
+            this.deadline = deadline;
+        }
+    }
+}
@@ -185,7 +185,11 @@ public class ServerMessageHandler extends ChannelInboundHandlerAdapter {
                     msgCodec = new CodecTextMsg(totalDataLen, msgTypeValue, msgRcvTime, strRemoteIP);
                 }
                 // process request
-                processV0Msg(channel, cb, msgCodec);
+                try {
+                    processV0Msg(channel, cb, msgCodec);
+                } finally {
+                    msgCodec.release();
+                }
             }
         } finally {
             cb.release();
@@ -320,11 +324,10 @@ public class ServerMessageHandler extends ChannelInboundHandlerAdapter {
     }
 
     private void processV1Msg(ChannelHandlerContext ctx, ByteBuf cb, int bodyLength) throws Exception {
-        // read bytes
-        byte[] msgBytes = new byte[bodyLength];
-        cb.readBytes(msgBytes);
-        // decode
-        ProxySdk.MessagePack packObject = ProxySdk.MessagePack.parseFrom(msgBytes);
+        // decode directly from the frame buffer
+        ProxySdk.MessagePack packObject =
+                ProxySdk.MessagePack.parseFrom(cb.nioBuffer(cb.readerIndex(), bodyLength));
+        cb.skipBytes(bodyLength);
         // reject service
         if (source.isRejectService()) {
             source.addMetric(false, 0, null);
@@ -538,11 +541,10 @@ public class ServerMessageHandler extends ChannelInboundHandlerAdapter {
         }
         // read message content
         byte version = cb.getByte(msgHeadPos + BIN_HB_VERSION_OFFSET);
-        byte[] attrData = null;
+        ByteBuf attrData = null;
         if (attrLen > 0) {
-            attrData = new byte[attrLen];
-            cb.getBytes(msgHeadPos + BIN_HB_BODY_OFFSET
-                    + bodyLen + BIN_HB_ATTRLEN_SIZE, attrData, 0, attrLen);
+            attrData = cb.slice(msgHeadPos + BIN_HB_BODY_OFFSET
+                    + bodyLen + BIN_HB_ATTRLEN_SIZE, attrLen);
         }
         // build and send response message
         flushV0MsgPackage(source, channel,
@@ -662,11 +664,11 @@ public class ServerMessageHandler extends ChannelInboundHandlerAdapter {
      * @param loadValue the node load value
      * @return ByteBuf
      */
-    private ByteBuf buildHBRspPackage(byte[] attrData, byte version, int loadValue) {
+    private ByteBuf buildHBRspPackage(ByteBuf attrData, byte version, int loadValue) {
         // calculate total length
         int attrsLen = 0;
         if (null != attrData) {
-            attrsLen = attrData.length;
+            attrsLen = attrData.readableBytes();
         }
         // check load value
         if (loadValue == 0 || loadValue == (-1)) {
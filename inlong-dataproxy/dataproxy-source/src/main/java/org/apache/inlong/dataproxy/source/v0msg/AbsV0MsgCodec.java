@@ -28,6 +28,7 @@ import org.apache.inlong.sdk.commons.protocol.EventConstants;
 import com.google.common.base.Joiner;
 import com.google.common.base.Splitter;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
 import io.netty.channel.Channel;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.flume.Event;
@@ -54,7 +55,12 @@ public abstract class AbsV0MsgCodec {
     protected byte msgType;
     protected int msgCount;
     protected String origAttr = "";
+    // retained slice of the inbound frame body, released by release()
+    protected ByteBuf bodyBuf = null;
+    // body content as array segment, may reference the frame's backing array
     protected byte[] bodyData;
+    protected int bodyOffset = 0;
+    protected int bodyLength = 0;
     protected byte[] origBody = null;
     protected long dataTimeMs;
     protected String groupId;
@@ -145,7 +151,7 @@ public abstract class AbsV0MsgCodec {
     }
 
     public int getBodyLength() {
-        return this.bodyData == null ? 0 : this.bodyData.length;
+        return this.bodyLength;
     }
 
     public int getMsgCount() {
@@ -178,14 +184,52 @@ public abstract class AbsV0MsgCodec {
         this.errMsg = errMsg;
     }
 
+    /**
+     * Release the inbound frame slice held by this codec
+     */
+    public void release() {
+        if (this.bodyBuf != null) {
+            this.bodyBuf.release();
+            this.bodyBuf = null;
+        }
+    }
+
+    /**
+     * Hold the body of the inbound frame as a retained slice, without copying
+     *
+     * @param cb        the inbound frame
+     * @param bodyPos   the body start position
+     * @param bodyLen   the body length
+     */
+    protected void holdBody(ByteBuf cb, int bodyPos, int bodyLen) {
+        this.bodyBuf = cb.retainedSlice(bodyPos, bodyLen);
+        this.bodyLength = bodyLen;
+        if (this.bodyBuf.hasArray()) {
+            this.bodyData = this.bodyBuf.array();
+            this.bodyOffset = this.bodyBuf.arrayOffset();
+        } else {
+            this.bodyData = null;
+            this.bodyOffset = 0;
+        }
+    }
+
+    /**
+     * Make the held body accessible as array segment,
+     * copy it only when the inbound frame has no backing array
+     */
+    protected void loadBodyArray() {
+        if (this.bodyData == null && this.bodyBuf != null) {
+            this.bodyData = ByteBufUtil.getBytes(this.bodyBuf);
+            this.bodyOffset = 0;
+        }
+    }
+
     protected boolean decAttrInfo(BaseSource source, ByteBuf cb,
             int attrLen, int attrPos) throws Exception {
-        // get attr bytes
+        // get attr string
         if (attrLen > 0) {
-            byte[] attrData = new byte[attrLen];
-            cb.getBytes(attrPos, attrData, 0, attrLen);
             try {
-                this.origAttr = new String(attrData, StandardCharsets.UTF_8);
+                this.origAttr = cb.toString(attrPos, attrLen, StandardCharsets.UTF_8);
             } catch (Throwable err) {
                 //
             }
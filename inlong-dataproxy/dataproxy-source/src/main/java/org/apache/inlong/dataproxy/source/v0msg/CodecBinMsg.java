@@ -119,8 +119,7 @@ public class CodecBinMsg extends AbsV0MsgCodec {
                 msgHeadPos + BIN_MSG_BODY_OFFSET + bodyLen + BIN_MSG_ATTRLEN_SIZE)) {
             return false;
         }
-        this.bodyData = new byte[bodyLen];
-        cb.getBytes(msgHeadPos + BIN_MSG_BODY_OFFSET, this.bodyData, 0, bodyLen);
+        holdBody(cb, msgHeadPos + BIN_MSG_BODY_OFFSET, bodyLen);
         // process extend field value
         if (((this.extendField & 0x8) == 0x8) || ((this.extendField & 0x10) == 0x10)) {
             this.indexMsg = true;
@@ -222,9 +221,9 @@ public class CodecBinMsg extends AbsV0MsgCodec {
         dataBuf.putInt(BIN_MSG_DT_OFFSET, (int) dataTimeSec);
         dataBuf.putShort(BIN_MSG_CNT_OFFSET, (short) msgCount);
         dataBuf.putInt(BIN_MSG_UNIQ_OFFSET, (int) uniq);
-        dataBuf.putInt(BIN_MSG_BODYLEN_OFFSET, bodyData.length);
-        if (bodyData.length > 0) {
-            System.arraycopy(bodyData, 0, dataBuf.array(), BIN_MSG_BODY_OFFSET, bodyData.length);
+        dataBuf.putInt(BIN_MSG_BODYLEN_OFFSET, bodyLength);
+        if (bodyLength > 0) {
+            bodyBuf.getBytes(0, dataBuf.array(), BIN_MSG_BODY_OFFSET, bodyLength);
         }
         dataBuf.putShort(totalPkgLength
                 - BIN_MSG_ATTRLEN_SIZE - BIN_MSG_MAGIC_SIZE - origAttr.length(), (short) origAttr.length());
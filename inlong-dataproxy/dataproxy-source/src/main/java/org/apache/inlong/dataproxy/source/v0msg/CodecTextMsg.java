@@ -27,6 +27,7 @@ import org.apache.inlong.dataproxy.metrics.audit.AuditUtils;
 import org.apache.inlong.dataproxy.source.BaseSource;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
 import io.netty.channel.Channel;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.flume.Event;
@@ -69,12 +70,10 @@ public class CodecTextMsg extends AbsV0MsgCodec {
                     bodyLen, TXT_MSG_FORMAT_SIZE, totalDataLen);
             return false;
         }
-        // extract body bytes
-        this.bodyData = new byte[bodyLen];
-        cb.getBytes(msgHeadPos + TXT_MSG_BODY_OFFSET, this.bodyData, 0, bodyLen);
+        // hold body bytes
+        holdBody(cb, msgHeadPos + TXT_MSG_BODY_OFFSET, bodyLen);
         if (MsgType.MSG_ORIGINAL_RETURN.equals(MsgType.valueOf(msgType))) {
-            this.origBody = new byte[bodyLen];
-            System.arraycopy(this.bodyData, 0, this.origBody, 0, bodyLen);
+            this.origBody = ByteBufUtil.getBytes(this.bodyBuf);
         }
         // get attribute length
         int attrLen = cb.getInt(msgHeadPos + TXT_MSG_BODY_OFFSET + bodyLen);
@@ -96,13 +95,15 @@ public class CodecTextMsg extends AbsV0MsgCodec {
         if (!decAttrInfo(source, cb, attrLen, msgHeadPos + TXT_MSG_FORMAT_SIZE + bodyLen)) {
             return false;
         }
+        // the InLongMsg package is built from array segments
+        loadBodyArray();
         // decompress body data
         if (StringUtils.isNotBlank(attrMap.get(AttributeConstants.COMPRESS_TYPE))) {
             byte[] unCompressedData;
             try {
-                int uncompressedLen = Snappy.uncompressedLength(bodyData, 0, bodyData.length);
+                int uncompressedLen = Snappy.uncompressedLength(bodyData, bodyOffset, bodyLength);
                 unCompressedData = new byte[uncompressedLen];
-                Snappy.uncompress(bodyData, 0, bodyData.length, unCompressedData, 0);
+                Snappy.uncompress(bodyData, bodyOffset, bodyLength, unCompressedData, 0);
             } catch (IOException e) {
                 source.fileMetricIncSumStats(StatConstants.EVENT_MSG_BODY_UNPRESS_EXP);
                 this.errCode = DataProxyErrCode.UNCOMPRESS_DATA_ERROR;
@@ -118,13 +119,15 @@ public class CodecTextMsg extends AbsV0MsgCodec {
                 return false;
             }
             this.bodyData = unCompressedData;
+            this.bodyOffset = 0;
+            this.bodyLength = unCompressedData.length;
         }
         // check body items
         if (MsgType.MSG_MULTI_BODY.equals(MsgType.valueOf(msgType))) {
             int totalCnt = 0;
             int singleMsgLen = 0;
             int nexPossition = 0;
-            ByteBuffer bodyBuffer = ByteBuffer.wrap(this.bodyData);
+            ByteBuffer bodyBuffer = ByteBuffer.wrap(this.bodyData, this.bodyOffset, this.bodyLength).slice();
             if (bodyBuffer.limit() <= 4) {
                 source.fileMetricIncSumStats(StatConstants.EVENT_MSG_TYPE_5_LEN_MALFORMED);
                 this.errCode = DataProxyErrCode.MSG_BODY_ITEMS_INVALID;
@@ -247,16 +250,16 @@ public class CodecTextMsg extends AbsV0MsgCodec {
         if (MsgType.MSG_MULTI_BODY.equals(MsgType.valueOf(msgType))) {
             int calcCnt = 0;
             int singleMsgLen;
-            ByteBuffer bodyBuffer = ByteBuffer.wrap(bodyData);
+            ByteBuffer bodyBuffer = ByteBuffer.wrap(bodyData, bodyOffset, bodyLength).slice();
             attrMap.put(AttributeConstants.MESSAGE_COUNT, String.valueOf(1));
+            String recordAttr = mapJoiner.join(attrMap);
             while (bodyBuffer.remaining() > 0) {
                 singleMsgLen = bodyBuffer.getInt();
                 if (singleMsgLen <= 0 || singleMsgLen > bodyBuffer.remaining()) {
                     break;
                 }
-                byte[] record = new byte[singleMsgLen];
-                bodyBuffer.get(record);
-                inLongMsg.addMsg(mapJoiner.join(attrMap), record);
+                inLongMsg.addMsg(recordAttr, bodyData, bodyOffset + bodyBuffer.position(), singleMsgLen);
+                bodyBuffer.position(bodyBuffer.position() + singleMsgLen);
                 calcCnt++;
             }
             if (calcCnt != this.msgCount) {
@@ -267,22 +270,21 @@ public class CodecTextMsg extends AbsV0MsgCodec {
             attrMap.put(AttributeConstants.MESSAGE_COUNT, String.valueOf(this.msgCount));
         } else if (MsgType.MSG_MULTI_BODY_ATTR.equals(MsgType.valueOf(msgType))) {
             attrMap.put(AttributeConstants.MESSAGE_COUNT, String.valueOf(1));
-            inLongMsg.addMsg(mapJoiner.join(attrMap), bodyData);
+            inLongMsg.addMsg(mapJoiner.join(attrMap), bodyData, bodyOffset, bodyLength);
             attrMap.put(AttributeConstants.MESSAGE_COUNT, String.valueOf(this.msgCount));
         } else {
             if (!"pb".equals(attrMap.get(AttributeConstants.MESSAGE_TYPE))) {
-                if (bodyData[bodyData.length - 1] == '\n') {
-                    int tripDataLen = bodyData.length - 1;
-                    if (bodyData[bodyData.length - 2] == '\r') {
-                        tripDataLen = bodyData.length - 2;
+                int bodyEnd = bodyOffset + bodyLength;
+                if (bodyData[bodyEnd - 1] == '\n') {
+                    int tripDataLen = bodyLength - 1;
+                    if (bodyLength > 1 && bodyData[bodyEnd - 2] == '\r') {
+                        tripDataLen = bodyLength - 2;
                     }
-                    byte[] tripData = new byte[tripDataLen];
-                    System.arraycopy(bodyData, 0, tripData, 0, tripDataLen);
-                    bodyData = tripData;
+                    bodyLength = tripDataLen;
                     source.fileMetricIncSumStats(StatConstants.EVENT_MSG_BODY_TRIP);
                 }
             }
-            inLongMsg.addMsg(mapJoiner.join(attrMap), bodyData);
+            inLongMsg.addMsg(mapJoiner.join(attrMap), bodyData, bodyOffset, bodyLength);
         }
         byte[] inlongMsgData = inLongMsg.buildArray();
         msgPkgTime = inLongMsg.getCreatetime();
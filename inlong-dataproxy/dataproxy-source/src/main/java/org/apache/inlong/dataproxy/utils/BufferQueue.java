@@ -17,20 +17,42 @@
 
 package org.apache.inlong.dataproxy.utils;
 
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * BufferQueue
+ *
+ * The records are kept in a lock-free array ring, and admitted by the size permits.
+ * Since the size permits are acquired before offering, the records exceeding the slot
+ * count of the ring are kept in an overflow queue instead of being rejected. While the
+ * overflow queue is not empty, the new records are appended to it too, so the records
+ * are taken in the offered order: the older ring records first, then the overflow ones.
+ * The idle consumers of takeRecord wait on a condition signalled by the producers.
  */
 public class BufferQueue<A> {
 
-    private final LinkedBlockingQueue<A> queue;
+    // the default slot count of the ring
+    public static final int DEFAULT_QUEUE_CAPACITY = 16384;
+    // the spin count before waiting in take
+    private static final int TAKE_SPIN_COUNT = 64;
+
+    private final MpmcArrayQueue<A> queue;
+    private final ConcurrentLinkedQueue<A> overflowQueue = new ConcurrentLinkedQueue<>();
     private final SizeSemaphore currentTokens;
     private SizeSemaphore globalTokens = null;
-    private final AtomicLong offerCount = new AtomicLong(0);
-    private final AtomicLong pollCount = new AtomicLong(0);
-    private final AtomicLong takeCount = new AtomicLong(0);
+    private final LongAdder offerCount = new LongAdder();
+    private final LongAdder pollCount = new LongAdder();
+    private final LongAdder takeCount = new LongAdder();
+    private final LongAdder overflowCount = new LongAdder();
+    // the consumers waiting in take
+    private final ReentrantLock takeLock = new ReentrantLock();
+    private final Condition notEmpty = takeLock.newCondition();
+    private final AtomicInteger takeWaiters = new AtomicInteger(0);
 
     /**
      * Constructor
@@ -38,7 +60,17 @@ public class BufferQueue<A> {
      * @param maxSizeKb  the initial size of permits to acquire
      */
     public BufferQueue(int maxSizeKb) {
-        this.queue = new LinkedBlockingQueue<>();
+        this(maxSizeKb, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param maxSizeKb  the initial size of permits to acquire
+     * @param capacity   the slot count of the ring
+     */
+    public BufferQueue(int maxSizeKb, int capacity) {
+        this.queue = new MpmcArrayQueue<>(capacity);
         this.currentTokens = new SizeSemaphore(maxSizeKb, SizeSemaphore.ONEKB);
     }
 
@@ -57,22 +89,65 @@ public class BufferQueue<A> {
      * pollRecord
      */
     public A pollRecord() {
-        A record = queue.poll();
-        this.pollCount.getAndIncrement();
+        A record = pollFromQueues();
+        this.pollCount.increment();
         return record;
     }
 
     /**
-     * Take record
+     * Take record, wait until a record is available or the thread is interrupted
      */
     public A takeRecord() {
+        A record;
+        for (int i = 0; i < TAKE_SPIN_COUNT; i++) {
+            if ((record = pollFromQueues()) != null) {
+                this.takeCount.increment();
+                return record;
+            }
+            Thread.yield();
+        }
         try {
-            A record = queue.take();
-            this.takeCount.incrementAndGet();
-            return record;
-        } catch (Throwable e) {
+            this.takeLock.lockInterruptibly();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
             return null;
         }
+        // register as waiter before polling again, so the producer
+        // offering after the poll sees the waiter and signals it
+        this.takeWaiters.incrementAndGet();
+        try {
+            while ((record = pollFromQueues()) == null) {
+                this.notEmpty.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } finally {
+            this.takeWaiters.decrementAndGet();
+            this.takeLock.unlock();
+        }
+        this.takeCount.increment();
+        return record;
+    }
+
+    /**
+     * Poll the available records in batch
+     *
+     * @param records     the list to fill
+     * @param maxRecords  the max count of records to poll
+     * @return  the count of polled records
+     */
+    public int drainTo(Collection<? super A> records, int maxRecords) {
+        int count = queue.drainTo(records, maxRecords);
+        A record;
+        while (count < maxRecords && (record = overflowQueue.poll()) != null) {
+            records.add(record);
+            count++;
+        }
+        if (count > 0) {
+            this.pollCount.add(count);
+        }
+        return count;
     }
 
     /**
@@ -82,15 +157,27 @@ public class BufferQueue<A> {
         if (record == null) {
             return;
         }
-        queue.offer(record);
-        this.offerCount.incrementAndGet();
+        // keep appending to the overflow queue until it is drained
+        if (!overflowQueue.isEmpty() || !queue.offer(record)) {
+            overflowQueue.offer(record);
+            this.overflowCount.increment();
+        }
+        this.offerCount.increment();
+        if (this.takeWaiters.get() > 0) {
+            this.takeLock.lock();
+            try {
+                this.notEmpty.signal();
+            } finally {
+                this.takeLock.unlock();
+            }
+        }
     }
 
     /**
      * queue size
      */
     public int size() {
-        return queue.size();
+        return queue.size() + overflowQueue.size();
     }
 
     /**
@@ -174,7 +261,7 @@ public class BufferQueue<A> {
      * @return the offerCount
      */
     public long getOfferCount() {
-        return offerCount.getAndSet(0);
+        return offerCount.sumThenReset();
     }
 
     /**
@@ -183,7 +270,7 @@ public class BufferQueue<A> {
      * @return the pollCount
      */
     public long getPollCount() {
-        return pollCount.getAndSet(0);
+        return pollCount.sumThenReset();
     }
 
     /**
@@ -192,6 +279,23 @@ public class BufferQueue<A> {
      * @return the take count
      */
     public long getTakeCount() {
-        return takeCount.getAndSet(0);
+        return takeCount.sumThenReset();
+    }
+
+    /**
+     * get the count of records offered to the overflow queue
+     *
+     * @return the overflow count
+     */
+    public long getOverflowCount() {
+        return overflowCount.sumThenReset();
+    }
+
+    private A pollFromQueues() {
+        A record = queue.poll();
+        if (record == null && !overflowQueue.isEmpty()) {
+            record = overflowQueue.poll();
+        }
+        return record;
     }
 }
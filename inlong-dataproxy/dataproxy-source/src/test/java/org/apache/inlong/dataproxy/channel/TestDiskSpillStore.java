@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.dataproxy.channel;
+
+import org.apache.inlong.sdk.commons.protocol.ProxyEvent;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * TestDiskSpillStore
+ */
+public class TestDiskSpillStore {
+
+    @Test
+    public void testSpillAndRecover() throws Exception {
+        File spillDir = Files.createTempDirectory("spill").toFile();
+        try {
+            DiskSpillStore spillStore = new DiskSpillStore(spillDir, 1024, 4096);
+            spillStore.open();
+            assertTrue(spillStore.isEmpty());
+            for (int i = 0; i < 20; i++) {
+                assertTrue(spillStore.write(("record-" + i).getBytes(StandardCharsets.UTF_8)));
+            }
+            assertEquals(20, spillStore.getPendingCount());
+            // the disk usage is bounded
+            byte[] largeRecord = new byte[900];
+            int written = 0;
+            while (spillStore.write(largeRecord)) {
+                written++;
+            }
+            assertEquals(3, written);
+            assertFalse(spillStore.write(new byte[2048]));
+            // replay in order, with a rolled back record
+            DiskSpillStore.SpillRecord record = spillStore.read();
+            assertArrayEquals("record-0".getBytes(StandardCharsets.UTF_8), record.getBody());
+            spillStore.ack(record);
+            record = spillStore.read();
+            spillStore.redo(record);
+            record = spillStore.read();
+            assertArrayEquals("record-1".getBytes(StandardCharsets.UTF_8), record.getBody());
+            spillStore.ack(record);
+            // read without confirming
+            record = spillStore.read();
+            assertArrayEquals("record-2".getBytes(StandardCharsets.UTF_8), record.getBody());
+            spillStore.checkpoint();
+            // recover without closing, the records not confirmed are replayed
+            DiskSpillStore recoverStore = new DiskSpillStore(spillDir, 1024, 8192);
+            recoverStore.open();
+            assertEquals(21, recoverStore.getPendingCount());
+            record = recoverStore.read();
+            assertArrayEquals("record-2".getBytes(StandardCharsets.UTF_8), record.getBody());
+            int readCnt = 1;
+            while ((record = recoverStore.read()) != null) {
+                recoverStore.ack(record);
+                readCnt++;
+            }
+            assertEquals(21, readCnt);
+            assertTrue(recoverStore.isEmpty());
+            recoverStore.close();
+        } finally {
+            FileUtils.deleteQuietly(spillDir);
+        }
+    }
+
+    @Test
+    public void testBatchWrite() throws Exception {
+        File spillDir = Files.createTempDirectory("spill").toFile();
+        try {
+            DiskSpillStore spillStore = new DiskSpillStore(spillDir, 1024, 2048);
+            spillStore.open();
+            byte[] record = new byte[500];
+            assertTrue(spillStore.write(Arrays.asList(record, record)));
+            assertEquals(2, spillStore.getPendingCount());
+            // the batch over the max disk size is rejected as a whole
+            assertFalse(spillStore.write(Arrays.asList(record, record, record)));
+            assertEquals(2, spillStore.getPendingCount());
+            assertTrue(spillStore.write(Arrays.asList("last".getBytes(StandardCharsets.UTF_8))));
+            // none of the rejected records is replayed
+            for (int i = 0; i < 2; i++) {
+                spillStore.ack(spillStore.read());
+            }
+            DiskSpillStore.SpillRecord spillRecord = spillStore.read();
+            assertArrayEquals("last".getBytes(StandardCharsets.UTF_8), spillRecord.getBody());
+            spillStore.ack(spillRecord);
+            assertNull(spillStore.read());
+            assertTrue(spillStore.isEmpty());
+            spillStore.close();
+        } finally {
+            FileUtils.deleteQuietly(spillDir);
+        }
+    }
+
+    @Test
+    public void testEventCodec() throws Exception {
+        ProxyEvent event = new ProxyEvent("group", "stream",
+                "body".getBytes(StandardCharsets.UTF_8), 1000L, "127.0.0.1");
+        event.setTopic("topic");
+        ProxyEvent decoded = SpillEventCodec.decode(SpillEventCodec.encode(event));
+        assertEquals("group", decoded.getInlongGroupId());
+        assertEquals("stream", decoded.getInlongStreamId());
+        assertEquals(1000L, decoded.getMsgTime());
+        assertEquals(event.getSourceTime(), decoded.getSourceTime());
+        assertEquals("topic", decoded.getTopic());
+        assertEquals(event.getHeaders(), decoded.getHeaders());
+        assertArrayEquals(event.getBody(), decoded.getBody());
+        assertNull(SpillEventCodec.decode(SpillEventCodec.encode(new ProxyEvent())).getTopic());
+    }
+}
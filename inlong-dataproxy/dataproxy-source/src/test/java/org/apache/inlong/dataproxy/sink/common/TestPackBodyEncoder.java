@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.dataproxy.sink.common;
+
+import org.apache.inlong.common.enums.InlongCompressType;
+import org.apache.inlong.dataproxy.sink.mq.BatchPackProfile;
+import org.apache.inlong.sdk.commons.protocol.EventUtils;
+import org.apache.inlong.sdk.commons.protocol.ProxyEvent;
+import org.apache.inlong.sdk.commons.protocol.ProxySdk.INLONG_COMPRESSED_TYPE;
+import org.apache.inlong.sdk.commons.utils.GzipUtils;
+
+import org.junit.Test;
+import org.xerial.snappy.Snappy;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * TestPackBodyEncoder
+ */
+public class TestPackBodyEncoder {
+
+    @Test
+    public void testEncodeAsLegacyBody() throws Exception {
+        BatchPackProfile profile = new BatchPackProfile("uid", "group", "stream", 0L);
+        for (int i = 0; i < 100; i++) {
+            ProxyEvent event = new ProxyEvent("group", "stream",
+                    ("body-" + i).getBytes(StandardCharsets.UTF_8), 1000L + i, "127.0.0.1");
+            profile.addEvent(event, 256, 327680);
+        }
+        byte[] srcBytes = EventUtils.encodeCacheMessageBody(
+                INLONG_COMPRESSED_TYPE.INLONG_NO_COMPRESS, profile.getEvents());
+        PackBodyEncoder encoder = PackBodyEncoder.get();
+        assertArrayEquals(srcBytes, encoder.encode(profile, InlongCompressType.NONE));
+        assertArrayEquals(Snappy.compress(srcBytes),
+                encoder.encode(profile, InlongCompressType.INLONG_SNAPPY));
+        assertArrayEquals(srcBytes,
+                GzipUtils.decompress(encoder.encode(profile, InlongCompressType.INLONG_GZ)));
+        // the body is cached on the package until acked
+        DefaultEventHandler handler = new DefaultEventHandler();
+        byte[] body = handler.parseBody(null, profile, InlongCompressType.INLONG_SNAPPY);
+        assertSame(body, handler.parseBody(null, profile, InlongCompressType.INLONG_SNAPPY));
+        assertNull(profile.getPackBody(InlongCompressType.INLONG_GZ));
+        profile.ack();
+        assertNull(profile.getPackBody(InlongCompressType.INLONG_SNAPPY));
+    }
+}
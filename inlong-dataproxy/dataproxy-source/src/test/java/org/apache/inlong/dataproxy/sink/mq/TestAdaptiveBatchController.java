@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.dataproxy.sink.mq;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * TestAdaptiveBatchController
+ */
+public class TestAdaptiveBatchController {
+
+    @Test
+    public void testAdjust() {
+        AdaptiveBatchController controller = new AdaptiveBatchController(true,
+                2000L, 2000L, 50L, 8L, 256L);
+        // the initial limits before observing the uid
+        AdaptiveBatchController.BatchState state = controller.getBatchState("uid", 0L);
+        assertEquals(256L, state.getPackCount());
+        assertEquals(50L, state.getTimeout());
+        // low volume, 1 event per second, flushed without waiting
+        controller.onPackOutput("uid", 1L, 1000L);
+        assertEquals(256L, state.getPackCount());
+        assertEquals(50L, state.getTimeout());
+        // 10 events per millisecond, sent in 100 milliseconds
+        controller.onPackSent("uid", 100L);
+        for (int i = 1; i <= 20; i++) {
+            controller.onPackOutput("uid", 1000L, 1000L + i * 100L);
+        }
+        assertEquals(256L, state.getPackCount());
+        assertEquals(1900L, state.getTimeout());
+        // 0.2 event per millisecond, the package collects the events of the send latency
+        AdaptiveBatchController.BatchState slowState = controller.getBatchState("slow", 0L);
+        controller.onPackSent("slow", 200L);
+        controller.onPackOutput("slow", 200L, 1000L);
+        assertEquals(40L, slowState.getPackCount());
+        assertEquals(1800L, slowState.getTimeout());
+        // not adaptive
+        AdaptiveBatchController fixedController = new AdaptiveBatchController(false,
+                2000L, 2000L, 50L, 8L, 256L);
+        fixedController.onPackOutput("uid", 1L, 1000L);
+        assertEquals(2000L, fixedController.getBatchState("uid", 1000L).getTimeout());
+        assertEquals(256L, fixedController.getBatchState("uid", 1000L).getPackCount());
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.dataproxy.sink.mq;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * TestPackTimerWheel
+ */
+public class TestPackTimerWheel {
+
+    @Test
+    public void testAdvance() {
+        PackTimerWheel timerWheel = new PackTimerWheel(10, 8, 1000);
+        BatchPackProfile profile = new BatchPackProfile("uid", "group", "stream", 0L);
+        timerWheel.schedule("early", profile, 1025);
+        timerWheel.schedule("late", profile, 1205);
+        timerWheel.schedule("expired", profile, 900);
+        List<String> expiredKeys = new ArrayList<>();
+        assertEquals(1, timerWheel.advance(1000, (key, value) -> expiredKeys.add(key)));
+        assertEquals(0, timerWheel.advance(1024, (key, value) -> expiredKeys.add(key)));
+        assertEquals(1, timerWheel.advance(1025, (key, value) -> expiredKeys.add(key)));
+        // the late entry shares a bucket with earlier ticks, and is kept until its round
+        assertEquals(0, timerWheel.advance(1100, (key, value) -> expiredKeys.add(key)));
+        assertEquals(1, timerWheel.advance(5000, (key, value) -> expiredKeys.add(key)));
+        assertEquals("expired", expiredKeys.get(0));
+        assertEquals("early", expiredKeys.get(1));
+        assertEquals("late", expiredKeys.get(2));
+        assertEquals(0, timerWheel.getEntryCount());
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.dataproxy.source.v0msg;
+
+import org.apache.inlong.common.msg.InLongMsg;
+import org.apache.inlong.common.msg.MsgType;
+import org.apache.inlong.dataproxy.source.BaseSource;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import org.apache.flume.Event;
+import org.junit.Test;
+import org.powermock.api.mockito.PowerMockito;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * TestCodecTextMsg
+ */
+public class TestCodecTextMsg {
+
+    @Test
+    public void testDecodeMultiBodyFromSlice() throws Exception {
+        BaseSource source = PowerMockito.mock(BaseSource.class);
+        byte[] attr = "m=3&dt=1700000000000".getBytes(StandardCharsets.UTF_8);
+        String[] records = {"record-1", "record-22", "record-333"};
+        // build the body of a multi-body message
+        int bodyLen = 0;
+        for (String record : records) {
+            bodyLen += 4 + record.length();
+        }
+        // test both the direct and the heap frame buffer
+        for (boolean direct : new boolean[]{true, false}) {
+            ByteBuf cb = direct
+                    ? PooledByteBufAllocator.DEFAULT.directBuffer()
+                    : PooledByteBufAllocator.DEFAULT.heapBuffer();
+            int totalDataLen = MsgFieldConsts.TXT_MSG_FORMAT_SIZE
+                    - MsgFieldConsts.TXT_MSG_TOTALLEN_SIZE + bodyLen + attr.length;
+            cb.writeInt(totalDataLen);
+            cb.writeByte(MsgType.MSG_MULTI_BODY.getValue());
+            cb.writeInt(bodyLen);
+            for (String record : records) {
+                cb.writeInt(record.length());
+                cb.writeBytes(record.getBytes(StandardCharsets.UTF_8));
+            }
+            cb.writeInt(attr.length);
+            cb.writeBytes(attr);
+            cb.skipBytes(5);
+            CodecTextMsg msgCodec = new CodecTextMsg(totalDataLen,
+                    MsgType.MSG_MULTI_BODY.getValue(), System.currentTimeMillis(), "127.0.0.1");
+            try {
+                assertTrue(msgCodec.descMsg(source, cb));
+                assertEquals(bodyLen, msgCodec.getBodyLength());
+                assertEquals("m=3&dt=1700000000000", msgCodec.getAttr());
+                // the codec holds a retained slice of the frame
+                assertEquals(2, cb.refCnt());
+                Event event = msgCodec.encEventPackage(source, null);
+                InLongMsg inLongMsg = InLongMsg.parseFrom(event.getBody());
+                List<String> decoded = new ArrayList<>();
+                for (String msgAttr : inLongMsg.getAttrs()) {
+                    Iterator<byte[]> iterator = inLongMsg.getIterator(msgAttr);
+                    while (iterator.hasNext()) {
+                        decoded.add(new String(iterator.next(), StandardCharsets.UTF_8));
+                    }
+                }
+                assertEquals(records.length, decoded.size());
+                for (int i = 0; i < records.length; i++) {
+                    assertEquals(records[i], decoded.get(i));
+                }
+            } finally {
+                msgCodec.release();
+            }
+            assertEquals(1, cb.refCnt());
+            cb.release();
+        }
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.dataproxy.utils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BufferQueue contended offer/drain throughput benchmark.
+ *
+ * The producers play the Netty I/O threads, each acquires the size permits of a record
+ * and offers it, while the consumers play the MessageQueueZoneWorkers, which take the
+ * records and release their permits. With legacyQueue=true the records go through a
+ * LinkedBlockingQueue with the same size permits, as BufferQueue did before the array
+ * ring; with legacyQueue=false they go through BufferQueue, drained in batch.
+ *
+ * Run it through the main method from the test classpath, it runs with 16, 32 and 64
+ * producer threads.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Group)
+public class BufferQueueBenchmark {
+
+    private static final int CONSUMER_COUNT = 4;
+    private static final int DRAIN_BATCH = 64;
+    private static final String RECORD = "record";
+    private static final int RECORD_SIZE = 512;
+
+    @Param({"true", "false"})
+    public boolean legacyQueue;
+
+    private BufferQueue<String> bufferQueue;
+    private LinkedBlockingQueue<String> legacyRecords;
+    private SizeSemaphore legacyTokens;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        bufferQueue = new BufferQueue<>(128 * 1024);
+        legacyRecords = new LinkedBlockingQueue<>();
+        legacyTokens = new SizeSemaphore(128 * 1024, SizeSemaphore.ONEKB);
+    }
+
+    @State(Scope.Thread)
+    public static class ConsumerState {
+
+        private final List<String> records = new ArrayList<>(DRAIN_BATCH);
+    }
+
+    @Benchmark
+    @Group("dispatch")
+    public boolean offer() {
+        if (legacyQueue) {
+            if (!legacyTokens.tryAcquire(RECORD_SIZE)) {
+                return false;
+            }
+            legacyRecords.offer(RECORD);
+        } else {
+            if (!bufferQueue.tryAcquire(RECORD_SIZE)) {
+                return false;
+            }
+            bufferQueue.offer(RECORD);
+        }
+        return true;
+    }
+
+    @Benchmark
+    @Group("dispatch")
+    public void drain(ConsumerState consumerState, Blackhole blackhole) {
+        List<String> records = consumerState.records;
+        if (legacyQueue) {
+            String record;
+            while (records.size() < DRAIN_BATCH && (record = legacyRecords.poll()) != null) {
+                records.add(record);
+            }
+            for (String item : records) {
+                blackhole.consume(item);
+                legacyTokens.release(RECORD_SIZE);
+            }
+        } else {
+            bufferQueue.drainTo(records, DRAIN_BATCH);
+            for (String item : records) {
+                blackhole.consume(item);
+                bufferQueue.release(RECORD_SIZE);
+            }
+        }
+        records.clear();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        for (int producerCnt : new int[]{16, 32, 64}) {
+            new Runner(new OptionsBuilder()
+                    .include(BufferQueueBenchmark.class.getSimpleName())
+                    // JMH assigns the counts to the group methods in name order: drain, offer
+                    .threadGroups(CONSUMER_COUNT, producerCnt)
+                    .build()).run();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.dataproxy.utils;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * TestBufferQueue
+ */
+public class TestBufferQueue {
+
+    @Test
+    public void testOfferAndDrain() {
+        BufferQueue<Integer> bufferQueue = new BufferQueue<>(1, 4);
+        assertTrue(bufferQueue.tryAcquire(1000));
+        assertFalse(bufferQueue.tryAcquire(100));
+        bufferQueue.release(1000);
+        // the records beyond the ring capacity are kept
+        for (int i = 0; i < 6; i++) {
+            bufferQueue.offer(i);
+        }
+        assertEquals(6, bufferQueue.size());
+        assertEquals(2, bufferQueue.getOverflowCount());
+        List<Integer> records = new ArrayList<>();
+        assertEquals(5, bufferQueue.drainTo(records, 5));
+        assertEquals(Integer.valueOf(5), bufferQueue.takeRecord());
+        assertNull(bufferQueue.pollRecord());
+        assertEquals(6, bufferQueue.getOfferCount());
+    }
+
+    @Test
+    public void testOverflowOrder() {
+        BufferQueue<Integer> bufferQueue = new BufferQueue<>(1, 2);
+        for (int i = 0; i < 4; i++) {
+            bufferQueue.offer(i);
+        }
+        // the ring has room again, but the overflow records go first
+        assertEquals(Integer.valueOf(0), bufferQueue.pollRecord());
+        bufferQueue.offer(4);
+        List<Integer> records = new ArrayList<>();
+        assertEquals(4, bufferQueue.drainTo(records, 10));
+        for (int i = 0; i < 4; i++) {
+            assertEquals(Integer.valueOf(i + 1), records.get(i));
+        }
+        bufferQueue.offer(5);
+        assertEquals(Integer.valueOf(5), bufferQueue.takeRecord());
+    }
+
+    @Test
+    public void testTakeWakeup() throws Exception {
+        final BufferQueue<Integer> bufferQueue = new BufferQueue<>(1, 4);
+        final AtomicReference<Integer> taken = new AtomicReference<>();
+        Thread taker = new Thread(() -> taken.set(bufferQueue.takeRecord()));
+        taker.start();
+        Thread.sleep(100);
+        bufferQueue.offer(1);
+        taker.join(5000);
+        assertFalse(taker.isAlive());
+        assertEquals(Integer.valueOf(1), taken.get());
+        // an interrupted taker returns null and keeps its interrupt status
+        final AtomicBoolean interrupted = new AtomicBoolean(false);
+        taker = new Thread(() -> {
+            taken.set(bufferQueue.takeRecord());
+            interrupted.set(Thread.currentThread().isInterrupted());
+        });
+        taker.start();
+        Thread.sleep(100);
+        taker.interrupt();
+        taker.join(5000);
+        assertFalse(taker.isAlive());
+        assertNull(taken.get());
+        assertTrue(interrupted.get());
+    }
+
+    @Test
+    public void testConcurrentOfferAndTake() throws Exception {
+        final int producerCnt = 8;
+        final int recordCnt = 20000;
+        final BufferQueue<Integer> bufferQueue = new BufferQueue<>(1024, 256);
+        final CountDownLatch finished = new CountDownLatch(producerCnt);
+        for (int i = 0; i < producerCnt; i++) {
+            final int base = i * recordCnt;
+            new Thread(() -> {
+                for (int j = 0; j < recordCnt; j++) {
+                    bufferQueue.offer(base + j);
+                }
+                finished.countDown();
+            }).start();
+        }
+        Set<Integer> records = new HashSet<>();
+        while (records.size() < producerCnt * recordCnt) {
+            records.add(bufferQueue.takeRecord());
+        }
+        finished.await();
+        assertEquals(0, bufferQueue.size());
+    }
+}
@@ -103,6 +103,13 @@ public class SdkConsts {
     // sync message timeout check duration ms
     public static final long VAL_DEF_SYNC_TIMEOUT_CHK_DUR_MS = 3 * 60 * 1000L;
     public static final long VAL_MIN_SYNC_TIMEOUT_CHK_DUR_MS = 10 * 1000L;
+    // TCP async report auto batch linger ms
+    public static final long VAL_DEF_AUTO_BATCH_LINGER_MS = 5L;
+    public static final long VAL_MAX_AUTO_BATCH_LINGER_MS = 1000L;
+    public static final long VAL_MIN_AUTO_BATCH_LINGER_MS = 1L;
+    // TCP async report auto batch body size
+    public static final int VAL_DEF_AUTO_BATCH_SIZE_BYTES = 64 * 1024;
+    public static final int VAL_MIN_AUTO_BATCH_SIZE_BYTES = 1024;
 
     // HTTP sdk close wait period ms
     public static final long VAL_DEF_HTTP_SDK_CLOSE_WAIT_MS = 20000L;
@@ -140,6 +140,30 @@ public class PkgCacheQuota {
         }
     }
 
+    /**
+     * Release the permits of the packages merged into one package, and keep
+     * the permits of the merged package, which is released by release(mergedSizeInByte)
+     *
+     * @param sizesInByte  the sizes of the packages merged
+     * @param mergedSizeInByte  the size of the merged package, not more than the sum of the sizes
+     */
+    public void releaseMerged(int[] sizesInByte, int mergedSizeInByte) {
+        if (this.disabled || sizesInByte.length <= 1) {
+            return;
+        }
+        if (this.pkgSizeKbQuota != null) {
+            int sizeKbPermits = 0;
+            for (int sizeInByte : sizesInByte) {
+                sizeKbPermits += getSizeKbPermitsByBytes(sizeInByte);
+            }
+            this.pkgSizeKbQuota.release(
+                    sizeKbPermits - getSizeKbPermitsByBytes(mergedSizeInByte));
+        }
+        if (this.pkgCntQuota != null) {
+            this.pkgCntQuota.release(sizesInByte.length - 1);
+        }
+    }
+
     public boolean isFactoryLevel() {
         return factoryLevel;
     }
@@ -263,7 +263,8 @@ public class TcpNettyClient {
         }
         try {
             this.msgSentCnt.incrementAndGet();
-            this.channel.writeAndFlush(encodeObject);
+            // the reference of the channel write, released after encoded
+            this.channel.writeAndFlush(encodeObject.retain());
             this.msgInflightCnt.incrementAndGet();
             return procResult.setSuccess();
         } catch (Throwable ex) {
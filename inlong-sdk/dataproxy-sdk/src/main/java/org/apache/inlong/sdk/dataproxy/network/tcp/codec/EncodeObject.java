@@ -21,6 +21,9 @@ import org.apache.inlong.common.msg.AttributeConstants;
 import org.apache.inlong.common.msg.MsgType;
 
 import com.google.common.base.Joiner;
+import io.netty.buffer.ByteBuf;
+import io.netty.util.AbstractReferenceCounted;
+import io.netty.util.ReferenceCounted;
 import org.apache.commons.lang3.StringUtils;
 
 import java.nio.charset.StandardCharsets;
@@ -31,8 +34,10 @@ import java.util.Map;
  * Encode Object class
  *
  * Used to encapsulate the reported event information to be sent
+ * The encoded body is a pooled buffer released with this object, the sender holds
+ *  a reference until the sending finished, and each channel write holds another one.
  */
-public class EncodeObject {
+public class EncodeObject extends AbstractReferenceCounted {
 
     private static final Joiner.MapJoiner mapJoiner = Joiner.on(AttributeConstants.SEPARATOR)
             .withKeyValueSeparator(AttributeConstants.KEY_VALUE_SEPARATOR);
@@ -50,7 +55,7 @@ public class EncodeObject {
     private int attrDataLength = 0;
     private byte[] attrData = null;
     private int bodyDataLength = 0;
-    private byte[] bodyData = null;
+    private ByteBuf bodyData = null;
     private int groupIdNum = 0;
     private int streamIdNum = 0;
     //
@@ -109,11 +114,11 @@ public class EncodeObject {
         }
     }
 
-    public void setBodyData(int msgCnt, byte[] bodyBytes) {
+    public void setBodyData(int msgCnt, ByteBuf bodyBuf) {
         this.msgCnt = msgCnt;
-        this.bodyData = bodyBytes;
+        this.bodyData = bodyBuf;
         if (this.bodyData != null) {
-            this.bodyDataLength = this.bodyData.length;
+            this.bodyDataLength = this.bodyData.readableBytes();
         }
     }
 
@@ -161,7 +166,7 @@ public class EncodeObject {
         return bodyDataLength;
     }
 
-    public byte[] getBodyData() {
+    public ByteBuf getBodyData() {
         return bodyData;
     }
 
@@ -192,4 +197,20 @@ public class EncodeObject {
     public int getEventSize() {
         return eventSize;
     }
+
+    @Override
+    public ReferenceCounted touch(Object hint) {
+        if (bodyData != null) {
+            bodyData.touch(hint);
+        }
+        return this;
+    }
+
+    @Override
+    protected void deallocate() {
+        if (bodyData != null) {
+            bodyData.release();
+            bodyData = null;
+        }
+    }
 }
@@ -0,0 +1,166 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sdk.dataproxy.network.tcp.codec;
+
+import org.apache.inlong.common.msg.MsgType;
+import org.apache.inlong.sdk.dataproxy.utils.EncryptUtil;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import org.xerial.snappy.Snappy;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.SecretKeySpec;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Event Body Encoder class
+ *
+ * Used to encode the event body list into a pooled direct buffer, and to compress
+ *  and encrypt it between direct buffers, the encoded body is forwarded by the
+ *  ProtocolEncoder without being copied into the frame buffer.
+ * Each method releases its input buffer, and the caller owns the returned buffer.
+ */
+public class EventBodyEncoder {
+
+    private static final byte LINE_FEED = '\n';
+
+    /**
+     * Encode the event body list
+     *
+     * @param allocator  the buffer allocator
+     * @param msgType    the message type
+     * @param sepByLF    whether separate the bodies by line feed in binary message
+     * @param bodyList   the event body list
+     * @return the encoded body
+     */
+    public static ByteBuf encodeBodyList(ByteBufAllocator allocator,
+            MsgType msgType, boolean sepByLF, List<byte[]> bodyList) {
+        int dataSize = 0;
+        for (byte[] entry : bodyList) {
+            dataSize += entry.length;
+        }
+        int sepSize = bodyList.isEmpty() ? 0 : bodyList.size() - 1;
+        ByteBuf bodyBuf;
+        if (msgType == MsgType.MSG_ACK_SERVICE) {
+            // body1 \n body2 ...
+            bodyBuf = allocator.directBuffer(dataSize + sepSize);
+            writeSepByLF(bodyBuf, bodyList);
+        } else if (msgType == MsgType.MSG_BIN_MULTI_BODY && sepByLF) {
+            // totalLength(4) + body1 \n body2 ...
+            bodyBuf = allocator.directBuffer(4 + dataSize + sepSize);
+            bodyBuf.writeInt(dataSize + sepSize);
+            writeSepByLF(bodyBuf, bodyList);
+        } else {
+            // length1(4) + body1 + length2(4) + body2 ...
+            bodyBuf = allocator.directBuffer(4 * bodyList.size() + dataSize);
+            for (byte[] entry : bodyList) {
+                bodyBuf.writeInt(entry.length);
+                bodyBuf.writeBytes(entry);
+            }
+        }
+        return bodyBuf;
+    }
+
+    /**
+     * Compress the body by snappy
+     *
+     * @param allocator  the buffer allocator
+     * @param bodyBuf    the body to compress, released after compressed
+     * @return the compressed body
+     * @throws Exception if compress failure
+     */
+    public static ByteBuf compress(ByteBufAllocator allocator, ByteBuf bodyBuf) throws Exception {
+        ByteBuf srcBuf = toDirect(allocator, bodyBuf);
+        ByteBuf dstBuf = null;
+        try {
+            int srcLength = srcBuf.readableBytes();
+            int maxLength = Snappy.maxCompressedLength(srcLength);
+            dstBuf = allocator.directBuffer(maxLength);
+            int dstLength = Snappy.compress(srcBuf.nioBuffer(srcBuf.readerIndex(), srcLength),
+                    dstBuf.nioBuffer(0, maxLength));
+            dstBuf.writerIndex(dstLength);
+            return dstBuf;
+        } catch (Throwable ex) {
+            if (dstBuf != null) {
+                dstBuf.release();
+            }
+            throw ex;
+        } finally {
+            srcBuf.release();
+        }
+    }
+
+    /**
+     * Encrypt the body by AES
+     *
+     * @param allocator  the buffer allocator
+     * @param bodyBuf    the body to encrypt, released after encrypted
+     * @param aesKey     the AES key
+     * @return the encrypted body
+     * @throws Exception if encrypt failure
+     */
+    public static ByteBuf aesEncrypt(ByteBufAllocator allocator,
+            ByteBuf bodyBuf, byte[] aesKey) throws Exception {
+        ByteBuf dstBuf = null;
+        try {
+            SecretKeySpec secretKeySpec = new SecretKeySpec(aesKey, EncryptUtil.AES);
+            Cipher cipher = Cipher.getInstance(EncryptUtil.AES);
+            cipher.init(Cipher.ENCRYPT_MODE, secretKeySpec);
+            int srcLength = bodyBuf.readableBytes();
+            int maxLength = cipher.getOutputSize(srcLength);
+            dstBuf = allocator.directBuffer(maxLength);
+            ByteBuffer dstNioBuf = dstBuf.nioBuffer(0, maxLength);
+            int dstLength = cipher.doFinal(bodyBuf.nioBuffer(bodyBuf.readerIndex(), srcLength), dstNioBuf);
+            dstBuf.writerIndex(dstLength);
+            return dstBuf;
+        } catch (Throwable ex) {
+            if (dstBuf != null) {
+                dstBuf.release();
+            }
+            throw ex;
+        } finally {
+            bodyBuf.release();
+        }
+    }
+
+    private static void writeSepByLF(ByteBuf bodyBuf, List<byte[]> bodyList) {
+        int totalCnt = 0;
+        for (byte[] entry : bodyList) {
+            if (totalCnt++ > 0) {
+                bodyBuf.writeByte(LINE_FEED);
+            }
+            bodyBuf.writeBytes(entry);
+        }
+    }
+
+    private static ByteBuf toDirect(ByteBufAllocator allocator, ByteBuf bodyBuf) {
+        if (bodyBuf.isDirect() && bodyBuf.nioBufferCount() == 1) {
+            return bodyBuf;
+        }
+        ByteBuf directBuf = allocator.directBuffer(bodyBuf.readableBytes());
+        try {
+            directBuf.writeBytes(bodyBuf);
+        } finally {
+            bodyBuf.release();
+        }
+        return directBuf;
+    }
+}
@@ -43,42 +43,30 @@ public class ProtocolEncoder extends MessageToMessageEncoder<EncodeObject> {
     protected void encode(ChannelHandlerContext ctx,
             EncodeObject encObject, List<Object> out) throws Exception {
         ByteBuf buf = null;
+        ByteBuf tail = null;
         int totalLength;
         try {
-            if (encObject.getMsgType() == MsgType.MSG_ACK_SERVICE) {
+            if (encObject.getMsgType() == MsgType.MSG_ACK_SERVICE
+                    || encObject.getMsgType() == MsgType.MSG_MULTI_BODY) {
                 // msgType(1) + bodyLength(4) + attrsLength(4)
                 totalLength = 1 + 4 + 4 + encObject.getMsgSize();
-                buf = ByteBufAllocator.DEFAULT.buffer(4 + totalLength);
+                buf = ByteBufAllocator.DEFAULT.buffer(4 + 1 + 4);
                 buf.writeInt(totalLength);
                 buf.writeByte(encObject.getIntMsgType());
                 buf.writeInt(encObject.getBodyDataLength());
-                if (encObject.getBodyDataLength() > 0) {
-                    buf.writeBytes(encObject.getBodyData());
-                }
-                buf.writeInt(encObject.getAttrDataLength());
+                tail = ByteBufAllocator.DEFAULT.buffer(4 + encObject.getAttrDataLength());
+                tail.writeInt(encObject.getAttrDataLength());
                 if (encObject.getAttrDataLength() > 0) {
-                    buf.writeBytes(encObject.getAttrData());
-                }
-            } else if (encObject.getMsgType() == MsgType.MSG_MULTI_BODY) {
-                // msgType(1) + bodyLength(4) + attrsLength(4)
-                totalLength = 1 + 4 + 4 + encObject.getMsgSize();
-                buf = ByteBufAllocator.DEFAULT.buffer(4 + totalLength);
-                buf.writeInt(totalLength);
-                buf.writeByte(encObject.getIntMsgType());
-                buf.writeInt(encObject.getBodyDataLength());
-                if (encObject.getBodyDataLength() > 0) {
-                    buf.writeBytes(encObject.getBodyData());
-                }
-                buf.writeInt(encObject.getAttrDataLength());
-                if (encObject.getAttrDataLength() > 0) {
-                    buf.writeBytes(encObject.getAttrData());
+                    tail.writeBytes(encObject.getAttrData());
                 }
+                buf = composeFrame(buf, encObject, tail);
+                tail = null;
             } else if (encObject.getMsgType() == MsgType.MSG_BIN_MULTI_BODY) {
                 // msgType(1) + groupNum(2) + streamNum(2) + extField(2)
                 // + dataTime(4) + msgCnt(2) + uniqueId(4) + bodyLength(4)
                 // + attrsLength(2) + magic(2)
                 totalLength = 1 + 2 + 2 + 2 + 4 + 2 + 4 + 4 + 2 + 2 + encObject.getMsgSize();
-                buf = ByteBufAllocator.DEFAULT.buffer(4 + totalLength);
+                buf = ByteBufAllocator.DEFAULT.buffer(4 + 1 + 2 + 2 + 2 + 4 + 2 + 4 + 4);
                 buf.writeInt(totalLength);
                 buf.writeByte(encObject.getIntMsgType());
                 buf.writeShort(encObject.getGroupIdNum());
@@ -88,14 +76,14 @@ public class ProtocolEncoder extends MessageToMessageEncoder<EncodeObject> {
                 buf.writeShort(encObject.getMsgCnt());
                 buf.writeInt(encObject.getMessageId());
                 buf.writeInt(encObject.getBodyDataLength());
-                if (encObject.getBodyDataLength() > 0) {
-                    buf.writeBytes(encObject.getBodyData());
-                }
-                buf.writeShort(encObject.getAttrDataLength());
+                tail = ByteBufAllocator.DEFAULT.buffer(2 + encObject.getAttrDataLength() + 2);
+                tail.writeShort(encObject.getAttrDataLength());
                 if (encObject.getAttrDataLength() > 0) {
-                    buf.writeBytes(encObject.getAttrData());
+                    tail.writeBytes(encObject.getAttrData());
                 }
-                buf.writeShort(0xee01);
+                tail.writeShort(0xee01);
+                buf = composeFrame(buf, encObject, tail);
+                tail = null;
             } else if (encObject.getMsgType() == MsgType.MSG_BIN_HEARTBEAT) {
                 // msgType(1) + dataTime(4) + version(1) + bodyLength(4)
                 // + attrsLength(2) + magic(2)
@@ -113,6 +101,13 @@ public class ProtocolEncoder extends MessageToMessageEncoder<EncodeObject> {
                 buf.writeShort(0xee01);
             }
         } catch (Throwable ex) {
+            if (buf != null) {
+                buf.release();
+                buf = null;
+            }
+            if (tail != null) {
+                tail.release();
+            }
             if (exptCounter.shouldPrint()) {
                 logger.warn("ProtocolEncoder encode({}) message failure", encObject.getMsgType(), ex);
             }
@@ -125,4 +120,13 @@ public class ProtocolEncoder extends MessageToMessageEncoder<EncodeObject> {
             }
         }
     }
+
+    private ByteBuf composeFrame(ByteBuf header, EncodeObject encObject, ByteBuf tail) {
+        // forward the encoded body instead of copying it into the frame
+        if (encObject.getBodyDataLength() <= 0) {
+            return ByteBufAllocator.DEFAULT.compositeBuffer(2).addComponents(true, header, tail);
+        }
+        return ByteBufAllocator.DEFAULT.compositeBuffer(3).addComponents(true,
+                header, encObject.getBodyData().retainedDuplicate(), tail);
+    }
 }
@@ -309,6 +309,13 @@ public abstract class BaseSender implements ConfigHolder {
         }
     }
 
+    public void releaseMergedCachePermits(int[] sizesInByte, int mergedSizeInByte) {
+        this.sdkPkgCacheQuota.releaseMerged(sizesInByte, mergedSizeInByte);
+        if (this.globalCacheQuota != null) {
+            this.globalCacheQuota.releaseMerged(sizesInByte, mergedSizeInByte);
+        }
+    }
+
     public void releaseCachePermits(int sizeInByte) {
         if (this.globalCacheQuota == null) {
             this.sdkPkgCacheQuota.release(sizeInByte);
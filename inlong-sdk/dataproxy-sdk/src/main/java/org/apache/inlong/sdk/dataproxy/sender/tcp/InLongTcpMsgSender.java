@@ -28,21 +28,17 @@ import org.apache.inlong.sdk.dataproxy.network.tcp.SendQos;
 import org.apache.inlong.sdk.dataproxy.network.tcp.TcpClientMgr;
 import org.apache.inlong.sdk.dataproxy.network.tcp.TcpNettyClient;
 import org.apache.inlong.sdk.dataproxy.network.tcp.codec.EncodeObject;
+import org.apache.inlong.sdk.dataproxy.network.tcp.codec.EventBodyEncoder;
 import org.apache.inlong.sdk.dataproxy.sender.BaseSender;
 import org.apache.inlong.sdk.dataproxy.sender.MsgSendCallback;
-import org.apache.inlong.sdk.dataproxy.utils.EncryptUtil;
 import org.apache.inlong.sdk.dataproxy.utils.LogCounter;
 import org.apache.inlong.sdk.dataproxy.utils.ProxyUtils;
 
-import org.xerial.snappy.Snappy;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
 
-import javax.crypto.Cipher;
-import javax.crypto.spec.SecretKeySpec;
-
-import java.io.ByteArrayOutputStream;
-import java.nio.ByteBuffer;
-import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ThreadFactory;
 
@@ -56,6 +52,7 @@ public class InLongTcpMsgSender extends BaseSender implements TcpMsgSender {
     protected static final LogCounter tcpExceptCnt = new LogCounter(10, 100000, 60 * 1000L);
     private final TcpMsgSenderConfig tcpConfig;
     private final TcpClientMgr tcpClientMgr;
+    private final TcpBatchAccumulator batchAccumulator;
 
     public InLongTcpMsgSender(TcpMsgSenderConfig configure) {
         this(configure, null, null, null);
@@ -71,6 +68,20 @@ public class InLongTcpMsgSender extends BaseSender implements TcpMsgSender {
         this.tcpConfig = (TcpMsgSenderConfig) baseConfig;
         this.clientMgr = new TcpClientMgr(this, this.tcpConfig, selfDefineFactory);
         this.tcpClientMgr = (TcpClientMgr) clientMgr;
+        if (this.tcpConfig.isEnableAutoBatch()) {
+            this.batchAccumulator = new TcpBatchAccumulator(
+                    senderId, this.tcpConfig.getAutoBatchLingerMs(), this::sendBatch, this::getBatchSizeLimit);
+        } else {
+            this.batchAccumulator = null;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (batchAccumulator != null) {
+            batchAccumulator.close();
+        }
+        super.close();
     }
 
     @Override
@@ -114,6 +125,9 @@ public class InLongTcpMsgSender extends BaseSender implements TcpMsgSender {
                 return false;
             }
             gotPermits = true;
+            if (appendToBatch(SendQos.SOURCE_ACK, eventInfo, callback)) {
+                return procResult.setSuccess();
+            }
             return processEvent(SendQos.SOURCE_ACK, eventInfo, callback, procResult);
         } finally {
             if (procResult.isSuccess()) {
@@ -190,6 +204,9 @@ public class InLongTcpMsgSender extends BaseSender implements TcpMsgSender {
                 return false;
             }
             gotPermits = true;
+            if (appendToBatch(SendQos.SINK_ACK, eventInfo, callback)) {
+                return procResult.setSuccess();
+            }
             return processEvent(SendQos.SINK_ACK, eventInfo, callback, procResult);
         } finally {
             if (procResult.isSuccess()) {
@@ -215,6 +232,62 @@ public class InLongTcpMsgSender extends BaseSender implements TcpMsgSender {
         return tcpClientMgr.getInflightMsgCnt();
     }
 
+    private boolean appendToBatch(SendQos sendQos, TcpEventInfo eventInfo, MsgSendCallback callback) {
+        if (batchAccumulator == null) {
+            return false;
+        }
+        return batchAccumulator.append(sendQos, eventInfo, callback, tcpConfig.getAutoBatchSizeBytes());
+    }
+
+    private int getBatchSizeLimit(SendQos sendQos, TcpEventInfo eventInfo) {
+        int allowedLen = this.getAllowedPkgLength();
+        if (allowedLen <= 0) {
+            return Integer.MAX_VALUE;
+        }
+        // keep the merged event within the allowed package length,
+        // with the attributes encoded as the event of the batch is sent
+        EncodeObject encObject =
+                new EncodeObject(eventInfo.getGroupId(), eventInfo.getStreamId(),
+                        tcpConfig.getSdkMsgType(), eventInfo.getDtMs(), eventInfo.getBodySize());
+        try {
+            processEventAttrsInfo(sendQos, eventInfo, encObject);
+            return allowedLen - SdkConsts.RESERVED_ATTRIBUTE_LENGTH - encObject.getAttrDataLength();
+        } finally {
+            encObject.release();
+        }
+    }
+
+    private void sendBatch(SendQos sendQos, List<TcpEventInfo> events, MsgSendCallback callback) {
+        // the merged event keeps one package of the permits of the merged reports,
+        // its body size is the sum of their body sizes
+        int msgCnt = 0;
+        int bodySize = 0;
+        int[] rptSizes = new int[events.size()];
+        for (int i = 0; i < rptSizes.length; i++) {
+            msgCnt += events.get(i).getMsgCnt();
+            rptSizes[i] = events.get(i).getBodySize();
+            bodySize += rptSizes[i];
+        }
+        releaseMergedCachePermits(rptSizes, bodySize);
+        ProcessResult procResult = new ProcessResult();
+        try {
+            TcpEventInfo batchEvent = TcpBatchAccumulator.mergeEvents(events);
+            processEvent(sendQos, batchEvent, callback, procResult);
+        } catch (Throwable ex) {
+            procResult.setFailResult(ErrorCode.ENCODE_BODY_EXCEPTION, ex.getMessage());
+            if (tcpExceptCnt.shouldPrint()) {
+                logger.warn("Sender({}) merge batch events exception", senderId, ex);
+            }
+        }
+        if (procResult.isSuccess()) {
+            return;
+        }
+        releaseCachePermits(bodySize);
+        metricHolder.addCallbackFailMetric(procResult.getErrCode(),
+                events.get(0).getGroupId(), events.get(0).getStreamId(), msgCnt, 0L);
+        callback.onMessageAck(procResult);
+    }
+
     private boolean processEvent(SendQos sendQos,
             TcpEventInfo eventInfo, MsgSendCallback callback, ProcessResult procResult) {
         if (this.isMetaInfoUnReady()) {
@@ -223,27 +296,32 @@ public class InLongTcpMsgSender extends BaseSender implements TcpMsgSender {
         EncodeObject encObject =
                 new EncodeObject(eventInfo.getGroupId(), eventInfo.getStreamId(),
                         tcpConfig.getSdkMsgType(), eventInfo.getDtMs(), eventInfo.getBodySize());
-        // pre-process attributes
-        processEventAttrsInfo(sendQos, eventInfo, encObject);
-        // check package length
-        if (!isValidPkgLength(encObject.getAttrDataLength(),
-                eventInfo.getBodySize(), this.getAllowedPkgLength(), procResult)) {
-            return false;
-        }
-        // process body
-        if (!procEventBodyInfo(eventInfo, procResult, encObject)) {
-            return false;
-        }
-        // get client object
-        if (!tcpClientMgr.getClientByRoundRobin(procResult)) {
-            return false;
-        }
-        TcpNettyClient client = (TcpNettyClient) procResult.getRetData();
-        encObject.setMessageIdInfo(tcpClientMgr.getNextMsgId());
         try {
-            return tcpClientMgr.reportEvent(sendQos, client, encObject, callback, procResult);
+            // pre-process attributes
+            processEventAttrsInfo(sendQos, eventInfo, encObject);
+            // check package length
+            if (!isValidPkgLength(encObject.getAttrDataLength(),
+                    eventInfo.getBodySize(), this.getAllowedPkgLength(), procResult)) {
+                return false;
+            }
+            // process body
+            if (!procEventBodyInfo(eventInfo, procResult, encObject)) {
+                return false;
+            }
+            // get client object
+            if (!tcpClientMgr.getClientByRoundRobin(procResult)) {
+                return false;
+            }
+            TcpNettyClient client = (TcpNettyClient) procResult.getRetData();
+            encObject.setMessageIdInfo(tcpClientMgr.getNextMsgId());
+            try {
+                return tcpClientMgr.reportEvent(sendQos, client, encObject, callback, procResult);
+            } finally {
+                client.decClientUsingCnt();
+            }
         } finally {
-            client.decClientUsingCnt();
+            // release the reference of sender, the body is released after written
+            encObject.release();
         }
     }
 
@@ -331,22 +409,38 @@ public class InLongTcpMsgSender extends BaseSender implements TcpMsgSender {
 
     private boolean procEventBodyInfo(TcpEventInfo eventInfo, ProcessResult procResult, EncodeObject encObject) {
         // encode message body
-        byte[] body = encBodyList(senderId, encObject.getMsgType(),
-                tcpConfig.isSeparateEventByLF(), eventInfo, procResult);
-        if (body == null) {
+        ByteBuf body;
+        try {
+            body = EventBodyEncoder.encodeBodyList(ByteBufAllocator.DEFAULT,
+                    encObject.getMsgType(), tcpConfig.isSeparateEventByLF(), eventInfo.getBodyList());
+        } catch (Throwable ex) {
+            procResult.setFailResult(ErrorCode.ENCODE_BODY_EXCEPTION, ex.getMessage());
+            if (tcpExceptCnt.shouldPrint()) {
+                logger.warn("Sender({}) encode body exception", senderId, ex);
+            }
             return false;
         }
         // compress body
         if (encObject.isCompress()) {
-            body = compressBodyInfo(senderId, body, procResult);
-            if (body == null) {
+            try {
+                body = EventBodyEncoder.compress(ByteBufAllocator.DEFAULT, body);
+            } catch (Throwable ex) {
+                procResult.setFailResult(ErrorCode.COMPRESS_BODY_EXCEPTION, ex.getMessage());
+                if (tcpExceptCnt.shouldPrint()) {
+                    logger.warn("Sender({}) compress body exception", senderId, ex);
+                }
                 return false;
             }
         }
         // encrypt body
         if (tcpConfig.isEnableReportEncrypt()) {
-            body = aesEncryptBodyInfo(senderId, body, encObject.getAesKey(), procResult);
-            if (body == null) {
+            try {
+                body = EventBodyEncoder.aesEncrypt(ByteBufAllocator.DEFAULT, body, encObject.getAesKey());
+            } catch (Throwable ex) {
+                procResult.setFailResult(ErrorCode.ENCRYPT_BODY_EXCEPTION, ex.getMessage());
+                if (tcpExceptCnt.shouldPrint()) {
+                    logger.warn("Sender({}) aesEncrypt body exception", senderId, ex);
+                }
                 return false;
             }
         }
@@ -354,93 +448,6 @@ public class InLongTcpMsgSender extends BaseSender implements TcpMsgSender {
         return true;
     }
 
-    private byte[] encBodyList(String senderId,
-            MsgType msgType, boolean sepByLF, TcpEventInfo eventInfo, ProcessResult procResult) {
-        try {
-            int totalCnt = 0;
-            ByteArrayOutputStream bodyOut = new ByteArrayOutputStream();
-            if (msgType == MsgType.MSG_ACK_SERVICE) {
-                for (byte[] entry : eventInfo.getBodyList()) {
-                    if (totalCnt++ > 0) {
-                        bodyOut.write(AttributeConstants.LINE_FEED_SEP.getBytes(StandardCharsets.UTF_8));
-                    }
-                    bodyOut.write(entry);
-                }
-            } else if (msgType == MsgType.MSG_MULTI_BODY) {
-                for (byte[] entry : eventInfo.getBodyList()) {
-                    ByteBuffer byteBuffer = ByteBuffer.allocate(4);
-                    byteBuffer.putInt(entry.length);
-                    bodyOut.write(byteBuffer.array());
-                    bodyOut.write(entry);
-                }
-            } else {
-                if (sepByLF) {
-                    ByteArrayOutputStream data = new ByteArrayOutputStream();
-                    for (byte[] entry : eventInfo.getBodyList()) {
-                        if (totalCnt++ > 0) {
-                            data.write(AttributeConstants.LINE_FEED_SEP.getBytes(StandardCharsets.UTF_8));
-                        }
-                        data.write(entry);
-                    }
-                    ByteBuffer dataBuffer = ByteBuffer.allocate(4);
-                    dataBuffer.putInt(data.toByteArray().length);
-                    bodyOut.write(dataBuffer.array());
-                    bodyOut.write(data.toByteArray());
-                } else {
-                    for (byte[] entry : eventInfo.getBodyList()) {
-                        ByteBuffer dataBuffer = ByteBuffer.allocate(4);
-                        dataBuffer.putInt(entry.length);
-                        bodyOut.write(dataBuffer.array());
-                        bodyOut.write(entry);
-                    }
-                }
-            }
-            return bodyOut.toByteArray();
-        } catch (Throwable ex) {
-            procResult.setFailResult(ErrorCode.ENCODE_BODY_EXCEPTION, ex.getMessage());
-            if (tcpExceptCnt.shouldPrint()) {
-                logger.warn("Sender({}) encode body exception", senderId, ex);
-            }
-            return null;
-        }
-    }
-
-    private byte[] compressBodyInfo(String senderId, byte[] body, ProcessResult procResult) {
-        try {
-            ByteArrayOutputStream out = new ByteArrayOutputStream();
-            out.write(body);
-            int guessLen = Snappy.maxCompressedLength(out.size());
-            byte[] tmpData = new byte[guessLen];
-            int len = Snappy.compress(out.toByteArray(), 0, out.size(),
-                    tmpData, 0);
-            body = new byte[len];
-            System.arraycopy(tmpData, 0, body, 0, len);
-            return body;
-        } catch (Throwable ex) {
-            procResult.setFailResult(ErrorCode.COMPRESS_BODY_EXCEPTION, ex.getMessage());
-            if (tcpExceptCnt.shouldPrint()) {
-                logger.warn("Sender({}) compress body exception", senderId, ex);
-            }
-            return null;
-        }
-    }
-
-    private byte[] aesEncryptBodyInfo(String senderId,
-            byte[] plainText, byte[] aesKey, ProcessResult procResult) {
-        try {
-            SecretKeySpec secretKeySpec = new SecretKeySpec(aesKey, EncryptUtil.AES);
-            Cipher cipher = Cipher.getInstance(EncryptUtil.AES);
-            cipher.init(Cipher.ENCRYPT_MODE, secretKeySpec);
-            return cipher.doFinal(plainText);
-        } catch (Throwable ex) {
-            procResult.setFailResult(ErrorCode.ENCRYPT_BODY_EXCEPTION, ex.getMessage());
-            if (tcpExceptCnt.shouldPrint()) {
-                logger.warn("Sender({}) aesEncrypt body exception", senderId, ex);
-            }
-            return null;
-        }
-    }
-
     private void validParamsNotNull(TcpEventInfo eventInfo, ProcessResult procResult) {
         if (eventInfo == null) {
             throw new NullPointerException("eventInfo is null");
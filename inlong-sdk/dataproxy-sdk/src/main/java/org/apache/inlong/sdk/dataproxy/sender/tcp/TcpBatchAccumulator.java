@@ -0,0 +1,350 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sdk.dataproxy.sender.tcp;
+
+import org.apache.inlong.common.msg.AttributeConstants;
+import org.apache.inlong.sdk.dataproxy.common.ProcessResult;
+import org.apache.inlong.sdk.dataproxy.exception.ProxyEventException;
+import org.apache.inlong.sdk.dataproxy.network.tcp.SendQos;
+import org.apache.inlong.sdk.dataproxy.sender.MsgSendCallback;
+import org.apache.inlong.sdk.dataproxy.utils.LogCounter;
+
+import io.netty.util.concurrent.DefaultThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TCP Batch Accumulator class
+ *
+ * Used to merge the asynchronous reports with the same groupId, streamId, attributes,
+ *  data time minute and send QoS into one multi-body event. A merged event is sent when
+ *  its body size reaches the batch size, or when it has lingered for the linger time,
+ *  and the callback of each merged report is completed with the result of the merged event.
+ * The merged event takes the data time of its first report.
+ * The batch size is counted in encoded body size, each body is prefixed by its 4-byte length.
+ */
+public class TcpBatchAccumulator {
+
+    private static final Logger logger = LoggerFactory.getLogger(TcpBatchAccumulator.class);
+    private static final LogCounter callbackExceptCnt = new LogCounter(10, 100000, 60 * 1000L);
+    private static final long DATA_TIME_UNIT_MS = 60 * 1000L;
+    private static final int BODY_LENGTH_PREFIX = 4;
+
+    private final String senderId;
+    private final long lingerMs;
+    private final BatchSender batchSender;
+    private final BatchSizeLimiter sizeLimiter;
+    private final ConcurrentHashMap<BatchKey, EventBatch> batches = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService lingerExecutor;
+    private volatile boolean closed = false;
+
+    public TcpBatchAccumulator(String senderId, long lingerMs, BatchSender batchSender) {
+        this(senderId, lingerMs, batchSender, (sendQos, eventInfo) -> Integer.MAX_VALUE);
+    }
+
+    public TcpBatchAccumulator(String senderId, long lingerMs,
+            BatchSender batchSender, BatchSizeLimiter sizeLimiter) {
+        this.senderId = senderId;
+        this.lingerMs = lingerMs;
+        this.batchSender = batchSender;
+        this.sizeLimiter = sizeLimiter;
+        this.lingerExecutor = Executors.newSingleThreadScheduledExecutor(
+                new DefaultThreadFactory("sdk-tcp-batch-linger", true));
+        long checkDurMs = Math.max(1L, lingerMs / 2);
+        this.lingerExecutor.scheduleWithFixedDelay(() -> {
+            try {
+                flushLingered(System.currentTimeMillis());
+            } catch (Throwable ex) {
+                logger.warn("Accumulator({}) flush lingered batches throw exception", senderId, ex);
+            }
+        }, checkDurMs, checkDurMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Append a report to the batch of its key
+     *
+     * @param sendQos    the send QoS of the report
+     * @param eventInfo  the report
+     * @param callback   the callback of the report
+     * @param batchSize  the encoded body size limit of the merged event
+     * @return whether the report is accepted, the caller sends it alone if not
+     */
+    public boolean append(SendQos sendQos,
+            TcpEventInfo eventInfo, MsgSendCallback callback, int batchSize) {
+        int encodedSize = getEncodedSize(eventInfo);
+        // a report with message uuid is identified alone
+        if (closed || encodedSize >= batchSize
+                || eventInfo.getAttrs().containsKey(AttributeConstants.MSG_UUID)) {
+            return false;
+        }
+        BatchKey batchKey = new BatchKey(sendQos, eventInfo);
+        boolean appended = false;
+        EventBatch readyBatch;
+        do {
+            readyBatch = null;
+            EventBatch batch = batches.computeIfAbsent(batchKey,
+                    k -> new EventBatch(k, System.currentTimeMillis(),
+                            Math.min(batchSize, sizeLimiter.getSizeLimit(sendQos, eventInfo))));
+            synchronized (batch) {
+                if (batch.sealed) {
+                    continue;
+                }
+                if (batch.encodedSize > 0
+                        && batch.encodedSize + encodedSize > batch.sizeLimit) {
+                    // send the current batch, and append to a new one
+                    readyBatch = sealBatch(batch);
+                } else {
+                    batch.append(eventInfo, callback, encodedSize);
+                    appended = true;
+                    if (batch.encodedSize >= batch.sizeLimit) {
+                        readyBatch = sealBatch(batch);
+                    }
+                }
+            }
+            if (readyBatch != null) {
+                sendBatch(readyBatch);
+            }
+        } while (!appended);
+        // the batch created after closed has to be sent by itself
+        if (closed) {
+            flushAll();
+        }
+        return true;
+    }
+
+    /**
+     * Send the batches lingered for the linger time
+     *
+     * @param curTime  the current time
+     */
+    public void flushLingered(long curTime) {
+        for (EventBatch batch : batches.values()) {
+            if (curTime - batch.createTime < lingerMs) {
+                continue;
+            }
+            EventBatch readyBatch;
+            synchronized (batch) {
+                readyBatch = batch.sealed ? null : sealBatch(batch);
+            }
+            if (readyBatch != null) {
+                sendBatch(readyBatch);
+            }
+        }
+    }
+
+    /**
+     * Send all the batches
+     */
+    public void flushAll() {
+        flushLingered(Long.MAX_VALUE);
+    }
+
+    /**
+     * Stop accepting reports, and send all the batches
+     */
+    public void close() {
+        this.closed = true;
+        this.lingerExecutor.shutdownNow();
+        flushAll();
+    }
+
+    public int getBatchCount() {
+        return batches.size();
+    }
+
+    /**
+     * Merge the reports of a batch into one event
+     *
+     * @param events  the reports with the same key
+     * @return the merged event
+     * @throws ProxyEventException if the merged event is invalid
+     */
+    public static TcpEventInfo mergeEvents(List<TcpEventInfo> events) throws ProxyEventException {
+        TcpEventInfo firstEvent = events.get(0);
+        if (events.size() == 1) {
+            return firstEvent;
+        }
+        List<byte[]> bodyList = new ArrayList<>();
+        for (TcpEventInfo eventInfo : events) {
+            bodyList.addAll(eventInfo.getBodyList());
+        }
+        return new TcpEventInfo(firstEvent.getGroupId(), firstEvent.getStreamId(),
+                firstEvent.getDtMs(), firstEvent.getAttrs(), bodyList);
+    }
+
+    private static int getEncodedSize(TcpEventInfo eventInfo) {
+        return eventInfo.getBodySize() + BODY_LENGTH_PREFIX * eventInfo.getMsgCnt();
+    }
+
+    private EventBatch sealBatch(EventBatch batch) {
+        batch.sealed = true;
+        batches.remove(batch.batchKey, batch);
+        return batch;
+    }
+
+    private void sendBatch(EventBatch batch) {
+        batchSender.sendBatch(batch.batchKey.sendQos,
+                batch.events, new BatchCallback(senderId, batch.callbacks));
+    }
+
+    /**
+     * Batch Sender interface
+     *
+     * Used to send the reports of a batch as one event
+     */
+    public interface BatchSender {
+
+        /**
+         * Send the reports of a batch, the callback must be completed
+         *  even if the merged event is not sent
+         *
+         * @param sendQos   the send QoS
+         * @param events    the reports with the same key
+         * @param callback  the callback of all the reports
+         */
+        void sendBatch(SendQos sendQos, List<TcpEventInfo> events, MsgSendCallback callback);
+    }
+
+    /**
+     * Batch Size Limiter interface
+     *
+     * Used to size the merged event of a batch within the package length of the sender
+     */
+    public interface BatchSizeLimiter {
+
+        /**
+         * Get the encoded body size limit of the merged event,
+         *  called once when the batch of the report key is created
+         *
+         * @param sendQos    the send QoS
+         * @param eventInfo  the first report of the batch
+         * @return the encoded body size limit
+         */
+        int getSizeLimit(SendQos sendQos, TcpEventInfo eventInfo);
+    }
+
+    private static class BatchCallback implements MsgSendCallback {
+
+        private final String senderId;
+        private final List<MsgSendCallback> callbacks;
+
+        private BatchCallback(String senderId, List<MsgSendCallback> callbacks) {
+            this.senderId = senderId;
+            this.callbacks = callbacks;
+        }
+
+        @Override
+        public void onMessageAck(ProcessResult result) {
+            for (MsgSendCallback callback : callbacks) {
+                try {
+                    callback.onMessageAck(result);
+                } catch (Throwable ex) {
+                    if (callbackExceptCnt.shouldPrint()) {
+                        logger.info("Accumulator({}) batch ack, callback exception!", senderId, ex);
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void onException(Throwable ex) {
+            for (MsgSendCallback callback : callbacks) {
+                try {
+                    callback.onException(ex);
+                } catch (Throwable ex2) {
+                    if (callbackExceptCnt.shouldPrint()) {
+                        logger.info("Accumulator({}) batch exception, callback exception!", senderId, ex2);
+                    }
+                }
+            }
+        }
+    }
+
+    private static class EventBatch {
+
+        private final BatchKey batchKey;
+        private final long createTime;
+        private final int sizeLimit;
+        private final List<TcpEventInfo> events = new ArrayList<>();
+        private final List<MsgSendCallback> callbacks = new ArrayList<>();
+        private int encodedSize = 0;
+        private boolean sealed = false;
+
+        private EventBatch(BatchKey batchKey, long createTime, int sizeLimit) {
+            this.batchKey = batchKey;
+            this.createTime = createTime;
+            this.sizeLimit = sizeLimit;
+        }
+
+        private void append(TcpEventInfo eventInfo, MsgSendCallback callback, int eventSize) {
+            events.add(eventInfo);
+            callbacks.add(callback);
+            encodedSize += eventSize;
+        }
+    }
+
+    private static class BatchKey {
+
+        private final SendQos sendQos;
+        private final String groupId;
+        private final String streamId;
+        private final long dtUnit;
+        private final Map<String, String> attrs;
+        private final int hashCode;
+
+        private BatchKey(SendQos sendQos, TcpEventInfo eventInfo) {
+            this.sendQos = sendQos;
+            this.groupId = eventInfo.getGroupId();
+            this.streamId = eventInfo.getStreamId();
+            this.dtUnit = eventInfo.getDtMs() / DATA_TIME_UNIT_MS;
+            this.attrs = eventInfo.getAttrs();
+            this.hashCode = Objects.hash(sendQos, groupId, streamId, dtUnit, attrs);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof BatchKey)) {
+                return false;
+            }
+            BatchKey other = (BatchKey) o;
+            return hashCode == other.hashCode
+                    && dtUnit == other.dtUnit
+                    && sendQos == other.sendQos
+                    && groupId.equals(other.groupId)
+                    && streamId.equals(other.streamId)
+                    && attrs.equals(other.attrs);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
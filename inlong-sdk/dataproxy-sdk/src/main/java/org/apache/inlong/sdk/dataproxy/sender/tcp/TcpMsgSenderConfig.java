@@ -68,6 +68,12 @@ public class TcpMsgSenderConfig extends ProxyClientConfig implements Cloneable {
     private int maxAllowedSyncMsgTimeoutCnt = SdkConsts.VAL_DEF_SYNC_MSG_TIMEOUT_CNT;
     // the synchronization message timeout check duration ms
     private long syncMsgTimeoutChkDurMs = SdkConsts.VAL_DEF_SYNC_TIMEOUT_CHK_DUR_MS;
+    // whether merge the async reports of the same groupId and streamId
+    private boolean enableAutoBatch = false;
+    // the max wait time of an async report in batch
+    private long autoBatchLingerMs = SdkConsts.VAL_DEF_AUTO_BATCH_LINGER_MS;
+    // the body size to send a batch
+    private int autoBatchSizeBytes = SdkConsts.VAL_DEF_AUTO_BATCH_SIZE_BYTES;
 
     public TcpMsgSenderConfig(boolean visitMgrByHttps,
             String managerIP, int managerPort, String groupId) throws ProxySdkException {
@@ -247,6 +253,32 @@ public class TcpMsgSenderConfig extends ProxyClientConfig implements Cloneable {
                 SdkConsts.VAL_MIN_SYNC_TIMEOUT_CHK_DUR_MS, syncMsgTimeoutChkDurMs);
     }
 
+    public boolean isEnableAutoBatch() {
+        return enableAutoBatch;
+    }
+
+    public void setEnableAutoBatch(boolean enableAutoBatch) {
+        this.enableAutoBatch = enableAutoBatch;
+    }
+
+    public long getAutoBatchLingerMs() {
+        return autoBatchLingerMs;
+    }
+
+    public void setAutoBatchLingerMs(long autoBatchLingerMs) {
+        this.autoBatchLingerMs = Math.min(SdkConsts.VAL_MAX_AUTO_BATCH_LINGER_MS,
+                Math.max(SdkConsts.VAL_MIN_AUTO_BATCH_LINGER_MS, autoBatchLingerMs));
+    }
+
+    public int getAutoBatchSizeBytes() {
+        return autoBatchSizeBytes;
+    }
+
+    public void setAutoBatchSizeBytes(int autoBatchSizeBytes) {
+        this.autoBatchSizeBytes = Math.max(
+                SdkConsts.VAL_MIN_AUTO_BATCH_SIZE_BYTES, autoBatchSizeBytes);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o)
@@ -272,6 +304,9 @@ public class TcpMsgSenderConfig extends ProxyClientConfig implements Cloneable {
                 && reconFailWaitMs == config.reconFailWaitMs
                 && maxAllowedSyncMsgTimeoutCnt == config.maxAllowedSyncMsgTimeoutCnt
                 && syncMsgTimeoutChkDurMs == config.syncMsgTimeoutChkDurMs
+                && enableAutoBatch == config.enableAutoBatch
+                && autoBatchLingerMs == config.autoBatchLingerMs
+                && autoBatchSizeBytes == config.autoBatchSizeBytes
                 && sdkMsgType == config.sdkMsgType;
     }
 
@@ -282,7 +317,8 @@ public class TcpMsgSenderConfig extends ProxyClientConfig implements Cloneable {
                 nettyWorkerThreadNum, rcvBufferSize, sendBufferSize, connectTimeoutMs,
                 requestTimeoutMs, conCloseWaitPeriodMs, maxMsgInFlightPerConn,
                 frozenReconnectWaitMs, busyReconnectWaitMs, reconFailWaitMs,
-                maxAllowedSyncMsgTimeoutCnt, syncMsgTimeoutChkDurMs);
+                maxAllowedSyncMsgTimeoutCnt, syncMsgTimeoutChkDurMs,
+                enableAutoBatch, autoBatchLingerMs, autoBatchSizeBytes);
     }
 
     @Override
@@ -318,7 +354,10 @@ public class TcpMsgSenderConfig extends ProxyClientConfig implements Cloneable {
                         .append(", busyReconnectWaitMs=").append(busyReconnectWaitMs)
                         .append(", reconFailWaitMs=").append(reconFailWaitMs)
                         .append(", maxAllowedSyncMsgTimeoutCnt=").append(maxAllowedSyncMsgTimeoutCnt)
-                        .append(", syncMsgTimeoutChkDurMs=").append(syncMsgTimeoutChkDurMs);
+                        .append(", syncMsgTimeoutChkDurMs=").append(syncMsgTimeoutChkDurMs)
+                        .append(", enableAutoBatch=").append(enableAutoBatch)
+                        .append(", autoBatchLingerMs=").append(autoBatchLingerMs)
+                        .append(", autoBatchSizeBytes=").append(autoBatchSizeBytes);
         return super.getSetting(strBuff);
     }
 }
@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sdk.dataproxy;
+
+import org.apache.inlong.common.msg.MsgType;
+import org.apache.inlong.sdk.dataproxy.network.tcp.codec.EncodeObject;
+import org.apache.inlong.sdk.dataproxy.network.tcp.codec.EventBodyEncoder;
+import org.apache.inlong.sdk.dataproxy.network.tcp.codec.ProtocolEncoder;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.Assert;
+import org.junit.Test;
+import org.xerial.snappy.Snappy;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class EventBodyEncoderTest {
+
+    private final List<byte[]> bodyList = Arrays.asList(
+            "body-1".getBytes(StandardCharsets.UTF_8),
+            "body-22".getBytes(StandardCharsets.UTF_8),
+            "body-333".getBytes(StandardCharsets.UTF_8));
+
+    @Test
+    public void testEncodeBodyList() throws Exception {
+        // length-prefixed bodies
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        for (byte[] entry : bodyList) {
+            expected.write(ByteBuffer.allocate(4).putInt(entry.length).array());
+            expected.write(entry);
+        }
+        assertEncoded(expected.toByteArray(), MsgType.MSG_MULTI_BODY, false);
+        assertEncoded(expected.toByteArray(), MsgType.MSG_BIN_MULTI_BODY, false);
+        // bodies separated by line feed
+        byte[] lfBodies = "body-1\nbody-22\nbody-333".getBytes(StandardCharsets.UTF_8);
+        assertEncoded(lfBodies, MsgType.MSG_ACK_SERVICE, false);
+        expected.reset();
+        expected.write(ByteBuffer.allocate(4).putInt(lfBodies.length).array());
+        expected.write(lfBodies);
+        assertEncoded(expected.toByteArray(), MsgType.MSG_BIN_MULTI_BODY, true);
+    }
+
+    @Test
+    public void testCompressAndForwardBody() throws Exception {
+        ByteBuf bodyBuf = EventBodyEncoder.encodeBodyList(
+                ByteBufAllocator.DEFAULT, MsgType.MSG_MULTI_BODY, false, bodyList);
+        byte[] rawBody = ByteBufUtil.getBytes(bodyBuf);
+        ByteBuf compressed = EventBodyEncoder.compress(ByteBufAllocator.DEFAULT, bodyBuf);
+        Assert.assertEquals(0, bodyBuf.refCnt());
+        byte[] compBody = ByteBufUtil.getBytes(compressed);
+        Assert.assertArrayEquals(rawBody, Snappy.uncompress(compBody));
+        // the frame forwards the body, which is released with the frame
+        EncodeObject encObject = new EncodeObject("group", "stream",
+                MsgType.MSG_MULTI_BODY, System.currentTimeMillis(), rawBody.length);
+        Map<String, String> attrs = new HashMap<>();
+        attrs.put("cp", "snappy");
+        encObject.setAttrInfo(MsgType.MSG_MULTI_BODY.getValue(), true, null, attrs);
+        encObject.setBodyData(bodyList.size(), compressed);
+        EmbeddedChannel channel = new EmbeddedChannel(new ProtocolEncoder());
+        Assert.assertTrue(channel.writeOutbound(encObject.retain()));
+        encObject.release();
+        Assert.assertEquals(1, compressed.refCnt());
+        ByteBuf frame = channel.readOutbound();
+        Assert.assertEquals(frame.readableBytes() - 4, frame.readInt());
+        Assert.assertEquals(MsgType.MSG_MULTI_BODY.getValue(), frame.readByte());
+        Assert.assertEquals(compBody.length, frame.readInt());
+        byte[] frameBody = new byte[compBody.length];
+        frame.readBytes(frameBody);
+        Assert.assertArrayEquals(compBody, frameBody);
+        Assert.assertEquals(encObject.getAttrDataLength(), frame.readInt());
+        frame.release();
+        Assert.assertEquals(0, compressed.refCnt());
+        channel.finish();
+    }
+
+    private void assertEncoded(byte[] expected, MsgType msgType, boolean sepByLF) {
+        ByteBuf bodyBuf = EventBodyEncoder.encodeBodyList(
+                ByteBufAllocator.DEFAULT, msgType, sepByLF, bodyList);
+        try {
+            Assert.assertTrue(bodyBuf.isDirect());
+            Assert.assertArrayEquals(expected, ByteBufUtil.getBytes(bodyBuf));
+        } finally {
+            bodyBuf.release();
+        }
+    }
+}
@@ -85,4 +85,35 @@ public class PkgCacheQuotaTest {
         Assert.assertEquals(result.getF0().intValue(), 3);
         Assert.assertEquals(result.getF1().intValue(), 2);
     }
+
+    @Test
+    public void testReleaseMerged() {
+        ProcessResult procResult = new ProcessResult();
+        PkgCacheQuota quota = new PkgCacheQuota(false, "q5", 100, 1000, 100);
+        int[] sizes = new int[]{10, 300, 1024, 2000, 5};
+        int mergedSize = 0;
+        for (int size : sizes) {
+            mergedSize += size;
+        }
+        // each batch of reports is sent as one merged package
+        for (int i = 0; i < 1000; i++) {
+            for (int size : sizes) {
+                Assert.assertTrue(quota.tryAcquire(size, procResult));
+            }
+            quota.releaseMerged(sizes, mergedSize);
+            Tuple2<Integer, Integer> result = quota.getPkgCacheAvailQuota();
+            Assert.assertEquals(99, result.getF0().intValue());
+            quota.release(mergedSize);
+        }
+        Tuple2<Integer, Integer> result = quota.getPkgCacheAvailQuota();
+        Assert.assertEquals(100, result.getF0().intValue());
+        Assert.assertEquals(1000, result.getF1().intValue());
+        // a single report is its own package
+        Assert.assertTrue(quota.tryAcquire(50, procResult));
+        quota.releaseMerged(new int[]{50}, 50);
+        quota.release(50);
+        result = quota.getPkgCacheAvailQuota();
+        Assert.assertEquals(100, result.getF0().intValue());
+        Assert.assertEquals(1000, result.getF1().intValue());
+    }
 }
@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sdk.dataproxy;
+
+import org.apache.inlong.sdk.dataproxy.common.ErrorCode;
+import org.apache.inlong.sdk.dataproxy.common.ProcessResult;
+import org.apache.inlong.sdk.dataproxy.network.tcp.SendQos;
+import org.apache.inlong.sdk.dataproxy.sender.MsgSendCallback;
+import org.apache.inlong.sdk.dataproxy.sender.tcp.TcpBatchAccumulator;
+import org.apache.inlong.sdk.dataproxy.sender.tcp.TcpEventInfo;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TcpBatchAccumulatorTest {
+
+    @Test
+    public void testBatchAccumulate() throws Exception {
+        long dtMs = System.currentTimeMillis();
+        List<TcpEventInfo> sentEvents = new ArrayList<>();
+        TcpBatchAccumulator accumulator = new TcpBatchAccumulator("test", 1000L,
+                (sendQos, events, callback) -> {
+                    try {
+                        sentEvents.add(TcpBatchAccumulator.mergeEvents(events));
+                    } catch (Throwable ex) {
+                        callback.onException(ex);
+                        return;
+                    }
+                    callback.onMessageAck(new ProcessResult(ErrorCode.OK));
+                });
+        AtomicInteger ackCnt = new AtomicInteger(0);
+        MsgSendCallback callback = new MsgSendCallback() {
+
+            @Override
+            public void onMessageAck(ProcessResult result) {
+                Assert.assertTrue(result.isSuccess());
+                ackCnt.incrementAndGet();
+            }
+
+            @Override
+            public void onException(Throwable ex) {
+                Assert.fail(ex.getMessage());
+            }
+        };
+        // case 1, merge the reports of the same key until the batch size,
+        // each report of 5 bytes takes 9 bytes with its length prefix
+        for (int i = 0; i < 4; i++) {
+            Assert.assertTrue(accumulator.append(SendQos.SOURCE_ACK,
+                    buildEvent("stream1", dtMs, "msg-" + i), callback, 36));
+        }
+        Assert.assertTrue(accumulator.append(SendQos.SOURCE_ACK,
+                buildEvent("stream2", dtMs, "msg-x"), callback, 36));
+        Assert.assertTrue(accumulator.append(SendQos.SINK_ACK,
+                buildEvent("stream1", dtMs, "msg-y"), callback, 36));
+        Assert.assertEquals(1, sentEvents.size());
+        Assert.assertEquals(4, sentEvents.get(0).getMsgCnt());
+        Assert.assertEquals("stream1", sentEvents.get(0).getStreamId());
+        Assert.assertEquals(dtMs, sentEvents.get(0).getDtMs());
+        Assert.assertEquals("msg-3",
+                new String(sentEvents.get(0).getBodyList().get(3), StandardCharsets.UTF_8));
+        Assert.assertEquals(4, ackCnt.get());
+        Assert.assertEquals(2, accumulator.getBatchCount());
+        // case 2, a report over the batch size is not accepted
+        Assert.assertFalse(accumulator.append(SendQos.SOURCE_ACK,
+                buildEvent("stream1", dtMs, "msg-over-the-encoded-batch-size-limit"), callback, 36));
+        // case 3, send the lingered batches
+        accumulator.flushLingered(System.currentTimeMillis());
+        Assert.assertEquals(1, sentEvents.size());
+        accumulator.flushLingered(System.currentTimeMillis() + 1000L);
+        Assert.assertEquals(3, sentEvents.size());
+        Assert.assertEquals(6, ackCnt.get());
+        Assert.assertEquals(0, accumulator.getBatchCount());
+        // case 4, send the left batches when closed
+        Assert.assertTrue(accumulator.append(SendQos.SOURCE_ACK,
+                buildEvent("stream1", dtMs, "msg-z"), callback, 36));
+        accumulator.close();
+        Assert.assertEquals(4, sentEvents.size());
+        Assert.assertEquals(7, ackCnt.get());
+        Assert.assertFalse(accumulator.append(SendQos.SOURCE_ACK,
+                buildEvent("stream1", dtMs, "msg-z"), callback, 36));
+    }
+
+    @Test
+    public void testBatchSizeLimiter() throws Exception {
+        long dtMs = System.currentTimeMillis();
+        List<TcpEventInfo> sentEvents = new ArrayList<>();
+        // the sender allows 20 bytes of encoded body for the merged event
+        TcpBatchAccumulator accumulator = new TcpBatchAccumulator("test", 1000L,
+                (sendQos, events, callback) -> {
+                    try {
+                        sentEvents.add(TcpBatchAccumulator.mergeEvents(events));
+                    } catch (Throwable ex) {
+                        callback.onException(ex);
+                        return;
+                    }
+                    callback.onMessageAck(new ProcessResult(ErrorCode.OK));
+                }, (sendQos, eventInfo) -> 20);
+        MsgSendCallback callback = new MsgSendCallback() {
+
+            @Override
+            public void onMessageAck(ProcessResult result) {
+                Assert.assertTrue(result.isSuccess());
+            }
+
+            @Override
+            public void onException(Throwable ex) {
+                Assert.fail(ex.getMessage());
+            }
+        };
+        for (int i = 0; i < 4; i++) {
+            Assert.assertTrue(accumulator.append(SendQos.SOURCE_ACK,
+                    buildEvent("stream1", dtMs, "msg-" + i), callback, 1024));
+        }
+        accumulator.close();
+        Assert.assertEquals(2, sentEvents.size());
+        for (TcpEventInfo eventInfo : sentEvents) {
+            Assert.assertEquals(2, eventInfo.getMsgCnt());
+            Assert.assertTrue(eventInfo.getBodySize() + 4 * eventInfo.getMsgCnt() <= 20);
+        }
+    }
+
+    private TcpEventInfo buildEvent(String streamId, long dtMs, String body) throws Exception {
+        return new TcpEventInfo("group", streamId, dtMs, null, body.getBytes(StandardCharsets.UTF_8));
+    }
+}
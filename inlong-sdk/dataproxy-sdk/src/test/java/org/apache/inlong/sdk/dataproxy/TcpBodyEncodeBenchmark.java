@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sdk.dataproxy;
+
+import org.apache.inlong.common.msg.MsgType;
+import org.apache.inlong.sdk.dataproxy.network.tcp.codec.EventBodyEncoder;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.xerial.snappy.Snappy;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TCP SDK body encode cost benchmark.
+ *
+ * Encodes and compresses a MSG_BIN_MULTI_BODY body of 16 messages per message size
+ * class. With legacyEncoder=true the body goes through the ByteArrayOutputStream and
+ * per-entry ByteBuffer path, and is copied again before Snappy, as InLongTcpMsgSender
+ * did before EventBodyEncoder; with legacyEncoder=false it goes through EventBodyEncoder
+ * on pooled direct buffers.
+ *
+ * Run it through the main method from the test classpath, the gc profiler shows the
+ * allocation per encoded body.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class TcpBodyEncodeBenchmark {
+
+    private static final int MSG_COUNT = 16;
+
+    @Param({"64", "512", "4096", "32768"})
+    public int msgSize;
+
+    @Param({"true", "false"})
+    public boolean legacyEncoder;
+
+    private final List<byte[]> bodyList = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        // half random, half repeated content to give snappy some work
+        Random random = new Random(17);
+        for (int i = 0; i < MSG_COUNT; i++) {
+            byte[] body = new byte[msgSize];
+            for (int j = 0; j < msgSize; j++) {
+                body[j] = (byte) (j % 2 == 0 ? 'a' + random.nextInt(26) : 'x');
+            }
+            bodyList.add(body);
+        }
+    }
+
+    @Benchmark
+    public int encode() throws Exception {
+        if (legacyEncoder) {
+            return legacyCompress(legacyEncode(bodyList)).length;
+        }
+        ByteBuf bodyBuf = EventBodyEncoder.encodeBodyList(
+                ByteBufAllocator.DEFAULT, MsgType.MSG_BIN_MULTI_BODY, false, bodyList);
+        bodyBuf = EventBodyEncoder.compress(ByteBufAllocator.DEFAULT, bodyBuf);
+        int length = bodyBuf.readableBytes();
+        bodyBuf.release();
+        return length;
+    }
+
+    private static byte[] legacyEncode(List<byte[]> bodyList) throws IOException {
+        ByteArrayOutputStream bodyOut = new ByteArrayOutputStream();
+        for (byte[] entry : bodyList) {
+            ByteBuffer dataBuffer = ByteBuffer.allocate(4);
+            dataBuffer.putInt(entry.length);
+            bodyOut.write(dataBuffer.array());
+            bodyOut.write(entry);
+        }
+        return bodyOut.toByteArray();
+    }
+
+    private static byte[] legacyCompress(byte[] body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(body);
+        int guessLen = Snappy.maxCompressedLength(out.size());
+        byte[] tmpData = new byte[guessLen];
+        int len = Snappy.compress(out.toByteArray(), 0, out.size(), tmpData, 0);
+        byte[] result = new byte[len];
+        System.arraycopy(tmpData, 0, result, 0, len);
+        return result;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(TcpBodyEncodeBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build()).run();
+    }
+}
@@ -33,6 +33,13 @@ public class TClientConstants {
     public static final long CFG_DEFAULT_HEARTBEAT_PERIOD_AFTER_RETRY_FAIL = 60000;
     public static final int CFG_DEFAULT_CLIENT_PUSH_FETCH_THREAD_CNT =
             Runtime.getRuntime().availableProcessors();
+    public static final int CFG_DEFAULT_PUSH_PREFETCH_DEPTH = 1;
+    public static final long CFG_DEFAULT_PUSH_PREFETCH_MAX_BYTES = 64 * 1024 * 1024L;
+
+    public static final int CFG_DEFAULT_BATCH_MAX_MSG_COUNT = 100;
+    public static final int CFG_DEFAULT_BATCH_MAX_DATA_SIZE = 512 * 1024;
+    public static final long CFG_DEFAULT_BATCH_LINGER_MS = 0L;
+    public static final int CFG_DEFAULT_COMPRESS_MIN_DATA_SIZE = 512;
 
     public static final int MAX_CONNECTION_FAILURE_LOG_TIMES = 10;
     public static final int MAX_SUBSCRIBE_REPORT_INTERVAL_TIMES = 6;
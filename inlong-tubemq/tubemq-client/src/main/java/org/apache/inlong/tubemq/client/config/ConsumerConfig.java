@@ -54,6 +54,12 @@ public class ConsumerConfig extends TubeClientConfig {
     private boolean pushListenerThrowedRollBack = false;
     private long pushListenerWaitPeriodMs =
             TClientConstants.CFG_DEFAULT_PUSH_LISTENER_WAIT_PERIOD_MS;
+    // the max packs fetched ahead in one window of a partition, 1 means no prefetch
+    private int pushPrefetchDepth =
+            TClientConstants.CFG_DEFAULT_PUSH_PREFETCH_DEPTH;
+    // the max prefetched but not consumed data size of the consumer
+    private long pushPrefetchMaxBytes =
+            TClientConstants.CFG_DEFAULT_PUSH_PREFETCH_MAX_BYTES;
     private boolean pullRebConfirmTimeoutRollBack = true;
     private long pullRebConfirmWaitPeriodMs =
             TClientConstants.CFG_DEFAULT_PULL_REB_CONFIRM_WAIT_PERIOD_MS;
@@ -207,6 +213,30 @@ public class ConsumerConfig extends TubeClientConfig {
         this.pushListenerWaitPeriodMs = pushListenerWaitPeriodMs;
     }
 
+    public int getPushPrefetchDepth() {
+        return pushPrefetchDepth;
+    }
+
+    public void setPushPrefetchDepth(int pushPrefetchDepth) {
+        if (pushPrefetchDepth <= 0) {
+            this.pushPrefetchDepth = TClientConstants.CFG_DEFAULT_PUSH_PREFETCH_DEPTH;
+        } else {
+            this.pushPrefetchDepth = pushPrefetchDepth;
+        }
+    }
+
+    public long getPushPrefetchMaxBytes() {
+        return pushPrefetchMaxBytes;
+    }
+
+    public void setPushPrefetchMaxBytes(long pushPrefetchMaxBytes) {
+        if (pushPrefetchMaxBytes <= 0) {
+            this.pushPrefetchMaxBytes = TClientConstants.CFG_DEFAULT_PUSH_PREFETCH_MAX_BYTES;
+        } else {
+            this.pushPrefetchMaxBytes = pushPrefetchMaxBytes;
+        }
+    }
+
     public boolean isPullRebConfirmTimeoutRollBack() {
         return pullRebConfirmTimeoutRollBack;
     }
@@ -278,6 +308,8 @@ public class ConsumerConfig extends TubeClientConfig {
                 .append(",\"pushListenerWaitTimeoutRollBack\":").append(this.pushListenerWaitTimeoutRollBack)
                 .append(",\"pushListenerThrowedRollBack\":").append(this.pushListenerThrowedRollBack)
                 .append(",\"pushListenerWaitPeriodMs\":").append(this.pushListenerWaitPeriodMs)
+                .append(",\"pushPrefetchDepth\":").append(this.pushPrefetchDepth)
+                .append(",\"pushPrefetchMaxBytes\":").append(this.pushPrefetchMaxBytes)
                 .append(",\"pullRebConfirmTimeoutRollBack\":").append(this.pullRebConfirmTimeoutRollBack)
                 .append(",\"pullConfirmWaitPeriodMs\":").append(this.pullRebConfirmWaitPeriodMs)
                 .append(",\"pullProtectConfirmTimeoutPeriodMs\":").append(this.pullProtectConfirmTimeoutMs)
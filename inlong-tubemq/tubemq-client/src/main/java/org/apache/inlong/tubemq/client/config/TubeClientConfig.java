@@ -21,11 +21,15 @@ import org.apache.inlong.tubemq.client.common.StatsConfig;
 import org.apache.inlong.tubemq.client.common.StatsLevel;
 import org.apache.inlong.tubemq.client.common.TClientConstants;
 import org.apache.inlong.tubemq.corebase.cluster.MasterInfo;
+import org.apache.inlong.tubemq.corebase.compress.MsgCompressType;
 import org.apache.inlong.tubemq.corebase.config.TLSConfig;
 import org.apache.inlong.tubemq.corebase.utils.AddressUtils;
 import org.apache.inlong.tubemq.corebase.utils.TStringUtils;
 import org.apache.inlong.tubemq.corerpc.RpcConstants;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * Configuration of the Tube client.
  */
@@ -96,6 +100,19 @@ public class TubeClientConfig {
     private String usrPassWord = "";
     // TLS configuration.
     private TLSConfig tlsConfig = new TLSConfig();
+    // Max message count of a producer's batch request.
+    private int batchMaxMsgCount = TClientConstants.CFG_DEFAULT_BATCH_MAX_MSG_COUNT;
+    // Max total data size of a producer's batch request.
+    private int batchMaxDataSize = TClientConstants.CFG_DEFAULT_BATCH_MAX_DATA_SIZE;
+    // Max wait duration of the asynchronous messages to be batched per partition,
+    // 0 means the asynchronous messages are sent one by one.
+    private long batchLingerMs = TClientConstants.CFG_DEFAULT_BATCH_LINGER_MS;
+    // Default compress type of the produced message data.
+    private MsgCompressType defaultCompressType = MsgCompressType.NONE;
+    // Compress type of the produced message data per topic.
+    private final Map<String, MsgCompressType> topicCompressTypes = new ConcurrentHashMap<>();
+    // Message data smaller than this size is not compressed.
+    private int compressMinDataSize = TClientConstants.CFG_DEFAULT_COMPRESS_MIN_DATA_SIZE;
 
     public TubeClientConfig(String masterAddrInfo) {
         this(new MasterInfo(masterAddrInfo));
@@ -369,6 +386,83 @@ public class TubeClientConfig {
         this.sessionMaxAllowedDelayedMsgCount = sessionMaxAllowedDelayedMsgCount;
     }
 
+    public int getBatchMaxMsgCount() {
+        return batchMaxMsgCount;
+    }
+
+    public void setBatchMaxMsgCount(int batchMaxMsgCount) {
+        if (batchMaxMsgCount <= 0) {
+            this.batchMaxMsgCount = TClientConstants.CFG_DEFAULT_BATCH_MAX_MSG_COUNT;
+        } else {
+            this.batchMaxMsgCount = batchMaxMsgCount;
+        }
+    }
+
+    public int getBatchMaxDataSize() {
+        return batchMaxDataSize;
+    }
+
+    public void setBatchMaxDataSize(int batchMaxDataSize) {
+        if (batchMaxDataSize <= 0) {
+            this.batchMaxDataSize = TClientConstants.CFG_DEFAULT_BATCH_MAX_DATA_SIZE;
+        } else {
+            this.batchMaxDataSize = batchMaxDataSize;
+        }
+    }
+
+    public long getBatchLingerMs() {
+        return batchLingerMs;
+    }
+
+    public void setBatchLingerMs(long batchLingerMs) {
+        this.batchLingerMs = Math.max(0, batchLingerMs);
+    }
+
+    public MsgCompressType getDefaultCompressType() {
+        return defaultCompressType;
+    }
+
+    public void setDefaultCompressType(MsgCompressType defaultCompressType) {
+        this.defaultCompressType =
+                defaultCompressType == null ? MsgCompressType.NONE : defaultCompressType;
+    }
+
+    /**
+     * Get the compress type of the topic's message data
+     *
+     * @param topic   the topic name
+     * @return        the compress type, the default one if the topic is not set
+     */
+    public MsgCompressType getCompressType(String topic) {
+        MsgCompressType compressType = topicCompressTypes.get(topic);
+        return compressType == null ? defaultCompressType : compressType;
+    }
+
+    /**
+     * Set the compress type of the topic's message data
+     *
+     * @param topic          the topic name
+     * @param compressType   the compress type, null to remove the topic's setting
+     */
+    public void setTopicCompressType(String topic, MsgCompressType compressType) {
+        if (TStringUtils.isBlank(topic)) {
+            return;
+        }
+        if (compressType == null) {
+            this.topicCompressTypes.remove(topic.trim());
+        } else {
+            this.topicCompressTypes.put(topic.trim(), compressType);
+        }
+    }
+
+    public int getCompressMinDataSize() {
+        return compressMinDataSize;
+    }
+
+    public void setCompressMinDataSize(int compressMinDataSize) {
+        this.compressMinDataSize = Math.max(0, compressMinDataSize);
+    }
+
     /**
      * Set authenticate information
      *
@@ -551,6 +645,24 @@ public class TubeClientConfig {
         if (sessionMaxAllowedDelayedMsgCount != that.sessionMaxAllowedDelayedMsgCount) {
             return false;
         }
+        if (batchMaxMsgCount != that.batchMaxMsgCount) {
+            return false;
+        }
+        if (batchMaxDataSize != that.batchMaxDataSize) {
+            return false;
+        }
+        if (batchLingerMs != that.batchLingerMs) {
+            return false;
+        }
+        if (defaultCompressType != that.defaultCompressType) {
+            return false;
+        }
+        if (!topicCompressTypes.equals(that.topicCompressTypes)) {
+            return false;
+        }
+        if (compressMinDataSize != that.compressMinDataSize) {
+            return false;
+        }
         if (enableUserAuthentic != that.enableUserAuthentic) {
             return false;
         }
@@ -590,6 +702,15 @@ public class TubeClientConfig {
             }
             sBuilder.append("\"").append(item).append("\"");
         }
+        num = 0;
+        StringBuilder topicCompressStr = new StringBuilder(256);
+        for (Map.Entry<String, MsgCompressType> entry : this.topicCompressTypes.entrySet()) {
+            if (num++ > 0) {
+                topicCompressStr.append(",");
+            }
+            topicCompressStr.append("\"").append(entry.getKey())
+                    .append("\":\"").append(entry.getValue().getDesc()).append("\"");
+        }
         return sBuilder.append("],\"rpcReadTimeoutMs\":").append(this.rpcReadTimeoutMs)
                 .append(",\"rpcConnProcessorCnt\":").append(this.rpcConnProcessorCnt)
                 .append(",\"rpcNettyWorkMemorySize\":").append(this.rpcNettyWorkMemorySize)
@@ -613,6 +734,13 @@ public class TubeClientConfig {
                 .append(",\"linkMaxAllowedDelayedMsgCount\":").append(this.linkMaxAllowedDelayedMsgCount)
                 .append(",\"sessionMaxAllowedDelayedMsgCount\":").append(this.sessionMaxAllowedDelayedMsgCount)
                 .append(",\"unAvailableFbdDurationMs\":").append(this.unAvailableFbdDurationMs)
+                .append(",\"batchMaxMsgCount\":").append(this.batchMaxMsgCount)
+                .append(",\"batchMaxDataSize\":").append(this.batchMaxDataSize)
+                .append(",\"batchLingerMs\":").append(this.batchLingerMs)
+                .append(",\"defaultCompressType\":\"").append(this.defaultCompressType.getDesc())
+                .append("\",\"topicCompressTypes\":{").append(topicCompressStr)
+                .append("}")
+                .append(",\"compressMinDataSize\":").append(this.compressMinDataSize)
                 .append(",\"enableUserAuthentic\":").append(this.enableUserAuthentic)
                 .append(",").append(this.statsConfig.toString())
                 .append(",\"usrName\":\"").append(this.usrName)
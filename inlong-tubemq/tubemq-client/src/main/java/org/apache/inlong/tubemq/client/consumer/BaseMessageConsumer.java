@@ -782,7 +782,8 @@ public class BaseMessageConsumer implements MessageConsumer {
         builder.setEscFlowCtrl(rmtDataCache.isCurGroupInFlowCtrl());
         builder.setPartitionId(partition.getPartitionId());
         builder.setLastPackConsumed(isLastConsumed);
-        builder.setManualCommitOffset(false);
+        builder.setManualCommitOffset(isManualCommitOffset());
+        builder.setRawStoreSupport(true);
         return builder.build();
     }
 
@@ -1197,9 +1198,23 @@ public class BaseMessageConsumer implements MessageConsumer {
         return readStatus;
     }
 
-    // #lizard forgives
     protected FetchContext fetchMessage(PartitionSelectResult partSelectResult,
             final StringBuilder strBuffer) {
+        return fetchMessage(partSelectResult, false, strBuffer);
+    }
+
+    /**
+     * Fetch messages from the selected partition.
+     *
+     * @param partSelectResult  the selected partition
+     * @param isPrefetch        whether it is a prefetch request of the push pipeline,
+     *                          the partition is not released when the prefetch fails
+     * @param strBuffer         the string buffer
+     * @return the fetch result
+     */
+    // #lizard forgives
+    protected FetchContext fetchMessage(PartitionSelectResult partSelectResult,
+            boolean isPrefetch, final StringBuilder strBuffer) {
         // Fetch task context based on selected partition
         FetchContext taskContext =
                 new FetchContext(partSelectResult);
@@ -1218,7 +1233,9 @@ public class BaseMessageConsumer implements MessageConsumer {
         } catch (Throwable ee) {
             clientStatsInfo.bookFailRpcCall(TErrCodeConstants.UNSPECIFIED_ABNORMAL);
             // Process the exception
-            rmtDataCache.errReqRelease(partitionKey, taskContext.getUsedToken(), false);
+            if (!isPrefetch) {
+                rmtDataCache.errReqRelease(partitionKey, taskContext.getUsedToken(), false);
+            }
             taskContext.setFailProcessResult(400, strBuffer
                     .append("Get message error, reason is ")
                     .append(ee.toString()).toString());
@@ -1228,7 +1245,9 @@ public class BaseMessageConsumer implements MessageConsumer {
         long dltTime = System.currentTimeMillis() - startTime;
         if (msgRspB2C == null) {
             clientStatsInfo.bookFailRpcCall(TErrCodeConstants.INTERNAL_SERVER_ERROR);
-            rmtDataCache.errReqRelease(partitionKey, taskContext.getUsedToken(), false);
+            if (!isPrefetch) {
+                rmtDataCache.errReqRelease(partitionKey, taskContext.getUsedToken(), false);
+            }
             taskContext.setFailProcessResult(500, "Get message null");
             return taskContext;
         }
@@ -1241,6 +1260,10 @@ public class BaseMessageConsumer implements MessageConsumer {
                     // Convert the message payload data
                     List<Message> tmpMessageList =
                             DataConverterUtil.convertMessage(topic, msgRspB2C.getMessagesList());
+                    if (msgRspB2C.hasRawStoreData()) {
+                        tmpMessageList.addAll(DataConverterUtil
+                                .convertRawStoreMessage(topic, msgRspB2C.getRawStoreData()));
+                    }
                     boolean isEscLimit =
                             (msgRspB2C.hasEscFlowCtrl() && msgRspB2C.getEscFlowCtrl());
                     // Filter the message based on its content
@@ -1265,7 +1288,7 @@ public class BaseMessageConsumer implements MessageConsumer {
                         }
                         msgCount++;
                         messageList.add(message);
-                        msgSize += message.getData().length;
+                        msgSize += message.getRawDataSize();
                     }
                     // Set the process result of current stage. Process the result based on the response
                     long dataDltVal = msgRspB2C.hasCurrDataDlt()
@@ -1296,7 +1319,9 @@ public class BaseMessageConsumer implements MessageConsumer {
                 case TErrCodeConstants.CERTIFICATE_FAILURE:
                 case TErrCodeConstants.DUPLICATE_PARTITION: {
                     // Release the partitions when meeting these error codes
-                    removePartition(partition);
+                    if (!isPrefetch) {
+                        removePartition(partition);
+                    }
                     taskContext.setFailProcessResult(msgRspB2C.getErrCode(), msgRspB2C.getErrMsg());
                     break;
                 }
@@ -1306,11 +1331,13 @@ public class BaseMessageConsumer implements MessageConsumer {
                             msgRspB2C.hasMinLimitTime()
                                     ? msgRspB2C.getMinLimitTime()
                                     : consumerConfig.getMsgNotFoundWaitPeriodMs();
-                    rmtDataCache.errRspRelease(partitionKey, topic,
-                            taskContext.getUsedToken(), false, TBaseConstants.META_VALUE_UNDEFINED,
-                            0, msgRspB2C.getErrCode(), false, 0,
-                            defDltTime, isFilterConsume(topic), TBaseConstants.META_VALUE_UNDEFINED,
-                            TBaseConstants.META_VALUE_UNDEFINED);
+                    if (!isPrefetch) {
+                        rmtDataCache.errRspRelease(partitionKey, topic,
+                                taskContext.getUsedToken(), false, TBaseConstants.META_VALUE_UNDEFINED,
+                                0, msgRspB2C.getErrCode(), false, 0,
+                                defDltTime, isFilterConsume(topic), TBaseConstants.META_VALUE_UNDEFINED,
+                                TBaseConstants.META_VALUE_UNDEFINED);
+                    }
                     taskContext.setFailProcessResult(msgRspB2C.getErrCode(), msgRspB2C.getErrMsg());
                     break;
                 }
@@ -1342,10 +1369,12 @@ public class BaseMessageConsumer implements MessageConsumer {
                             //
                         }
                     }
-                    rmtDataCache.errRspRelease(partitionKey, topic,
-                            taskContext.getUsedToken(), false, TBaseConstants.META_VALUE_UNDEFINED,
-                            0, msgRspB2C.getErrCode(), false, 0,
-                            limitDlt, isFilterConsume(topic), -1, TBaseConstants.META_VALUE_UNDEFINED);
+                    if (!isPrefetch) {
+                        rmtDataCache.errRspRelease(partitionKey, topic,
+                                taskContext.getUsedToken(), false, TBaseConstants.META_VALUE_UNDEFINED,
+                                0, msgRspB2C.getErrCode(), false, 0,
+                                limitDlt, isFilterConsume(topic), -1, TBaseConstants.META_VALUE_UNDEFINED);
+                    }
                     taskContext.setFailProcessResult(msgRspB2C.getErrCode(), msgRspB2C.getErrMsg());
                     break;
                 }
@@ -1357,9 +1386,11 @@ public class BaseMessageConsumer implements MessageConsumer {
         } catch (Throwable ee) {
             clientStatsInfo.bookFailRpcCall(TErrCodeConstants.INTERNAL_SERVER_ERROR);
             logger.error("Process response code error", ee);
-            rmtDataCache.succRspRelease(partitionKey, topic,
-                    taskContext.getUsedToken(), false, isFilterConsume(topic),
-                    TBaseConstants.META_VALUE_UNDEFINED, TBaseConstants.META_VALUE_UNDEFINED);
+            if (!isPrefetch) {
+                rmtDataCache.succRspRelease(partitionKey, topic,
+                        taskContext.getUsedToken(), false, isFilterConsume(topic),
+                        TBaseConstants.META_VALUE_UNDEFINED, TBaseConstants.META_VALUE_UNDEFINED);
+            }
             taskContext.setFailProcessResult(TErrCodeConstants.INTERNAL_SERVER_ERROR,
                     strBuffer.append("Get message failed,topic=")
                             .append(topic).append(",partition=").append(partition)
@@ -1389,23 +1420,43 @@ public class BaseMessageConsumer implements MessageConsumer {
      * @return need to reconsume or not
      */
     protected boolean flushLastRequest(Partition partition) {
-        boolean needReConsume = true;
+        return !commitLastRequest(partition, true);
+    }
+
+    /**
+     * Commit or roll back the messages read on a partition since the last commit.
+     *
+     * @param partition  partition to do the commit operation
+     * @param isConsumed whether the read messages are consumed
+     * @return whether the commit is successful
+     */
+    protected boolean commitLastRequest(Partition partition, boolean isConsumed) {
         try {
             ClientBroker.CommitOffsetResponseB2C commitResponse =
                     getBrokerService(partition.getBroker())
-                            .consumerCommitC2B(createBrokerCommitRequest(partition, true),
+                            .consumerCommitC2B(createBrokerCommitRequest(partition, isConsumed),
                                     AddressUtils.getLocalAddress(), consumerConfig.isTlsEnable());
             if (commitResponse != null && commitResponse.getSuccess()) {
-                needReConsume = false;
+                return true;
             }
         } catch (Throwable e) {
             logger.error(new StringBuilder(256)
-                    .append("flushLastRequest, commit ")
+                    .append("commitLastRequest, commit ")
                     .append(partition.getTopic()).append("#")
                     .append(partition.getPartitionId())
                     .append(" offset failed.").toString(), e);
         }
-        return needReConsume;
+        return false;
+    }
+
+    /**
+     * Whether the broker advances the read position without committing, the push prefetch
+     * pipeline reads several packs ahead and commits them after they are consumed.
+     *
+     * @return whether to commit offset manually
+     */
+    protected boolean isManualCommitOffset() {
+        return !this.isPullConsume && this.consumerConfig.getPushPrefetchDepth() > 1;
     }
 
     protected boolean isSubscribed() {
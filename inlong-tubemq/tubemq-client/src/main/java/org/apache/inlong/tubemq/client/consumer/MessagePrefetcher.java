@@ -0,0 +1,293 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.tubemq.client.consumer;
+
+import org.apache.inlong.tubemq.client.config.ConsumerConfig;
+import org.apache.inlong.tubemq.corebase.Message;
+import org.apache.inlong.tubemq.corebase.TErrCodeConstants;
+import org.apache.inlong.tubemq.corebase.cluster.Partition;
+import org.apache.inlong.tubemq.corebase.utils.ConcurrentHashSet;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Prefetch pipeline of the push consumer.
+ *
+ * A selected partition is consumed in windows of up to pushPrefetchDepth packs. While the
+ * fetch worker dispatches a pack to the message listener, the following packs of the
+ * partition are fetched ahead on the prefetch executor, so the listener processing overlaps
+ * the network round-trips. The window reads in the manual commit mode of the broker, the
+ * read position advances without committing, and the window is committed after all its
+ * packs are consumed, or rolled back if any pack is not consumed.
+ * The prefetched but not consumed data of the consumer is bounded by pushPrefetchMaxBytes.
+ */
+public class MessagePrefetcher {
+
+    private static final Logger logger =
+            LoggerFactory.getLogger(MessagePrefetcher.class);
+    private final SimplePushMessageConsumer pushConsumer;
+    private final BaseMessageConsumer baseConsumer;
+    private final int prefetchDepth;
+    private final long maxPrefetchBytes;
+    private final AtomicLong prefetchedBytes = new AtomicLong(0);
+    // the partitions whose broker read position may include a lost response
+    private final ConcurrentHashSet<String> dirtyPartitions = new ConcurrentHashSet<>();
+    private final ExecutorService prefetchExecutor;
+
+    public MessagePrefetcher(final ConsumerConfig consumerConfig,
+            final SimplePushMessageConsumer pushConsumer) {
+        this.pushConsumer = pushConsumer;
+        this.baseConsumer = pushConsumer.getBaseConsumer();
+        this.prefetchDepth = consumerConfig.getPushPrefetchDepth();
+        this.maxPrefetchBytes = consumerConfig.getPushPrefetchMaxBytes();
+        final String threadPrefix = new StringBuilder(256)
+                .append("Prefetch_Worker_").append(consumerConfig.getConsumerGroup())
+                .append("-").toString();
+        // each fetch worker prefetches at most one window at a time
+        this.prefetchExecutor = Executors.newFixedThreadPool(
+                consumerConfig.getPushFetchThreadCnt(), new ThreadFactory() {
+
+                    private final AtomicInteger threadIndex = new AtomicInteger(0);
+
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        Thread t = new Thread(r, threadPrefix + threadIndex.getAndIncrement());
+                        t.setDaemon(true);
+                        return t;
+                    }
+                });
+    }
+
+    /**
+     * Fetch and consume a window of packs from the selected partition,
+     * then commit the window and release the partition.
+     *
+     * @param partSelectResult  the selected partition
+     * @param sBuilder          a string builder
+     */
+    public void processRequest(PartitionSelectResult partSelectResult,
+            final StringBuilder sBuilder) {
+        final Partition partition = partSelectResult.getPartition();
+        final String partitionKey = partition.getPartitionKey();
+        if (this.dirtyPartitions.contains(partitionKey)) {
+            // roll back the read position booked by a lost response
+            if (!this.baseConsumer.commitLastRequest(partition, false)) {
+                this.baseConsumer.pushReqReleasePartition(partitionKey,
+                        partSelectResult.getUsedToken(), false);
+                return;
+            }
+            this.dirtyPartitions.remove(partitionKey);
+        }
+        FetchContext taskContext =
+                this.baseConsumer.fetchMessage(partSelectResult, false, sBuilder);
+        if (!taskContext.isSuccess()) {
+            if (isLostResponse(taskContext)) {
+                this.dirtyPartitions.add(partitionKey);
+            }
+            if (logger.isDebugEnabled()) {
+                logger.debug(sBuilder.append("Fetch message error: partition:")
+                        .append(partition.toString()).append(" error is ")
+                        .append(taskContext.getErrMsg()).toString());
+                sBuilder.delete(0, sBuilder.length());
+            }
+            return;
+        }
+        PrefetchWindow window = new PrefetchWindow(partSelectResult);
+        if (this.prefetchDepth > 1 && !taskContext.getMessageList().isEmpty()) {
+            window.start();
+        }
+        boolean isConsumed = true;
+        FetchContext lastContext = taskContext;
+        FetchContext curContext = taskContext;
+        try {
+            while (curContext != null) {
+                isConsumed = this.pushConsumer.consumeFetchedMessages(curContext, sBuilder);
+                if (curContext != taskContext) {
+                    this.prefetchedBytes.addAndGet(-getDataSize(curContext));
+                }
+                lastContext = curContext;
+                if (!isConsumed) {
+                    break;
+                }
+                curContext = window.takeNext();
+            }
+        } catch (InterruptedException e) {
+            isConsumed = false;
+        }
+        window.stop();
+        // commit the window only if all the read packs are consumed
+        boolean isCommitConsumed = isConsumed && !window.isResponseLost();
+        if (!this.baseConsumer.commitLastRequest(partition, isCommitConsumed)) {
+            this.dirtyPartitions.add(partitionKey);
+        }
+        this.baseConsumer.rmtDataCache.succRspRelease(partitionKey,
+                partition.getTopic(), partSelectResult.getUsedToken(), isCommitConsumed,
+                this.pushConsumer.isFilterConsume(partition.getTopic()),
+                lastContext.getCurrOffset(), lastContext.getMaxOffset());
+    }
+
+    public long getPrefetchedBytes() {
+        return this.prefetchedBytes.get();
+    }
+
+    public void shutdown() {
+        this.prefetchExecutor.shutdownNow();
+    }
+
+    private boolean isLostResponse(FetchContext taskContext) {
+        // the broker may have booked the read messages if the response is not processed
+        return taskContext.getErrCode() == 400
+                || taskContext.getErrCode() == TErrCodeConstants.INTERNAL_SERVER_ERROR;
+    }
+
+    private static long getDataSize(FetchContext taskContext) {
+        long dataSize = 0;
+        if (taskContext.getMessageList() != null) {
+            for (Message message : taskContext.getMessageList()) {
+                dataSize += message.getData().length;
+            }
+        }
+        return dataSize;
+    }
+
+    /**
+     * The packs fetched ahead in a window, they are fetched one by one in order,
+     * and queued until they are dispatched by the fetch worker.
+     */
+    private class PrefetchWindow implements Runnable {
+
+        private final PartitionSelectResult selectResult;
+        // the end mark of the fetched queue
+        private final FetchContext endContext;
+        private final LinkedBlockingQueue<FetchContext> fetchedQueue =
+                new LinkedBlockingQueue<>();
+        private final AtomicBoolean stopped = new AtomicBoolean(false);
+        private final CountDownLatch finished = new CountDownLatch(1);
+        private volatile boolean responseLost = false;
+        private boolean started = false;
+
+        public PrefetchWindow(PartitionSelectResult selectResult) {
+            this.selectResult = selectResult;
+            this.endContext = new FetchContext(selectResult);
+        }
+
+        public void start() {
+            try {
+                prefetchExecutor.execute(this);
+                this.started = true;
+            } catch (RejectedExecutionException e) {
+                // the consumer is shutting down, consume the fetched pack only
+            }
+        }
+
+        @Override
+        public void run() {
+            final StringBuilder sBuilder = new StringBuilder(256);
+            try {
+                for (int i = 1; i < prefetchDepth; i++) {
+                    if (this.stopped.get()
+                            || prefetchedBytes.get() >= maxPrefetchBytes
+                            || pushConsumer.isConsumePaused()
+                            || baseConsumer.isShutdown()) {
+                        break;
+                    }
+                    FetchContext taskContext =
+                            baseConsumer.fetchMessage(this.selectResult, true, sBuilder);
+                    if (!taskContext.isSuccess()) {
+                        this.responseLost = isLostResponse(taskContext);
+                        break;
+                    }
+                    prefetchedBytes.addAndGet(getDataSize(taskContext));
+                    this.fetchedQueue.offer(taskContext);
+                    if (taskContext.getMessageList().isEmpty()) {
+                        break;
+                    }
+                }
+            } catch (Throwable e) {
+                this.responseLost = true;
+                logger.warn(new StringBuilder(256)
+                        .append("Prefetch message failure, partition=")
+                        .append(this.selectResult.getPartition()).toString(), e);
+            } finally {
+                this.fetchedQueue.offer(this.endContext);
+                this.finished.countDown();
+            }
+        }
+
+        /**
+         * Take the next fetched pack, wait if it is being fetched.
+         *
+         * @return the next pack, or null if no more packs in the window
+         */
+        public FetchContext takeNext() throws InterruptedException {
+            if (!this.started) {
+                return null;
+            }
+            FetchContext taskContext = this.fetchedQueue.take();
+            if (taskContext == this.endContext) {
+                return null;
+            }
+            return taskContext;
+        }
+
+        /**
+         * Stop prefetching, wait for the in-flight fetch, and drop the packs not consumed.
+         */
+        public void stop() {
+            this.stopped.set(true);
+            if (!this.started) {
+                return;
+            }
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    if (this.finished.await(100, TimeUnit.MILLISECONDS)) {
+                        break;
+                    }
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            FetchContext taskContext;
+            while ((taskContext = this.fetchedQueue.poll()) != null) {
+                if (taskContext != this.endContext) {
+                    prefetchedBytes.addAndGet(-getDataSize(taskContext));
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        public boolean isResponseLost() {
+            return this.responseLost;
+        }
+    }
+}
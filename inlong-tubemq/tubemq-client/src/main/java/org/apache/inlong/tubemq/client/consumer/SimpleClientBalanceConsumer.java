@@ -738,6 +738,10 @@ public class SimpleClientBalanceConsumer implements ClientBalanceConsumer {
                     // Convert the message payload data
                     List<Message> tmpMessageList =
                             DataConverterUtil.convertMessage(topic, msgRspB2C.getMessagesList());
+                    if (msgRspB2C.hasRawStoreData()) {
+                        tmpMessageList.addAll(DataConverterUtil
+                                .convertRawStoreMessage(topic, msgRspB2C.getRawStoreData()));
+                    }
                     boolean isEscLimit =
                             (msgRspB2C.hasEscFlowCtrl() && msgRspB2C.getEscFlowCtrl());
                     // Filter the message based on its content
@@ -762,7 +766,7 @@ public class SimpleClientBalanceConsumer implements ClientBalanceConsumer {
                         }
                         msgCount++;
                         messageList.add(message);
-                        msgSize += message.getData().length;
+                        msgSize += message.getRawDataSize();
                     }
                     // Set the process result of current stage. Process the result based on the response
                     long dataDltVal = msgRspB2C.hasCurrDataDlt()
@@ -1584,6 +1588,7 @@ public class SimpleClientBalanceConsumer implements ClientBalanceConsumer {
         builder.setPartitionId(partition.getPartitionId());
         builder.setLastPackConsumed(isLastConsumed);
         builder.setManualCommitOffset(false);
+        builder.setRawStoreSupport(true);
         return builder.build();
     }
 
@@ -42,6 +42,8 @@ public class SimplePushMessageConsumer implements PushMessageConsumer {
     private static final int MAX_FAILURE_LOG_TIMES = 10;
     private final MessageFetchManager fetchManager;
     private final BaseMessageConsumer baseConsumer;
+    // the prefetch pipeline, null if prefetch is disabled
+    private final MessagePrefetcher prefetcher;
     private AtomicLong lastLogPrintTime = new AtomicLong(0);
     private AtomicLong lastFailureCount = new AtomicLong(0);
     private CountDownLatch consumeSync = new CountDownLatch(0);
@@ -50,6 +52,9 @@ public class SimplePushMessageConsumer implements PushMessageConsumer {
             final ConsumerConfig consumerConfig) throws TubeClientException {
         baseConsumer =
                 new BaseMessageConsumer(messageSessionFactory, consumerConfig, false);
+        this.prefetcher = baseConsumer.isManualCommitOffset()
+                ? new MessagePrefetcher(baseConsumer.consumerConfig, this)
+                : null;
         this.fetchManager =
                 new MessageFetchManager(baseConsumer.consumerConfig, this);
         this.fetchManager.startFetchWorkers();
@@ -61,6 +66,9 @@ public class SimplePushMessageConsumer implements PushMessageConsumer {
         this.fetchManager.stopFetchWorkers(true);
         ThreadUtils.sleep(200);
         this.fetchManager.stopFetchWorkers(false);
+        if (this.prefetcher != null) {
+            this.prefetcher.shutdown();
+        }
         baseConsumer.shutdown();
     }
 
@@ -180,17 +188,46 @@ public class SimplePushMessageConsumer implements PushMessageConsumer {
      */
     protected void processRequest(PartitionSelectResult partSelectResult, final StringBuilder sBuilder) {
         final long startTime = System.currentTimeMillis();
-        FetchContext taskContext =
-                baseConsumer.fetchMessage(partSelectResult, sBuilder);
-        if (!taskContext.isSuccess()) {
-            if (logger.isDebugEnabled()) {
-                logger.debug(sBuilder.append("Fetch message error: partition:")
-                        .append(partSelectResult.getPartition().toString()).append(" error is ")
-                        .append(taskContext.getErrMsg()).toString());
-                sBuilder.delete(0, sBuilder.length());
+        if (this.prefetcher != null) {
+            this.prefetcher.processRequest(partSelectResult, sBuilder);
+        } else {
+            FetchContext taskContext =
+                    baseConsumer.fetchMessage(partSelectResult, sBuilder);
+            if (!taskContext.isSuccess()) {
+                if (logger.isDebugEnabled()) {
+                    logger.debug(sBuilder.append("Fetch message error: partition:")
+                            .append(partSelectResult.getPartition().toString()).append(" error is ")
+                            .append(taskContext.getErrMsg()).toString());
+                    sBuilder.delete(0, sBuilder.length());
+                }
+                return;
             }
-            return;
+            boolean isConsumed = consumeFetchedMessages(taskContext, sBuilder);
+            baseConsumer.rmtDataCache.succRspRelease(taskContext.getPartition().getPartitionKey(),
+                    taskContext.getPartition().getTopic(), taskContext.getUsedToken(),
+                    isConsumed, isFilterConsume(taskContext.getPartition().getTopic()),
+                    taskContext.getCurrOffset(), taskContext.getMaxOffset());
         }
+        // Warning if the process time is too long
+        long cost = System.currentTimeMillis() - startTime;
+        if (cost > 30000) {
+            logger.info(sBuilder.append("Consuming Partition; current processing thread ")
+                    .append(Thread.currentThread().getName())
+                    .append("-->Process[")
+                    .append(partSelectResult.getPartition().toString())
+                    .append("] cost:").append(cost).append(" Ms").toString());
+            sBuilder.delete(0, sBuilder.length());
+        }
+    }
+
+    /**
+     * Dispatch the fetched messages to the message listener.
+     *
+     * @param taskContext  the fetch result
+     * @param sBuilder     a string builder
+     * @return whether the messages are consumed
+     */
+    protected boolean consumeFetchedMessages(FetchContext taskContext, final StringBuilder sBuilder) {
         boolean isConsumed = false;
         if (!isShutdown()) {
             if (taskContext.getMessageList() == null
@@ -213,21 +250,7 @@ public class SimplePushMessageConsumer implements PushMessageConsumer {
                 }
             }
         }
-        baseConsumer.rmtDataCache.succRspRelease(taskContext.getPartition().getPartitionKey(),
-                taskContext.getPartition().getTopic(), taskContext.getUsedToken(),
-                isConsumed, isFilterConsume(taskContext.getPartition().getTopic()),
-                taskContext.getCurrOffset(), taskContext.getMaxOffset());
-
-        // Warning if the process time is too long
-        long cost = System.currentTimeMillis() - startTime;
-        if (cost > 30000) {
-            logger.info(sBuilder.append("Consuming Partition; current processing thread ")
-                    .append(Thread.currentThread().getName())
-                    .append("-->Process[")
-                    .append(partSelectResult.getPartition().toString())
-                    .append("] cost:").append(cost).append(" Ms").toString());
-            sBuilder.delete(0, sBuilder.length());
-        }
+        return isConsumed;
     }
 
     private boolean notifyListener(final FetchContext request,
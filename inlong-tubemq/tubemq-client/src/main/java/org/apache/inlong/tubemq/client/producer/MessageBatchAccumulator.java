@@ -0,0 +1,205 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.tubemq.client.producer;
+
+import org.apache.inlong.tubemq.corebase.Message;
+import org.apache.inlong.tubemq.corebase.cluster.Partition;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Accumulator of the asynchronous messages to be batched.
+ *
+ * The messages are grouped by the partition chosen by the PartitionRouter, a partition's
+ * batch is sent once it reaches the message count or data size limit, or once it has
+ * lingered the configured duration.
+ */
+public class MessageBatchAccumulator {
+
+    private static final Logger logger =
+            LoggerFactory.getLogger(MessageBatchAccumulator.class);
+    private final BatchSender batchSender;
+    private final int maxMsgCount;
+    private final int maxDataSize;
+    private final long lingerMs;
+    // partition key to the pending batch
+    private final Map<String, MessageBatch> pendingBatches = new HashMap<>();
+    private final ScheduledExecutorService lingerScheduler;
+    private final AtomicBoolean closed = new AtomicBoolean(false);
+
+    public MessageBatchAccumulator(BatchSender batchSender, int maxMsgCount,
+            int maxDataSize, long lingerMs) {
+        this.batchSender = batchSender;
+        this.maxMsgCount = maxMsgCount;
+        this.maxDataSize = maxDataSize;
+        this.lingerMs = lingerMs;
+        this.lingerScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "tube_producer_batch_linger");
+            t.setDaemon(true);
+            return t;
+        });
+        long checkPeriodMs = Math.max(1L, lingerMs / 2);
+        this.lingerScheduler.scheduleWithFixedDelay(this::sendExpiredBatches,
+                checkPeriodMs, checkPeriodMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Append the message to its partition's batch.
+     *
+     * @param partition   the partition chosen for the message
+     * @param message     the message to send
+     * @param msgSize     the encoded size of the message
+     * @param cb          the callback of the message
+     * @return            false if the accumulator has been closed
+     */
+    public boolean append(Partition partition, Message message,
+            int msgSize, MessageSentCallback cb) {
+        MessageBatch fullBatch = null;
+        MessageBatch readyBatch = null;
+        synchronized (this.pendingBatches) {
+            if (this.closed.get()) {
+                return false;
+            }
+            MessageBatch curBatch = this.pendingBatches.get(partition.getPartitionKey());
+            if (curBatch != null && curBatch.dataSize + msgSize > this.maxDataSize) {
+                fullBatch = this.pendingBatches.remove(partition.getPartitionKey());
+                curBatch = null;
+            }
+            if (curBatch == null) {
+                curBatch = new MessageBatch(partition);
+                this.pendingBatches.put(partition.getPartitionKey(), curBatch);
+            }
+            curBatch.add(message, msgSize, cb);
+            if (curBatch.messages.size() >= this.maxMsgCount
+                    || curBatch.dataSize >= this.maxDataSize) {
+                readyBatch = this.pendingBatches.remove(partition.getPartitionKey());
+            }
+        }
+        if (fullBatch != null) {
+            sendBatch(fullBatch);
+        }
+        if (readyBatch != null) {
+            sendBatch(readyBatch);
+        }
+        return true;
+    }
+
+    /**
+     * Send all the pending batches.
+     */
+    public void flush() {
+        List<MessageBatch> readyBatches;
+        synchronized (this.pendingBatches) {
+            readyBatches = new ArrayList<>(this.pendingBatches.values());
+            this.pendingBatches.clear();
+        }
+        for (MessageBatch batch : readyBatches) {
+            sendBatch(batch);
+        }
+    }
+
+    public int getPendingBatchCount() {
+        synchronized (this.pendingBatches) {
+            return this.pendingBatches.size();
+        }
+    }
+
+    /**
+     * Stop accepting messages, and send the pending batches.
+     */
+    public void close() {
+        synchronized (this.pendingBatches) {
+            if (!this.closed.compareAndSet(false, true)) {
+                return;
+            }
+        }
+        this.lingerScheduler.shutdownNow();
+        flush();
+    }
+
+    private void sendExpiredBatches() {
+        List<MessageBatch> readyBatches = new ArrayList<>();
+        long curTime = System.currentTimeMillis();
+        synchronized (this.pendingBatches) {
+            Iterator<MessageBatch> iterator = this.pendingBatches.values().iterator();
+            while (iterator.hasNext()) {
+                MessageBatch batch = iterator.next();
+                if (curTime - batch.createTime >= this.lingerMs) {
+                    readyBatches.add(batch);
+                    iterator.remove();
+                }
+            }
+        }
+        for (MessageBatch batch : readyBatches) {
+            sendBatch(batch);
+        }
+    }
+
+    private void sendBatch(MessageBatch batch) {
+        try {
+            this.batchSender.sendBatch(batch.partition, batch.messages, batch.callbacks);
+        } catch (Throwable e) {
+            logger.warn(new StringBuilder(512)
+                    .append("[Batch Send] send batch of ")
+                    .append(batch.partition.getPartitionKey())
+                    .append(" failure").toString(), e);
+            for (MessageSentCallback cb : batch.callbacks) {
+                cb.onException(e);
+            }
+        }
+    }
+
+    /**
+     * Sender of the batched messages.
+     */
+    public interface BatchSender {
+
+        void sendBatch(Partition partition, List<Message> messages,
+                List<MessageSentCallback> callbacks) throws Throwable;
+    }
+
+    private static class MessageBatch {
+
+        private final Partition partition;
+        private final long createTime = System.currentTimeMillis();
+        private final List<Message> messages = new ArrayList<>();
+        private final List<MessageSentCallback> callbacks = new ArrayList<>();
+        private int dataSize = 0;
+
+        public MessageBatch(Partition partition) {
+            this.partition = partition;
+        }
+
+        public void add(Message message, int msgSize, MessageSentCallback cb) {
+            this.messages.add(message);
+            this.callbacks.add(cb);
+            this.dataSize += msgSize;
+        }
+    }
+}
@@ -21,6 +21,7 @@ import org.apache.inlong.tubemq.client.exception.TubeClientException;
 import org.apache.inlong.tubemq.corebase.Message;
 import org.apache.inlong.tubemq.corebase.Shutdownable;
 
+import java.util.List;
 import java.util.Set;
 
 public interface MessageProducer extends Shutdownable {
@@ -38,4 +39,7 @@ public interface MessageProducer extends Shutdownable {
 
     void sendMessage(Message message, MessageSentCallback cb)
             throws TubeClientException, InterruptedException;
+
+    List<MessageSentResult> sendMessages(List<Message> messages)
+            throws TubeClientException, InterruptedException;
 }
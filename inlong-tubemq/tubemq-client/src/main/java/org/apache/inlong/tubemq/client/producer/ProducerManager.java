@@ -370,6 +370,17 @@ public class ProducerManager {
      */
     public ClientBroker.SendMessageRequestP2B.Builder setAuthorizedTokenInfo(
             ClientBroker.SendMessageRequestP2B.Builder builder) {
+        builder.setAuthInfo(genBrokerAuthorizedInfo());
+        return builder;
+    }
+
+    public ClientBroker.SendMessagesRequestP2B.Builder setAuthorizedTokenInfo(
+            ClientBroker.SendMessagesRequestP2B.Builder builder) {
+        builder.setAuthInfo(genBrokerAuthorizedInfo());
+        return builder;
+    }
+
+    private ClientBroker.AuthorizedInfo genBrokerAuthorizedInfo() {
         ClientBroker.AuthorizedInfo.Builder authInfoBuilder =
                 ClientBroker.AuthorizedInfo.newBuilder();
         authInfoBuilder.setVisitAuthorizedToken(this.visitToken.get());
@@ -377,8 +388,7 @@ public class ProducerManager {
         if (TStringUtils.isNotBlank(authAuthorizedToken)) {
             authInfoBuilder.setAuthAuthorizedToken(authAuthorizedToken);
         }
-        builder.setAuthInfo(authInfoBuilder.build());
-        return builder;
+        return authInfoBuilder.build();
     }
 
     /**
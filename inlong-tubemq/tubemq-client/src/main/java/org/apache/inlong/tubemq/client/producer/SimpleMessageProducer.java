@@ -26,10 +26,13 @@ import org.apache.inlong.tubemq.corebase.TBaseConstants;
 import org.apache.inlong.tubemq.corebase.TErrCodeConstants;
 import org.apache.inlong.tubemq.corebase.cluster.BrokerInfo;
 import org.apache.inlong.tubemq.corebase.cluster.Partition;
+import org.apache.inlong.tubemq.corebase.compress.MsgCompressType;
+import org.apache.inlong.tubemq.corebase.compress.MsgCompressUtils;
 import org.apache.inlong.tubemq.corebase.protobuf.generated.ClientBroker;
 import org.apache.inlong.tubemq.corebase.utils.AddressUtils;
 import org.apache.inlong.tubemq.corebase.utils.MessageFlagUtils;
 import org.apache.inlong.tubemq.corebase.utils.TStringUtils;
+import org.apache.inlong.tubemq.corebase.utils.Tuple2;
 import org.apache.inlong.tubemq.corerpc.RpcConfig;
 import org.apache.inlong.tubemq.corerpc.RpcConstants;
 import org.apache.inlong.tubemq.corerpc.RpcServiceFactory;
@@ -42,8 +45,12 @@ import org.apache.commons.codec.binary.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -67,6 +74,8 @@ public class SimpleMessageProducer implements MessageProducer {
     private final DefaultBrokerRcvQltyStats brokerRcvQltyStats;
     private final RpcConfig rpcConfig = new RpcConfig();
     private final AtomicBoolean isShutDown = new AtomicBoolean(false);
+    // accumulator of the asynchronous messages, null if the batch linger is disabled
+    private final MessageBatchAccumulator batchAccumulator;
 
     /**
      * Initial a producer object
@@ -104,6 +113,14 @@ public class SimpleMessageProducer implements MessageProducer {
                 tubeClientConfig.getRpcNettyWorkMemorySize());
         this.rpcConfig.put(RpcConstants.CALLBACK_WORKER_COUNT,
                 tubeClientConfig.getRpcRspCallBackThreadCnt());
+        if (tubeClientConfig.getBatchLingerMs() > 0) {
+            this.batchAccumulator = new MessageBatchAccumulator(this::sendMessageBatch,
+                    tubeClientConfig.getBatchMaxMsgCount(),
+                    tubeClientConfig.getBatchMaxDataSize(),
+                    tubeClientConfig.getBatchLingerMs());
+        } else {
+            this.batchAccumulator = null;
+        }
     }
 
     /**
@@ -200,6 +217,9 @@ public class SimpleMessageProducer implements MessageProducer {
             return;
         }
         if (this.isShutDown.compareAndSet(false, true)) {
+            if (this.batchAccumulator != null) {
+                this.batchAccumulator.close();
+            }
             this.producerManager.removeTopic(publishTopicMap.keySet());
             this.publishTopicMap.clear();
             this.sessionFactory.removeClient(this);
@@ -253,6 +273,14 @@ public class SimpleMessageProducer implements MessageProducer {
         }
         final Partition partition =
                 this.selectPartition(message, BrokerWriteService.AsyncService.class);
+        if (this.batchAccumulator != null) {
+            if (!this.batchAccumulator.append(partition,
+                    message, getMessageSize(message), cb)) {
+                cb.onMessageSent(new MessageSentResult(message, false,
+                        TErrCodeConstants.CLIENT_SHUTDOWN, "Status error: producer has been shutdown!"));
+            }
+            return;
+        }
         final int brokerId = partition.getBrokerId();
         long startTime = System.currentTimeMillis();
         try {
@@ -304,6 +332,169 @@ public class SimpleMessageProducer implements MessageProducer {
         }
     }
 
+    /**
+     * Send a list of messages synchronously, the messages are grouped by the
+     * partition chosen by the PartitionRouter, and each partition's messages are
+     * sent in batch requests limited by the configured count and data size.
+     *
+     * @param messages   the messages to send
+     * @return           the sent results, in the order of the messages
+     * @throws TubeClientException   the exception while selecting partitions
+     * @throws InterruptedException  the exception while being interrupted
+     */
+    @Override
+    public List<MessageSentResult> sendMessages(final List<Message> messages)
+            throws TubeClientException, InterruptedException {
+        if (messages == null || messages.isEmpty()) {
+            throw new TubeClientException("Illegal parameter: messages is null or empty!");
+        }
+        final MessageSentResult[] results = new MessageSentResult[messages.size()];
+        // group the messages by partition
+        Map<String, Partition> partitionMap = new LinkedHashMap<>();
+        Map<String, List<Integer>> partMsgIdxMap = new LinkedHashMap<>();
+        for (int i = 0; i < messages.size(); i++) {
+            Message message = messages.get(i);
+            MessageSentResult result = checkMessageAndStatus(message);
+            if (!result.isSuccess()) {
+                results[i] = result;
+                continue;
+            }
+            Partition partition = this.selectPartition(message, BrokerWriteService.class);
+            partitionMap.putIfAbsent(partition.getPartitionKey(), partition);
+            partMsgIdxMap.computeIfAbsent(partition.getPartitionKey(),
+                    k -> new ArrayList<>()).add(i);
+        }
+        // send the batches of each partition
+        for (Map.Entry<String, List<Integer>> entry : partMsgIdxMap.entrySet()) {
+            Partition partition = partitionMap.get(entry.getKey());
+            List<Integer> batchIdxList = new ArrayList<>();
+            int batchDataSize = 0;
+            for (Integer msgIdx : entry.getValue()) {
+                int msgSize = getMessageSize(messages.get(msgIdx));
+                if (!batchIdxList.isEmpty()
+                        && (batchIdxList.size() >= producerConfig.getBatchMaxMsgCount()
+                                || batchDataSize + msgSize > producerConfig.getBatchMaxDataSize())) {
+                    sendMessageBatch(partition, messages, batchIdxList, results);
+                    batchIdxList.clear();
+                    batchDataSize = 0;
+                }
+                batchIdxList.add(msgIdx);
+                batchDataSize += msgSize;
+            }
+            if (!batchIdxList.isEmpty()) {
+                sendMessageBatch(partition, messages, batchIdxList, results);
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    private void sendMessageBatch(Partition partition, List<Message> messages,
+            List<Integer> batchIdxList, MessageSentResult[] results) {
+        List<Message> batchMsgs = new ArrayList<>(batchIdxList.size());
+        for (Integer msgIdx : batchIdxList) {
+            batchMsgs.add(messages.get(msgIdx));
+        }
+        int brokerId = partition.getBrokerId();
+        long startTime = System.currentTimeMillis();
+        List<MessageSentResult> batchResults;
+        try {
+            this.brokerRcvQltyStats.addSendStatistic(brokerId);
+            ClientBroker.SendMessagesResponseB2P response =
+                    getBrokerService(partition.getBroker()).sendMessagesP2B(
+                            createSendMessagesRequest(partition, batchMsgs),
+                            AddressUtils.getLocalAddress(), producerConfig.isTlsEnable());
+            rpcServiceFactory.resetRmtAddrErrCount(partition.getBroker().getBrokerAddr());
+            this.brokerRcvQltyStats.addReceiveStatistic(brokerId, response.getSuccess());
+            if (!response.getSuccess()
+                    && response.getErrCode() == TErrCodeConstants.SERVICE_UNAVAILABLE) {
+                rpcServiceFactory.addUnavailableBroker(brokerId);
+            }
+            batchResults = this.buildMsgSentResults(
+                    System.currentTimeMillis() - startTime, batchMsgs, partition, response);
+        } catch (final Throwable e) {
+            if (e instanceof LocalConnException) {
+                rpcServiceFactory.addRmtAddrErrCount(partition.getBroker().getBrokerAddr());
+            }
+            producerManager.getClientMetrics().bookFailRpcCall(
+                    TErrCodeConstants.UNSPECIFIED_ABNORMAL);
+            partition.increRetries(1);
+            this.brokerRcvQltyStats.addReceiveStatistic(brokerId, false);
+            batchResults = new ArrayList<>(batchMsgs.size());
+            for (Message message : batchMsgs) {
+                batchResults.add(new MessageSentResult(false,
+                        TErrCodeConstants.UNSPECIFIED_ABNORMAL,
+                        "Send messages failed: " + e.getMessage(),
+                        message, TBaseConstants.META_VALUE_UNDEFINED, partition));
+            }
+        }
+        for (int i = 0; i < batchIdxList.size(); i++) {
+            results[batchIdxList.get(i)] = batchResults.get(i);
+        }
+    }
+
+    private void sendMessageBatch(final Partition partition, final List<Message> messages,
+            final List<MessageSentCallback> callbacks) throws Throwable {
+        final int brokerId = partition.getBrokerId();
+        final long startTime = System.currentTimeMillis();
+        try {
+            this.brokerRcvQltyStats.addSendStatistic(brokerId);
+            getAsyncBrokerService(partition.getBroker()).sendMessagesP2B(
+                    createSendMessagesRequest(partition, messages),
+                    AddressUtils.getLocalAddress(), producerConfig.isTlsEnable(),
+                    new Callback() {
+
+                        @Override
+                        public void handleResult(Object result) {
+                            if (!(result instanceof ClientBroker.SendMessagesResponseB2P)) {
+                                return;
+                            }
+                            final ClientBroker.SendMessagesResponseB2P responseB2P =
+                                    (ClientBroker.SendMessagesResponseB2P) result;
+                            final List<MessageSentResult> rts =
+                                    SimpleMessageProducer.this.buildMsgSentResults(
+                                            System.currentTimeMillis() - startTime,
+                                            messages, partition, responseB2P);
+                            partition.resetRetries();
+                            brokerRcvQltyStats.addReceiveStatistic(brokerId,
+                                    responseB2P.getSuccess());
+                            if (!responseB2P.getSuccess()
+                                    && responseB2P.getErrCode() == TErrCodeConstants.SERVICE_UNAVAILABLE) {
+                                rpcServiceFactory.addUnavailableBroker(brokerId);
+                            }
+                            for (int i = 0; i < rts.size(); i++) {
+                                callbacks.get(i).onMessageSent(rts.get(i));
+                            }
+                        }
+
+                        @Override
+                        public void handleError(Throwable error) {
+                            producerManager.getClientMetrics().bookFailRpcCall(
+                                    TErrCodeConstants.UNSPECIFIED_ABNORMAL);
+                            partition.increRetries(1);
+                            brokerRcvQltyStats.addReceiveStatistic(brokerId, false);
+                            for (MessageSentCallback cb : callbacks) {
+                                cb.onException(error);
+                            }
+                        }
+                    });
+            rpcServiceFactory.resetRmtAddrErrCount(partition.getBroker().getBrokerAddr());
+        } catch (final Throwable e) {
+            if (e instanceof LocalConnException) {
+                rpcServiceFactory.addRmtAddrErrCount(partition.getBroker().getBrokerAddr());
+            }
+            // if failed,increment the counter
+            partition.increRetries(1);
+            this.brokerRcvQltyStats.addReceiveStatistic(brokerId, false);
+            throw e;
+        }
+    }
+
+    private int getMessageSize(final Message message) {
+        return TStringUtils.isBlank(message.getAttribute())
+                ? message.getData().length
+                : (message.getData().length + message.getAttribute().length());
+    }
+
     private MessageSentResult checkMessageAndStatus(final Message message) {
         if (message == null) {
             return new MessageSentResult(message, false,
@@ -331,9 +522,7 @@ public class SimpleMessageProducer implements MessageProducer {
                             .append(" not publish, make sure the topic exist or acceptPublish and try later!")
                             .toString());
         }
-        int msgSize = TStringUtils.isBlank(message.getAttribute())
-                ? message.getData().length
-                : (message.getData().length + message.getAttribute().length());
+        int msgSize = getMessageSize(message);
         if (msgSize > producerManager.getMaxMsgSize(message.getTopic())) {
             return new MessageSentResult(message, false,
                     TErrCodeConstants.PARAMETER_MSG_OVER_MAX_LENGTH,
@@ -357,8 +546,9 @@ public class SimpleMessageProducer implements MessageProducer {
         builder.setClientId(this.producerManager.getProducerId());
         builder.setTopicName(partition.getTopic());
         builder.setPartitionId(partition.getPartitionId());
-        builder.setData(ByteString.copyFrom(encodePayload(message)));
-        builder.setFlag(MessageFlagUtils.getFlag(message));
+        Tuple2<Integer, byte[]> payloadInfo = encodePayload(message);
+        builder.setData(ByteString.copyFrom(payloadInfo.getF1()));
+        builder.setFlag(payloadInfo.getF0());
         builder.setSentAddr(this.producerManager.getProducerAddrId());
         builder.setCheckSum(-1);
         if (TStringUtils.isNotBlank(message.getMsgType())) {
@@ -371,11 +561,66 @@ public class SimpleMessageProducer implements MessageProducer {
         return builder.build();
     }
 
-    private byte[] encodePayload(final Message message) {
-        final byte[] payload = message.getData();
+    private ClientBroker.SendMessagesRequestP2B createSendMessagesRequest(Partition partition,
+            List<Message> messages) {
+        ClientBroker.SendMessagesRequestP2B.Builder builder =
+                ClientBroker.SendMessagesRequestP2B.newBuilder();
+        builder.setClientId(this.producerManager.getProducerId());
+        builder.setTopicName(partition.getTopic());
+        builder.setPartitionId(partition.getPartitionId());
+        builder.setSentAddr(this.producerManager.getProducerAddrId());
+        for (Message message : messages) {
+            ClientBroker.SendMessageItem.Builder itemBuilder =
+                    ClientBroker.SendMessageItem.newBuilder();
+            Tuple2<Integer, byte[]> payloadInfo = encodePayload(message);
+            itemBuilder.setData(ByteString.copyFrom(payloadInfo.getF1()));
+            itemBuilder.setFlag(payloadInfo.getF0());
+            itemBuilder.setCheckSum(-1);
+            if (TStringUtils.isNotBlank(message.getMsgType())) {
+                itemBuilder.setMsgType(message.getMsgType());
+            }
+            if (TStringUtils.isNotBlank(message.getMsgTime())) {
+                itemBuilder.setMsgTime(message.getMsgTime());
+            }
+            builder.addMsgItems(itemBuilder.build());
+        }
+        builder = this.producerManager.setAuthorizedTokenInfo(builder);
+        return builder.build();
+    }
+
+    /**
+     * Encode the message payload, the message data is compressed by the topic's
+     * compress type, while the attribute is kept as plain text before the data.
+     *
+     * @param message   the message to encode
+     * @return          the message flag and the encoded payload
+     */
+    private Tuple2<Integer, byte[]> encodePayload(final Message message) {
+        MsgCompressType compressType = MsgCompressType.NONE;
+        byte[] payload = message.getData();
+        if (payload.length >= producerConfig.getCompressMinDataSize()) {
+            MsgCompressType topicCompressType =
+                    producerConfig.getCompressType(message.getTopic());
+            if (topicCompressType != MsgCompressType.NONE) {
+                try {
+                    byte[] compressed = MsgCompressUtils.compress(topicCompressType, payload);
+                    // keep the original data if the compression is not effective
+                    if (compressed.length < payload.length) {
+                        payload = compressed;
+                        compressType = topicCompressType;
+                    }
+                } catch (IOException e) {
+                    logger.warn(new StringBuilder(256)
+                            .append("Compress message data of topic ").append(message.getTopic())
+                            .append(" by ").append(topicCompressType.getDesc())
+                            .append(" failure, send the original data").toString(), e);
+                }
+            }
+        }
+        final int flag = MessageFlagUtils.getFlag(message, compressType);
         final String attribute = message.getAttribute();
         if (TStringUtils.isBlank(attribute)) {
-            return payload;
+            return new Tuple2<>(flag, payload);
         }
         byte[] attrData = StringUtils.getBytesUtf8(attribute);
         final ByteBuffer buffer =
@@ -383,7 +628,7 @@ public class SimpleMessageProducer implements MessageProducer {
         buffer.putInt(attrData.length);
         buffer.put(attrData);
         buffer.put(payload);
-        return buffer.array();
+        return new Tuple2<>(flag, buffer.array());
     }
 
     private MessageSentResult buildMsgSentResult(final long dltTime,
@@ -410,6 +655,41 @@ public class SimpleMessageProducer implements MessageProducer {
         }
     }
 
+    private List<MessageSentResult> buildMsgSentResults(final long dltTime,
+            final List<Message> messages,
+            final Partition partition,
+            final ClientBroker.SendMessagesResponseB2P response) {
+        List<MessageSentResult> results = new ArrayList<>(messages.size());
+        if (response.getErrCode() == TErrCodeConstants.SUCCESS
+                && response.getMsgResultsCount() == messages.size()) {
+            for (int i = 0; i < messages.size(); i++) {
+                Message message = messages.get(i);
+                ClientBroker.SendMessageResult msgResult = response.getMsgResults(i);
+                producerManager.getClientMetrics().bookSuccSendMsg(dltTime,
+                        message.getTopic(), partition.getPartitionKey(), message.getData().length);
+                results.add(new MessageSentResult(true,
+                        response.getErrCode(), "Ok!",
+                        message, msgResult.getMessageId(), partition,
+                        msgResult.getAppendTime(), msgResult.getAppendOffset()));
+            }
+        } else {
+            int errCode = response.getErrCode();
+            String errMsg = response.getErrMsg();
+            if (errCode == TErrCodeConstants.SUCCESS) {
+                errCode = TErrCodeConstants.UNSPECIFIED_ABNORMAL;
+                errMsg = new StringBuilder(256).append("Unmatched result count ")
+                        .append(response.getMsgResultsCount()).append(" of the sent message count ")
+                        .append(messages.size()).toString();
+            }
+            producerManager.getClientMetrics().bookFailRpcCall(errCode);
+            for (Message message : messages) {
+                results.add(new MessageSentResult(false, errCode,
+                        errMsg, message, TBaseConstants.META_VALUE_UNDEFINED, partition));
+            }
+        }
+        return results;
+    }
+
     private Partition selectPartition(final Message message,
             Class clazz) throws TubeClientException {
         String topic = message.getTopic();
@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.tubemq.client.consumer;
+
+import org.apache.inlong.tubemq.client.config.ConsumerConfig;
+import org.apache.inlong.tubemq.corebase.Message;
+import org.apache.inlong.tubemq.corebase.cluster.BrokerInfo;
+import org.apache.inlong.tubemq.corebase.cluster.Partition;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class MessagePrefetcherTest {
+
+    private final Partition partition =
+            new Partition(new BrokerInfo(1, "127.0.0.1", 8123), "test", 0);
+    private final PartitionSelectResult selectResult =
+            new PartitionSelectResult(partition, System.currentTimeMillis(), true);
+
+    @Test
+    public void testWindowCommittedAfterConsumed() throws Exception {
+        BaseMessageConsumer baseConsumer = mockBaseConsumer();
+        SimplePushMessageConsumer pushConsumer = mockPushConsumer(baseConsumer);
+        when(baseConsumer.fetchMessage(any(PartitionSelectResult.class), eq(false),
+                any(StringBuilder.class))).thenReturn(buildContext(2));
+        when(baseConsumer.fetchMessage(any(PartitionSelectResult.class), eq(true),
+                any(StringBuilder.class))).thenReturn(buildContext(3), buildContext(0));
+        when(pushConsumer.consumeFetchedMessages(any(FetchContext.class),
+                any(StringBuilder.class))).thenReturn(true);
+        MessagePrefetcher prefetcher =
+                new MessagePrefetcher(buildConfig(4), pushConsumer);
+        prefetcher.processRequest(selectResult, new StringBuilder(256));
+        // the first pack, the prefetched pack, and the empty pack ending the window
+        verify(pushConsumer, times(3)).consumeFetchedMessages(
+                any(FetchContext.class), any(StringBuilder.class));
+        verify(baseConsumer, times(2)).fetchMessage(any(PartitionSelectResult.class),
+                eq(true), any(StringBuilder.class));
+        verify(baseConsumer).commitLastRequest(partition, true);
+        verify(baseConsumer.rmtDataCache).succRspRelease(eq(partition.getPartitionKey()),
+                anyString(), anyLong(), eq(true), anyBoolean(), anyLong(), anyLong());
+        Assert.assertEquals(0L, prefetcher.getPrefetchedBytes());
+        prefetcher.shutdown();
+    }
+
+    @Test
+    public void testWindowRolledBackIfNotConsumed() throws Exception {
+        BaseMessageConsumer baseConsumer = mockBaseConsumer();
+        SimplePushMessageConsumer pushConsumer = mockPushConsumer(baseConsumer);
+        when(baseConsumer.fetchMessage(any(PartitionSelectResult.class), eq(false),
+                any(StringBuilder.class))).thenReturn(buildContext(2));
+        when(baseConsumer.fetchMessage(any(PartitionSelectResult.class), eq(true),
+                any(StringBuilder.class))).thenReturn(buildContext(3));
+        when(pushConsumer.consumeFetchedMessages(any(FetchContext.class),
+                any(StringBuilder.class))).thenReturn(false);
+        MessagePrefetcher prefetcher =
+                new MessagePrefetcher(buildConfig(3), pushConsumer);
+        prefetcher.processRequest(selectResult, new StringBuilder(256));
+        verify(pushConsumer, times(1)).consumeFetchedMessages(
+                any(FetchContext.class), any(StringBuilder.class));
+        verify(baseConsumer).commitLastRequest(partition, false);
+        verify(baseConsumer, never()).commitLastRequest(partition, true);
+        // the prefetched packs not consumed are dropped
+        Assert.assertEquals(0L, prefetcher.getPrefetchedBytes());
+        prefetcher.shutdown();
+    }
+
+    @Test
+    public void testLostResponseRolledBack() throws Exception {
+        BaseMessageConsumer baseConsumer = mockBaseConsumer();
+        SimplePushMessageConsumer pushConsumer = mockPushConsumer(baseConsumer);
+        FetchContext failContext = new FetchContext(selectResult);
+        failContext.setFailProcessResult(400, "Get message error");
+        when(baseConsumer.fetchMessage(any(PartitionSelectResult.class), eq(false),
+                any(StringBuilder.class))).thenReturn(failContext, buildContext(0));
+        when(pushConsumer.consumeFetchedMessages(any(FetchContext.class),
+                any(StringBuilder.class))).thenReturn(true);
+        MessagePrefetcher prefetcher =
+                new MessagePrefetcher(buildConfig(2), pushConsumer);
+        prefetcher.processRequest(selectResult, new StringBuilder(256));
+        verify(baseConsumer, never()).commitLastRequest(any(Partition.class), anyBoolean());
+        // the next window rolls back the read position before fetching
+        prefetcher.processRequest(selectResult, new StringBuilder(256));
+        verify(baseConsumer).commitLastRequest(partition, false);
+        verify(baseConsumer).commitLastRequest(partition, true);
+        prefetcher.shutdown();
+    }
+
+    private ConsumerConfig buildConfig(int prefetchDepth) {
+        ConsumerConfig config = new ConsumerConfig("127.0.0.1:18080", "test");
+        config.setPushFetchThreadCnt(1);
+        config.setPushPrefetchDepth(prefetchDepth);
+        return config;
+    }
+
+    private BaseMessageConsumer mockBaseConsumer() throws Exception {
+        BaseMessageConsumer baseConsumer = mock(BaseMessageConsumer.class);
+        Field field = BaseMessageConsumer.class.getDeclaredField("rmtDataCache");
+        field.setAccessible(true);
+        field.set(baseConsumer, mock(RmtDataCache.class));
+        when(baseConsumer.commitLastRequest(any(Partition.class), anyBoolean())).thenReturn(true);
+        return baseConsumer;
+    }
+
+    private SimplePushMessageConsumer mockPushConsumer(BaseMessageConsumer baseConsumer) {
+        SimplePushMessageConsumer pushConsumer = mock(SimplePushMessageConsumer.class);
+        when(pushConsumer.getBaseConsumer()).thenReturn(baseConsumer);
+        return pushConsumer;
+    }
+
+    private FetchContext buildContext(int msgCount) {
+        FetchContext taskContext = new FetchContext(selectResult);
+        List<Message> messages = new ArrayList<>();
+        for (int i = 0; i < msgCount; i++) {
+            messages.add(new Message("test", "test message".getBytes()));
+        }
+        taskContext.setSuccessProcessResult(0L, "", messages, 10L);
+        return taskContext;
+    }
+}
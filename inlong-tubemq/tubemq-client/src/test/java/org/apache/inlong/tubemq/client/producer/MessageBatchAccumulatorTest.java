@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.tubemq.client.producer;
+
+import org.apache.inlong.tubemq.corebase.Message;
+import org.apache.inlong.tubemq.corebase.cluster.BrokerInfo;
+import org.apache.inlong.tubemq.corebase.cluster.Partition;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class MessageBatchAccumulatorTest {
+
+    private static final MessageSentCallback EMPTY_CALLBACK = new MessageSentCallback() {
+
+        @Override
+        public void onMessageSent(MessageSentResult result) {
+        }
+
+        @Override
+        public void onException(Throwable e) {
+        }
+    };
+
+    @Test
+    public void testBatchLimits() {
+        final List<Integer> sentBatchSizes = new CopyOnWriteArrayList<>();
+        MessageBatchAccumulator accumulator = new MessageBatchAccumulator(
+                (partition, messages, callbacks) -> sentBatchSizes.add(messages.size()),
+                3, 100, 60000L);
+        Partition partition1 = new Partition(new BrokerInfo("0:127.0.0.1:18080"), "test", 0);
+        Partition partition2 = new Partition(new BrokerInfo("0:127.0.0.1:18080"), "test", 1);
+        Message message = new Message("test", new byte[]{1, 2, 3});
+        // the batch is sent once it reaches the count limit
+        for (int i = 0; i < 3; i++) {
+            accumulator.append(partition1, message, 3, EMPTY_CALLBACK);
+        }
+        assertEquals(1, sentBatchSizes.size());
+        assertEquals(3, sentBatchSizes.get(0).intValue());
+        // the pending batch is sent before it exceeds the size limit
+        accumulator.append(partition2, message, 60, EMPTY_CALLBACK);
+        accumulator.append(partition2, message, 60, EMPTY_CALLBACK);
+        assertEquals(2, sentBatchSizes.size());
+        assertEquals(1, sentBatchSizes.get(1).intValue());
+        assertEquals(1, accumulator.getPendingBatchCount());
+        // the pending batches are sent while closing
+        accumulator.close();
+        assertEquals(3, sentBatchSizes.size());
+        assertEquals(0, accumulator.getPendingBatchCount());
+        assertFalse(accumulator.append(partition1, message, 3, EMPTY_CALLBACK));
+    }
+
+    @Test
+    public void testBatchLinger() throws Exception {
+        final List<Integer> sentBatchSizes = new CopyOnWriteArrayList<>();
+        MessageBatchAccumulator accumulator = new MessageBatchAccumulator(
+                (partition, messages, callbacks) -> sentBatchSizes.add(messages.size()),
+                100, 1024, 10L);
+        Partition partition = new Partition(new BrokerInfo("0:127.0.0.1:18080"), "test", 0);
+        Message message = new Message("test", new byte[]{1, 2, 3});
+        accumulator.append(partition, message, 3, EMPTY_CALLBACK);
+        accumulator.append(partition, message, 3, EMPTY_CALLBACK);
+        long startTime = System.currentTimeMillis();
+        while (sentBatchSizes.isEmpty()
+                && System.currentTimeMillis() - startTime < 5000) {
+            Thread.sleep(5);
+        }
+        assertEquals(1, sentBatchSizes.size());
+        assertEquals(2, sentBatchSizes.get(0).intValue());
+        accumulator.close();
+    }
+}
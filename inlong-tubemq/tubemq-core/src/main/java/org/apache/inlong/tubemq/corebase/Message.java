@@ -17,9 +17,13 @@
 
 package org.apache.inlong.tubemq.corebase;
 
+import org.apache.inlong.tubemq.corebase.compress.MsgCompressType;
+import org.apache.inlong.tubemq.corebase.compress.MsgCompressUtils;
 import org.apache.inlong.tubemq.corebase.utils.DateTimeConvertUtils;
+import org.apache.inlong.tubemq.corebase.utils.MessageFlagUtils;
 import org.apache.inlong.tubemq.corebase.utils.TStringUtils;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.Arrays;
 
@@ -39,12 +43,13 @@ import java.util.Arrays;
 public class Message implements Serializable {
 
     static final long serialVersionUID = -1L;
-    protected int flag;
+    // written after the data, so the data read after the compress type is cleared is decompressed
+    protected volatile int flag;
     private long indexId;
     // tube topic
     private String topic;
     // data body
-    private byte[] data;
+    private volatile byte[] data;
     private String attribute;
     // message type
     private transient String msgType;
@@ -188,15 +193,50 @@ public class Message implements Serializable {
         this.topic = topicName;
     }
 
+    /**
+     * Get the message's payload, the compressed payload received
+     * is decompressed once by the first caller.
+     *
+     * @return the message's payload
+     */
     public byte[] getData() {
+        if (MessageFlagUtils.isCompressed(this.flag)) {
+            decompressData();
+        }
         return this.data;
     }
 
+    /**
+     * Get the size of the payload held by the message,
+     * it's the compressed size if the payload has not been decompressed.
+     *
+     * @return the held payload size
+     */
+    public int getRawDataSize() {
+        return this.data == null ? 0 : this.data.length;
+    }
+
     /**
      * Set the message's payload
      */
     public void setData(final byte[] data) {
         this.data = data;
+        this.flag = MessageFlagUtils.setCompressType(this.flag, MsgCompressType.NONE);
+    }
+
+    private synchronized void decompressData() {
+        if (!MessageFlagUtils.isCompressed(this.flag)) {
+            return;
+        }
+        try {
+            this.data = MsgCompressUtils.decompress(
+                    MessageFlagUtils.getCompressType(this.flag), this.data);
+            this.flag = MessageFlagUtils.setCompressType(this.flag, MsgCompressType.NONE);
+        } catch (IOException e) {
+            throw new IllegalStateException(new StringBuilder(256)
+                    .append("Decompress message data failure, topic=").append(this.topic)
+                    .append(", indexId=").append(this.indexId).toString(), e);
+        }
     }
 
     public void clearAttribute() {
@@ -298,7 +338,7 @@ public class Message implements Serializable {
         final int prime = 31;
         int result = 1;
         result = prime * result + (this.attribute == null ? 0 : this.attribute.hashCode());
-        result = prime * result + Arrays.hashCode(this.data);
+        result = prime * result + Arrays.hashCode(this.getData());
         result = prime * result + (int) (this.indexId ^ this.indexId >>> 32);
         result = prime * result + (this.topic == null ? 0 : this.topic.hashCode());
         return result;
@@ -323,7 +363,7 @@ public class Message implements Serializable {
         } else if (!this.attribute.equals(other.attribute)) {
             return false;
         }
-        if (!Arrays.equals(this.data, other.data)) {
+        if (!Arrays.equals(this.getData(), other.getData())) {
             return false;
         }
         if (this.indexId != other.indexId) {
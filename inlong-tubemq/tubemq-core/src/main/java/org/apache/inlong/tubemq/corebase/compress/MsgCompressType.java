@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.tubemq.corebase.compress;
+
+/**
+ * Compress type of the message data, recorded in the message flag.
+ */
+public enum MsgCompressType {
+
+    /**
+     * Not compressed.
+     * */
+    NONE(0, "none"),
+    /**
+     * Compressed by JDK's gzip.
+     * */
+    GZIP(1, "gzip"),
+    /**
+     * Compressed by snappy.
+     * */
+    SNAPPY(2, "snappy"),
+    /**
+     * Compressed by lz4 block, with the original length prefixed.
+     * */
+    LZ4(3, "lz4");
+
+    private final int value;
+    private final String description;
+
+    MsgCompressType(int value, String description) {
+        this.value = value;
+        this.description = description;
+    }
+
+    public int getValue() {
+        return value;
+    }
+
+    public String getDesc() {
+        return description;
+    }
+
+    public static MsgCompressType valueOf(int value) {
+        for (MsgCompressType type : MsgCompressType.values()) {
+            if (type.getValue() == value) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException(new StringBuilder(128)
+                .append("Unsupported message compress type value ")
+                .append(value).toString());
+    }
+
+}
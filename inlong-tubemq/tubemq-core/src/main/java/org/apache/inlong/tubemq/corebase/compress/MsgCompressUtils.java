@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.tubemq.corebase.compress;
+
+import org.apache.inlong.tubemq.corebase.TBaseConstants;
+
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Exception;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+import org.xerial.snappy.Snappy;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Message data compress tools.
+ *
+ * Only the message data is compressed, the attribute is kept as plain text,
+ * so the broker can store and deliver the compressed data as-is.
+ */
+public class MsgCompressUtils {
+
+    private static final LZ4Factory lz4Factory = LZ4Factory.fastestInstance();
+
+    /**
+     * Compress the message data
+     *
+     * @param compressType   the compress type
+     * @param data           the message data
+     * @return               the compressed data
+     * @throws IOException   the exception while compressing
+     */
+    public static byte[] compress(MsgCompressType compressType, byte[] data) throws IOException {
+        switch (compressType) {
+            case GZIP: {
+                ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 2 + 32);
+                try (GZIPOutputStream gzipOut = new GZIPOutputStream(out)) {
+                    gzipOut.write(data);
+                }
+                return out.toByteArray();
+            }
+            case SNAPPY: {
+                return Snappy.compress(data);
+            }
+            case LZ4: {
+                LZ4Compressor compressor = lz4Factory.fastCompressor();
+                byte[] compressed = new byte[4 + compressor.maxCompressedLength(data.length)];
+                ByteBuffer.wrap(compressed).putInt(data.length);
+                int compressedLen = compressor.compress(data, 0,
+                        data.length, compressed, 4, compressed.length - 4);
+                byte[] result = new byte[4 + compressedLen];
+                System.arraycopy(compressed, 0, result, 0, result.length);
+                return result;
+            }
+            case NONE:
+            default: {
+                return data;
+            }
+        }
+    }
+
+    /**
+     * Decompress the message data
+     *
+     * @param compressType   the compress type
+     * @param data           the compressed data
+     * @return               the original message data
+     * @throws IOException   the exception while decompressing
+     */
+    public static byte[] decompress(MsgCompressType compressType, byte[] data) throws IOException {
+        switch (compressType) {
+            case GZIP: {
+                ByteArrayOutputStream out = new ByteArrayOutputStream(data.length * 2);
+                try (GZIPInputStream gzipIn = new GZIPInputStream(new ByteArrayInputStream(data))) {
+                    byte[] buffer = new byte[4096];
+                    int readLen;
+                    while ((readLen = gzipIn.read(buffer)) > 0) {
+                        out.write(buffer, 0, readLen);
+                    }
+                }
+                return out.toByteArray();
+            }
+            case SNAPPY: {
+                return Snappy.uncompress(data);
+            }
+            case LZ4: {
+                if (data.length < 4) {
+                    throw new IOException("Illegal lz4 compressed data: length less than 4");
+                }
+                int originalLen = ByteBuffer.wrap(data).getInt();
+                // check the length prefix before allocating the output buffer
+                if (originalLen < 0
+                        || originalLen > TBaseConstants.META_MAX_MESSAGE_DATA_SIZE_UPPER_LIMIT) {
+                    throw new IOException(new StringBuilder(128)
+                            .append("Illegal lz4 compressed data: original length ")
+                            .append(originalLen).append(" out of range [0, ")
+                            .append(TBaseConstants.META_MAX_MESSAGE_DATA_SIZE_UPPER_LIMIT)
+                            .append("]").toString());
+                }
+                LZ4FastDecompressor decompressor = lz4Factory.fastDecompressor();
+                byte[] result = new byte[originalLen];
+                try {
+                    decompressor.decompress(data, 4, result, 0, originalLen);
+                } catch (LZ4Exception e) {
+                    throw new IOException("Illegal lz4 compressed data: " + e.getMessage(), e);
+                }
+                return result;
+            }
+            case NONE:
+            default: {
+                return data;
+            }
+        }
+    }
+}
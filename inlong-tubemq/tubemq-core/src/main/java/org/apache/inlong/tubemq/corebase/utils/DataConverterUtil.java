@@ -27,6 +27,8 @@ import org.apache.inlong.tubemq.corebase.cluster.SubscribeInfo;
 import org.apache.inlong.tubemq.corebase.cluster.TopicInfo;
 import org.apache.inlong.tubemq.corebase.protobuf.generated.ClientBroker;
 
+import com.google.protobuf.ByteString;
+
 import java.io.UnsupportedEncodingException;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
@@ -41,6 +43,17 @@ import java.util.concurrent.ConcurrentHashMap;
  */
 public class DataConverterUtil {
 
+    // broker store layout of a message, keep consistent with the broker's DataStoreUtils
+    private static final int STORE_DATA_PREFX_LEN = 48;
+    private static final int STORE_DATA_HEADER_LEN = STORE_DATA_PREFX_LEN + 4;
+    private static final int STORE_HEADER_POS_LENGTH = 0;
+    private static final int STORE_HEADER_POS_DATATYPE = 4;
+    private static final int STORE_HEADER_POS_CHECKSUM = 8;
+    private static final int STORE_HEADER_POS_MSGID = 40;
+    private static final int STORE_HEADER_POS_MSGFLAG = 48;
+    private static final int STORE_HEADER_POS_MSGDATA = 52;
+    private static final int STORE_DATA_TOKER_BEGIN_VALUE = 0x2C998B8;
+
     /**
      * convert string info to @link SubscribeInfo
      *
@@ -212,45 +225,92 @@ public class DataConverterUtil {
         }
         List<Message> messageList = new ArrayList<>(transferedMessageList.size());
         for (ClientBroker.TransferedMessage trsMessage : transferedMessageList) {
-            final int flag = trsMessage.getFlag();
-            int dataCheckSum = trsMessage.getCheckSum();
-            final ByteBuffer payloadData = ByteBuffer.allocate(trsMessage.getPayLoadData().size());
-            payloadData.put(trsMessage.getPayLoadData().toByteArray());
-            payloadData.flip();
-            int payloadDataLen = payloadData.array().length;
-            int currentChecksum = CheckSum.crc32(payloadData.array());
-            if (dataCheckSum != currentChecksum) {
-                continue;
+            Message message = buildMessage(topicName, trsMessage.getMessageId(),
+                    trsMessage.getFlag(), trsMessage.getCheckSum(),
+                    trsMessage.getPayLoadData().toByteArray());
+            if (message != null) {
+                messageList.add(message);
             }
-            int readPos = 0;
-            String attribute = null;
-            if (MessageFlagUtils.hasAttribute(flag)) {
-                if (payloadDataLen < 4) {
-                    continue;
-                }
-                final int attrLen = payloadData.getInt(0);
-                payloadDataLen -= 4;
-                readPos += 4;
-                if (attrLen > payloadDataLen) {
-                    continue;
-                }
-                if (attrLen > 0) {
-                    final byte[] attrData = new byte[attrLen];
-                    System.arraycopy(payloadData.array(), readPos, attrData, 0, attrLen);
-                    try {
-                        attribute = new String(attrData, TBaseConstants.META_DEFAULT_CHARSET_NAME);
-                    } catch (final UnsupportedEncodingException e) {
-                        throw new RuntimeException(e);
-                    }
-                    readPos += attrLen;
-                    payloadDataLen -= attrLen;
-                }
+        }
+        return messageList;
+    }
+
+    /**
+     * convert the messages in broker store layout with topicName
+     * to a list of @link Message
+     *
+     * @param topicName      the topic name
+     * @param rawStoreData   the continuous stored records
+     * @return a list of @link Message
+     */
+    public static List<Message> convertRawStoreMessage(final String topicName,
+            ByteString rawStoreData) {
+        if (rawStoreData == null || rawStoreData.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Message> messageList = new ArrayList<>();
+        ByteBuffer storeBuffer = rawStoreData.asReadOnlyByteBuffer();
+        int readPos = 0;
+        int totalSize = storeBuffer.remaining();
+        while (totalSize - readPos >= STORE_DATA_HEADER_LEN) {
+            final int msgLen = storeBuffer.getInt(readPos + STORE_HEADER_POS_LENGTH);
+            final int msgToken = storeBuffer.getInt(readPos + STORE_HEADER_POS_DATATYPE);
+            final int payLoadLen = msgLen - STORE_DATA_PREFX_LEN;
+            if (msgToken != STORE_DATA_TOKER_BEGIN_VALUE
+                    || payLoadLen <= 0
+                    || payLoadLen > totalSize - readPos - STORE_DATA_HEADER_LEN) {
+                break;
             }
-            final byte[] payload = new byte[payloadDataLen];
-            System.arraycopy(payloadData.array(), readPos, payload, 0, payloadDataLen);
-            messageList.add(new MessageExt(trsMessage.getMessageId(), topicName, payload, attribute, flag));
+            final byte[] payloadData = new byte[payLoadLen];
+            storeBuffer.position(readPos + STORE_HEADER_POS_MSGDATA);
+            storeBuffer.get(payloadData);
+            Message message = buildMessage(topicName,
+                    storeBuffer.getLong(readPos + STORE_HEADER_POS_MSGID),
+                    storeBuffer.getInt(readPos + STORE_HEADER_POS_MSGFLAG),
+                    storeBuffer.getInt(readPos + STORE_HEADER_POS_CHECKSUM), payloadData);
+            if (message != null) {
+                messageList.add(message);
+            }
+            readPos += STORE_DATA_HEADER_LEN + payLoadLen;
         }
         return messageList;
     }
 
+    private static Message buildMessage(String topicName, long msgId,
+            int flag, int dataCheckSum, byte[] payloadArray) {
+        final ByteBuffer payloadData = ByteBuffer.wrap(payloadArray);
+        int payloadDataLen = payloadArray.length;
+        int currentChecksum = CheckSum.crc32(payloadArray);
+        if (dataCheckSum != currentChecksum) {
+            return null;
+        }
+        int readPos = 0;
+        String attribute = null;
+        if (MessageFlagUtils.hasAttribute(flag)) {
+            if (payloadDataLen < 4) {
+                return null;
+            }
+            final int attrLen = payloadData.getInt(0);
+            payloadDataLen -= 4;
+            readPos += 4;
+            if (attrLen > payloadDataLen) {
+                return null;
+            }
+            if (attrLen > 0) {
+                final byte[] attrData = new byte[attrLen];
+                System.arraycopy(payloadArray, readPos, attrData, 0, attrLen);
+                try {
+                    attribute = new String(attrData, TBaseConstants.META_DEFAULT_CHARSET_NAME);
+                } catch (final UnsupportedEncodingException e) {
+                    throw new RuntimeException(e);
+                }
+                readPos += attrLen;
+                payloadDataLen -= attrLen;
+            }
+        }
+        final byte[] payload = new byte[payloadDataLen];
+        System.arraycopy(payloadArray, readPos, payload, 0, payloadDataLen);
+        return new MessageExt(msgId, topicName, payload, attribute, flag);
+    }
+
 }
@@ -18,9 +18,14 @@
 package org.apache.inlong.tubemq.corebase.utils;
 
 import org.apache.inlong.tubemq.corebase.Message;
+import org.apache.inlong.tubemq.corebase.compress.MsgCompressType;
 
 public class MessageFlagUtils {
 
+    // bit 0 is the attribute flag, bits 1~3 are the data compress type
+    private static final int COMPRESS_TYPE_SHIFT = 1;
+    private static final int COMPRESS_TYPE_MASK = 0x7 << COMPRESS_TYPE_SHIFT;
+
     public static int getFlag(final Message message) {
         int flag = 0;
         if (message != null && message.getAttribute() != null) {
@@ -29,8 +34,25 @@ public class MessageFlagUtils {
         return flag;
     }
 
+    public static int getFlag(final Message message, final MsgCompressType compressType) {
+        return setCompressType(getFlag(message), compressType);
+    }
+
     public static boolean hasAttribute(final int flag) {
         return (flag & 0x1) == 1;
     }
 
+    public static int setCompressType(final int flag, final MsgCompressType compressType) {
+        return (flag & ~COMPRESS_TYPE_MASK)
+                | ((compressType.getValue() << COMPRESS_TYPE_SHIFT) & COMPRESS_TYPE_MASK);
+    }
+
+    public static MsgCompressType getCompressType(final int flag) {
+        return MsgCompressType.valueOf((flag & COMPRESS_TYPE_MASK) >>> COMPRESS_TYPE_SHIFT);
+    }
+
+    public static boolean isCompressed(final int flag) {
+        return (flag & COMPRESS_TYPE_MASK) != 0;
+    }
+
 }
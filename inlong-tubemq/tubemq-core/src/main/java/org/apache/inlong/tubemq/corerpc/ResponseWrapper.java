@@ -21,6 +21,7 @@ import org.apache.inlong.tubemq.corerpc.exception.StandbyException;
 import org.apache.inlong.tubemq.corerpc.utils.MixUtils;
 
 import java.io.Serializable;
+import java.util.List;
 
 /**
  *  Response message wrapper class.
@@ -38,6 +39,7 @@ public class ResponseWrapper implements Serializable {
     private Object responseData;
     private String errMsg;
     private String stackTrace;
+    private transient List<RpcDataRegion> dataRegions;
 
     /**
      *  Initial a response wrapper object
@@ -198,4 +200,11 @@ public class ResponseWrapper implements Serializable {
         this.stackTrace = stackTrace;
     }
 
+    public List<RpcDataRegion> getDataRegions() {
+        return dataRegions;
+    }
+
+    public void setDataRegions(List<RpcDataRegion> dataRegions) {
+        this.dataRegions = dataRegions;
+    }
 }
@@ -17,13 +17,24 @@
 
 package org.apache.inlong.tubemq.corerpc;
 
+import com.google.protobuf.MessageLite;
+import io.netty.util.ReferenceCounted;
+
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 public class RpcDataPack {
 
     private int serialNo;
     private List<ByteBuffer> dataLst;
+    // file regions sent after the data list without copying
+    private List<RpcDataRegion> regionLst = Collections.emptyList();
+    // protobuf messages serialized into the sending buffer after the data list
+    private List<MessageLite> msgLst = Collections.emptyList();
+    // received buffers backing the data list, released once the data list is consumed
+    private List<ReferenceCounted> dataBufs = Collections.emptyList();
 
     public RpcDataPack() {
 
@@ -50,4 +61,50 @@ public class RpcDataPack {
         this.dataLst = dataLst;
     }
 
+    public List<RpcDataRegion> getRegionLst() {
+        return regionLst;
+    }
+
+    public void setRegionLst(List<RpcDataRegion> regionLst) {
+        if (regionLst == null) {
+            this.regionLst = Collections.emptyList();
+        } else {
+            this.regionLst = regionLst;
+        }
+    }
+
+    public List<MessageLite> getMsgLst() {
+        return msgLst;
+    }
+
+    public void setMsgLst(List<MessageLite> msgLst) {
+        if (msgLst == null) {
+            this.msgLst = Collections.emptyList();
+        } else {
+            this.msgLst = msgLst;
+        }
+    }
+
+    public boolean hasDataRegion() {
+        return !regionLst.isEmpty();
+    }
+
+    public void addDataBuf(ReferenceCounted dataBuf) {
+        if (dataBufs.isEmpty()) {
+            dataBufs = new ArrayList<>();
+        }
+        dataBufs.add(dataBuf);
+    }
+
+    /**
+     * Release the received buffers backing the data list,
+     * the data list must not be read after it.
+     */
+    public void releaseDataBufs() {
+        for (ReferenceCounted dataBuf : dataBufs) {
+            dataBuf.release();
+        }
+        dataBufs = Collections.emptyList();
+    }
+
 }
@@ -0,0 +1,51 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.tubemq.corerpc;
+
+import java.nio.channels.FileChannel;
+
+/**
+ * A file range attached to a rpc response, it is transferred to the peer
+ * directly from the file channel without being copied into the heap.
+ * The region does not own the channel, the channel's lifecycle is
+ * managed by the file store which created it.
+ */
+public class RpcDataRegion {
+
+    private final FileChannel channel;
+    private final long position;
+    private final int count;
+
+    public RpcDataRegion(FileChannel channel, long position, int count) {
+        this.channel = channel;
+        this.position = position;
+        this.count = count;
+    }
+
+    public FileChannel getChannel() {
+        return channel;
+    }
+
+    public long getPosition() {
+        return position;
+    }
+
+    public int getCount() {
+        return count;
+    }
+}
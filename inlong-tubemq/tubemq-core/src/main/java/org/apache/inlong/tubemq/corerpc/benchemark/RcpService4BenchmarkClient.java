@@ -26,6 +26,7 @@ import org.apache.inlong.tubemq.corerpc.netty.NettyClientFactory;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class RcpService4BenchmarkClient {
 
@@ -37,6 +38,7 @@ public class RcpService4BenchmarkClient {
     private final SimpleService simpleService;
     private int threadNum = 10;
     private int invokeTimes = 1000000;
+    private final AtomicLong totalCalls = new AtomicLong(0);
 
     /**
      * Initial a benchmark client
@@ -45,9 +47,10 @@ public class RcpService4BenchmarkClient {
      * @param targetPort    the target port
      * @param threadNum     the thread count
      * @param invokeTimes   the invoke count
+     * @param pooledAlloc   whether to use the pooled buffer allocator
      */
     public RcpService4BenchmarkClient(String targetHost, int targetPort, int threadNum,
-            int invokeTimes) {
+            int invokeTimes, boolean pooledAlloc) {
         this.targetHost = targetHost;
         this.targetPort = targetPort;
         this.threadNum = threadNum;
@@ -56,6 +59,7 @@ public class RcpService4BenchmarkClient {
         config.put(RpcConstants.RPC_CODEC, 6);
         config.put(RpcConstants.CONNECT_TIMEOUT, 3000);
         config.put(RpcConstants.REQUEST_TIMEOUT, 10000);
+        config.put(RpcConstants.NETTY_POOLED_ALLOCATOR, pooledAlloc);
 
         clientFactory.configure(config);
         rpcServiceFactory = new RpcServiceFactory(clientFactory);
@@ -65,7 +69,9 @@ public class RcpService4BenchmarkClient {
     }
 
     public static void main(String[] args) throws Exception {
-        new RcpService4BenchmarkClient("127.0.0.1", 8088, 10, 100000).start();
+        // run with "false" to compare with the unpooled allocator
+        boolean pooledAlloc = args.length == 0 || Boolean.parseBoolean(args[0]);
+        new RcpService4BenchmarkClient("127.0.0.1", 8088, 10, 100000, pooledAlloc).start();
     }
 
     /**
@@ -74,6 +80,7 @@ public class RcpService4BenchmarkClient {
      * @throws Exception the exception
      */
     public void start() throws Exception {
+        long startTime = System.currentTimeMillis();
         for (int i = 0; i < threadNum; i++) {
             executorService.submit(new Runnable() {
 
@@ -82,6 +89,7 @@ public class RcpService4BenchmarkClient {
                     long startTime = System.currentTimeMillis();
                     for (int j = 0; j < invokeTimes; j++) {
                         simpleService.echo("This is a test.");
+                        totalCalls.incrementAndGet();
                     }
                     System.out.println(Thread.currentThread().getName() + " execute " + invokeTimes);
                     long endTime = System.currentTimeMillis() - startTime;
@@ -91,5 +99,8 @@ public class RcpService4BenchmarkClient {
         }
         executorService.shutdown();
         executorService.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        long totalTime = Math.max(1, System.currentTimeMillis() - startTime);
+        System.out.println("total calls:" + totalCalls.get() + ", cost time:" + totalTime
+                + " ms, throughput:" + (totalCalls.get() * 1000L / totalTime) + " calls/s");
     }
 }
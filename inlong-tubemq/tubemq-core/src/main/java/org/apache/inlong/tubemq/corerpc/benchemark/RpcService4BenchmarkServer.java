@@ -18,6 +18,7 @@
 package org.apache.inlong.tubemq.corerpc.benchemark;
 
 import org.apache.inlong.tubemq.corerpc.RpcConfig;
+import org.apache.inlong.tubemq.corerpc.RpcConstants;
 import org.apache.inlong.tubemq.corerpc.RpcServiceFactory;
 
 import java.util.concurrent.Executors;
@@ -29,12 +30,15 @@ public class RpcService4BenchmarkServer {
     private SimpleService simpleService;
 
     public static void main(String[] args) throws Exception {
-        new RpcService4BenchmarkServer().start();
+        // run with "false" to compare with the unpooled allocator
+        boolean pooledAlloc = args.length == 0 || Boolean.parseBoolean(args[0]);
+        new RpcService4BenchmarkServer().start(pooledAlloc);
     }
 
-    public void start() throws Exception {
+    public void start(boolean pooledAlloc) throws Exception {
         simpleService = new DefaultSimpleService();
         RpcConfig config = new RpcConfig();
+        config.put(RpcConstants.NETTY_POOLED_ALLOCATOR, pooledAlloc);
         rpcServiceFactory.publishService(SimpleService.class, simpleService, 8088,
                 Executors.newCachedThreadPool(), config);
     }
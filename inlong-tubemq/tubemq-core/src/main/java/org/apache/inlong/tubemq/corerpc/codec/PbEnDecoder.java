@@ -22,8 +22,11 @@ import org.apache.inlong.tubemq.corebase.protobuf.generated.ClientMaster;
 import org.apache.inlong.tubemq.corerpc.RpcConstants;
 
 import com.google.protobuf.AbstractMessageLite;
+import com.google.protobuf.ByteString;
 
+import java.nio.ByteBuffer;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -54,6 +57,7 @@ public class PbEnDecoder {
         rpcMethodMap.put("getMessagesC2B", RpcConstants.RPC_MSG_BROKER_CONSUMER_GETMESSAGE);
         rpcMethodMap.put("consumerCommitC2B", RpcConstants.RPC_MSG_BROKER_CONSUMER_COMMIT);
         rpcMethodMap.put("sendMessageP2B", RpcConstants.RPC_MSG_BROKER_PRODUCER_SENDMESSAGE);
+        rpcMethodMap.put("sendMessagesP2B", RpcConstants.RPC_MSG_BROKER_PRODUCER_SENDMESSAGES);
         rpcMethodMap.put("consumerRegisterC2MV2",
                 RpcConstants.RPC_MSG_MASTER_CONSUMER_REGISTER_V2);
         rpcMethodMap.put("consumerHeartbeatC2MV2",
@@ -130,6 +134,9 @@ public class PbEnDecoder {
                 case RpcConstants.RPC_MSG_BROKER_PRODUCER_SENDMESSAGE: {
                     return ClientBroker.SendMessageRequestP2B.parseFrom(bytes);
                 }
+                case RpcConstants.RPC_MSG_BROKER_PRODUCER_SENDMESSAGES: {
+                    return ClientBroker.SendMessagesRequestP2B.parseFrom(bytes);
+                }
                 case RpcConstants.RPC_MSG_BROKER_CONSUMER_REGISTER: {
                     return ClientBroker.RegisterRequestC2B.parseFrom(bytes);
                 }
@@ -193,6 +200,9 @@ public class PbEnDecoder {
                 case RpcConstants.RPC_MSG_BROKER_PRODUCER_SENDMESSAGE: {
                     return ClientBroker.SendMessageResponseB2P.parseFrom(bytes);
                 }
+                case RpcConstants.RPC_MSG_BROKER_PRODUCER_SENDMESSAGES: {
+                    return ClientBroker.SendMessagesResponseB2P.parseFrom(bytes);
+                }
                 case RpcConstants.RPC_MSG_BROKER_CONSUMER_REGISTER: {
                     return ClientBroker.RegisterResponseB2C.parseFrom(bytes);
                 }
@@ -218,6 +228,33 @@ public class PbEnDecoder {
         }
     }
 
+    /**
+     * Merge the data items attached after the response body into the response message
+     *
+     * @param methodId      the method id
+     * @param response      the decoded response message
+     * @param attachedData  the attached data items
+     * @return              the merged response message
+     * @throws Exception    the exception while merging message
+     */
+    public static Object mergeAttachedData(int methodId, Object response,
+            List<ByteBuffer> attachedData) throws Exception {
+        if (attachedData == null || attachedData.isEmpty()) {
+            return response;
+        }
+        if (methodId == RpcConstants.RPC_MSG_BROKER_CONSUMER_GETMESSAGE) {
+            ByteString rawStoreData = ByteString.EMPTY;
+            for (ByteBuffer dataItem : attachedData) {
+                rawStoreData = rawStoreData.concat(ByteString.copyFrom(dataItem));
+            }
+            return ((ClientBroker.GetMessageResponseB2C) response).toBuilder()
+                    .setRawStoreData(rawStoreData).build();
+        }
+        throw new Exception(new StringBuilder(256)
+                .append("Unsupported attached data for method ID :")
+                .append(methodId).toString());
+    }
+
     public static int getMethIdByName(String methodName) throws Exception {
         Integer methodId = rpcMethodMap.get(methodName);
         if (methodId == null) {
@@ -306,6 +343,7 @@ public class PbEnDecoder {
                     case RpcConstants.RPC_MSG_BROKER_PRODUCER_REGISTER:
                     case RpcConstants.RPC_MSG_BROKER_PRODUCER_HEARTBEAT:
                     case RpcConstants.RPC_MSG_BROKER_PRODUCER_SENDMESSAGE:
+                    case RpcConstants.RPC_MSG_BROKER_PRODUCER_SENDMESSAGES:
                     case RpcConstants.RPC_MSG_BROKER_PRODUCER_CLOSE: {
                         return true;
                     }
@@ -31,7 +31,8 @@ import org.apache.inlong.tubemq.corerpc.exception.ClientClosedException;
 import org.apache.inlong.tubemq.corerpc.exception.NetworkException;
 import org.apache.inlong.tubemq.corerpc.utils.MixUtils;
 
-import com.google.protobuf.ByteString;
+import com.google.protobuf.MessageLite;
+import com.google.protobuf.UnsafeByteOperations;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
@@ -46,6 +47,8 @@ import org.slf4j.LoggerFactory;
 import java.io.EOFException;
 import java.io.IOException;
 import java.nio.channels.UnresolvedAddressException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -133,14 +136,13 @@ public class NettyClient implements Client {
                 RPCProtos.RequestBody.newBuilder();
         rpcBodyBuilder.setMethod(request.getMethodId());
         rpcBodyBuilder.setTimeout(request.getTimeout());
-        rpcBodyBuilder
-                .setRequest(ByteString.copyFrom(PbEnDecoder.pbEncode(request.getRequestData())));
+        // the encoded request is not modified after, so it is wrapped without copying
+        rpcBodyBuilder.setRequest(UnsafeByteOperations
+                .unsafeWrap(PbEnDecoder.pbEncode(request.getRequestData())));
         RPCProtos.RequestBody rpcBodyRequest = rpcBodyBuilder.build();
-        ByteBufferOutputStream bbo = new ByteBufferOutputStream();
-        connectionHeader.writeDelimitedTo(bbo);
-        rpcHeader.writeDelimitedTo(bbo);
-        rpcBodyRequest.writeDelimitedTo(bbo);
-        RpcDataPack pack = new RpcDataPack(request.getSerialNo(), bbo.getBufferList());
+        // the messages are serialized by the encoder into the sending buffer
+        RpcDataPack pack = new RpcDataPack(request.getSerialNo(), new ArrayList<>(0));
+        pack.setMsgLst(Arrays.<MessageLite>asList(connectionHeader, rpcHeader, rpcBodyRequest));
         CallFuture<ResponseWrapper> future = new CallFuture<ResponseWrapper>(callback);
         requests.put(request.getSerialNo(), future);
         if (callback == null) {
@@ -323,6 +325,9 @@ public class NettyClient implements Client {
                             Object responseResult =
                                     PbEnDecoder.pbDecode(false, pbRpcResponse.getMethod(),
                                             pbRpcResponse.getData().toByteArray());
+                            // merge the data items attached after the response body
+                            responseResult = PbEnDecoder.mergeAttachedData(pbRpcResponse.getMethod(),
+                                    responseResult, in.getRemainingBuffers());
 
                             responseWrapper =
                                     new ResponseWrapper(connHeader.getFlag(), dataPack.getSerialNo(),
@@ -361,8 +366,12 @@ public class NettyClient implements Client {
                             NettyClient.this.close();
                         }
                         callback.handleResult(responseWrapper);
+                    } finally {
+                        // the response items are parsed into their own objects
+                        dataPack.releaseDataBufs();
                     }
                 } else {
+                    dataPack.releaseDataBufs();
                     if (logger.isDebugEnabled()) {
                         logger.debug("Missing previous call info, maybe it has been timeout.");
                     }
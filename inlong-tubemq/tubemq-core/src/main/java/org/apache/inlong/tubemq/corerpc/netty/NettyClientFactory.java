@@ -26,6 +26,8 @@ import org.apache.inlong.tubemq.corerpc.exception.LocalConnException;
 import org.apache.inlong.tubemq.corerpc.utils.TSSLEngineUtil;
 
 import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.UnpooledByteBufAllocator;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
@@ -218,6 +220,11 @@ public class NettyClientFactory implements ClientFactory {
                 conf.getInt(RpcConstants.NETTY_WRITE_LOW_MARK, 32 * 1024);
         clientBootstrap.option(ChannelOption.WRITE_BUFFER_WATER_MARK,
                 new WriteBufferWaterMark(nettyWriteLowMark, nettyWriteHighMark));
+        // encode and decode the frames in pooled direct buffers
+        clientBootstrap.option(ChannelOption.ALLOCATOR,
+                conf.getBoolean(RpcConstants.NETTY_POOLED_ALLOCATOR, true)
+                        ? PooledByteBufAllocator.DEFAULT
+                        : UnpooledByteBufAllocator.DEFAULT);
         clientBootstrap.handler(new ChannelInitializer<SocketChannel>() {
 
             @Override
@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.tubemq.corerpc.netty;
+
+import org.apache.inlong.tubemq.corerpc.RpcDataRegion;
+
+import io.netty.channel.FileRegion;
+import io.netty.util.AbstractReferenceCounted;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * FileRegion over a shared file channel.
+ *
+ * Unlike io.netty.channel.DefaultFileRegion, the file channel is not closed
+ * when the region is released, because it still belongs to the file store.
+ */
+public class NettyFileRegion extends AbstractReferenceCounted implements FileRegion {
+
+    private final RpcDataRegion dataRegion;
+    private long transferred;
+
+    public NettyFileRegion(RpcDataRegion dataRegion) {
+        this.dataRegion = dataRegion;
+    }
+
+    @Override
+    public long position() {
+        return dataRegion.getPosition();
+    }
+
+    @Override
+    public long count() {
+        return dataRegion.getCount();
+    }
+
+    @Deprecated
+    @Override
+    public long transfered() {
+        return transferred;
+    }
+
+    @Override
+    public long transferred() {
+        return transferred;
+    }
+
+    @Override
+    public long transferTo(WritableByteChannel target, long position) throws IOException {
+        long count = dataRegion.getCount() - position;
+        if (count < 0 || position < 0) {
+            throw new IllegalArgumentException(new StringBuilder(256)
+                    .append("position out of range: ").append(position)
+                    .append(" (expected: 0 - ").append(dataRegion.getCount() - 1)
+                    .append(')').toString());
+        }
+        if (count == 0) {
+            return 0L;
+        }
+        long written = dataRegion.getChannel()
+                .transferTo(dataRegion.getPosition() + position, count, target);
+        if (written > 0) {
+            transferred += written;
+        } else if (written == 0 && dataRegion.getChannel().size() < dataRegion.getPosition() + count) {
+            throw new IOException(new StringBuilder(256)
+                    .append("Underlying file size ").append(dataRegion.getChannel().size())
+                    .append(" smaller than requested range end ")
+                    .append(dataRegion.getPosition() + count).toString());
+        }
+        return written;
+    }
+
+    @Override
+    public FileRegion retain() {
+        super.retain();
+        return this;
+    }
+
+    @Override
+    public FileRegion retain(int increment) {
+        super.retain(increment);
+        return this;
+    }
+
+    @Override
+    public FileRegion touch() {
+        return this;
+    }
+
+    @Override
+    public FileRegion touch(Object hint) {
+        return this;
+    }
+
+    @Override
+    protected void deallocate() {
+        // the file channel is owned by the file store, nothing to release here
+    }
+}
@@ -22,15 +22,12 @@ import org.apache.inlong.tubemq.corerpc.RpcDataPack;
 import org.apache.inlong.tubemq.corerpc.exception.UnknownProtocolException;
 
 import io.netty.buffer.ByteBuf;
-import io.netty.buffer.Unpooled;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandlerContext;
-import io.netty.handler.codec.MessageToMessageDecoder;
-import io.netty.util.ReferenceCountUtil;
+import io.netty.handler.codec.ByteToMessageDecoder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
@@ -38,7 +35,15 @@ import java.util.concurrent.atomic.AtomicLong;
 
 import static org.apache.inlong.tubemq.corebase.utils.AddressUtils.getRemoteAddressIP;
 
-public class NettyProtocolDecoder extends MessageToMessageDecoder<ByteBuf> {
+/**
+ * Decode the received bytes into RpcDataPacks.
+ *
+ * The received buffers are accumulated by a composite cumulator, so the remaining bytes of
+ * a partially received frame are not copied when the following bytes arrive. Each list item
+ * is a retained slice of the received buffers, which the data pack holds until its reader
+ * calls RpcDataPack.releaseDataBufs().
+ */
+public class NettyProtocolDecoder extends ByteToMessageDecoder {
 
     private static final Logger logger = LoggerFactory.getLogger(NettyProtocolDecoder.class);
 
@@ -50,17 +55,18 @@ public class NettyProtocolDecoder extends MessageToMessageDecoder<ByteBuf> {
     private static AtomicLong lastSizeTime = new AtomicLong(0);
     private boolean packHeaderRead = false;
     private int listSize;
-    private List<RpcDataPack> rpcDataPackList = new ArrayList<>();
     private RpcDataPack dataPack;
-    private ByteBuf lastByteBuf;
+
+    public NettyProtocolDecoder() {
+        super();
+        setCumulator(COMPOSITE_CUMULATOR);
+    }
 
     @Override
     protected void decode(ChannelHandlerContext ctx, ByteBuf buffer, List<Object> out) throws Exception {
-        buffer = convertToNewBuf(buffer);
         while (buffer.readableBytes() > 0) {
             if (!packHeaderRead) {
                 if (buffer.readableBytes() < 12) {
-                    saveRemainedByteBuf(buffer);
                     break;
                 }
                 int frameToken = buffer.readInt();
@@ -75,52 +81,32 @@ public class NettyProtocolDecoder extends MessageToMessageDecoder<ByteBuf> {
             }
             // get PackBody
             if (buffer.readableBytes() < 4) {
-                saveRemainedByteBuf(buffer);
                 break;
             }
-            buffer.markReaderIndex();
-            int length = buffer.readInt();
-            if (buffer.readableBytes() < length) {
-                buffer.resetReaderIndex();
-                saveRemainedByteBuf(buffer);
+            int length = buffer.getInt(buffer.readerIndex());
+            if (buffer.readableBytes() < 4 + length) {
                 break;
             }
-            ByteBuffer bb = ByteBuffer.allocate(length);
-            buffer.readBytes(bb);
-            bb.flip();
-            dataPack.getDataLst().add(bb);
+            buffer.skipBytes(4);
+            ByteBuf item = buffer.readRetainedSlice(length);
+            dataPack.addDataBuf(item);
+            dataPack.getDataLst().add(item.nioBuffer());
             if (dataPack.getDataLst().size() == listSize) {
                 packHeaderRead = false;
-                rpcDataPackList.add(dataPack);
+                out.add(dataPack);
+                dataPack = null;
             }
         }
-        if (rpcDataPackList.size() > 0) {
-            out.addAll(rpcDataPackList);
-            rpcDataPackList.clear();
-        }
     }
 
-    private void saveRemainedByteBuf(ByteBuf byteBuf) {
-        if (byteBuf != null && byteBuf.readableBytes() > 0) {
-            lastByteBuf = Unpooled.copiedBuffer(byteBuf);
-        }
-    }
-
-    private ByteBuf convertToNewBuf(ByteBuf byteBuf) {
-        ByteBuf newByteBuf = byteBuf;
-        int totalReadBytes = byteBuf.readableBytes();
-        if (lastByteBuf != null) {
-            try {
-                totalReadBytes += lastByteBuf.readableBytes();
-                newByteBuf = Unpooled.buffer(totalReadBytes);
-                newByteBuf.writeBytes(lastByteBuf);
-                newByteBuf.writeBytes(byteBuf);
-            } finally {
-                ReferenceCountUtil.release(lastByteBuf);
-            }
-            lastByteBuf = null;
+    @Override
+    protected void handlerRemoved0(ChannelHandlerContext ctx) throws Exception {
+        // release the items of the partially received frame
+        if (dataPack != null) {
+            dataPack.releaseDataBufs();
+            dataPack = null;
         }
-        return newByteBuf;
+        super.handlerRemoved0(ctx);
     }
 
     private void filterIllegalPkgToken(int inParamValue, int allowTokenVal,
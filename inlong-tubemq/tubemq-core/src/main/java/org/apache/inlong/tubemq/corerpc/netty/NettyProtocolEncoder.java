@@ -19,63 +19,130 @@ package org.apache.inlong.tubemq.corerpc.netty;
 
 import org.apache.inlong.tubemq.corerpc.RpcConstants;
 import org.apache.inlong.tubemq.corerpc.RpcDataPack;
+import org.apache.inlong.tubemq.corerpc.RpcDataRegion;
 
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.MessageLite;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.MessageToMessageEncoder;
+import io.netty.handler.ssl.SslHandler;
+import io.netty.util.ReferenceCountUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
-import java.util.Arrays;
-import java.util.Iterator;
+import java.util.Collections;
 import java.util.List;
 
 public class NettyProtocolEncoder extends MessageToMessageEncoder<RpcDataPack> {
 
     private static final Logger logger = LoggerFactory.getLogger(NettyProtocolEncoder.class);
 
+    /**
+     * Encode the data pack into one buffer allocated from the channel's allocator.
+     * The frame size is computed first, then the data buffers are copied and the
+     * protobuf messages are serialized directly into the buffer, each as a
+     * length-prefixed list item.
+     */
     @Override
     protected void encode(ChannelHandlerContext chx, RpcDataPack msg, List<Object> out) {
         RpcDataPack dataPack = msg;
-        try (ByteArrayOutputStream byteOut = new ByteArrayOutputStream()) {
-            byteOut.write(getPackHeader(dataPack).array());
-            List<ByteBuffer> origs = dataPack.getDataLst();
-            Iterator<ByteBuffer> iter = origs.iterator();
-            while (iter.hasNext()) {
-                ByteBuffer entry = iter.next();
-                byteOut.write(getLengthHeader(entry).array());
-                byteOut.write(getLengthBody(entry));
+        ByteBufAllocator allocator =
+                (chx == null) ? ByteBufAllocator.DEFAULT : chx.alloc();
+        List<ByteBuffer> dataLst = (dataPack.getDataLst() == null)
+                ? Collections.emptyList()
+                : dataPack.getDataLst();
+        List<MessageLite> msgLst = dataPack.getMsgLst();
+        int[] msgSizes = new int[msgLst.size()];
+        int frameSize = 12;
+        for (ByteBuffer entry : dataLst) {
+            frameSize += 4 + entry.limit();
+        }
+        for (int i = 0; i < msgSizes.length; i++) {
+            int serializedSize = msgLst.get(i).getSerializedSize();
+            msgSizes[i] = CodedOutputStream.computeUInt32SizeNoTag(serializedSize) + serializedSize;
+            frameSize += 4 + msgSizes[i];
+        }
+        ByteBuf buf = allocator.ioBuffer(frameSize);
+        try {
+            buf.writeInt(RpcConstants.RPC_PROTOCOL_BEGIN_TOKEN);
+            buf.writeInt(dataPack.getSerialNo());
+            buf.writeInt(dataLst.size() + msgLst.size() + dataPack.getRegionLst().size());
+            for (ByteBuffer entry : dataLst) {
+                ByteBuffer content = entry.duplicate();
+                content.rewind();
+                buf.writeInt(content.limit());
+                buf.writeBytes(content);
+            }
+            for (int i = 0; i < msgSizes.length; i++) {
+                buf.writeInt(msgSizes[i]);
+                writeDelimited(buf, msgLst.get(i), msgSizes[i]);
             }
-            byte[] body = byteOut.toByteArray();
-            ByteBuf buf = ByteBufAllocator.DEFAULT.buffer(body.length);
-            buf.writeBytes(body);
-            out.add(buf);
         } catch (IOException e) {
+            buf.release();
             logger.error("encode has exception ", e);
+            return;
+        }
+        out.add(buf);
+        if (dataPack.hasDataRegion()) {
+            try {
+                encodeRegions(chx, allocator, dataPack.getRegionLst(), out);
+            } catch (IOException e) {
+                logger.error("encode has exception ", e);
+            }
         }
     }
 
-    private ByteBuffer getPackHeader(RpcDataPack dataPack) {
-        ByteBuffer header = ByteBuffer.allocate(12);
-        header.putInt(RpcConstants.RPC_PROTOCOL_BEGIN_TOKEN);
-        header.putInt(dataPack.getSerialNo());
-        header.putInt(dataPack.getDataLst().size());
-        header.flip();
-        return header;
-    }
-
-    private ByteBuffer getLengthHeader(ByteBuffer buf) {
-        ByteBuffer header = ByteBuffer.allocate(4);
-        header.putInt(buf.limit());
-        header.flip();
-        return header;
+    /**
+     * Serialize the message with its length prefix at the buffer's writer index.
+     */
+    private void writeDelimited(ByteBuf buf, MessageLite message, int length) throws IOException {
+        ByteBuffer nioBuf = buf.nioBuffer(buf.writerIndex(), length);
+        CodedOutputStream codedOut = CodedOutputStream.newInstance(nioBuf);
+        codedOut.writeUInt32NoTag(message.getSerializedSize());
+        message.writeTo(codedOut);
+        codedOut.flush();
+        buf.writerIndex(buf.writerIndex() + length);
     }
 
-    private byte[] getLengthBody(ByteBuffer buf) {
-        return Arrays.copyOf(buf.array(), buf.limit());
+    /**
+     * Append the file regions, each as a length-prefixed list item.
+     * The region content is sent by FileRegion, it is copied only
+     * when the channel is over TLS, which cannot transfer file directly.
+     */
+    private void encodeRegions(ChannelHandlerContext chx, ByteBufAllocator allocator,
+            List<RpcDataRegion> regions, List<Object> out) throws IOException {
+        boolean overTLS = (chx != null
+                && chx.pipeline().get(SslHandler.class) != null);
+        for (RpcDataRegion region : regions) {
+            if (overTLS) {
+                ByteBuf buf = allocator.ioBuffer(4 + region.getCount());
+                buf.writeInt(region.getCount());
+                int readPos = 0;
+                while (readPos < region.getCount()) {
+                    int readLen = buf.writeBytes(region.getChannel(),
+                            region.getPosition() + readPos, region.getCount() - readPos);
+                    if (readLen < 0) {
+                        // drop the partially encoded frame
+                        buf.release();
+                        for (Object item : out) {
+                            ReferenceCountUtil.release(item);
+                        }
+                        out.clear();
+                        throw new IOException("Region exceeds the end of file!");
+                    }
+                    readPos += readLen;
+                }
+                out.add(buf);
+            } else {
+                ByteBuf lenBuf = allocator.ioBuffer(4);
+                lenBuf.writeInt(region.getCount());
+                out.add(lenBuf);
+                out.add(new NettyFileRegion(region));
+            }
+        }
     }
 }
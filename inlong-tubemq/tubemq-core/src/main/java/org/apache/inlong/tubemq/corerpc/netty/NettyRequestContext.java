@@ -24,17 +24,17 @@ import org.apache.inlong.tubemq.corerpc.RpcDataPack;
 import org.apache.inlong.tubemq.corerpc.codec.PbEnDecoder;
 import org.apache.inlong.tubemq.corerpc.server.RequestContext;
 
-import com.google.protobuf.ByteString;
+import com.google.protobuf.MessageLite;
+import com.google.protobuf.UnsafeByteOperations;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandlerContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.DataOutputStream;
 import java.io.IOException;
 import java.net.SocketAddress;
-import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.List;
 
 public class NettyRequestContext implements RequestContext {
@@ -79,13 +79,23 @@ public class NettyRequestContext implements RequestContext {
             }
             return;
         }
-        dataPack = new RpcDataPack(response.getSerialNo(), prepareResponse(response));
+        dataPack = new RpcDataPack(response.getSerialNo(), new ArrayList<>(0));
+        dataPack.setMsgLst(prepareResponse(response));
+        if (response.isSuccess()) {
+            dataPack.setRegionLst(response.getDataRegions());
+        }
+        final boolean hasDataRegion = dataPack.hasDataRegion();
         ChannelFuture wf = ctx.channel().writeAndFlush(dataPack);
         wf.addListener(new ChannelFutureListener() {
 
             @Override
             public void operationComplete(ChannelFuture future) throws Exception {
                 if (!future.isSuccess()) {
+                    // the frame may be partially sent when transferring file regions,
+                    // so the connection has to be closed to resync with the peer
+                    if (hasDataRegion) {
+                        future.channel().close();
+                    }
                     Throwable exception = future.cause();
                     if (exception != null) {
                         if (logger.isDebugEnabled()) {
@@ -109,52 +119,52 @@ public class NettyRequestContext implements RequestContext {
         });
     }
 
-    protected List<ByteBuffer> prepareResponse(ResponseWrapper response) {
-        ByteBufferOutputStream buf = new ByteBufferOutputStream();
-        DataOutputStream out = new DataOutputStream(buf);
-        try {
-            RPCProtos.RpcConnHeader.Builder connBuilder =
-                    RPCProtos.RpcConnHeader.newBuilder();
-            connBuilder.setFlag(response.getFlagId());
-            connBuilder.build().writeDelimitedTo(out);
-            RPCProtos.ResponseHeader.Builder rpcBuilder =
-                    RPCProtos.ResponseHeader.newBuilder();
-            if (response.isSuccess()) {
-                rpcBuilder.setStatus(RPCProtos.ResponseHeader.Status.SUCCESS);
-                rpcBuilder.setProtocolVer(response.getProtocolVersion());
-                rpcBuilder.build().writeDelimitedTo(out);
-                RPCProtos.RspResponseBody.Builder dataBuilder =
-                        RPCProtos.RspResponseBody.newBuilder();
-                dataBuilder.setMethod(response.getMethodId());
-                if (response.getResponseData() != null) {
-                    try {
-                        dataBuilder.setData(ByteString
-                                .copyFrom(PbEnDecoder.pbEncode(response.getResponseData())));
-                    } catch (Throwable ee) {
-                        if (logger.isDebugEnabled()) {
-                            logger.debug(new StringBuilder(512)
-                                    .append("Exception while creating response ")
-                                    .append(ee).toString());
-                        }
+    /**
+     * Build the response messages, they are serialized by the encoder into the sending buffer.
+     *
+     * @param response   the response
+     * @return           the response messages
+     */
+    protected List<MessageLite> prepareResponse(ResponseWrapper response) {
+        List<MessageLite> messages = new ArrayList<>(3);
+        RPCProtos.RpcConnHeader.Builder connBuilder =
+                RPCProtos.RpcConnHeader.newBuilder();
+        connBuilder.setFlag(response.getFlagId());
+        messages.add(connBuilder.build());
+        RPCProtos.ResponseHeader.Builder rpcBuilder =
+                RPCProtos.ResponseHeader.newBuilder();
+        if (response.isSuccess()) {
+            rpcBuilder.setStatus(RPCProtos.ResponseHeader.Status.SUCCESS);
+            rpcBuilder.setProtocolVer(response.getProtocolVersion());
+            messages.add(rpcBuilder.build());
+            RPCProtos.RspResponseBody.Builder dataBuilder =
+                    RPCProtos.RspResponseBody.newBuilder();
+            dataBuilder.setMethod(response.getMethodId());
+            if (response.getResponseData() != null) {
+                try {
+                    // the encoded data is not modified after, so it is wrapped without copying
+                    dataBuilder.setData(UnsafeByteOperations
+                            .unsafeWrap(PbEnDecoder.pbEncode(response.getResponseData())));
+                } catch (Throwable ee) {
+                    if (logger.isDebugEnabled()) {
+                        logger.debug(new StringBuilder(512)
+                                .append("Exception while creating response ")
+                                .append(ee).toString());
                     }
                 }
-                dataBuilder.build().writeDelimitedTo(out);
-            } else {
-                rpcBuilder.setStatus(RPCProtos.ResponseHeader.Status.ERROR);
-                rpcBuilder.setProtocolVer(response.getProtocolVersion());
-                rpcBuilder.build().writeDelimitedTo(out);
-                RPCProtos.RspExceptionBody.Builder b =
-                        RPCProtos.RspExceptionBody.newBuilder();
-                b.setExceptionName(response.getErrMsg());
-                b.setStackTrace(response.getStackTrace());
-                b.build().writeDelimitedTo(out);
             }
-        } catch (IOException e) {
-            logger.warn(new StringBuilder(512)
-                    .append("Exception while creating response ")
-                    .append(e).toString());
+            messages.add(dataBuilder.build());
+        } else {
+            rpcBuilder.setStatus(RPCProtos.ResponseHeader.Status.ERROR);
+            rpcBuilder.setProtocolVer(response.getProtocolVersion());
+            messages.add(rpcBuilder.build());
+            RPCProtos.RspExceptionBody.Builder b =
+                    RPCProtos.RspExceptionBody.newBuilder();
+            b.setExceptionName(response.getErrMsg());
+            b.setStackTrace(response.getStackTrace());
+            messages.add(b.build());
         }
-        return buf.getBufferList();
+        return messages;
     }
 
     @Override
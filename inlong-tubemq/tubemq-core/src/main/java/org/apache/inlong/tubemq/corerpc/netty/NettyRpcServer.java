@@ -32,8 +32,11 @@ import org.apache.inlong.tubemq.corerpc.server.ServiceRpcServer;
 import org.apache.inlong.tubemq.corerpc.utils.MixUtils;
 import org.apache.inlong.tubemq.corerpc.utils.TSSLEngineUtil;
 
-import com.google.protobuf.Message;
+import com.google.protobuf.MessageLite;
 import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.UnpooledByteBufAllocator;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
@@ -49,10 +52,10 @@ import org.slf4j.LoggerFactory;
 
 import javax.net.ssl.SSLEngine;
 
-import java.io.DataOutputStream;
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
@@ -142,6 +145,13 @@ public class NettyRpcServer implements ServiceRpcServer {
                 conf.getInt(RpcConstants.NETTY_WRITE_LOW_MARK, 32 * 1024);
         bootstrap.option(ChannelOption.WRITE_BUFFER_WATER_MARK,
                 new WriteBufferWaterMark(nettyWriteLowMark, nettyWriteHighMark));
+        // encode and decode the frames in pooled direct buffers
+        ByteBufAllocator allocator =
+                conf.getBoolean(RpcConstants.NETTY_POOLED_ALLOCATOR, true)
+                        ? PooledByteBufAllocator.DEFAULT
+                        : UnpooledByteBufAllocator.DEFAULT;
+        bootstrap.option(ChannelOption.ALLOCATOR, allocator);
+        bootstrap.childOption(ChannelOption.ALLOCATOR, allocator);
         int nettySendBuf = conf.getInt(RpcConstants.NETTY_TCP_SENDBUF, -1);
         if (nettySendBuf > 0) {
             bootstrap.childOption(ChannelOption.SO_SNDBUF, nettySendBuf);
@@ -282,6 +292,7 @@ public class NettyRpcServer implements ServiceRpcServer {
             int rmtVersion = RpcProtocol.RPC_PROTOCOL_VERSION;
             Channel channel = ctx.channel();
             if (channel == null) {
+                dataPack.releaseDataBufs();
                 return;
             }
             String rmtaddrIp = getRemoteAddressIP(channel);
@@ -319,16 +330,20 @@ public class NettyRpcServer implements ServiceRpcServer {
                         }
                     }
                 }
-                List<ByteBuffer> res =
+                List<MessageLite> res =
                         prepareResponse(null, rmtVersion, RPCProtos.ResponseHeader.Status.FATAL,
                                 e1.getClass().getName(), new StringBuilder(512)
                                         .append("IPC server unable to read call parameters:")
                                         .append(e1.getMessage()).toString());
                 if (res != null) {
-                    dataPack.setDataLst(res);
+                    dataPack.setDataLst(new ArrayList<>(0));
+                    dataPack.setMsgLst(res);
                     channel.writeAndFlush(dataPack);
                 }
                 return;
+            } finally {
+                // the request items are parsed into their own objects
+                dataPack.releaseDataBufs();
             }
             try {
                 RequestWrapper requestWrapper =
@@ -343,13 +358,14 @@ public class NettyRpcServer implements ServiceRpcServer {
                         new NettyRequestContext(requestWrapper, ctx, System.currentTimeMillis());
                 protocols.get(this.protocolType).handleRequest(context, rmtaddrIp);
             } catch (Throwable ee) {
-                List<ByteBuffer> res =
+                List<MessageLite> res =
                         prepareResponse(null, rmtVersion, RPCProtos.ResponseHeader.Status.FATAL,
                                 ee.getClass().getName(), new StringBuilder(512)
                                         .append("IPC server handle request error :")
                                         .append(ee.getMessage()).toString());
                 if (res != null) {
-                    dataPack.setDataLst(res);
+                    dataPack.setDataLst(new ArrayList<>(0));
+                    dataPack.setMsgLst(res);
                     ctx.channel().writeAndFlush(dataPack);
                 }
                 return;
@@ -357,7 +373,7 @@ public class NettyRpcServer implements ServiceRpcServer {
         }
 
         /**
-         * prepare and write the message into an list of byte buffers
+         * prepare the response messages, they are serialized by the encoder
          *
          * @param value
          * @param status
@@ -365,38 +381,31 @@ public class NettyRpcServer implements ServiceRpcServer {
          * @param error
          * @return
          */
-        protected List<ByteBuffer> prepareResponse(Object value, int rmtVersion,
+        protected List<MessageLite> prepareResponse(Object value, int rmtVersion,
                 RPCProtos.ResponseHeader.Status status,
                 String errorClass, String error) {
-            ByteBufferOutputStream buf = new ByteBufferOutputStream();
-            DataOutputStream out = new DataOutputStream(buf);
+            List<MessageLite> messages = new ArrayList<>(3);
             errorClass = MixUtils.replaceClassNamePrefix(errorClass, true, rmtVersion);
-            try {
-                RPCProtos.RpcConnHeader.Builder connBuilder =
-                        RPCProtos.RpcConnHeader.newBuilder();
-                connBuilder.setFlag(RpcConstants.RPC_FLAG_MSG_TYPE_RESPONSE);
-                connBuilder.build().writeDelimitedTo(out);
-                RPCProtos.ResponseHeader.Builder builder =
-                        RPCProtos.ResponseHeader.newBuilder();
-                builder.setStatus(status);
-                builder.build().writeDelimitedTo(out);
-                if (error != null) {
-                    RPCProtos.RspExceptionBody.Builder b =
-                            RPCProtos.RspExceptionBody.newBuilder();
-                    b.setExceptionName(errorClass);
-                    b.setStackTrace(error);
-                    b.build().writeDelimitedTo(out);
-                } else {
-                    if (value != null) {
-                        ((Message) value).writeDelimitedTo(out);
-                    }
+            RPCProtos.RpcConnHeader.Builder connBuilder =
+                    RPCProtos.RpcConnHeader.newBuilder();
+            connBuilder.setFlag(RpcConstants.RPC_FLAG_MSG_TYPE_RESPONSE);
+            messages.add(connBuilder.build());
+            RPCProtos.ResponseHeader.Builder builder =
+                    RPCProtos.ResponseHeader.newBuilder();
+            builder.setStatus(status);
+            messages.add(builder.build());
+            if (error != null) {
+                RPCProtos.RspExceptionBody.Builder b =
+                        RPCProtos.RspExceptionBody.newBuilder();
+                b.setExceptionName(errorClass);
+                b.setStackTrace(error);
+                messages.add(b.build());
+            } else {
+                if (value != null) {
+                    messages.add((MessageLite) value);
                 }
-            } catch (IOException e) {
-                logger.warn(new StringBuilder(512)
-                        .append("Exception while creating response ")
-                        .append(e).toString());
             }
-            return buf.getBufferList();
+            return messages;
         }
     }
 }
@@ -25,6 +25,7 @@ import org.apache.inlong.tubemq.corerpc.codec.PbEnDecoder;
 import org.apache.inlong.tubemq.corerpc.exception.ServiceStoppingException;
 import org.apache.inlong.tubemq.corerpc.exception.StandbyException;
 import org.apache.inlong.tubemq.corerpc.server.RequestContext;
+import org.apache.inlong.tubemq.corerpc.server.RpcResponseAttachment;
 import org.apache.inlong.tubemq.corerpc.utils.MixUtils;
 
 import org.slf4j.Logger;
@@ -153,7 +154,9 @@ public class RpcProtocol implements Protocol {
                     new ResponseWrapper(RpcConstants.RPC_FLAG_MSG_TYPE_RESPONSE,
                             requestWrapper.getSerialNo(), requestWrapper.getServiceType(),
                             RPC_PROTOCOL_VERSION, requestWrapper.getMethodId(), result);
+            responseWrapper.setDataRegions(RpcResponseAttachment.takeRegions());
         } catch (Throwable e2) {
+            RpcResponseAttachment.takeRegions();
             String errorClass = null;
             String errorInfo = null;
             if (e2.getCause() != null && e2.getCause() instanceof StandbyException) {
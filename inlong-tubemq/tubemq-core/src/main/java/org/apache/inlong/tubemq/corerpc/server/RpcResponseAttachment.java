@@ -0,0 +1,55 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.tubemq.corerpc.server;
+
+import org.apache.inlong.tubemq.corerpc.RpcDataRegion;
+
+import java.util.List;
+
+/**
+ * Holds the file regions that the service method wants to send after its response body.
+ *
+ * The service method and the response writing run in the same rpc handler thread,
+ * so the regions are bound to the current thread and taken back by the protocol
+ * handler once the method returns.
+ */
+public class RpcResponseAttachment {
+
+    private static final ThreadLocal<List<RpcDataRegion>> attachedRegions =
+            new ThreadLocal<>();
+
+    /**
+     * Attach file regions to the response of the request being processed.
+     *
+     * @param dataRegions   the file regions to transfer
+     */
+    public static void attachRegions(List<RpcDataRegion> dataRegions) {
+        attachedRegions.set(dataRegions);
+    }
+
+    /**
+     * Take out and clear the attached file regions of current thread.
+     *
+     * @return   the attached file regions, or null if not set
+     */
+    public static List<RpcDataRegion> takeRegions() {
+        List<RpcDataRegion> dataRegions = attachedRegions.get();
+        attachedRegions.remove();
+        return dataRegions;
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.tubemq.corebase.compress;
+
+import org.apache.inlong.tubemq.corebase.Message;
+import org.apache.inlong.tubemq.corebase.utils.MessageFlagUtils;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class MsgCompressUtilsTest {
+
+    @Test
+    public void testCompressAndDecompress() throws Exception {
+        StringBuilder strBuff = new StringBuilder(4096);
+        for (int i = 0; i < 100; i++) {
+            strBuff.append("2023-01-01 00:00:00 INFO tube log line ").append(i).append("\n");
+        }
+        byte[] data = strBuff.toString().getBytes(StandardCharsets.UTF_8);
+        for (MsgCompressType compressType : MsgCompressType.values()) {
+            byte[] compressed = MsgCompressUtils.compress(compressType, data);
+            if (compressType != MsgCompressType.NONE) {
+                assertTrue(compressed.length < data.length);
+            }
+            assertArrayEquals(data, MsgCompressUtils.decompress(compressType, compressed));
+        }
+    }
+
+    @Test
+    public void testCompressFlag() {
+        int flag = 1;
+        assertFalse(MessageFlagUtils.isCompressed(flag));
+        assertEquals(MsgCompressType.NONE, MessageFlagUtils.getCompressType(flag));
+        for (MsgCompressType compressType : MsgCompressType.values()) {
+            int newFlag = MessageFlagUtils.setCompressType(flag, compressType);
+            // the attribute flag is kept
+            assertTrue(MessageFlagUtils.hasAttribute(newFlag));
+            assertEquals(compressType, MessageFlagUtils.getCompressType(newFlag));
+            assertEquals(compressType != MsgCompressType.NONE,
+                    MessageFlagUtils.isCompressed(newFlag));
+        }
+    }
+
+    @Test
+    public void testIllegalLz4Length() throws Exception {
+        byte[] data = "tube lz4 data".getBytes(StandardCharsets.UTF_8);
+        byte[] compressed = MsgCompressUtils.compress(MsgCompressType.LZ4, data);
+        // negative and over-max length prefixes are rejected before allocating
+        for (int illegalLen : new int[]{-1, Integer.MAX_VALUE}) {
+            byte[] illegal = compressed.clone();
+            ByteBuffer.wrap(illegal).putInt(illegalLen);
+            try {
+                MsgCompressUtils.decompress(MsgCompressType.LZ4, illegal);
+                fail("illegal lz4 length " + illegalLen + " should be rejected");
+            } catch (IOException e) {
+                assertTrue(e.getMessage().contains("out of range"));
+            }
+        }
+        // a length prefix not matching the compressed block
+        byte[] mismatched = compressed.clone();
+        ByteBuffer.wrap(mismatched).putInt(data.length + 100);
+        try {
+            MsgCompressUtils.decompress(MsgCompressType.LZ4, mismatched);
+            fail("mismatched lz4 length should be rejected");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().startsWith("Illegal lz4 compressed data"));
+        }
+    }
+
+    @Test
+    public void testConcurrentDecompress() throws Exception {
+        byte[] data = "tube concurrent decompress data".getBytes(StandardCharsets.UTF_8);
+        for (MsgCompressType compressType : MsgCompressType.values()) {
+            if (compressType == MsgCompressType.NONE) {
+                continue;
+            }
+            Message message = new Message(1L, "topic", MsgCompressUtils.compress(compressType, data),
+                    "", MessageFlagUtils.setCompressType(0, compressType)) {
+            };
+            // the listener threads get the decompressed payload whoever decompresses it
+            int threadCnt = 8;
+            CountDownLatch startLatch = new CountDownLatch(1);
+            ExecutorService executor = Executors.newFixedThreadPool(threadCnt);
+            try {
+                List<Future<byte[]>> results = new ArrayList<>(threadCnt);
+                for (int i = 0; i < threadCnt; i++) {
+                    results.add(executor.submit(() -> {
+                        startLatch.await();
+                        return message.getData();
+                    }));
+                }
+                startLatch.countDown();
+                for (Future<byte[]> result : results) {
+                    assertArrayEquals(data, result.get());
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+            assertFalse(MessageFlagUtils.isCompressed(message.getFlag()));
+            assertArrayEquals(data, message.getData());
+        }
+    }
+}
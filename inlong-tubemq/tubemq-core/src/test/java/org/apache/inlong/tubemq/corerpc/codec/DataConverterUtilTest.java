@@ -17,20 +17,29 @@
 
 package org.apache.inlong.tubemq.corerpc.codec;
 
+import org.apache.inlong.tubemq.corebase.Message;
 import org.apache.inlong.tubemq.corebase.cluster.BrokerInfo;
 import org.apache.inlong.tubemq.corebase.cluster.Partition;
 import org.apache.inlong.tubemq.corebase.cluster.SubscribeInfo;
 import org.apache.inlong.tubemq.corebase.cluster.TopicInfo;
+import org.apache.inlong.tubemq.corebase.compress.MsgCompressType;
+import org.apache.inlong.tubemq.corebase.compress.MsgCompressUtils;
+import org.apache.inlong.tubemq.corebase.protobuf.generated.ClientBroker;
+import org.apache.inlong.tubemq.corebase.utils.CheckSum;
 import org.apache.inlong.tubemq.corebase.utils.DataConverterUtil;
+import org.apache.inlong.tubemq.corebase.utils.MessageFlagUtils;
 import org.apache.inlong.tubemq.corebase.utils.Tuple2;
 
+import com.google.protobuf.ByteString;
 import org.junit.Test;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 public class DataConverterUtilTest {
@@ -76,4 +85,78 @@ public class DataConverterUtilTest {
 
     }
 
+    @Test
+    public void testRawStoreMessageConvert() {
+        byte[] firstData = "first message".getBytes();
+        byte[] secondData = "second message".getBytes();
+        ByteBuffer storeBuffer = ByteBuffer.allocate(
+                2 * 52 + firstData.length + secondData.length);
+        putStoreRecord(storeBuffer, 1L, firstData);
+        putStoreRecord(storeBuffer, 2L, secondData);
+        storeBuffer.flip();
+        List<Message> messages = DataConverterUtil.convertRawStoreMessage("tube",
+                ByteString.copyFrom(storeBuffer));
+        assertEquals(2, messages.size());
+        assertEquals("first message", new String(messages.get(0).getData()));
+        assertEquals("second message", new String(messages.get(1).getData()));
+        assertEquals("tube", messages.get(1).getTopic());
+        // broken tail record is ignored
+        storeBuffer.rewind();
+        ByteString brokenData = ByteString.copyFrom(storeBuffer)
+                .substring(0, storeBuffer.limit() - 3);
+        messages = DataConverterUtil.convertRawStoreMessage("tube", brokenData);
+        assertEquals(1, messages.size());
+    }
+
+    @Test
+    public void testCompressedMessageConvert() throws Exception {
+        StringBuilder strBuff = new StringBuilder(1024);
+        for (int i = 0; i < 20; i++) {
+            strBuff.append("compressed message body ").append(i).append(";");
+        }
+        byte[] data = strBuff.toString().getBytes();
+        byte[] compressed = MsgCompressUtils.compress(MsgCompressType.LZ4, data);
+        // the attribute is kept as plain text before the compressed data
+        byte[] attrData = "$msgType$=test".getBytes();
+        ByteBuffer payload = ByteBuffer.allocate(4 + attrData.length + compressed.length);
+        payload.putInt(attrData.length);
+        payload.put(attrData);
+        payload.put(compressed);
+        int flag = MessageFlagUtils.setCompressType(1, MsgCompressType.LZ4);
+        ClientBroker.TransferedMessage transferedMessage =
+                ClientBroker.TransferedMessage.newBuilder()
+                        .setMessageId(1L)
+                        .setCheckSum(CheckSum.crc32(payload.array()))
+                        .setFlag(flag)
+                        .setPayLoadData(ByteString.copyFrom(payload.array())).build();
+        List<ClientBroker.TransferedMessage> transferedMessages = new ArrayList<>();
+        transferedMessages.add(transferedMessage);
+        List<Message> messages = DataConverterUtil.convertMessage("tube", transferedMessages);
+        assertEquals(1, messages.size());
+        Message message = messages.get(0);
+        // the attribute is available without decompressing the data
+        assertEquals("test", message.getMsgType());
+        assertEquals(compressed.length, message.getRawDataSize());
+        // the data is decompressed on the first access
+        assertEquals(strBuff.toString(), new String(message.getData()));
+        assertEquals(data.length, message.getRawDataSize());
+        assertFalse(MessageFlagUtils.isCompressed(message.getFlag()));
+    }
+
+    private void putStoreRecord(ByteBuffer buffer, long msgId, byte[] data) {
+        // message length, token and checksum
+        buffer.putInt(48 + data.length);
+        buffer.putInt(0x2C998B8);
+        buffer.putInt(CheckSum.crc32(data));
+        // queueId, queue offset, received time, report address and key code
+        buffer.putInt(0);
+        buffer.putLong(0L);
+        buffer.putLong(System.currentTimeMillis());
+        buffer.putInt(0);
+        buffer.putInt(0);
+        // message id, flag and data
+        buffer.putLong(msgId);
+        buffer.putInt(0);
+        buffer.put(data);
+    }
 }
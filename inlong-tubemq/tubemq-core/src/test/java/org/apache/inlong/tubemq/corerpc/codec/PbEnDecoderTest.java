@@ -17,12 +17,15 @@
 
 package org.apache.inlong.tubemq.corerpc.codec;
 
+import org.apache.inlong.tubemq.corebase.protobuf.generated.ClientBroker;
 import org.apache.inlong.tubemq.corebase.protobuf.generated.ClientMaster;
 import org.apache.inlong.tubemq.corerpc.RpcConstants;
 
+import com.google.protobuf.ByteString;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 public class PbEnDecoderTest {
 
@@ -46,4 +49,37 @@ public class PbEnDecoderTest {
         assertEquals(decodeObject.getHostName(), object.getHostName());
     }
 
+    @Test
+    public void testBatchSendEncodeAndDecoder() throws Exception {
+        // mock a batch send request
+        ClientBroker.SendMessagesRequestP2B.Builder builder =
+                ClientBroker.SendMessagesRequestP2B.newBuilder();
+        builder.setClientId("10001");
+        builder.setTopicName("test");
+        builder.setPartitionId(1);
+        builder.setSentAddr(2);
+        for (int i = 0; i < 3; i++) {
+            ClientBroker.SendMessageItem.Builder itemBuilder =
+                    ClientBroker.SendMessageItem.newBuilder();
+            itemBuilder.setData(ByteString.copyFrom(new byte[]{(byte) i}));
+            itemBuilder.setFlag(1);
+            itemBuilder.setCheckSum(-1);
+            builder.addMsgItems(itemBuilder.build());
+        }
+        ClientBroker.SendMessagesRequestP2B object = builder.build();
+        // the method must be accepted by the broker write service
+        assertEquals(RpcConstants.RPC_MSG_BROKER_PRODUCER_SENDMESSAGES,
+                PbEnDecoder.getMethIdByName("sendMessagesP2B"));
+        assertTrue(PbEnDecoder.isValidServiceTypeAndMethod(
+                RpcConstants.RPC_SERVICE_TYPE_BROKER_WRITE_SERVICE,
+                RpcConstants.RPC_MSG_BROKER_PRODUCER_SENDMESSAGES, null));
+        // encode and decode pb
+        ClientBroker.SendMessagesRequestP2B decodeObject =
+                (ClientBroker.SendMessagesRequestP2B) PbEnDecoder.pbDecode(true,
+                        RpcConstants.RPC_MSG_BROKER_PRODUCER_SENDMESSAGES,
+                        PbEnDecoder.pbEncode(object));
+        assertEquals(object.getTopicName(), decodeObject.getTopicName());
+        assertEquals(3, decodeObject.getMsgItemsCount());
+        assertEquals(2, decodeObject.getMsgItems(2).getData().byteAt(0));
+    }
 }
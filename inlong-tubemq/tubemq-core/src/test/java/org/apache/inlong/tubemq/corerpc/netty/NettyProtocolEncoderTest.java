@@ -17,14 +17,25 @@
 
 package org.apache.inlong.tubemq.corerpc.netty;
 
+import org.apache.inlong.tubemq.corebase.protobuf.generated.RPCProtos;
+import org.apache.inlong.tubemq.corerpc.RpcConstants;
 import org.apache.inlong.tubemq.corerpc.RpcDataPack;
+import org.apache.inlong.tubemq.corerpc.RpcDataRegion;
+import org.apache.inlong.tubemq.corerpc.protocol.RpcProtocol;
 
+import com.google.protobuf.MessageLite;
 import io.netty.buffer.ByteBuf;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.util.ReferenceCountUtil;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.File;
+import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -58,4 +69,57 @@ public class NettyProtocolEncoderTest {
             e.printStackTrace();
         }
     }
+
+    @Test
+    public void encodeAndDecodeSplitFrame() throws Exception {
+        EmbeddedChannel channel =
+                new EmbeddedChannel(new NettyProtocolEncoder(), new NettyProtocolDecoder());
+        RpcDataPack obj = new RpcDataPack(456, new ArrayList<>(0));
+        obj.getDataLst().add(ByteBuffer.wrap("abc".getBytes()));
+        RPCProtos.RpcConnHeader connHeader = RPCProtos.RpcConnHeader.newBuilder()
+                .setFlag(RpcConstants.RPC_FLAG_MSG_TYPE_REQUEST).build();
+        RPCProtos.RequestHeader requestHeader = RPCProtos.RequestHeader.newBuilder()
+                .setServiceType(1).setProtocolVer(RpcProtocol.RPC_PROTOCOL_VERSION).build();
+        obj.setMsgLst(Arrays.<MessageLite>asList(connHeader, requestHeader));
+        Assert.assertTrue(channel.writeOutbound(obj));
+        ByteBuf frame = channel.readOutbound();
+        // deliver the frame in two parts, the decoder waits for the remaining bytes
+        int splitPos = frame.readableBytes() / 2;
+        Assert.assertFalse(channel.writeInbound(frame.retainedSlice(0, splitPos)));
+        Assert.assertTrue(channel.writeInbound(
+                frame.retainedSlice(splitPos, frame.readableBytes() - splitPos)));
+        frame.release();
+        RpcDataPack dataPack = channel.readInbound();
+        Assert.assertEquals(456, dataPack.getSerialNo());
+        Assert.assertEquals(3, dataPack.getDataLst().size());
+        Assert.assertEquals(ByteBuffer.wrap("abc".getBytes()), dataPack.getDataLst().get(0));
+        ByteBufferInputStream dis = new ByteBufferInputStream(
+                dataPack.getDataLst().subList(1, 3));
+        Assert.assertEquals(connHeader, RPCProtos.RpcConnHeader.parseDelimitedFrom(dis));
+        Assert.assertEquals(requestHeader, RPCProtos.RequestHeader.parseDelimitedFrom(dis));
+        // the items are slices of the received frame, held until the pack is released
+        Assert.assertTrue(frame.refCnt() > 0);
+        dataPack.releaseDataBufs();
+        Assert.assertEquals(0, frame.refCnt());
+        Assert.assertFalse(channel.finish());
+    }
+
+    @Test
+    public void encodeRegionWithoutContext() throws Exception {
+        File file = File.createTempFile("encode-region", ".dat");
+        file.deleteOnExit();
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.write("region".getBytes());
+            RpcDataPack obj = new RpcDataPack(789, new ArrayList<>(0));
+            obj.setRegionLst(Collections.singletonList(
+                    new RpcDataRegion(raf.getChannel(), 0, 6)));
+            List<Object> out = new ArrayList<>();
+            new NettyProtocolEncoder().encode(null, obj, out);
+            Assert.assertEquals(3, out.size());
+            Assert.assertTrue(out.get(2) instanceof NettyFileRegion);
+            for (Object item : out) {
+                ReferenceCountUtil.release(item);
+            }
+        }
+    }
 }
@@ -66,6 +66,17 @@ public class BrokerConfig extends AbstractFileConfig {
     private long offsetStgCacheFlushMs = 5000L;
     private long offsetStgFileSyncMs = offsetStgCacheFlushMs + 1000L;
     private long offsetStgSyncDurWarnMs = 20000L;
+    // the count of group shards that commit the changed offsets in parallel
+    private int offsetStgCommitShardCnt =
+            TServerConstants.CFG_DEFAULT_OFFSET_STG_COMMIT_SHARD_CNT;
+    // whether to append the changed offsets to the offset log instead of storing the snapshot
+    private boolean enableOffsetStgLog = false;
+    // the offset log size that triggers the compaction into the snapshot
+    private long offsetStgLogCompactSize =
+            TServerConstants.CFG_DEFAULT_OFFSET_STG_LOG_COMPACT_SIZE;
+    // the max interval of the offset log compaction
+    private long offsetStgLogCompactDurMs =
+            TServerConstants.CFG_DEFAULT_OFFSET_STG_LOG_COMPACT_DUR_MS;
     // tcp write service thread count
     private int tcpWriteServiceThread =
             Runtime.getRuntime().availableProcessors() * 2;
@@ -137,6 +148,21 @@ public class BrokerConfig extends AbstractFileConfig {
             TServerConstants.CFG_DEFAULT_GROUP_OFFSET_SCAN_DUR;
     // whether to enable the memory cache storage, the default is true, open the memory cache
     private boolean enableMemStore = true;
+    // whether to send file stored messages to consumer by zero-copy file transfer
+    private boolean enableZeroCopyRead = false;
+    // whether to offload the expired segments to the tiered store instead of deleting them
+    private boolean enableTieredStore = false;
+    // the root path of the tiered store
+    private String tieredStorePath = "";
+    // the max valid duration of the offloaded segments
+    private long tieredStoreValidDurMs =
+            TServerConstants.CFG_DEFAULT_TIERED_STORE_VALID_DUR_MS;
+    // the max size of the tiered store read cache
+    private long tieredReadCacheSize =
+            TServerConstants.CFG_DEFAULT_TIERED_READ_CACHE_SIZE;
+    // the read-ahead size of the tiered store read cache
+    private int tieredReadAheadSize =
+            TServerConstants.CFG_DEFAULT_TIERED_READ_AHEAD_SIZE;
 
     public BrokerConfig() {
         super();
@@ -146,6 +172,30 @@ public class BrokerConfig extends AbstractFileConfig {
         return enableMemStore;
     }
 
+    public boolean isEnableZeroCopyRead() {
+        return enableZeroCopyRead;
+    }
+
+    public boolean isEnableTieredStore() {
+        return enableTieredStore;
+    }
+
+    public String getTieredStorePath() {
+        return tieredStorePath;
+    }
+
+    public long getTieredStoreValidDurMs() {
+        return tieredStoreValidDurMs;
+    }
+
+    public long getTieredReadCacheSize() {
+        return tieredReadCacheSize;
+    }
+
+    public int getTieredReadAheadSize() {
+        return tieredReadAheadSize;
+    }
+
     public boolean isUpdateConsumerOffsets() {
         return this.updateConsumerOffsets;
     }
@@ -318,6 +368,22 @@ public class BrokerConfig extends AbstractFileConfig {
                     Math.min(getLong(brokerSect, "offsetStgSyncDurWarnMs"),
                             this.offsetStgFileSyncMs + 1000L);
         }
+        if (TStringUtils.isNotBlank(brokerSect.get("offsetStgCommitShardCnt"))) {
+            this.offsetStgCommitShardCnt = MixedUtils.mid(
+                    getInt(brokerSect, "offsetStgCommitShardCnt"),
+                    1, TServerConstants.CFG_MAX_OFFSET_STG_COMMIT_SHARD_CNT);
+        }
+        if (TStringUtils.isNotBlank(brokerSect.get("enableOffsetStgLog"))) {
+            this.enableOffsetStgLog = this.getBoolean(brokerSect, "enableOffsetStgLog");
+        }
+        if (TStringUtils.isNotBlank(brokerSect.get("offsetStgLogCompactSize"))) {
+            this.offsetStgLogCompactSize = Math.max(getLong(brokerSect, "offsetStgLogCompactSize"),
+                    TServerConstants.CFG_MIN_OFFSET_STG_LOG_COMPACT_SIZE);
+        }
+        if (TStringUtils.isNotBlank(brokerSect.get("offsetStgLogCompactDurMs"))) {
+            this.offsetStgLogCompactDurMs = Math.max(getLong(brokerSect, "offsetStgLogCompactDurMs"),
+                    TServerConstants.CFG_MIN_OFFSET_STG_LOG_COMPACT_DUR_MS);
+        }
         if (TStringUtils.isNotBlank(brokerSect.get("defEthName"))) {
             this.defEthName = brokerSect.get("defEthName").trim();
         }
@@ -459,6 +525,32 @@ public class BrokerConfig extends AbstractFileConfig {
         if (TStringUtils.isNotBlank(brokerSect.get("enableMemStore"))) {
             this.enableMemStore = this.getBoolean(brokerSect, "enableMemStore");
         }
+        if (TStringUtils.isNotBlank(brokerSect.get("enableZeroCopyRead"))) {
+            this.enableZeroCopyRead = this.getBoolean(brokerSect, "enableZeroCopyRead");
+        }
+        if (TStringUtils.isNotBlank(brokerSect.get("enableTieredStore"))) {
+            this.enableTieredStore = this.getBoolean(brokerSect, "enableTieredStore");
+        }
+        if (this.enableTieredStore) {
+            if (TStringUtils.isBlank(brokerSect.get("tieredStorePath"))) {
+                throw new IllegalArgumentException(new StringBuilder(256)
+                        .append("tieredStorePath is null or Blank in ")
+                        .append(SECT_TOKEN_BROKER).append(" section!").toString());
+            }
+            this.tieredStorePath = brokerSect.get("tieredStorePath").trim();
+        }
+        if (TStringUtils.isNotBlank(brokerSect.get("tieredStoreValidDurMs"))) {
+            this.tieredStoreValidDurMs = Math.max(getLong(brokerSect, "tieredStoreValidDurMs"),
+                    TServerConstants.CFG_MIN_TIERED_STORE_VALID_DUR_MS);
+        }
+        if (TStringUtils.isNotBlank(brokerSect.get("tieredReadCacheSize"))) {
+            this.tieredReadCacheSize = Math.max(getLong(brokerSect, "tieredReadCacheSize"),
+                    TServerConstants.CFG_MIN_TIERED_READ_CACHE_SIZE);
+        }
+        if (TStringUtils.isNotBlank(brokerSect.get("tieredReadAheadSize"))) {
+            this.tieredReadAheadSize = MixedUtils.mid(getInt(brokerSect, "tieredReadAheadSize"),
+                    0, TServerConstants.CFG_MAX_TIERED_READ_AHEAD_SIZE);
+        }
     }
 
     public long getLogClearupDurationMs() {
@@ -601,4 +693,20 @@ public class BrokerConfig extends AbstractFileConfig {
     public long getOffsetStgSyncDurWarnMs() {
         return offsetStgSyncDurWarnMs;
     }
+
+    public int getOffsetStgCommitShardCnt() {
+        return offsetStgCommitShardCnt;
+    }
+
+    public boolean isEnableOffsetStgLog() {
+        return enableOffsetStgLog;
+    }
+
+    public long getOffsetStgLogCompactSize() {
+        return offsetStgLogCompactSize;
+    }
+
+    public long getOffsetStgLogCompactDurMs() {
+        return offsetStgLogCompactDurMs;
+    }
 }
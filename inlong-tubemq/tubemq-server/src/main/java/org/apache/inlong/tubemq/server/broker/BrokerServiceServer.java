@@ -31,8 +31,12 @@ import org.apache.inlong.tubemq.corebase.protobuf.generated.ClientBroker.HeartBe
 import org.apache.inlong.tubemq.corebase.protobuf.generated.ClientBroker.HeartBeatResponseB2C;
 import org.apache.inlong.tubemq.corebase.protobuf.generated.ClientBroker.RegisterRequestC2B;
 import org.apache.inlong.tubemq.corebase.protobuf.generated.ClientBroker.RegisterResponseB2C;
+import org.apache.inlong.tubemq.corebase.protobuf.generated.ClientBroker.SendMessageItem;
 import org.apache.inlong.tubemq.corebase.protobuf.generated.ClientBroker.SendMessageRequestP2B;
 import org.apache.inlong.tubemq.corebase.protobuf.generated.ClientBroker.SendMessageResponseB2P;
+import org.apache.inlong.tubemq.corebase.protobuf.generated.ClientBroker.SendMessageResult;
+import org.apache.inlong.tubemq.corebase.protobuf.generated.ClientBroker.SendMessagesRequestP2B;
+import org.apache.inlong.tubemq.corebase.protobuf.generated.ClientBroker.SendMessagesResponseB2P;
 import org.apache.inlong.tubemq.corebase.protobuf.generated.ClientBroker.TransferedMessage;
 import org.apache.inlong.tubemq.corebase.rv.ProcessResult;
 import org.apache.inlong.tubemq.corebase.utils.AddressUtils;
@@ -43,6 +47,7 @@ import org.apache.inlong.tubemq.corebase.utils.ServiceStatusHolder;
 import org.apache.inlong.tubemq.corebase.utils.TStringUtils;
 import org.apache.inlong.tubemq.corerpc.RpcConfig;
 import org.apache.inlong.tubemq.corerpc.RpcConstants;
+import org.apache.inlong.tubemq.corerpc.server.RpcResponseAttachment;
 import org.apache.inlong.tubemq.corerpc.service.BrokerReadService;
 import org.apache.inlong.tubemq.corerpc.service.BrokerWriteService;
 import org.apache.inlong.tubemq.server.Server;
@@ -58,6 +63,7 @@ import org.apache.inlong.tubemq.server.broker.offset.OffsetStorageInfo;
 import org.apache.inlong.tubemq.server.broker.stats.BrokerSrvStatsHolder;
 import org.apache.inlong.tubemq.server.broker.stats.TrafficStatsService;
 import org.apache.inlong.tubemq.server.broker.stats.audit.AuditUtils;
+import org.apache.inlong.tubemq.server.broker.utils.DataStoreUtils;
 import org.apache.inlong.tubemq.server.common.TServerConstants;
 import org.apache.inlong.tubemq.server.common.TStatusConstants;
 import org.apache.inlong.tubemq.server.common.aaaserver.CertificateBrokerHandler;
@@ -320,6 +326,9 @@ public class BrokerServiceServer implements BrokerReadService, BrokerWriteServic
         final String topicName = (String) result.getRetData();
         final int partitionId = request.getPartitionId();
         boolean isEscFlowCtrl = request.hasEscFlowCtrl() && request.getEscFlowCtrl();
+        // file regions can not be transferred directly over TLS
+        boolean isZeroCopyRead = this.tubeConfig.isEnableZeroCopyRead() && !overtls
+                && request.hasRawStoreSupport() && request.getRawStoreSupport();
         String partStr = getPartStr(groupName, topicName, partitionId);
         String consumerId = null;
         ConsumerNodeInfo consumerNodeInfo = consumerRegisterMap.get(partStr);
@@ -377,7 +386,8 @@ public class BrokerServiceServer implements BrokerReadService, BrokerWriteServic
             GetMessageResult msgResult =
                     getMessages(dataStore, consumerNodeInfo, groupName, topicName, partitionId,
                             request.getLastPackConsumed(), request.getManualCommitOffset(),
-                            clientId, this.tubeConfig.getHostName(), rmtAddrInfo, isEscFlowCtrl, strBuffer);
+                            clientId, this.tubeConfig.getHostName(), rmtAddrInfo,
+                            isEscFlowCtrl, isZeroCopyRead, strBuffer);
             if (msgResult.isSuccess) {
                 long endTime = System.currentTimeMillis();
                 consumerNodeInfo.setLastProcInfo(endTime,
@@ -393,6 +403,10 @@ public class BrokerServiceServer implements BrokerReadService, BrokerWriteServic
                 builder.setErrMsg("OK!");
                 builder.addAllMessages(msgResult.transferedMessageList);
                 builder.setMaxOffset(msgResult.getMaxOffset());
+                if (!msgResult.dataRegionList.isEmpty()) {
+                    // the stored messages are sent after the response body
+                    RpcResponseAttachment.attachRegions(msgResult.dataRegionList);
+                }
                 BrokerSrvStatsHolder.updGetMsgLatency(endTime - startTime);
                 return builder.build();
             } else {
@@ -435,6 +449,7 @@ public class BrokerServiceServer implements BrokerReadService, BrokerWriteServic
      * @param brokerAddr              the broker ip
      * @param rmtAddrInfo             the remote address
      * @param isEscFlowCtrl           whether escape flow control
+     * @param isZeroCopyRead          whether read file stored messages as file regions
      * @param sb                      the string buffer
      * @return    the query result
      * @throws IOException the exception during processing
@@ -445,7 +460,8 @@ public class BrokerServiceServer implements BrokerReadService, BrokerWriteServic
             final int partitionId, final boolean lastConsumed,
             final boolean isManualCommitOffset, final String sentAddr,
             final String brokerAddr, final String rmtAddrInfo,
-            boolean isEscFlowCtrl, final StringBuilder sb) throws IOException {
+            boolean isEscFlowCtrl, boolean isZeroCopyRead,
+            final StringBuilder sb) throws IOException {
         long requestOffset =
                 offsetManager.getOffset(msgStore, group, topic,
                         partitionId, isManualCommitOffset, lastConsumed, sb);
@@ -473,11 +489,11 @@ public class BrokerServiceServer implements BrokerReadService, BrokerWriteServic
                     .append("#").append(group).append("#").append(partitionId).toString();
             sb.delete(0, sb.length());
             GetMessageResult msgQueryResult =
-                    msgStore.getMessages(reqSwitch, requestOffset,
-                            partitionId, consumerNodeInfo, baseKey, msgDataSizeLimit, 0);
+                    msgStore.getMessages(reqSwitch, requestOffset, partitionId,
+                            consumerNodeInfo, baseKey, msgDataSizeLimit, 0, isZeroCopyRead);
             offsetManager.bookOffset(group, topic, partitionId,
                     msgQueryResult.lastReadOffset, isManualCommitOffset,
-                    msgQueryResult.transferedMessageList.isEmpty(), sb);
+                    msgQueryResult.isEmptyResult(), sb);
             msgQueryResult.setWaitTime(maxDataOffset - msgQueryResult.lastRdDataOffset);
             return msgQueryResult;
         } catch (Throwable e1) {
@@ -706,6 +722,172 @@ public class BrokerServiceServer implements BrokerReadService, BrokerWriteServic
         }
     }
 
+    /**
+     * Handle producer's batch sendMessages request.
+     * The messages of the batch belong to the same partition, they are
+     * all appended to the store in one locked section, or none of them.
+     *
+     * @param request       the request
+     * @param rmtAddress    the remote ip
+     * @param overtls       whether transfer over TLS
+     * @return              the response
+     * @throws Throwable    the exception during processing
+     */
+    @Override
+    public SendMessagesResponseB2P sendMessagesP2B(SendMessagesRequestP2B request,
+            final String rmtAddress,
+            boolean overtls) throws Throwable {
+        ProcessResult result = new ProcessResult();
+        final long startTime = System.currentTimeMillis();
+        final StringBuilder strBuffer = new StringBuilder(512);
+        SendMessagesResponseB2P.Builder builder = SendMessagesResponseB2P.newBuilder();
+        builder.setSuccess(false);
+        if (!this.started.get()
+                || ServiceStatusHolder.isWriteServiceStop()) {
+            builder.setErrCode(TErrCodeConstants.SERVICE_UNAVAILABLE);
+            builder.setErrMsg("Write StoreService temporary unavailable!");
+            return builder.build();
+        }
+        if (!serverAuthHandler.identityValidUserInfo(request.getAuthInfo(), true, result)) {
+            builder.setErrCode(result.getErrCode());
+            builder.setErrMsg(result.getErrMsg());
+            return builder.build();
+        }
+        final CertifiedInfo certifiedInfo = (CertifiedInfo) result.getRetData();
+        // get and check clientId field
+        if (!PBParameterUtils.checkClientId(request.getClientId(), strBuffer, result)) {
+            builder.setErrCode(result.getErrCode());
+            builder.setErrMsg(result.getErrMsg());
+            return builder.build();
+        }
+        // get and check topicName and partitionId field
+        final int partitionId = request.getPartitionId();
+        if (!PBParameterUtils.getTopicNamePartIdInfo(true, request.getTopicName(),
+                partitionId, this.metadataManager, strBuffer, result)) {
+            builder.setErrCode(result.getErrCode());
+            builder.setErrMsg(result.getErrMsg());
+            return builder.build();
+        }
+        final TopicMetadata topicMetadata = (TopicMetadata) result.getRetData();
+        final String topicName = topicMetadata.getTopic();
+        final int msgCnt = request.getMsgItemsCount();
+        if (msgCnt <= 0) {
+            builder.setErrCode(TErrCodeConstants.BAD_REQUEST);
+            builder.setErrMsg("message count is zero!");
+            return builder.build();
+        }
+        // check all the messages before appending
+        final byte[][] msgDatas = new byte[msgCnt][];
+        final int[] checkSums = new int[msgCnt];
+        final int[] msgTypeCodes = new int[msgCnt];
+        final int[] msgFlags = new int[msgCnt];
+        final AppendResult[] appendResults = new AppendResult[msgCnt];
+        long totalDataLength = 0;
+        for (int i = 0; i < msgCnt; i++) {
+            SendMessageItem msgItem = request.getMsgItems(i);
+            String msgType = null;
+            msgTypeCodes[i] = -1;
+            if (TStringUtils.isNotBlank(msgItem.getMsgType())) {
+                msgType = msgItem.getMsgType().trim();
+                msgTypeCodes[i] = msgType.hashCode();
+            }
+            msgDatas[i] = msgItem.getData().toByteArray();
+            final int dataLength = msgDatas[i].length;
+            if (dataLength <= 0) {
+                builder.setErrCode(TErrCodeConstants.BAD_REQUEST);
+                builder.setErrMsg(strBuffer.append("data length is zero, message index is ")
+                        .append(i).toString());
+                return builder.build();
+            }
+            if (dataLength > topicMetadata.getMaxMsgSize()) {
+                builder.setErrCode(TErrCodeConstants.BAD_REQUEST);
+                builder.setErrMsg(strBuffer.append("data length over max length, allowed max length is ")
+                        .append(topicMetadata.getMaxMsgSize())
+                        .append(", data length is ").append(dataLength)
+                        .append(", message index is ").append(i).toString());
+                return builder.build();
+            }
+            checkSums[i] = CheckSum.crc32(msgDatas[i]);
+            if (msgItem.getCheckSum() != -1 && checkSums[i] != msgItem.getCheckSum()) {
+                builder.setErrCode(TErrCodeConstants.FORBIDDEN);
+                builder.setErrMsg(strBuffer.append("Checksum msg data failure: ")
+                        .append(msgItem.getCheckSum()).append(" of ").append(topicName)
+                        .append(" not equal to the data's checksum of ")
+                        .append(checkSums[i]).append(", message index is ")
+                        .append(i).toString());
+                return builder.build();
+            }
+            if (!serverAuthHandler.validProduceAuthorizeInfo(
+                    certifiedInfo.getUserName(), topicName, msgType, rmtAddress, result)) {
+                builder.setErrCode(result.getErrCode());
+                builder.setErrMsg(result.getErrMsg());
+                return builder.build();
+            }
+            msgFlags[i] = msgItem.getFlag();
+            appendResults[i] = new AppendResult();
+            totalDataLength += dataLength;
+        }
+        try {
+            final MessageStore store =
+                    this.storeManager.getOrCreateMessageStore(topicName, partitionId);
+            if (store.isBatchOverCacheCapacity(msgCnt,
+                    totalDataLength + (long) msgCnt * DataStoreUtils.STORE_DATA_HEADER_LEN)) {
+                builder.setErrCode(TErrCodeConstants.BAD_REQUEST);
+                builder.setErrMsg(strBuffer.append("Put messages failed from ")
+                        .append(tubeConfig.getHostName())
+                        .append(", batch over the memory cache capacity! message count is ")
+                        .append(msgCnt).append(", total data length is ")
+                        .append(totalDataLength).append(", split the batch to send")
+                        .toString());
+                return builder.build();
+            }
+            if (store.appendMsgs(appendResults, checkSums, msgDatas, msgTypeCodes,
+                    msgFlags, partitionId, request.getSentAddr(),
+                    System.currentTimeMillis(), 3, 1)) {
+                for (int i = 0; i < msgCnt; i++) {
+                    SendMessageItem msgItem = request.getMsgItems(i);
+                    String baseKey = strBuffer.append(topicName)
+                            .append("#").append(AddressUtils.intToIp(request.getSentAddr()))
+                            .append("#").append(tubeConfig.getHostName())
+                            .append("#").append(partitionId)
+                            .append("#").append(msgItem.getMsgTime()).toString();
+                    strBuffer.delete(0, strBuffer.length());
+                    putCounterGroup.add(baseKey, 1L, msgDatas[i].length);
+                    AuditUtils.addProduceRecord(topicName, msgItem.getMsgType(),
+                            msgItem.getMsgTime(), 1, msgDatas[i].length);
+                    builder.addMsgResults(SendMessageResult.newBuilder()
+                            .setMessageId(appendResults[i].getMsgId())
+                            .setAppendTime(appendResults[i].getAppendTime())
+                            .setAppendOffset(appendResults[i].getAppendIndexOffset()));
+                }
+                builder.setSuccess(true);
+                builder.setRequireAuth(certifiedInfo.isReAuth());
+                builder.setErrCode(TErrCodeConstants.SUCCESS);
+                builder.setErrMsg("Ok");
+                BrokerSrvStatsHolder.updSendMsgLatency(System.currentTimeMillis() - startTime);
+                return builder.build();
+            } else {
+                builder.setErrCode(TErrCodeConstants.SERVER_RECEIVE_OVERFLOW);
+                builder.setErrMsg(strBuffer.append("Put messages failed from ")
+                        .append(tubeConfig.getHostName())
+                        .append(", server receive message overflow! message count is ")
+                        .append(msgCnt).append(", total data length is ")
+                        .append(totalDataLength).toString());
+                return builder.build();
+            }
+        } catch (final Throwable ex) {
+            logger.error("Put messages failed ", ex);
+            strBuffer.delete(0, strBuffer.length());
+            builder.setSuccess(false);
+            builder.clearMsgResults();
+            builder.setErrCode(TErrCodeConstants.INTERNAL_SERVER_ERROR);
+            builder.setErrMsg(strBuffer.append("Put messages failed from ")
+                    .append(tubeConfig.getHostName()).append(" ")
+                    .append((ex.getMessage() != null ? ex.getMessage() : " ")).toString());
+            return builder.build();
+        }
+    }
+
     /**
      * append group current offset to storage
      *
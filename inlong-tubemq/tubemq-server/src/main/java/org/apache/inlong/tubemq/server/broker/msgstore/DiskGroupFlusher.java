@@ -0,0 +1,217 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.tubemq.server.broker.msgstore;
+
+import org.apache.inlong.tubemq.corebase.utils.ServiceStatusHolder;
+import org.apache.inlong.tubemq.server.broker.msgstore.disk.MsgFileStore;
+import org.apache.inlong.tubemq.server.broker.stats.BrokerSrvStatsHolder;
+import org.apache.inlong.tubemq.server.broker.stats.DiskSyncStatsHolder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileStore;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Group-commit flusher of the file stores.
+ *
+ * The file stores submit their flush requests after the append lock is released, the requests
+ * are merged per disk, and each disk's flush thread syncs all the pending stores in one pass,
+ * so the disks are flushed in parallel and the writers are not blocked by the sync operation.
+ * Once the flusher is closed, the flush requests are synced in the caller's thread.
+ */
+public class DiskGroupFlusher {
+
+    private static final Logger logger =
+            LoggerFactory.getLogger(DiskGroupFlusher.class);
+    // the max wait time of the pending flushes when closing
+    private static final long CLOSE_WAIT_MS = 30000L;
+    // disk id to flush group
+    private final ConcurrentHashMap<String, DiskFlushGroup> flushGroups =
+            new ConcurrentHashMap<>();
+    private final AtomicBoolean stopped = new AtomicBoolean(false);
+    // group sync statistics of the data directories
+    private final DiskSyncStatsHolder diskSyncStatsHolder = new DiskSyncStatsHolder();
+
+    /**
+     * Submit the flush request of the file store.
+     *
+     * @param diskId          the disk id of the file store
+     * @param fileStore       the file store to be flushed
+     * @param forceMetadata   whether force flush the meta-data
+     */
+    public void submit(String diskId, MsgFileStore fileStore, boolean forceMetadata) {
+        if (this.stopped.get()) {
+            syncStore(diskId, fileStore, forceMetadata);
+            return;
+        }
+        DiskFlushGroup flushGroup = this.flushGroups.get(diskId);
+        if (flushGroup == null) {
+            DiskFlushGroup newGroup = new DiskFlushGroup(diskId, diskSyncStatsHolder);
+            flushGroup = this.flushGroups.putIfAbsent(diskId, newGroup);
+            if (flushGroup == null) {
+                flushGroup = newGroup;
+                logger.info(new StringBuilder(512)
+                        .append("[Group Flusher] Created flush group for disk ")
+                        .append(diskId).toString());
+            } else {
+                newGroup.close();
+            }
+        }
+        flushGroup.submit(fileStore, forceMetadata);
+    }
+
+    public DiskSyncStatsHolder getDiskSyncStatsHolder() {
+        return diskSyncStatsHolder;
+    }
+
+    /**
+     * Close the flusher, the flushes pending in the groups are
+     * completed before it returns.
+     */
+    public void close() {
+        if (this.stopped.compareAndSet(false, true)) {
+            for (DiskFlushGroup flushGroup : this.flushGroups.values()) {
+                flushGroup.close();
+            }
+            this.flushGroups.clear();
+        }
+    }
+
+    /**
+     * Get the disk id of the store path, the stores on the same
+     * file system are flushed in the same group.
+     *
+     * @param storePath    the store path
+     * @return             the disk id
+     */
+    public static String getDiskId(String storePath) {
+        try {
+            FileStore fileStore = Files.getFileStore(new File(storePath).toPath());
+            return fileStore.toString();
+        } catch (Throwable e) {
+            return storePath;
+        }
+    }
+
+    private static void syncStore(String diskId, MsgFileStore fileStore, boolean forceMetadata) {
+        try {
+            fileStore.syncDiskFile(forceMetadata);
+        } catch (Throwable e) {
+            if (e instanceof IOException) {
+                ServiceStatusHolder.addWriteIOErrCnt();
+                BrokerSrvStatsHolder.incDiskIOExcCnt();
+            }
+            logger.error(new StringBuilder(512)
+                    .append("[Group Flusher] Flush ")
+                    .append(fileStore.getStoreKey()).append(" on disk ")
+                    .append(diskId).append(" failure").toString(), e);
+        }
+    }
+
+    private static class DiskFlushGroup implements Runnable {
+
+        private final String diskId;
+        private final DiskSyncStatsHolder syncStatsHolder;
+        private final ExecutorService executor;
+        // pending file stores, and whether force flush the meta-data
+        private final Map<MsgFileStore, Boolean> pendingStores = new LinkedHashMap<>();
+        private boolean scheduled = false;
+
+        public DiskFlushGroup(final String diskId,
+                final DiskSyncStatsHolder syncStatsHolder) {
+            this.diskId = diskId;
+            this.syncStatsHolder = syncStatsHolder;
+            this.executor = Executors.newSingleThreadExecutor(
+                    r -> new Thread(r, "Broker Disk Group Flush Thread-" + diskId));
+        }
+
+        public void submit(MsgFileStore fileStore, boolean forceMetadata) {
+            synchronized (this.pendingStores) {
+                Boolean curForce = this.pendingStores.get(fileStore);
+                this.pendingStores.put(fileStore,
+                        (curForce != null && curForce) || forceMetadata);
+                if (this.scheduled) {
+                    return;
+                }
+                this.scheduled = true;
+            }
+            try {
+                this.executor.execute(this);
+            } catch (Throwable e) {
+                // the group is closing, sync the pending stores in the caller's thread
+                run();
+            }
+        }
+
+        @Override
+        public void run() {
+            Map<MsgFileStore, Boolean> flushStores;
+            while (true) {
+                synchronized (this.pendingStores) {
+                    if (this.pendingStores.isEmpty()) {
+                        this.scheduled = false;
+                        return;
+                    }
+                    flushStores = new LinkedHashMap<>(this.pendingStores);
+                    this.pendingStores.clear();
+                }
+                long startTime = System.currentTimeMillis();
+                for (Map.Entry<MsgFileStore, Boolean> entry : flushStores.entrySet()) {
+                    syncStore(this.diskId, entry.getKey(), entry.getValue());
+                }
+                long syncDlt = System.currentTimeMillis() - startTime;
+                // count the pass once per data directory taking part in it
+                Map<String, Integer> dirStoreCnts = new HashMap<>();
+                for (MsgFileStore fileStore : flushStores.keySet()) {
+                    dirStoreCnts.merge(fileStore.getBaseStorePath(), 1, Integer::sum);
+                }
+                for (Map.Entry<String, Integer> entry : dirStoreCnts.entrySet()) {
+                    this.syncStatsHolder.addGroupSyncStats(
+                            entry.getKey(), syncDlt, entry.getValue());
+                }
+            }
+        }
+
+        public void close() {
+            this.executor.shutdown();
+            try {
+                if (!this.executor.awaitTermination(CLOSE_WAIT_MS, TimeUnit.MILLISECONDS)) {
+                    logger.warn(new StringBuilder(512)
+                            .append("[Group Flusher] Wait flush group of disk ")
+                            .append(this.diskId).append(" timeout").toString());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            // sync the stores submitted while the group was closing
+            run();
+        }
+    }
+}
@@ -30,6 +30,7 @@ import org.apache.inlong.tubemq.server.broker.msgstore.disk.MsgFileStore;
 import org.apache.inlong.tubemq.server.broker.msgstore.disk.Segment;
 import org.apache.inlong.tubemq.server.broker.msgstore.mem.GetCacheMsgResult;
 import org.apache.inlong.tubemq.server.broker.msgstore.mem.MsgMemStore;
+import org.apache.inlong.tubemq.server.broker.msgstore.tiered.TieredStoreService;
 import org.apache.inlong.tubemq.server.broker.nodeinfo.ConsumerNodeInfo;
 import org.apache.inlong.tubemq.server.broker.stats.MsgStoreStatsHolder;
 import org.apache.inlong.tubemq.server.broker.stats.TrafficInfo;
@@ -189,6 +190,28 @@ public class MessageStore implements Closeable {
             int partitionId, ConsumerNodeInfo consumerNodeInfo,
             String statsKeyBase, int msgSizeLimit,
             long reqRcvTime) throws IOException {
+        return getMessages(reqSwitch, requestOffset, partitionId,
+                consumerNodeInfo, statsKeyBase, msgSizeLimit, reqRcvTime, false);
+    }
+
+    /**
+     * Get message from message store. Support the given offset, filter.
+     *
+     * @param reqSwitch            read message from where
+     * @param requestOffset        the request offset to read
+     * @param partitionId          the partitionId for reading messages
+     * @param consumerNodeInfo     the consumer object
+     * @param statsKeyBase        the statistical key prefix
+     * @param msgSizeLimit         the max read size
+     * @param reqRcvTime           the timestamp of the record to be checked
+     * @param isZeroCopyRead       whether to return the file stored messages as file regions
+     * @return                     read result
+     * @throws IOException         the exception during processing
+     */
+    public GetMessageResult getMessages(int reqSwitch, long requestOffset,
+            int partitionId, ConsumerNodeInfo consumerNodeInfo,
+            String statsKeyBase, int msgSizeLimit,
+            long reqRcvTime, boolean isZeroCopyRead) throws IOException {
         // #lizard forgives
         if (this.closed.get()) {
             throw new IllegalStateException(new StringBuilder(512)
@@ -305,7 +328,7 @@ public class MessageStore implements Closeable {
                         consumerNodeInfo.getLastDataRdOffset(), reqNewOffset,
                         indexBuffer, consumerNodeInfo.isFilterConsume(),
                         consumerNodeInfo.getFilterCondCodeSet(),
-                        statsKeyBase, msgSizeLimit, reqRcvTime);
+                        statsKeyBase, msgSizeLimit, reqRcvTime, isZeroCopyRead);
         if (reqSwitch <= 1) {
             retResult.setMaxOffset(getFileIndexMaxOffset());
         } else {
@@ -407,28 +430,11 @@ public class MessageStore implements Closeable {
         long messageId = this.idWorker.nextId();
         // build data buffer
         int msgBufLen = DataStoreUtils.STORE_DATA_HEADER_LEN + dataLength;
-        final ByteBuffer dataBuffer = ByteBuffer.allocate(msgBufLen);
-        dataBuffer.putInt(DataStoreUtils.STORE_DATA_PREFX_LEN + dataLength);
-        dataBuffer.putInt(DataStoreUtils.STORE_DATA_TOKER_BEGIN_VALUE);
-        dataBuffer.putInt(dataCheckSum);
-        dataBuffer.putInt(partitionId);
-        dataBuffer.putLong(-1L);
-        dataBuffer.putLong(receivedTime);
-        dataBuffer.putInt(sentAddr);
-        dataBuffer.putInt(msgTypeCode);
-        dataBuffer.putLong(messageId);
-        dataBuffer.putInt(msgFlag);
-        dataBuffer.put(data);
-        dataBuffer.flip();
+        final ByteBuffer dataBuffer = buildDataBuffer(dataLength, dataCheckSum, data,
+                msgTypeCode, msgFlag, partitionId, sentAddr, receivedTime, messageId);
         // build index buffer
         final ByteBuffer indexBuffer =
-                ByteBuffer.allocate(DataStoreUtils.STORE_INDEX_HEAD_LEN);
-        indexBuffer.putInt(partitionId);
-        indexBuffer.putLong(-1L);
-        indexBuffer.putInt(msgBufLen);
-        indexBuffer.putInt(msgTypeCode);
-        indexBuffer.putLong(receivedTime);
-        indexBuffer.flip();
+                buildIndexBuffer(msgBufLen, msgTypeCode, partitionId, receivedTime);
         appendResult.putReceivedInfo(messageId, receivedTime);
         boolean appendSuss = true;
         long startTime = System.currentTimeMillis();
@@ -475,10 +481,130 @@ public class MessageStore implements Closeable {
         }
     }
 
+    /**
+     * Append a batch of messages of the same partition to store.
+     * With the memory cache enabled, the whole batch is appended to the
+     * cache in one locked section.
+     *
+     * @param appendResults   the append results
+     * @param dataChecksums   the check sums of message data
+     * @param datas           the message data
+     * @param msgTypeCodes    the filter item hash codes
+     * @param msgFlags        the message flags
+     * @param partitionId     the partitionId for append messages
+     * @param sentAddr        the address to send the messages to
+     * @param receivedTime    the received time of messages
+     * @param count           the retry count while full
+     * @param waitRetryMs     the wait duration while retry
+     *
+     * @return                the process result
+     * @throws IOException    the exception during processing
+     */
+    public boolean appendMsgs(AppendResult[] appendResults, int[] dataChecksums,
+            byte[][] datas, int[] msgTypeCodes, int[] msgFlags,
+            int partitionId, int sentAddr, long receivedTime,
+            int count, long waitRetryMs) throws IOException {
+        if (this.closed.get()) {
+            throw new IllegalStateException(new StringBuilder(512)
+                    .append("[Data Store] Closed MessageStore for storeKey ")
+                    .append(this.storeKey).toString());
+        }
+        final int msgCnt = datas.length;
+        int totalBufLen = 0;
+        final ByteBuffer[] dataBuffers = new ByteBuffer[msgCnt];
+        final ByteBuffer[] indexBuffers = new ByteBuffer[msgCnt];
+        for (int i = 0; i < msgCnt; i++) {
+            long messageId = this.idWorker.nextId();
+            int msgBufLen = DataStoreUtils.STORE_DATA_HEADER_LEN + datas[i].length;
+            dataBuffers[i] = buildDataBuffer(datas[i].length, dataChecksums[i], datas[i],
+                    msgTypeCodes[i], msgFlags[i], partitionId, sentAddr, receivedTime, messageId);
+            indexBuffers[i] =
+                    buildIndexBuffer(msgBufLen, msgTypeCodes[i], partitionId, receivedTime);
+            appendResults[i].putReceivedInfo(messageId, receivedTime);
+            totalBufLen += msgBufLen;
+        }
+        long startTime = System.currentTimeMillis();
+        if (this.tubeConfig.isEnableMemStore()) {
+            if (isBatchOverCacheCapacity(msgCnt, totalBufLen)) {
+                // never fits the cache, do not trigger flushes and retry for it
+                msgStoreStatsHolder.addMsgWriteFailure();
+                return false;
+            }
+            boolean appendSuss;
+            do {
+                this.writeCacheMutex.readLock().lock();
+                try {
+                    appendSuss = this.msgMemStore.appendMsgs(msgStoreStatsHolder,
+                            partitionId, msgTypeCodes, receivedTime, indexBuffers,
+                            totalBufLen, dataBuffers, appendResults);
+                } finally {
+                    this.writeCacheMutex.readLock().unlock();
+                }
+                if (appendSuss) {
+                    long writeDlt = System.currentTimeMillis() - startTime;
+                    for (ByteBuffer dataBuffer : dataBuffers) {
+                        msgStoreStatsHolder.addMsgWriteSuccess(dataBuffer.limit(), writeDlt);
+                    }
+                    return true;
+                }
+                // trigger the cache flush, and wait it to complete
+                triggerFlushAndAddMsg(false, false, -1, 0, 0, null, 0, null, null);
+                ThreadUtils.sleep(waitRetryMs);
+            } while (count-- >= 0);
+            msgStoreStatsHolder.addMsgWriteFailure();
+            return false;
+        } else {
+            // without the memory cache, append the messages to file one by one,
+            // the index and data offsets are assigned by the file store per message
+            StringBuilder strBuffer =
+                    new StringBuilder(TBaseConstants.BUILDER_DEFAULT_SIZE);
+            for (int i = 0; i < msgCnt; i++) {
+                Tuple3<Boolean, Long, Long> appendRet =
+                        this.msgFileStore.appendMsg(false, startTime, strBuffer, 1,
+                                DataStoreUtils.STORE_INDEX_HEAD_LEN, indexBuffers[i],
+                                dataBuffers[i].limit(), dataBuffers[i], receivedTime, receivedTime);
+                appendResults[i].putAppendResult(appendRet.getF1(), appendRet.getF2());
+                if (!appendRet.getF0()) {
+                    msgStoreStatsHolder.addMsgWriteFailure();
+                    return false;
+                }
+                msgStoreStatsHolder.addMsgWriteSuccess(dataBuffers[i].limit(),
+                        System.currentTimeMillis() - startTime);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Check whether the batch exceeds the capacity of the memory cache.
+     * Such a batch can not be appended to the cache even after it is flushed,
+     * so it must be rejected instead of retried.
+     *
+     * @param msgCnt        the message count of the batch
+     * @param totalBufLen   the total stored length of the batch, including the headers
+     *
+     * @return              whether the batch is over the cache capacity
+     */
+    public boolean isBatchOverCacheCapacity(int msgCnt, long totalBufLen) {
+        if (!this.tubeConfig.isEnableMemStore()) {
+            return false;
+        }
+        return msgCnt > this.writeCacheMaxCnt
+                || totalBufLen > this.writeCacheMaxSize;
+    }
+
     public void getMsgStoreStatsInfo(boolean needRefresh, StringBuilder strBuff) {
         msgStoreStatsHolder.getMsgStoreStatsInfo(needRefresh, strBuff);
     }
 
+    public DiskGroupFlusher getDiskGroupFlusher() {
+        return msgStoreMgr == null ? null : msgStoreMgr.getDiskGroupFlusher();
+    }
+
+    public TieredStoreService getTieredStoreService() {
+        return msgStoreMgr == null ? null : msgStoreMgr.getTieredStoreService();
+    }
+
     public MsgStoreStatsHolder getMsgStoreStatsHolder() {
         return this.msgStoreStatsHolder;
     }
@@ -905,4 +1031,38 @@ public class MessageStore implements Closeable {
         }
         msgMemStoreBeingFlush.batchFlush(msgFileStore, strBuffer);
     }
+
+    private ByteBuffer buildDataBuffer(int dataLength, int dataCheckSum,
+            byte[] data, int msgTypeCode, int msgFlag,
+            int partitionId, int sentAddr,
+            long receivedTime, long messageId) {
+        final ByteBuffer dataBuffer =
+                ByteBuffer.allocate(DataStoreUtils.STORE_DATA_HEADER_LEN + dataLength);
+        dataBuffer.putInt(DataStoreUtils.STORE_DATA_PREFX_LEN + dataLength);
+        dataBuffer.putInt(DataStoreUtils.STORE_DATA_TOKER_BEGIN_VALUE);
+        dataBuffer.putInt(dataCheckSum);
+        dataBuffer.putInt(partitionId);
+        dataBuffer.putLong(-1L);
+        dataBuffer.putLong(receivedTime);
+        dataBuffer.putInt(sentAddr);
+        dataBuffer.putInt(msgTypeCode);
+        dataBuffer.putLong(messageId);
+        dataBuffer.putInt(msgFlag);
+        dataBuffer.put(data);
+        dataBuffer.flip();
+        return dataBuffer;
+    }
+
+    private ByteBuffer buildIndexBuffer(int msgBufLen, int msgTypeCode,
+            int partitionId, long receivedTime) {
+        final ByteBuffer indexBuffer =
+                ByteBuffer.allocate(DataStoreUtils.STORE_INDEX_HEAD_LEN);
+        indexBuffer.putInt(partitionId);
+        indexBuffer.putLong(-1L);
+        indexBuffer.putInt(msgBufLen);
+        indexBuffer.putInt(msgTypeCode);
+        indexBuffer.putLong(receivedTime);
+        indexBuffer.flip();
+        return indexBuffer;
+    }
 }
@@ -27,6 +27,8 @@ import org.apache.inlong.tubemq.server.broker.exception.StartupException;
 import org.apache.inlong.tubemq.server.broker.metadata.MetadataManager;
 import org.apache.inlong.tubemq.server.broker.metadata.TopicMetadata;
 import org.apache.inlong.tubemq.server.broker.msgstore.disk.GetMessageResult;
+import org.apache.inlong.tubemq.server.broker.msgstore.tiered.LocalFileObjectStore;
+import org.apache.inlong.tubemq.server.broker.msgstore.tiered.TieredStoreService;
 import org.apache.inlong.tubemq.server.broker.nodeinfo.ConsumerNodeInfo;
 import org.apache.inlong.tubemq.server.broker.offset.topicpub.TopicPubInfo;
 import org.apache.inlong.tubemq.server.broker.utils.DataStoreUtils;
@@ -81,6 +83,10 @@ public class MessageStoreManager implements StoreService {
     private final ScheduledExecutorService unFlushDiskScheduler;
     // message on memory sink to disk operation scheduler.
     private final ScheduledExecutorService unFlushMemScheduler;
+    // group-commit flusher of the file stores.
+    private final DiskGroupFlusher diskGroupFlusher = new DiskGroupFlusher();
+    // tiered store of the expired segments, null if not enabled.
+    private final TieredStoreService tieredStoreService;
     // max transfer size.
     private final int maxMsgTransferSize;
     // the status that is deleting topic.
@@ -102,6 +108,18 @@ public class MessageStoreManager implements StoreService {
         this.isRemovingTopic.set(false);
         this.maxMsgTransferSize =
                 Math.min(tubeConfig.getTransferSize(), DataStoreUtils.MAX_MSG_TRANSFER_SIZE);
+        if (tubeConfig.isEnableTieredStore()) {
+            this.tieredStoreService = new TieredStoreService(
+                    new LocalFileObjectStore(tubeConfig.getTieredStorePath()),
+                    tubeConfig.getTieredStoreValidDurMs(),
+                    tubeConfig.getTieredReadCacheSize(),
+                    tubeConfig.getTieredReadAheadSize());
+            logger.info(new StringBuilder(512)
+                    .append("[Store Manager] Enabled tiered store on ")
+                    .append(tubeConfig.getTieredStorePath()).toString());
+        } else {
+            this.tieredStoreService = null;
+        }
         this.metadataManager.addPropertyChangeListener("topicConfigMap", new PropertyChangeListener() {
 
             @Override
@@ -176,6 +194,9 @@ public class MessageStoreManager implements StoreService {
             this.logClearScheduler.shutdownNow();
             this.unFlushDiskScheduler.shutdownNow();
             this.unFlushMemScheduler.shutdownNow();
+            // complete the pending flushes before the stores are closed,
+            // the stores flushed while closing are synced in place
+            this.diskGroupFlusher.close();
             for (Map.Entry<String, ConcurrentHashMap<Integer, MessageStore>> entry : this.dataStores.entrySet()) {
                 if (entry.getValue() != null) {
                     ConcurrentHashMap<Integer, MessageStore> subMap = entry.getValue();
@@ -193,6 +214,9 @@ public class MessageStoreManager implements StoreService {
                 }
             }
             this.dataStores.clear();
+            if (this.tieredStoreService != null) {
+                this.tieredStoreService.close();
+            }
             logger.info("[Store Manager] Store Manager stopped!");
         }
     }
@@ -395,6 +419,14 @@ public class MessageStoreManager implements StoreService {
         return maxMsgTransferSize;
     }
 
+    public DiskGroupFlusher getDiskGroupFlusher() {
+        return diskGroupFlusher;
+    }
+
+    public TieredStoreService getTieredStoreService() {
+        return tieredStoreService;
+    }
+
     public Map<String, ConcurrentHashMap<Integer, MessageStore>> getMessageStores() {
         return Collections.unmodifiableMap(this.dataStores);
     }
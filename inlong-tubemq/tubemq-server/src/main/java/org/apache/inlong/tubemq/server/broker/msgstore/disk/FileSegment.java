@@ -20,16 +20,19 @@ package org.apache.inlong.tubemq.server.broker.msgstore.disk;
 import org.apache.inlong.tubemq.corebase.TBaseConstants;
 import org.apache.inlong.tubemq.corebase.utils.CheckSum;
 import org.apache.inlong.tubemq.corebase.utils.ServiceStatusHolder;
+import org.apache.inlong.tubemq.corerpc.RpcDataRegion;
 import org.apache.inlong.tubemq.server.broker.stats.BrokerSrvStatsHolder;
 import org.apache.inlong.tubemq.server.broker.utils.DataStoreUtils;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import sun.nio.ch.DirectBuffer;
 
 import java.io.File;
 import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
@@ -59,6 +62,11 @@ public class FileSegment implements Segment {
     // the latest record append time
     private final AtomicLong rightAppendTime =
             new AtomicLong(TBaseConstants.META_VALUE_UNDEFINED);
+    // read-only mapping of the immutable index segment
+    private volatile MappedByteBuffer mappedIndex = null;
+    private final AtomicBoolean mapAttempted = new AtomicBoolean(false);
+    // sparse time index of the index segment
+    private final SegmentTimeIndex timeIndex = new SegmentTimeIndex();
 
     public FileSegment(long start, File file, SegmentType type) throws IOException {
         this(start, file, true, type, Long.MAX_VALUE);
@@ -150,6 +158,7 @@ public class FileSegment implements Segment {
     @Override
     public void close() {
         if (this.closed.compareAndSet(false, true)) {
+            this.mappedIndex = null;
             try {
                 if (this.channel.isOpen()) {
                     if (this.mutable) {
@@ -173,6 +182,7 @@ public class FileSegment implements Segment {
     @Override
     public void deleteFile() {
         this.closed.set(true);
+        unmapIndexFile();
         try {
             if (this.channel.isOpen()) {
                 if (this.mutable) {
@@ -226,6 +236,7 @@ public class FileSegment implements Segment {
             throw new UnsupportedOperationException("[File Store] Segment is closed!");
         }
         final long offset = this.cachedSize.get();
+        final int bufStartPos = buf.position();
         int sizeInBytes = 0;
         while (buf.hasRemaining()) {
             sizeInBytes += this.channel.write(buf);
@@ -236,12 +247,23 @@ public class FileSegment implements Segment {
             if (offset == 0) {
                 this.leftAppendTime.set(leftTime);
             }
+            // keep the loaded sparse time index up to date
+            if (this.timeIndex.isLoaded()) {
+                for (int pos = bufStartPos; pos + DataStoreUtils.STORE_INDEX_HEAD_LEN <= buf.position(); pos +=
+                        DataStoreUtils.STORE_INDEX_HEAD_LEN) {
+                    this.timeIndex.addRecord(
+                            (offset + pos - bufStartPos) / DataStoreUtils.STORE_INDEX_HEAD_LEN,
+                            buf.getLong(pos + DataStoreUtils.INDEX_POS_TIME_RECV));
+                }
+            }
         }
         return this.start + offset;
     }
 
     /**
      * Flush file cache to disk.
+     * Only the content appended before the force operation is marked as flushed,
+     * since the segment may be appended while it is flushed outside the append lock.
      *
      * @param force whether to brush
      * @return the latest writable position
@@ -250,8 +272,13 @@ public class FileSegment implements Segment {
      */
     @Override
     public long flush(boolean force) throws IOException {
+        final long curCachedSize = this.cachedSize.get();
         this.channel.force(force);
-        this.flushedSize.set(this.cachedSize.get());
+        long curFlushedSize = this.flushedSize.get();
+        while (curFlushedSize < curCachedSize
+                && !this.flushedSize.compareAndSet(curFlushedSize, curCachedSize)) {
+            curFlushedSize = this.flushedSize.get();
+        }
         return this.start + this.flushedSize.get();
     }
 
@@ -367,6 +394,11 @@ public class FileSegment implements Segment {
         if (this.isExpired()) {
             // Todo: conduct file closed and expired cases.
         }
+        final MappedByteBuffer mappedBuf = getMappedIndex();
+        if (mappedBuf != null) {
+            readMapped(mappedBuf, bf, absOffset - start);
+            return;
+        }
         int size = 0;
         long startPos = absOffset - start;
         while (bf.hasRemaining()) {
@@ -383,6 +415,11 @@ public class FileSegment implements Segment {
         if (this.isExpired()) {
             // Todo: conduct file closed and expired cases.
         }
+        final MappedByteBuffer mappedBuf = getMappedIndex();
+        if (mappedBuf != null) {
+            readMapped(mappedBuf, bf, relOffset);
+            return;
+        }
         int size = 0;
         while (bf.hasRemaining()) {
             final int l = this.channel.read(bf, relOffset + size);
@@ -393,6 +430,11 @@ public class FileSegment implements Segment {
         }
     }
 
+    @Override
+    public RpcDataRegion getDataRegion(long absOffset, int count) {
+        return new RpcDataRegion(this.channel, absOffset - start, count);
+    }
+
     /**
      * read index record's append time.
      * @param reqOffset request offset.
@@ -400,6 +442,12 @@ public class FileSegment implements Segment {
      */
     @Override
     public long getRecordTime(long reqOffset) throws IOException {
+        final MappedByteBuffer mappedBuf = this.mappedIndex;
+        final long relOffset = reqOffset - start;
+        if (mappedBuf != null && relOffset >= 0
+                && relOffset + DataStoreUtils.STORE_INDEX_HEAD_LEN <= mappedBuf.limit()) {
+            return mappedBuf.getLong((int) relOffset + DataStoreUtils.INDEX_POS_TIME_RECV);
+        }
         ByteBuffer readUnit = ByteBuffer.allocate(DataStoreUtils.STORE_INDEX_HEAD_LEN);
         int size = 0;
         while (readUnit.hasRemaining()) {
@@ -413,6 +461,25 @@ public class FileSegment implements Segment {
         return readUnit.getLong(DataStoreUtils.INDEX_POS_TIME_RECV);
     }
 
+    /**
+     * Get the record position range to search by timestamp through the sparse time index.
+     * The index is loaded at the first call and then maintained by append.
+     *
+     * @param timestamp   the specified timestamp
+     * @param endPos      the last record position to search
+     * @return            the start and end record position to search
+     */
+    @Override
+    public long[] getTimeSearchRange(long timestamp, long endPos) throws IOException {
+        if (this.segmentType != SegmentType.INDEX) {
+            return new long[]{0, endPos};
+        }
+        if (!this.timeIndex.isLoaded()) {
+            loadTimeIndex();
+        }
+        return this.timeIndex.getSearchRange(timestamp, endPos);
+    }
+
     /**
      * Check whether this FileSegment is expired, and set expire status.
      * The last FileSegment cannot be marked expired.
@@ -440,6 +507,92 @@ public class FileSegment implements Segment {
         return 0;
     }
 
+    private synchronized void loadTimeIndex() throws IOException {
+        if (this.timeIndex.isLoaded()) {
+            return;
+        }
+        getMappedIndex();
+        long recordCnt = this.cachedSize.get() / DataStoreUtils.STORE_INDEX_HEAD_LEN;
+        addTimeSamples(recordCnt);
+        this.timeIndex.setLoaded();
+        // the records appended during the scan were not added by append, rescan
+        // until the records appended after the last scan are added by append
+        long curRecordCnt = this.cachedSize.get() / DataStoreUtils.STORE_INDEX_HEAD_LEN;
+        while (curRecordCnt != recordCnt) {
+            addTimeSamples(curRecordCnt);
+            recordCnt = curRecordCnt;
+            curRecordCnt = this.cachedSize.get() / DataStoreUtils.STORE_INDEX_HEAD_LEN;
+        }
+    }
+
+    private void addTimeSamples(long recordCnt) throws IOException {
+        for (long recordPos = (long) this.timeIndex.getSampleCount() * SegmentTimeIndex.RECORD_SAMPLE_STEP;
+                recordPos < recordCnt; recordPos += SegmentTimeIndex.RECORD_SAMPLE_STEP) {
+            this.timeIndex.addRecord(recordPos,
+                    getRecordTime(this.start + recordPos * DataStoreUtils.STORE_INDEX_HEAD_LEN));
+        }
+    }
+
+    /**
+     * Get the read-only mapping of the index segment, the segment is mapped
+     * at the first read after it becomes immutable.
+     *
+     * @return the mapped buffer, or null if not mapped
+     */
+    private MappedByteBuffer getMappedIndex() {
+        if (this.mappedIndex == null
+                && !this.mutable
+                && this.segmentType == SegmentType.INDEX
+                && !this.closed.get()
+                && this.mapAttempted.compareAndSet(false, true)) {
+            mapIndexFile();
+        }
+        return this.mappedIndex;
+    }
+
+    private void mapIndexFile() {
+        final long mapSize = this.cachedSize.get();
+        if (mapSize <= 0 || mapSize > Integer.MAX_VALUE) {
+            return;
+        }
+        try {
+            this.mappedIndex = this.channel.map(FileChannel.MapMode.READ_ONLY, 0, mapSize);
+        } catch (Throwable e) {
+            if (e instanceof IOException) {
+                ServiceStatusHolder.addReadIOErrCnt();
+                BrokerSrvStatsHolder.incDiskIOExcCnt();
+            }
+            logger.warn(new StringBuilder(512).append("[File Store] Map ")
+                    .append(this.file.getAbsoluteFile().toString())
+                    .append(" failure, read it through the file channel").toString(), e);
+        }
+    }
+
+    private void unmapIndexFile() {
+        final MappedByteBuffer mappedBuf = this.mappedIndex;
+        this.mappedIndex = null;
+        if (mappedBuf == null) {
+            return;
+        }
+        try {
+            ((DirectBuffer) mappedBuf).cleaner().clean();
+        } catch (Throwable e) {
+            logger.warn("[File Store] failure to unmap index file ", e);
+        }
+    }
+
+    private void readMapped(MappedByteBuffer mappedBuf, ByteBuffer bf, long relOffset) {
+        if (relOffset < 0 || relOffset >= mappedBuf.limit()) {
+            return;
+        }
+        final ByteBuffer srcBuf = mappedBuf.duplicate();
+        srcBuf.position((int) relOffset);
+        if (srcBuf.remaining() > bf.remaining()) {
+            srcBuf.limit((int) relOffset + bf.remaining());
+        }
+        bf.put(srcBuf);
+    }
+
     private RecoverResult recoverData(long checkOffset) throws IOException {
         if (!this.mutable) {
             throw new UnsupportedOperationException(
@@ -154,6 +154,34 @@ public class FileSegmentList implements SegmentList {
         }
     }
 
+    /**
+     * Replace the segment with the new segment of the same range.
+     *
+     * @param oldSegment   the segment to be replaced
+     * @param newSegment   the new segment
+     */
+    @Override
+    public void replace(final Segment oldSegment, final Segment newSegment) {
+        while (true) {
+            int index = -1;
+            final Segment[] curViews = segmentList.get();
+            for (int i = 0; i < curViews.length; i++) {
+                if (curViews[i] == oldSegment) {
+                    index = i;
+                    break;
+                }
+            }
+            if (index == -1) {
+                return;
+            }
+            final Segment[] update = curViews.clone();
+            update[index] = newSegment;
+            if (this.segmentList.compareAndSet(curViews, update)) {
+                return;
+            }
+        }
+    }
+
     @Override
     public void flushLast(boolean force) throws IOException {
         final Segment[] curViews = segmentList.get();
@@ -19,6 +19,7 @@ package org.apache.inlong.tubemq.server.broker.msgstore.disk;
 
 import org.apache.inlong.tubemq.corebase.TBaseConstants;
 import org.apache.inlong.tubemq.corebase.protobuf.generated.ClientBroker.TransferedMessage;
+import org.apache.inlong.tubemq.corerpc.RpcDataRegion;
 import org.apache.inlong.tubemq.server.broker.stats.TrafficInfo;
 
 import java.util.ArrayList;
@@ -42,6 +43,8 @@ public class GetMessageResult {
     public boolean isFromSsdFile = false;
     public HashMap<String, TrafficInfo> tmpCounters = new HashMap<>();
     public List<TransferedMessage> transferedMessageList = new ArrayList<>();
+    // file regions of the messages read in zero-copy mode
+    public List<RpcDataRegion> dataRegionList = new ArrayList<>();
     public long maxOffset = TBaseConstants.META_VALUE_UNDEFINED;
 
     public GetMessageResult(boolean isSuccess, int retCode, final String errInfo,
@@ -126,6 +129,18 @@ public class GetMessageResult {
         this.transferedMessageList = transferedMessageList;
     }
 
+    public List<RpcDataRegion> getDataRegionList() {
+        return dataRegionList;
+    }
+
+    public void setDataRegionList(List<RpcDataRegion> dataRegionList) {
+        this.dataRegionList = dataRegionList;
+    }
+
+    public boolean isEmptyResult() {
+        return transferedMessageList.isEmpty() && dataRegionList.isEmpty();
+    }
+
     public boolean isFromSsdFile() {
         return isFromSsdFile;
     }
@@ -21,8 +21,12 @@ import org.apache.inlong.tubemq.corebase.TErrCodeConstants;
 import org.apache.inlong.tubemq.corebase.protobuf.generated.ClientBroker;
 import org.apache.inlong.tubemq.corebase.utils.ServiceStatusHolder;
 import org.apache.inlong.tubemq.corebase.utils.Tuple3;
+import org.apache.inlong.tubemq.corerpc.RpcDataRegion;
 import org.apache.inlong.tubemq.server.broker.BrokerConfig;
+import org.apache.inlong.tubemq.server.broker.msgstore.DiskGroupFlusher;
 import org.apache.inlong.tubemq.server.broker.msgstore.MessageStore;
+import org.apache.inlong.tubemq.server.broker.msgstore.tiered.RemoteSegment;
+import org.apache.inlong.tubemq.server.broker.msgstore.tiered.TieredStoreService;
 import org.apache.inlong.tubemq.server.broker.stats.BrokerSrvStatsHolder;
 import org.apache.inlong.tubemq.server.broker.stats.MsgStoreStatsHolder;
 import org.apache.inlong.tubemq.server.broker.stats.TrafficInfo;
@@ -41,7 +45,10 @@ import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -86,6 +93,16 @@ public class MsgFileStore implements Closeable {
     private SegmentList indexSegments;
     // close status
     private final AtomicBoolean closed = new AtomicBoolean(false);
+    // the data directory of the file store
+    private final String baseStorePath;
+    // the disk id used to group the flush operations
+    private final String diskId;
+    // tiered store of the expired segments, null if not enabled
+    private final TieredStoreService tieredStore;
+    // the offloaded local segments to be deleted, and their offload time
+    private final Map<Segment, Long> offloadedSegments = new LinkedHashMap<>();
+    // whether the offload task of the store is queued or running
+    private final AtomicBoolean offloadOngoing = new AtomicBoolean(false);
 
     /**
      * MsgFileStore, initial message file store block
@@ -113,6 +130,9 @@ public class MsgFileStore implements Closeable {
         sBuilder.delete(0, sBuilder.length());
         FileUtil.checkDir(this.dataDir);
         FileUtil.checkDir(this.indexDir);
+        this.baseStorePath = baseStorePath;
+        this.diskId = DiskGroupFlusher.getDiskId(baseStorePath);
+        this.tieredStore = messageStore.getTieredStoreService();
         loadSegments(SegmentType.DATA, offsetIfCreate, sBuilder);
         loadSegments(SegmentType.INDEX, offsetIfCreate, sBuilder);
         this.lastFlushTime.set(System.currentTimeMillis());
@@ -151,6 +171,7 @@ public class MsgFileStore implements Closeable {
         boolean pendingMsgSizeExceed = false;
         boolean pendingMsgTimeExceed = false;
         boolean isForceMetadata = false;
+        boolean needSyncDisk = false;
         // flushed message count and data size info
         long flushedMsgCnt = 0;
         long flushedDataSize = 0;
@@ -219,12 +240,9 @@ public class MsgFileStore implements Closeable {
                     || pendingMsgSizeExceed || isDataSegFlushed || isIndexSegFlushed) {
                 isForceMetadata = (isDataSegFlushed || isIndexSegFlushed
                         || (currTime - this.lastMetaFlushTime.get() > MAX_META_REFRESH_DUR));
-                if (!isDataSegFlushed) {
-                    curDataSeg.flush(isForceMetadata);
-                }
-                if (!isIndexSegFlushed) {
-                    curIndexSeg.flush(isForceMetadata);
-                }
+                // the rolled segments have been flushed, the others are
+                // synced by the group flusher outside the lock.
+                needSyncDisk = !(isDataSegFlushed && isIndexSegFlushed);
                 flushedMsgCnt = this.curUnflushed.getAndSet(0);
                 flushedDataSize = this.curUnflushSize.getAndSet(0);
                 this.lastFlushTime.set(currTime);
@@ -256,6 +274,9 @@ public class MsgFileStore implements Closeable {
             samplePrintCtrl.printExceptionCaught(e);
         } finally {
             this.writeLock.unlock();
+            if (needSyncDisk) {
+                submitSyncDisk(isForceMetadata);
+            }
             // add statistics.
             if (fileStoreOK) {
                 msgStoreStatsHolder.addFileFlushStatsInfo(msgCnt, indexSize, dataSize,
@@ -289,6 +310,7 @@ public class MsgFileStore implements Closeable {
      * @param statsKeyBase         the statistical key prefix
      * @param maxMsgTransferSize    the max read message size
      * @param reqRcvTime            the timestamp of the record to be checked
+     * @param isZeroCopyRead        whether to return file regions instead of read messages
      *
      * @return                      read result
      */
@@ -298,7 +320,8 @@ public class MsgFileStore implements Closeable {
             Set<Integer> filterKeySet,
             String statsKeyBase,
             int maxMsgTransferSize,
-            long reqRcvTime) {
+            long reqRcvTime,
+            boolean isZeroCopyRead) {
         // #lizard forgives
         // Orderly read from index file, then random read from data file.
         int retCode = 0;
@@ -324,6 +347,12 @@ public class MsgFileStore implements Closeable {
                 ByteBuffer.allocate(TServerConstants.CFG_STORE_DEFAULT_MSG_READ_UNIT);
         List<ClientBroker.TransferedMessage> transferedMessageList =
                 new ArrayList<>();
+        // the continuous records of the same segment are merged into one region
+        List<RpcDataRegion> dataRegionList = new ArrayList<>();
+        Segment regionSeg = null;
+        long regionStartOffset = 0L;
+        int regionSize = 0;
+        boolean readAsRegion = isZeroCopyRead;
         // read data file by index.
         for (curIndexOffset = 0; curIndexOffset < indexBuffer.remaining(); curIndexOffset +=
                 DataStoreUtils.STORE_INDEX_HEAD_LEN) {
@@ -374,19 +403,30 @@ public class MsgFileStore implements Closeable {
                     if (this.closed.get()) {
                         throw new Exception("Read Service has closed!");
                     }
+                    if (readAsRegion && recordSeg instanceof RemoteSegment) {
+                        // the remote segments are read through the cache, and the
+                        // read messages are not mixed with the file regions
+                        if (regionSize > 0 || !dataRegionList.isEmpty()) {
+                            lastRdDataOffset = curIndexDataOffset;
+                            break;
+                        }
+                        readAsRegion = false;
+                    }
                 }
-                if (dataBuffer.capacity() < curIndexDataSize) {
-                    dataBuffer = ByteBuffer.allocate(curIndexDataSize);
-                }
-                dataBuffer.clear();
-                dataBuffer.limit(curIndexDataSize);
-                recordSeg.read(dataBuffer, curIndexDataOffset);
-                dataBuffer.flip();
-                dataRealLimit = dataBuffer.limit();
-                if (dataRealLimit < curIndexDataSize) {
-                    lastRdDataOffset = curIndexDataOffset;
-                    readedOffset = curIndexOffset + DataStoreUtils.STORE_INDEX_HEAD_LEN;
-                    continue;
+                if (!readAsRegion) {
+                    if (dataBuffer.capacity() < curIndexDataSize) {
+                        dataBuffer = ByteBuffer.allocate(curIndexDataSize);
+                    }
+                    dataBuffer.clear();
+                    dataBuffer.limit(curIndexDataSize);
+                    recordSeg.read(dataBuffer, curIndexDataOffset);
+                    dataBuffer.flip();
+                    dataRealLimit = dataBuffer.limit();
+                    if (dataRealLimit < curIndexDataSize) {
+                        lastRdDataOffset = curIndexDataOffset;
+                        readedOffset = curIndexOffset + DataStoreUtils.STORE_INDEX_HEAD_LEN;
+                        continue;
+                    }
                 }
             } catch (Throwable e2) {
                 if (e2 instanceof IOException) {
@@ -406,25 +446,44 @@ public class MsgFileStore implements Closeable {
             // build query result.
             readedOffset = curIndexOffset + DataStoreUtils.STORE_INDEX_HEAD_LEN;
             lastRdDataOffset = maxDataLimitOffset;
-            ClientBroker.TransferedMessage transferedMessage =
-                    DataStoreUtils.getTransferMsg(dataBuffer,
-                            curIndexDataSize, countMap, statsKeyBase, sBuilder);
-            if (transferedMessage == null) {
-                continue;
+            if (readAsRegion) {
+                if (regionSize > 0
+                        && (regionSeg != recordSeg
+                                || regionStartOffset + regionSize != curIndexDataOffset)) {
+                    dataRegionList.add(regionSeg.getDataRegion(regionStartOffset, regionSize));
+                    regionSize = 0;
+                }
+                if (regionSize == 0) {
+                    regionSeg = recordSeg;
+                    regionStartOffset = curIndexDataOffset;
+                }
+                regionSize += curIndexDataSize;
+                DataStoreUtils.countRawStoreMsg(curIndexDataSize,
+                        countMap, statsKeyBase, sBuilder);
+            } else {
+                ClientBroker.TransferedMessage transferedMessage =
+                        DataStoreUtils.getTransferMsg(dataBuffer,
+                                curIndexDataSize, countMap, statsKeyBase, sBuilder);
+                if (transferedMessage == null) {
+                    continue;
+                }
+                transferedMessageList.add(transferedMessage);
             }
-            transferedMessageList.add(transferedMessage);
             totalSize += curIndexDataSize;
             // break when exceed the max transfer size.
             if (totalSize >= maxMsgTransferSize) {
                 break;
             }
         }
+        if (regionSize > 0) {
+            dataRegionList.add(regionSeg.getDataRegion(regionStartOffset, regionSize));
+        }
         // release resource
         if (recordSeg != null) {
             recordSeg.relViewRef();
         }
         if (retCode != 0) {
-            if (!transferedMessageList.isEmpty()) {
+            if (!transferedMessageList.isEmpty() || !dataRegionList.isEmpty()) {
                 retCode = 0;
                 errInfo = "Ok";
             }
@@ -433,9 +492,11 @@ public class MsgFileStore implements Closeable {
             lastRdDataOffset = lastRdOffset;
         }
         // return result.
-        return new GetMessageResult(result, retCode, errInfo,
+        GetMessageResult getResult = new GetMessageResult(result, retCode, errInfo,
                 reqOffset, readedOffset, lastRdDataOffset,
                 totalSize, countMap, transferedMessageList);
+        getResult.setDataRegionList(dataRegionList);
+        return getResult;
     }
 
     /**
@@ -472,7 +533,15 @@ public class MsgFileStore implements Closeable {
         }
         long midPos = 0;
         long startPos = 0;
-        long firstLowPos = 0;
+        // narrow the search range through the segment's sparse time index
+        try {
+            long[] searchRange = recordSeg.getTimeSearchRange(timestamp, endPos);
+            startPos = searchRange[0];
+            endPos = searchRange[1];
+        } catch (Throwable ex) {
+            samplePrintCtrl.printExceptionCaught(ex);
+        }
+        long firstLowPos = startPos;
         long firstEqualPos = -1;
         // Dichotomy finds the first offset position less than the specified time
         while (startPos <= endPos) {
@@ -504,6 +573,11 @@ public class MsgFileStore implements Closeable {
             try {
                 this.indexSegments.close();
                 this.dataSegments.close();
+                synchronized (this.offloadedSegments) {
+                    for (Segment segment : this.offloadedSegments.keySet()) {
+                        segment.close();
+                    }
+                }
             } finally {
                 this.writeLock.unlock();
             }
@@ -519,12 +593,28 @@ public class MsgFileStore implements Closeable {
     public boolean runClearupPolicy(boolean onlyCheck) {
         final StringBuilder sBuilder = new StringBuilder(512);
         final long start = System.currentTimeMillis();
+        long fileValidDurMs = messageStore.getMaxFileValidDurMs();
+        boolean hasOffloadSegs = false;
+        if (this.tieredStore != null) {
+            // the expired local segments are offloaded to the tiered store,
+            // and then deleted after the tiered valid duration
+            hasOffloadSegs = delOffloadedSegments(onlyCheck, start);
+            boolean needOffload = offloadSegments(SegmentType.DATA,
+                    dataSegments, true, start, fileValidDurMs, sBuilder);
+            needOffload |= offloadSegments(SegmentType.INDEX,
+                    indexSegments, true, start, fileValidDurMs, sBuilder);
+            if (needOffload && !onlyCheck) {
+                submitOffloadTask(fileValidDurMs);
+            }
+            hasOffloadSegs |= needOffload;
+            fileValidDurMs = Math.max(fileValidDurMs, this.tieredStore.getValidDurMs());
+        }
         boolean hasExpiredDataSegs =
-                dataSegments.checkExpiredSegments(start, messageStore.getMaxFileValidDurMs());
+                dataSegments.checkExpiredSegments(start, fileValidDurMs);
         boolean hasExpiredIndexSegs =
-                indexSegments.checkExpiredSegments(start, messageStore.getMaxFileValidDurMs());
+                indexSegments.checkExpiredSegments(start, fileValidDurMs);
         if (onlyCheck) {
-            return (hasExpiredDataSegs || hasExpiredIndexSegs);
+            return (hasOffloadSegs || hasExpiredDataSegs || hasExpiredIndexSegs);
         }
         if (hasExpiredDataSegs) {
             dataSegments.delExpiredSegments(sBuilder);
@@ -532,7 +622,7 @@ public class MsgFileStore implements Closeable {
         if (hasExpiredIndexSegs) {
             indexSegments.delExpiredSegments(sBuilder);
         }
-        return (hasExpiredDataSegs || hasExpiredIndexSegs);
+        return (hasOffloadSegs || hasExpiredDataSegs || hasExpiredIndexSegs);
     }
 
     /**
@@ -547,6 +637,7 @@ public class MsgFileStore implements Closeable {
             long flushedMsgCnt = 0L;
             long flushedDataSize = 0L;
             boolean forceMetadata = false;
+            boolean needSyncDisk = false;
             this.writeLock.lock();
             try {
                 checkTimestamp = System.currentTimeMillis();
@@ -554,8 +645,7 @@ public class MsgFileStore implements Closeable {
                         && (checkTimestamp - lastFlushTime.get() >= messageStore.getUnflushInterval())) {
                     forceMetadata =
                             (checkTimestamp - lastMetaFlushTime.get()) > MAX_META_REFRESH_DUR;
-                    dataSegments.flushLast(forceMetadata);
-                    indexSegments.flushLast(forceMetadata);
+                    needSyncDisk = true;
                     if (forceMetadata) {
                         this.lastMetaFlushTime.set(checkTimestamp);
                     }
@@ -565,6 +655,9 @@ public class MsgFileStore implements Closeable {
                 }
             } finally {
                 this.writeLock.unlock();
+                if (needSyncDisk) {
+                    submitSyncDisk(forceMetadata);
+                }
                 msgStoreStatsHolder.addFileTimeoutFlushStats(flushedMsgCnt,
                         flushedDataSize, forceMetadata);
             }
@@ -572,6 +665,36 @@ public class MsgFileStore implements Closeable {
         msgStoreStatsHolder.chkStatsExpired(checkTimestamp);
     }
 
+    /**
+     * Sync the latest data and index segments to disk, called by the group flusher.
+     *
+     * @param forceMetadata    whether force flush the meta-data
+     * @throws IOException     the exception during processing
+     */
+    public void syncDiskFile(boolean forceMetadata) throws IOException {
+        if (this.closed.get()) {
+            return;
+        }
+        dataSegments.flushLast(forceMetadata);
+        indexSegments.flushLast(forceMetadata);
+    }
+
+    public String getStoreKey() {
+        return storeKey;
+    }
+
+    public String getBaseStorePath() {
+        return baseStorePath;
+    }
+
+    public String getDiskId() {
+        return diskId;
+    }
+
+    public MsgStoreStatsHolder getMsgStoreStatsHolder() {
+        return msgStoreStatsHolder;
+    }
+
     public long getDataSizeInBytes() {
         return dataSegments.getSizeInBytes();
     }
@@ -690,6 +813,10 @@ public class MsgFileStore implements Closeable {
                 accum.add(mutable);
             }
         }
+        if (this.tieredStore != null) {
+            accum.addAll(0, loadRemoteSegments(segType,
+                    segTypeStr, accum.get(0).getStart(), sBuilder));
+        }
         if (segType == SegmentType.DATA) {
             this.dataSegments = new FileSegmentList(accum.toArray(new Segment[accum.size()]));
         } else {
@@ -701,6 +828,159 @@ public class MsgFileStore implements Closeable {
         sBuilder.delete(0, sBuilder.length());
     }
 
+    /**
+     * Load the offloaded segments that are continuous with the local segments.
+     *
+     * @param segType       the segment type
+     * @param segTypeStr    the segment type string
+     * @param localStart    the start offset of the local segments
+     * @param sBuilder      string buffer
+     * @return              the remote segments arranged from low to high
+     */
+    private List<Segment> loadRemoteSegments(SegmentType segType, String segTypeStr,
+            long localStart, StringBuilder sBuilder) throws IOException {
+        final List<RemoteSegment> remoteSegs = this.tieredStore.loadSegments(this.storeKey, segType);
+        final List<Segment> accum = new ArrayList<>();
+        long expectedLast = localStart;
+        for (int i = remoteSegs.size() - 1; i >= 0; i--) {
+            final RemoteSegment remoteSeg = remoteSegs.get(i);
+            // the segments still stored locally are offloaded again at the next clear-up
+            if (remoteSeg.getStart() >= localStart) {
+                continue;
+            }
+            if (remoteSeg.getLast() != expectedLast) {
+                logger.warn(sBuilder.append("[Tiered Store] Skip discontinuous ")
+                        .append(segTypeStr).append(" segments before ")
+                        .append(remoteSeg.getObjectKey()).toString());
+                sBuilder.delete(0, sBuilder.length());
+                break;
+            }
+            accum.add(0, remoteSeg);
+            expectedLast = remoteSeg.getStart();
+        }
+        logger.info(sBuilder.append("[Tiered Store] Loaded ").append(segTypeStr)
+                .append(" ").append(accum.size()).append(" remote segments of ")
+                .append(this.storeKey).toString());
+        sBuilder.delete(0, sBuilder.length());
+        return accum;
+    }
+
+    /**
+     * Offload the expired local segments to the tiered store, and replace them
+     * with the remote segments in the segment list.
+     *
+     * @param segType          the segment type
+     * @param segList          the segment list
+     * @param onlyCheck        whether to check only
+     * @param checkTimestamp   current check timestamp
+     * @param maxValidTimeMs   the max valid duration of the local segments
+     * @param sBuilder         string buffer
+     * @return                 whether found segments to offload
+     */
+    private boolean offloadSegments(SegmentType segType, SegmentList segList,
+            boolean onlyCheck, long checkTimestamp,
+            long maxValidTimeMs, StringBuilder sBuilder) {
+        boolean hasOffloadSegs = false;
+        for (Segment segment : segList.getView()) {
+            if (segment == null || segment instanceof RemoteSegment) {
+                continue;
+            }
+            if (this.closed.get()
+                    || segment.isMutable()
+                    || segment.isClosed()
+                    || segment.isExpired()
+                    || checkTimestamp - segment.getFile().lastModified() <= maxValidTimeMs) {
+                break;
+            }
+            hasOffloadSegs = true;
+            if (onlyCheck) {
+                break;
+            }
+            try {
+                final RemoteSegment remoteSeg =
+                        this.tieredStore.offloadSegment(this.storeKey, segType, segment);
+                segList.replace(segment, remoteSeg);
+                synchronized (this.offloadedSegments) {
+                    this.offloadedSegments.put(segment, System.currentTimeMillis());
+                }
+                logger.info(sBuilder.append("[Tiered Store] Offloaded ")
+                        .append(segment.getFile().getAbsolutePath()).append(" to ")
+                        .append(remoteSeg.getObjectKey()).toString());
+                sBuilder.delete(0, sBuilder.length());
+            } catch (Throwable e) {
+                // the segment is kept locally, and offloaded again at the next clear-up
+                logger.error(sBuilder.append("[Tiered Store] Offload ")
+                        .append(segment.getFile().getAbsolutePath())
+                        .append(" failure").toString(), e);
+                sBuilder.delete(0, sBuilder.length());
+                break;
+            }
+        }
+        return hasOffloadSegs;
+    }
+
+    /**
+     * Upload the expired local segments on the tiered store's offload thread,
+     * at most one offload task of the store is queued or running.
+     *
+     * @param maxValidTimeMs   the max valid duration of the local segments
+     */
+    private void submitOffloadTask(final long maxValidTimeMs) {
+        if (!this.offloadOngoing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            this.tieredStore.submitOffload(() -> {
+                try {
+                    final StringBuilder sBuilder = new StringBuilder(512);
+                    final long checkTimestamp = System.currentTimeMillis();
+                    offloadSegments(SegmentType.DATA, dataSegments,
+                            false, checkTimestamp, maxValidTimeMs, sBuilder);
+                    offloadSegments(SegmentType.INDEX, indexSegments,
+                            false, checkTimestamp, maxValidTimeMs, sBuilder);
+                } finally {
+                    this.offloadOngoing.set(false);
+                }
+            });
+        } catch (Throwable e) {
+            this.offloadOngoing.set(false);
+            logger.warn(new StringBuilder(512).append("[Tiered Store] Submit offload task of ")
+                    .append(this.storeKey).append(" failure").toString(), e);
+        }
+    }
+
+    /**
+     * Delete the offloaded local segments after the in-flight reads finished.
+     *
+     * @param onlyCheck        whether to check only
+     * @param checkTimestamp   current check timestamp
+     * @return                 whether found offloaded segments to delete
+     */
+    private boolean delOffloadedSegments(boolean onlyCheck, long checkTimestamp) {
+        final List<Segment> readySegs = new ArrayList<>();
+        synchronized (this.offloadedSegments) {
+            if (this.offloadedSegments.isEmpty()) {
+                return false;
+            }
+            if (onlyCheck) {
+                return true;
+            }
+            Iterator<Map.Entry<Segment, Long>> iterator =
+                    this.offloadedSegments.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<Segment, Long> entry = iterator.next();
+                if (checkTimestamp - entry.getValue() > TieredStoreService.DELETE_DELAY_MS) {
+                    readySegs.add(entry.getKey());
+                    iterator.remove();
+                }
+            }
+        }
+        for (Segment segment : readySegs) {
+            segment.deleteFile();
+        }
+        return true;
+    }
+
     private void validateSegments(String segTypeStr, final List<Segment> segments) {
         // valid segments, continuous
         for (int i = 0; i < segments.size() - 1; i++) {
@@ -716,6 +996,23 @@ public class MsgFileStore implements Closeable {
         }
     }
 
+    private void submitSyncDisk(boolean forceMetadata) {
+        DiskGroupFlusher groupFlusher = messageStore.getDiskGroupFlusher();
+        if (groupFlusher != null) {
+            groupFlusher.submit(this.diskId, this, forceMetadata);
+            return;
+        }
+        try {
+            syncDiskFile(forceMetadata);
+        } catch (Throwable e) {
+            if (!closed.get()) {
+                ServiceStatusHolder.addWriteIOErrCnt();
+                BrokerSrvStatsHolder.incDiskIOExcCnt();
+            }
+            samplePrintCtrl.printExceptionCaught(e);
+        }
+    }
+
     private long getTimeStamp(Segment recordSeg, long relReadPos,
             long curDataMinOffset, ByteBuffer readBuffer) {
         int curIndexPartitionId = 0;
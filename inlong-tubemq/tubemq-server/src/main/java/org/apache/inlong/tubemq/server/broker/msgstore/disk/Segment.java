@@ -17,6 +17,8 @@
 
 package org.apache.inlong.tubemq.server.broker.msgstore.disk;
 
+import org.apache.inlong.tubemq.corerpc.RpcDataRegion;
+
 import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
@@ -88,6 +90,15 @@ public interface Segment {
      */
     void relRead(ByteBuffer bf, long relOffset) throws IOException;
 
+    /**
+     * Get a file region for transferring data from absolute position without copying.
+     *
+     * @param absOffset   absolute start position
+     * @param count       the region length
+     * @return            the file region
+     */
+    RpcDataRegion getDataRegion(long absOffset, int count);
+
     long getLeftAppendTime();
 
     long getRightAppendTime();
@@ -95,4 +106,13 @@ public interface Segment {
     boolean containTime(long timestamp);
 
     long getRecordTime(long reqOffset) throws IOException;
+
+    /**
+     * Get the record position range that contains the first record of the timestamp.
+     *
+     * @param timestamp   the specified timestamp
+     * @param endPos      the last record position to search
+     * @return            the start and end record position to search
+     */
+    long[] getTimeSearchRange(long timestamp, long endPos) throws IOException;
 }
@@ -52,6 +52,8 @@ public interface SegmentList {
 
     void delete(Segment segment);
 
+    void replace(Segment oldSegment, Segment newSegment);
+
     Segment getRecordSeg(long offset) throws IOException;
 
     Segment findSegmentByTimeStamp(long timestamp);
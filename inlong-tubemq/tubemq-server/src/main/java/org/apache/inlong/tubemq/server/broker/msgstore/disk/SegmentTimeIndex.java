@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.tubemq.server.broker.msgstore.disk;
+
+import java.util.Arrays;
+
+/**
+ * Sparse in-memory time index of an index segment.
+ * Keeps the append time of one index record every {@link #RECORD_SAMPLE_STEP} records,
+ * which narrows the range to be probed when seeking the segment by timestamp.
+ *
+ * The samples are added strictly in record order, the record must be the next
+ * expected sample position, otherwise it is ignored. Readers are lock-free.
+ */
+public class SegmentTimeIndex {
+
+    // sample one index record every step records
+    public static final int RECORD_SAMPLE_STEP = 1024;
+
+    private volatile long[] sampleTimes = new long[16];
+    private volatile int sampleCount = 0;
+    private volatile boolean loaded = false;
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public void setLoaded() {
+        this.loaded = true;
+    }
+
+    public int getSampleCount() {
+        return sampleCount;
+    }
+
+    /**
+     * Add index record's append time, only the expected sample position is accepted.
+     *
+     * @param recordPos   the record position in the segment, in record units
+     * @param recvTime    the record's append time
+     */
+    public synchronized void addRecord(long recordPos, long recvTime) {
+        if (recordPos != (long) sampleCount * RECORD_SAMPLE_STEP) {
+            return;
+        }
+        long[] curTimes = sampleTimes;
+        if (sampleCount >= curTimes.length) {
+            curTimes = Arrays.copyOf(curTimes, curTimes.length * 2);
+            sampleTimes = curTimes;
+        }
+        curTimes[sampleCount] = recvTime;
+        sampleCount++;
+    }
+
+    /**
+     * Get the record position range to search the first record of the timestamp.
+     *
+     * @param timestamp   the specified timestamp
+     * @param endPos      the last record position of the segment
+     * @return            the start and end record position to search
+     */
+    public long[] getSearchRange(long timestamp, long endPos) {
+        final int count = sampleCount;
+        final long[] times = sampleTimes;
+        long startPos = 0;
+        // the largest sample whose time is less than the timestamp
+        int low = 0;
+        int high = count - 1;
+        int lastLess = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (times[mid] < timestamp) {
+                lastLess = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        if (lastLess >= 0) {
+            startPos = Math.min((long) lastLess * RECORD_SAMPLE_STEP, endPos);
+        }
+        // the next sample is the first one not less than the timestamp
+        if (lastLess + 1 < count) {
+            endPos = Math.min((long) (lastLess + 1) * RECORD_SAMPLE_STEP, endPos);
+        }
+        return new long[]{startPos, endPos};
+    }
+}
@@ -34,16 +34,21 @@ import java.io.Closeable;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Message's memory storage. It use direct memory store messages that received but not have been flushed to disk.
+ *
+ * The cache is append-only: writers are serialized by the write lock, fill the data and index
+ * content first, and then publish the write cursors, the index cursor is published last.
+ * Readers take a snapshot of the published cursors without the lock, and only read the
+ * content before the cursors. The store being flushed is sealed, no more appends to it.
  */
 public class MsgMemStore implements Closeable {
 
@@ -55,16 +60,16 @@ public class MsgMemStore implements Closeable {
     private final ReentrantLock writeLock = new ReentrantLock();
     // partitionId to index position, accelerate query
     private final Map<Integer, Integer> queuesMap =
-            new HashMap<>(20);
+            new ConcurrentHashMap<>(20);
     // key to index position, used for filter consume
     private final Map<Integer, Integer> keysMap =
-            new HashMap<>(100);
+            new ConcurrentHashMap<>(100);
     // where messages in memory will sink to disk
     private final int maxDataCacheSize;
-    private long writeDataStartPos = -1;
+    private volatile long writeDataStartPos = -1;
     private final ByteBuffer cacheDataSegment;
     private final int maxIndexCacheSize;
-    private long writeIndexStartPos = -1;
+    private volatile long writeIndexStartPos = -1;
     private final ByteBuffer cachedIndexSegment;
     private final int maxAllowedMsgCount;
     private final AtomicLong leftAppendTime =
@@ -158,22 +163,97 @@ public class MsgMemStore implements Closeable {
             dataEntry.putLong(DataStoreUtils.STORE_HEADER_POS_QUEUE_LOGICOFF, indexOffset);
             this.cacheDataSegment.put(dataEntry.array());
             this.cachedIndexSegment.put(indexEntry.array());
+            // publish the data cursor, then the index cursor
             this.cacheDataOffset.getAndAdd(dataEntryLength);
             indexSizePos = cacheIndexOffset.getAndAdd(DataStoreUtils.STORE_INDEX_HEAD_LEN);
+            if (indexSizePos == 0) {
+                this.leftAppendTime.set(timeRecv);
+            }
+            this.rightAppendTime.set(timeRecv);
+            this.curMessageCount.getAndIncrement();
             this.queuesMap.put(partitionId, indexSizePos);
             this.keysMap.put(keyCode, indexSizePos);
-            this.curMessageCount.getAndIncrement();
-            this.rightAppendTime.set(timeRecv);
+        } finally {
+            this.writeLock.unlock();
+            if (!isAppended) {
+                memStatsHolder.addCacheFullType(fullDataSize, fullIndexSize, fullCount);
+            }
+        }
+        appendResult.putAppendResult(indexOffset, dataOffset);
+        return true;
+    }
+
+    /**
+     * Append a batch of messages of the same partition to memory cache,
+     * all the messages are appended in one locked section, or none of them.
+     *
+     * @param memStatsHolder    statistical information object
+     * @param partitionId       the partitionId for append messages
+     * @param keyCodes          the filter item hash codes
+     * @param timeRecv          the received timestamp
+     * @param indexEntries      the stored index entries
+     * @param totalDataLength   the total length of the stored data entries
+     * @param dataEntries       the stored data entries
+     * @param appendResults     the append results
+     *
+     * @return    the process result
+     */
+    public boolean appendMsgs(MsgStoreStatsHolder memStatsHolder,
+            int partitionId, int[] keyCodes, long timeRecv,
+            ByteBuffer[] indexEntries, int totalDataLength,
+            ByteBuffer[] dataEntries, AppendResult[] appendResults) {
+        final int msgCnt = dataEntries.length;
+        final int totalIndexLength = msgCnt * DataStoreUtils.STORE_INDEX_HEAD_LEN;
+        long dataOffset;
+        long indexOffset;
+        int indexSizePos = 0;
+        boolean isAppended = true;
+        boolean fullDataSize = false;
+        boolean fullIndexSize = false;
+        boolean fullCount = false;
+        this.writeLock.lock();
+        try {
+            // judge whether the whole batch can be written to memory or not.
+            fullDataSize =
+                    (this.cacheDataOffset.get() + totalDataLength > this.maxDataCacheSize);
+            fullCount =
+                    (this.curMessageCount.get() + msgCnt > maxAllowedMsgCount);
+            fullIndexSize =
+                    (this.cacheIndexOffset.get() + totalIndexLength > this.maxIndexCacheSize);
+            if (fullDataSize || fullCount || fullIndexSize) {
+                isAppended = false;
+                return false;
+            }
+            indexOffset = this.writeIndexStartPos + this.cacheIndexOffset.get();
+            dataOffset = this.writeDataStartPos + this.cacheDataOffset.get();
+            for (int i = 0; i < msgCnt; i++) {
+                indexEntries[i].putLong(DataStoreUtils.INDEX_POS_DATAOFFSET, dataOffset);
+                dataEntries[i].putLong(DataStoreUtils.STORE_HEADER_POS_QUEUE_LOGICOFF, indexOffset);
+                this.cacheDataSegment.put(dataEntries[i].array());
+                this.cachedIndexSegment.put(indexEntries[i].array());
+                appendResults[i].putAppendResult(indexOffset, dataOffset);
+                indexOffset += DataStoreUtils.STORE_INDEX_HEAD_LEN;
+                dataOffset += dataEntries[i].limit();
+            }
+            // publish the data cursor, then the index cursor
+            this.cacheDataOffset.getAndAdd(totalDataLength);
+            indexSizePos = cacheIndexOffset.getAndAdd(totalIndexLength);
             if (indexSizePos == 0) {
                 this.leftAppendTime.set(timeRecv);
             }
+            this.rightAppendTime.set(timeRecv);
+            this.curMessageCount.getAndAdd(msgCnt);
+            for (int i = 0; i < msgCnt; i++) {
+                this.keysMap.put(keyCodes[i], indexSizePos);
+                indexSizePos += DataStoreUtils.STORE_INDEX_HEAD_LEN;
+            }
+            this.queuesMap.put(partitionId, indexSizePos - DataStoreUtils.STORE_INDEX_HEAD_LEN);
         } finally {
             this.writeLock.unlock();
             if (!isAppended) {
                 memStatsHolder.addCacheFullType(fullDataSize, fullIndexSize, fullCount);
             }
         }
-        appendResult.putAppendResult(indexOffset, dataOffset);
         return true;
     }
 
@@ -215,32 +295,29 @@ public class MsgMemStore implements Closeable {
         int currDataOffset;
         long lastDataRdOff = lstRdDataOffset;
         int startReadOff = (int) (lstRdIndexOffset - this.writeIndexStartPos);
-        this.writeLock.lock();
-        try {
-            if (isFilterConsume) {
-                // filter conduct. accelerate by keysMap.
-                for (Integer keyCode : filterKeySet) {
-                    if (keyCode != null) {
-                        lastWritePos = this.keysMap.get(keyCode);
-                        if ((lastWritePos != null) && (lastWritePos >= startReadOff)) {
-                            hasMsg = true;
-                            break;
-                        }
+        // the positions are put into the maps after the cursors are published,
+        // so read the maps first, then take the snapshot of the cursors.
+        if (isFilterConsume) {
+            // filter conduct. accelerate by keysMap.
+            for (Integer keyCode : filterKeySet) {
+                if (keyCode != null) {
+                    lastWritePos = this.keysMap.get(keyCode);
+                    if ((lastWritePos != null) && (lastWritePos >= startReadOff)) {
+                        hasMsg = true;
+                        break;
                     }
                 }
-            } else {
-                // orderly consume by partition id.
-                lastWritePos = this.queuesMap.get(partitionId);
-                if ((lastWritePos != null) && (lastWritePos >= startReadOff)) {
-                    hasMsg = true;
-                }
             }
-            currDataOffset = this.cacheDataOffset.get();
-            currIndexOffset = this.cacheIndexOffset.get();
-            lastDataRdOff = this.writeDataStartPos + currDataOffset;
-        } finally {
-            this.writeLock.unlock();
+        } else {
+            // orderly consume by partition id.
+            lastWritePos = this.queuesMap.get(partitionId);
+            if ((lastWritePos != null) && (lastWritePos >= startReadOff)) {
+                hasMsg = true;
+            }
         }
+        currIndexOffset = this.cacheIndexOffset.get();
+        currDataOffset = this.cacheDataOffset.get();
+        lastDataRdOff = this.writeDataStartPos + currDataOffset;
         int limitReadSize = currIndexOffset - startReadOff;
         // cannot find message, return not found
         if (!hasMsg) {
@@ -327,13 +404,18 @@ public class MsgMemStore implements Closeable {
         if (this.curMessageCount.get() == 0) {
             return;
         }
+        // the store is sealed, flush the content before the published cursors
+        final int indexSize = this.cacheIndexOffset.get();
+        final int dataSize = this.cacheDataOffset.get();
         ByteBuffer tmpIndexBuffer = this.cachedIndexSegment.asReadOnlyBuffer();
         final ByteBuffer tmpDataReadBuf = this.cacheDataSegment.asReadOnlyBuffer();
-        tmpIndexBuffer.flip();
-        tmpDataReadBuf.flip();
+        tmpIndexBuffer.limit(indexSize);
+        tmpIndexBuffer.position(0);
+        tmpDataReadBuf.limit(dataSize);
+        tmpDataReadBuf.position(0);
         long startTime = System.currentTimeMillis();
         msgFileStore.appendMsg(true, startTime, strBuffer, curMessageCount.get(),
-                cacheIndexOffset.get(), tmpIndexBuffer, cacheDataOffset.get(),
+                indexSize, tmpIndexBuffer, dataSize,
                 tmpDataReadBuf, leftAppendTime.get(), rightAppendTime.get());
         BrokerSrvStatsHolder.updDiskSyncDataDlt(System.currentTimeMillis() - startTime);
     }
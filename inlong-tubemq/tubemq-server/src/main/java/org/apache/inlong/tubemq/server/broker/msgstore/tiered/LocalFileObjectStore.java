@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.tubemq.server.broker.msgstore.tiered;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Object store on the local file system, the object key is mapped to the file path under
+ * the root directory. It is used for testing, or for a mounted remote file system.
+ */
+public class LocalFileObjectStore implements TieredObjectStore {
+
+    private static final String TMP_FILE_SUFFIX = ".uploading";
+    private final File rootDir;
+
+    public LocalFileObjectStore(String rootPath) throws IOException {
+        this.rootDir = new File(rootPath);
+        if (!this.rootDir.exists() && !this.rootDir.mkdirs()) {
+            throw new IOException(new StringBuilder(512)
+                    .append("Could not make tiered store directory ")
+                    .append(this.rootDir.getAbsolutePath()).toString());
+        }
+    }
+
+    @Override
+    public void putObject(String objectKey, File file) throws IOException {
+        final File objectFile = getObjectFile(objectKey);
+        final File tmpFile = prepareTmpFile(objectFile);
+        Files.copy(file.toPath(), tmpFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        commitTmpFile(tmpFile, objectFile);
+    }
+
+    @Override
+    public void putObject(String objectKey, byte[] content) throws IOException {
+        final File objectFile = getObjectFile(objectKey);
+        final File tmpFile = prepareTmpFile(objectFile);
+        Files.write(tmpFile.toPath(), content);
+        commitTmpFile(tmpFile, objectFile);
+    }
+
+    @Override
+    public byte[] getObject(String objectKey) throws IOException {
+        return Files.readAllBytes(getObjectFile(objectKey).toPath());
+    }
+
+    @Override
+    public int readObject(String objectKey, long position, ByteBuffer bf) throws IOException {
+        final File objectFile = getObjectFile(objectKey);
+        if (!objectFile.exists()) {
+            throw new FileNotFoundException(new StringBuilder(512)
+                    .append("Tiered object ").append(objectKey)
+                    .append(" does not exist").toString());
+        }
+        try (RandomAccessFile randFile = new RandomAccessFile(objectFile, "r");
+                FileChannel channel = randFile.getChannel()) {
+            if (position >= channel.size()) {
+                return -1;
+            }
+            int size = 0;
+            while (bf.hasRemaining()) {
+                final int l = channel.read(bf, position + size);
+                if (l < 0) {
+                    break;
+                }
+                size += l;
+            }
+            return size;
+        }
+    }
+
+    @Override
+    public List<String> listObjects(String prefix) throws IOException {
+        final List<String> objectKeys = new ArrayList<>();
+        final Path rootPath = this.rootDir.toPath();
+        final File prefixFile = getObjectFile(prefix);
+        final File prefixDir = prefix.endsWith("/") ? prefixFile : prefixFile.getParentFile();
+        if (prefixDir == null || !prefixDir.isDirectory()) {
+            return objectKeys;
+        }
+        final File[] ls = prefixDir.listFiles();
+        if (ls == null) {
+            return objectKeys;
+        }
+        for (File file : ls) {
+            if (!file.isFile() || file.getName().endsWith(TMP_FILE_SUFFIX)) {
+                continue;
+            }
+            String objectKey = rootPath.relativize(file.toPath())
+                    .toString().replace(File.separatorChar, '/');
+            if (objectKey.startsWith(prefix)) {
+                objectKeys.add(objectKey);
+            }
+        }
+        return objectKeys;
+    }
+
+    @Override
+    public void deleteObject(String objectKey) throws IOException {
+        Files.deleteIfExists(getObjectFile(objectKey).toPath());
+    }
+
+    @Override
+    public void close() {
+        // nothing to release
+    }
+
+    private File getObjectFile(String objectKey) {
+        return new File(this.rootDir, objectKey.replace('/', File.separatorChar));
+    }
+
+    private File prepareTmpFile(File objectFile) throws IOException {
+        final File parentDir = objectFile.getParentFile();
+        if (!parentDir.exists() && !parentDir.mkdirs()) {
+            throw new IOException(new StringBuilder(512)
+                    .append("Could not make tiered object directory ")
+                    .append(parentDir.getAbsolutePath()).toString());
+        }
+        return new File(parentDir, objectFile.getName() + TMP_FILE_SUFFIX);
+    }
+
+    private void commitTmpFile(File tmpFile, File objectFile) throws IOException {
+        // the object is visible only after its whole content has been written
+        Files.move(tmpFile.toPath(), objectFile.toPath(),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
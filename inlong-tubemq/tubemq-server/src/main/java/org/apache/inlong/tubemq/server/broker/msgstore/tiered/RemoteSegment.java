@@ -0,0 +1,248 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.tubemq.server.broker.msgstore.tiered;
+
+import org.apache.inlong.tubemq.corerpc.RpcDataRegion;
+import org.apache.inlong.tubemq.server.broker.msgstore.disk.Segment;
+import org.apache.inlong.tubemq.server.broker.msgstore.disk.SegmentType;
+import org.apache.inlong.tubemq.server.broker.utils.DataStoreUtils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Sealed segment that has been offloaded to the tiered object store.
+ * The segment is read-only, and it is read through the tiered read cache.
+ */
+public class RemoteSegment implements Segment {
+
+    private static final Logger logger =
+            LoggerFactory.getLogger(RemoteSegment.class);
+    private final TieredStoreService tieredStore;
+    private final String objectKey;
+    private final SegmentType segmentType;
+    private final long start;
+    private final long size;
+    private final long leftAppendTime;
+    private final long rightAppendTime;
+    // the last modified time of the local segment file
+    private final long lastModified;
+    private long expiredTime = 0;
+    private final AtomicBoolean expired = new AtomicBoolean(false);
+    private final AtomicBoolean closed = new AtomicBoolean(false);
+
+    public RemoteSegment(TieredStoreService tieredStore, String objectKey,
+            SegmentType segmentType, long start, long size,
+            long leftAppendTime, long rightAppendTime, long lastModified) {
+        this.tieredStore = tieredStore;
+        this.objectKey = objectKey;
+        this.segmentType = segmentType;
+        this.start = start;
+        this.size = size;
+        this.leftAppendTime = leftAppendTime;
+        this.rightAppendTime = rightAppendTime;
+        this.lastModified = lastModified;
+    }
+
+    @Override
+    public void close() {
+        this.closed.set(true);
+    }
+
+    @Override
+    public long append(ByteBuffer buf, long leftTime, long rightTime) throws IOException {
+        throw new UnsupportedOperationException("[Tiered Store] Remote Segment is immutable!");
+    }
+
+    @Override
+    public long flush(boolean force) throws IOException {
+        return this.start + this.size;
+    }
+
+    /**
+     * Check whether this segment is expired, and set expire status.
+     *
+     * @param checkTimestamp check timestamp.
+     * @param maxValidTimeMs the max expire interval in milliseconds.
+     * @return -1 means already expired, 0 means not expired, 1 means expired.
+     */
+    @Override
+    public int checkAndSetExpired(long checkTimestamp, long maxValidTimeMs) {
+        if (expired.get()) {
+            return -1;
+        }
+        if (checkTimestamp - lastModified > maxValidTimeMs) {
+            if (expired.compareAndSet(false, true)) {
+                expiredTime = System.currentTimeMillis();
+            }
+            return 1;
+        }
+        return 0;
+    }
+
+    @Override
+    public boolean isClosed() {
+        return closed.get();
+    }
+
+    @Override
+    public boolean needDelete() {
+        return (expired.get()
+                && (System.currentTimeMillis() - expiredTime > TieredStoreService.DELETE_DELAY_MS));
+    }
+
+    @Override
+    public long getStart() {
+        return start;
+    }
+
+    @Override
+    public long getLast() {
+        return start + size;
+    }
+
+    @Override
+    public long getCommitLast() {
+        return start + size;
+    }
+
+    @Override
+    public File getFile() {
+        return new File(this.objectKey);
+    }
+
+    @Override
+    public void deleteFile() {
+        this.closed.set(true);
+        try {
+            logger.info(new StringBuilder(512)
+                    .append("[Tiered Store] delete object ")
+                    .append(this.objectKey).toString());
+            this.tieredStore.deleteSegment(this.objectKey);
+        } catch (Throwable e) {
+            logger.error(new StringBuilder(512)
+                    .append("[Tiered Store] failure to delete object ")
+                    .append(this.objectKey).toString(), e);
+        }
+    }
+
+    @Override
+    public long getCachedSize() {
+        return size;
+    }
+
+    @Override
+    public long getCommitSize() {
+        return size;
+    }
+
+    @Override
+    public boolean isExpired() {
+        return expired.get();
+    }
+
+    @Override
+    public boolean contains(long offset) {
+        return (this.size == 0 && offset == this.start
+                || this.size > 0 && offset >= this.start
+                        && offset <= this.start + this.size - 1);
+    }
+
+    @Override
+    public boolean isMutable() {
+        return false;
+    }
+
+    @Override
+    public void setMutable(boolean mutable) {
+        // always immutable
+    }
+
+    @Override
+    public void relViewRef() {
+
+    }
+
+    @Override
+    public void read(ByteBuffer bf, long absOffset) throws IOException {
+        relRead(bf, absOffset - this.start);
+    }
+
+    @Override
+    public void relRead(ByteBuffer bf, long relOffset) throws IOException {
+        this.tieredStore.getReadCache().read(this.objectKey, this.size, relOffset, bf);
+    }
+
+    /**
+     * The remote segment has no local file, its data must be read through the cache.
+     */
+    @Override
+    public RpcDataRegion getDataRegion(long absOffset, int count) {
+        throw new UnsupportedOperationException(
+                "[Tiered Store] Remote Segment does not support file region!");
+    }
+
+    @Override
+    public long getLeftAppendTime() {
+        return leftAppendTime;
+    }
+
+    @Override
+    public long getRightAppendTime() {
+        return rightAppendTime;
+    }
+
+    @Override
+    public boolean containTime(long timestamp) {
+        if (this.size == 0) {
+            return false;
+        }
+        return timestamp >= this.leftAppendTime
+                && timestamp <= this.rightAppendTime;
+    }
+
+    @Override
+    public long getRecordTime(long reqOffset) throws IOException {
+        ByteBuffer readUnit = ByteBuffer.allocate(DataStoreUtils.STORE_INDEX_HEAD_LEN);
+        read(readUnit, reqOffset);
+        readUnit.flip();
+        return readUnit.getLong(DataStoreUtils.INDEX_POS_TIME_RECV);
+    }
+
+    @Override
+    public long[] getTimeSearchRange(long timestamp, long endPos) throws IOException {
+        return new long[]{0, endPos};
+    }
+
+    public String getObjectKey() {
+        return objectKey;
+    }
+
+    public SegmentType getSegmentType() {
+        return segmentType;
+    }
+
+    public long getLastModified() {
+        return lastModified;
+    }
+}
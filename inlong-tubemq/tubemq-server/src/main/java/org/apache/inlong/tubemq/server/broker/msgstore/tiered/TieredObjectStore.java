@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.tubemq.server.broker.msgstore.tiered;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Object store that keeps the offloaded segments, the objects are immutable once put.
+ * The object keys are separated by '/'.
+ */
+public interface TieredObjectStore extends Closeable {
+
+    /**
+     * Put the file content as an object.
+     *
+     * @param objectKey      the object key
+     * @param file           the file to upload
+     * @throws IOException   exception while uploading
+     */
+    void putObject(String objectKey, File file) throws IOException;
+
+    /**
+     * Put the byte content as an object.
+     *
+     * @param objectKey      the object key
+     * @param content        the object content
+     * @throws IOException   exception while uploading
+     */
+    void putObject(String objectKey, byte[] content) throws IOException;
+
+    /**
+     * Get the whole content of the object.
+     *
+     * @param objectKey      the object key
+     * @return               the object content
+     * @throws IOException   exception while reading, or the object does not exist
+     */
+    byte[] getObject(String objectKey) throws IOException;
+
+    /**
+     * Read the object range to buffer.
+     *
+     * @param objectKey      the object key
+     * @param position       the start position in the object
+     * @param bf             the buffer to store the data
+     * @return               the read length, -1 if the position is beyond the object end
+     * @throws IOException   exception while reading
+     */
+    int readObject(String objectKey, long position, ByteBuffer bf) throws IOException;
+
+    /**
+     * List the object keys with the prefix.
+     *
+     * @param prefix         the key prefix
+     * @return               the object keys
+     * @throws IOException   exception while listing
+     */
+    List<String> listObjects(String prefix) throws IOException;
+
+    void deleteObject(String objectKey) throws IOException;
+}
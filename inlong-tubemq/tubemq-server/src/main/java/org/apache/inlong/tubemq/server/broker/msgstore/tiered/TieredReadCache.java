@@ -0,0 +1,191 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.tubemq.server.broker.msgstore.tiered;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded read-ahead cache of the tiered objects.
+ *
+ * The objects are cached in fixed size chunks and evicted in LRU order once the total
+ * cached size exceeds the limit. When a chunk misses, the chunk and the following
+ * read-ahead chunks are fetched in one request, since the consumers usually read the
+ * remote segments sequentially.
+ */
+public class TieredReadCache {
+
+    public static final int CACHE_CHUNK_SIZE = 64 * 1024;
+    private final TieredObjectStore objectStore;
+    private final long maxCacheSize;
+    private final int readAheadChunks;
+    // chunk key to chunk data, in access order
+    private final LinkedHashMap<ChunkKey, byte[]> cachedChunks =
+            new LinkedHashMap<>(64, 0.75f, true);
+    private long cachedSize = 0L;
+    private final AtomicLong hitCount = new AtomicLong(0);
+    private final AtomicLong missCount = new AtomicLong(0);
+
+    /**
+     * Initial the read cache.
+     *
+     * @param objectStore     the object store to read from
+     * @param maxCacheSize    the max cached size in bytes
+     * @param readAheadSize   the read-ahead size in bytes after the missed chunk
+     */
+    public TieredReadCache(TieredObjectStore objectStore,
+            long maxCacheSize, int readAheadSize) {
+        this.objectStore = objectStore;
+        this.maxCacheSize = Math.max(maxCacheSize, CACHE_CHUNK_SIZE);
+        this.readAheadChunks = Math.max(0, readAheadSize / CACHE_CHUNK_SIZE);
+    }
+
+    /**
+     * Read the object range to buffer through the cache.
+     *
+     * @param objectKey      the object key
+     * @param objectSize     the object size
+     * @param position       the start position in the object
+     * @param bf             the buffer to store the data
+     * @throws IOException   exception while fetching the missed chunks
+     */
+    public void read(String objectKey, long objectSize,
+            long position, ByteBuffer bf) throws IOException {
+        long readPos = position;
+        while (bf.hasRemaining() && readPos < objectSize) {
+            final long chunkIndex = readPos / CACHE_CHUNK_SIZE;
+            final byte[] chunk = getChunk(objectKey, objectSize, chunkIndex);
+            final int chunkPos = (int) (readPos - chunkIndex * CACHE_CHUNK_SIZE);
+            if (chunkPos >= chunk.length) {
+                break;
+            }
+            final int readLen = Math.min(bf.remaining(), chunk.length - chunkPos);
+            bf.put(chunk, chunkPos, readLen);
+            readPos += readLen;
+        }
+    }
+
+    /**
+     * Remove the cached chunks of the object.
+     *
+     * @param objectKey   the object key
+     */
+    public void invalidate(String objectKey) {
+        synchronized (this.cachedChunks) {
+            Iterator<Map.Entry<ChunkKey, byte[]>> iterator =
+                    this.cachedChunks.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<ChunkKey, byte[]> entry = iterator.next();
+                if (entry.getKey().objectKey.equals(objectKey)) {
+                    this.cachedSize -= entry.getValue().length;
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    public long getCachedSize() {
+        synchronized (this.cachedChunks) {
+            return this.cachedSize;
+        }
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    private byte[] getChunk(String objectKey, long objectSize,
+            long chunkIndex) throws IOException {
+        synchronized (this.cachedChunks) {
+            final byte[] chunk = this.cachedChunks.get(new ChunkKey(objectKey, chunkIndex));
+            if (chunk != null) {
+                this.hitCount.incrementAndGet();
+                return chunk;
+            }
+        }
+        this.missCount.incrementAndGet();
+        // fetch the missed chunk and the read-ahead chunks in one request
+        final long fetchStart = chunkIndex * CACHE_CHUNK_SIZE;
+        final long fetchEnd = Math.min(objectSize,
+                fetchStart + (long) (this.readAheadChunks + 1) * CACHE_CHUNK_SIZE);
+        final ByteBuffer fetchBuf = ByteBuffer.allocate((int) (fetchEnd - fetchStart));
+        this.objectStore.readObject(objectKey, fetchStart, fetchBuf);
+        fetchBuf.flip();
+        byte[] firstChunk = new byte[0];
+        synchronized (this.cachedChunks) {
+            for (long index = chunkIndex; fetchBuf.hasRemaining(); index++) {
+                final byte[] chunk = new byte[Math.min(CACHE_CHUNK_SIZE, fetchBuf.remaining())];
+                fetchBuf.get(chunk);
+                if (index == chunkIndex) {
+                    firstChunk = chunk;
+                }
+                putChunk(new ChunkKey(objectKey, index), chunk);
+            }
+        }
+        return firstChunk;
+    }
+
+    private void putChunk(ChunkKey chunkKey, byte[] chunk) {
+        final byte[] oldChunk = this.cachedChunks.put(chunkKey, chunk);
+        this.cachedSize += chunk.length - (oldChunk == null ? 0 : oldChunk.length);
+        Iterator<byte[]> iterator = this.cachedChunks.values().iterator();
+        while (this.cachedSize > this.maxCacheSize
+                && this.cachedChunks.size() > 1 && iterator.hasNext()) {
+            this.cachedSize -= iterator.next().length;
+            iterator.remove();
+        }
+    }
+
+    private static class ChunkKey {
+
+        private final String objectKey;
+        private final long chunkIndex;
+
+        public ChunkKey(String objectKey, long chunkIndex) {
+            this.objectKey = objectKey;
+            this.chunkIndex = chunkIndex;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ChunkKey)) {
+                return false;
+            }
+            ChunkKey that = (ChunkKey) o;
+            return chunkIndex == that.chunkIndex
+                    && objectKey.equals(that.objectKey);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(objectKey, chunkIndex);
+        }
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.tubemq.server.broker.msgstore.tiered;
+
+import org.apache.inlong.tubemq.server.broker.msgstore.disk.Segment;
+import org.apache.inlong.tubemq.server.broker.msgstore.disk.SegmentType;
+import org.apache.inlong.tubemq.server.broker.utils.DataStoreUtils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tiered storage of the sealed segments.
+ *
+ * The expired local segments are offloaded to the object store instead of being deleted,
+ * and they are kept in the store's segment list as remote segments until the tiered valid
+ * duration expires. Each segment is put as a data object and a meta object, the meta object
+ * is put after the data object, so only the completely uploaded segments are loaded.
+ * The uploads run on the service's own offload thread, not on the store clear-up thread.
+ */
+public class TieredStoreService {
+
+    private static final Logger logger =
+            LoggerFactory.getLogger(TieredStoreService.class);
+    // the delay to delete the replaced or expired segments, for the in-flight reads
+    public static final long DELETE_DELAY_MS = 120000L;
+    private static final String META_SUFFIX = ".meta";
+    private static final int META_LENGTH = 40;
+    private final TieredObjectStore objectStore;
+    private final TieredReadCache readCache;
+    private final long validDurMs;
+    private final AtomicLong offloadedSegCnt = new AtomicLong(0);
+    private final AtomicLong offloadedDataSize = new AtomicLong(0);
+    // the executor to upload the segments
+    private final ExecutorService offloadExecutor;
+
+    /**
+     * Initial the tiered store service.
+     *
+     * @param objectStore      the object store to offload segments
+     * @param validDurMs       the max valid duration of the offloaded segments
+     * @param readCacheSize    the max size of the read cache
+     * @param readAheadSize    the read-ahead size of the read cache
+     */
+    public TieredStoreService(TieredObjectStore objectStore, long validDurMs,
+            long readCacheSize, int readAheadSize) {
+        this.objectStore = objectStore;
+        this.validDurMs = validDurMs;
+        this.readCache = new TieredReadCache(objectStore, readCacheSize, readAheadSize);
+        this.offloadExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "Broker Tiered Store Offload Thread");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Submit the offload task of a store to the offload thread.
+     *
+     * @param offloadTask    the task uploading the store's expired segments
+     */
+    public void submitOffload(Runnable offloadTask) {
+        this.offloadExecutor.execute(offloadTask);
+    }
+
+    /**
+     * Upload the sealed segment to the object store.
+     *
+     * @param storeKey       the store key of the segment
+     * @param segType        the segment type
+     * @param segment        the sealed local segment
+     * @return               the remote segment to replace the local segment
+     * @throws IOException   exception while uploading
+     */
+    public RemoteSegment offloadSegment(String storeKey, SegmentType segType,
+            Segment segment) throws IOException {
+        final String objectKey = getObjectKey(storeKey, segType, segment.getStart());
+        final long lastModified = segment.getFile().lastModified();
+        this.objectStore.putObject(objectKey, segment.getFile());
+        final ByteBuffer metaBuf = ByteBuffer.allocate(META_LENGTH);
+        metaBuf.putLong(segment.getStart());
+        metaBuf.putLong(segment.getCachedSize());
+        metaBuf.putLong(segment.getLeftAppendTime());
+        metaBuf.putLong(segment.getRightAppendTime());
+        metaBuf.putLong(lastModified);
+        this.objectStore.putObject(objectKey + META_SUFFIX, metaBuf.array());
+        this.offloadedSegCnt.incrementAndGet();
+        this.offloadedDataSize.addAndGet(segment.getCachedSize());
+        return new RemoteSegment(this, objectKey, segType, segment.getStart(),
+                segment.getCachedSize(), segment.getLeftAppendTime(),
+                segment.getRightAppendTime(), lastModified);
+    }
+
+    /**
+     * Load the offloaded segments of the store.
+     *
+     * @param storeKey       the store key
+     * @param segType        the segment type
+     * @return               the remote segments sorted by start offset
+     * @throws IOException   exception while listing or reading the meta objects
+     */
+    public List<RemoteSegment> loadSegments(String storeKey,
+            SegmentType segType) throws IOException {
+        final List<RemoteSegment> segments = new ArrayList<>();
+        for (String metaKey : this.objectStore.listObjects(getKeyPrefix(storeKey, segType))) {
+            if (!metaKey.endsWith(META_SUFFIX)) {
+                continue;
+            }
+            final byte[] metaBytes = this.objectStore.getObject(metaKey);
+            if (metaBytes.length != META_LENGTH) {
+                logger.warn(new StringBuilder(512)
+                        .append("[Tiered Store] skip invalid meta object ")
+                        .append(metaKey).toString());
+                continue;
+            }
+            final ByteBuffer metaBuf = ByteBuffer.wrap(metaBytes);
+            segments.add(new RemoteSegment(this,
+                    metaKey.substring(0, metaKey.length() - META_SUFFIX.length()),
+                    segType, metaBuf.getLong(), metaBuf.getLong(),
+                    metaBuf.getLong(), metaBuf.getLong(), metaBuf.getLong()));
+        }
+        segments.sort(Comparator.comparingLong(RemoteSegment::getStart));
+        return segments;
+    }
+
+    /**
+     * Delete the offloaded segment from the object store.
+     *
+     * @param objectKey      the object key of the segment
+     * @throws IOException   exception while deleting
+     */
+    public void deleteSegment(String objectKey) throws IOException {
+        // delete the meta object first, the data object is not loaded without it
+        this.objectStore.deleteObject(objectKey + META_SUFFIX);
+        this.objectStore.deleteObject(objectKey);
+        this.readCache.invalidate(objectKey);
+    }
+
+    public TieredReadCache getReadCache() {
+        return readCache;
+    }
+
+    public long getValidDurMs() {
+        return validDurMs;
+    }
+
+    public long getOffloadedSegCnt() {
+        return offloadedSegCnt.get();
+    }
+
+    public long getOffloadedDataSize() {
+        return offloadedDataSize.get();
+    }
+
+    public void close() {
+        this.offloadExecutor.shutdownNow();
+        try {
+            this.objectStore.close();
+        } catch (Throwable e) {
+            logger.error("[Tiered Store] close object store failure", e);
+        }
+    }
+
+    private String getKeyPrefix(String storeKey, SegmentType segType) {
+        return new StringBuilder(512).append(storeKey).append("/")
+                .append(segType == SegmentType.DATA ? "data" : "index")
+                .append("/").toString();
+    }
+
+    private String getObjectKey(String storeKey, SegmentType segType, long start) {
+        return getKeyPrefix(storeKey, segType) + DataStoreUtils.nameFromOffset(start,
+                segType == SegmentType.DATA
+                        ? DataStoreUtils.DATA_FILE_SUFFIX
+                        : DataStoreUtils.INDEX_FILE_SUFFIX);
+    }
+}
@@ -20,6 +20,7 @@ package org.apache.inlong.tubemq.server.broker.offset;
 import org.apache.inlong.tubemq.corebase.TBaseConstants;
 import org.apache.inlong.tubemq.corebase.daemon.AbstractDaemonService;
 import org.apache.inlong.tubemq.corebase.rv.RetValue;
+import org.apache.inlong.tubemq.corebase.utils.ConcurrentHashSet;
 import org.apache.inlong.tubemq.corebase.utils.MixedUtils;
 import org.apache.inlong.tubemq.corebase.utils.TStringUtils;
 import org.apache.inlong.tubemq.corebase.utils.Tuple2;
@@ -40,13 +41,21 @@ import org.apache.inlong.tubemq.server.common.TServerConstants;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
@@ -70,6 +79,10 @@ public class DefaultOffsetManager extends AbstractDaemonService implements Offse
             new ConcurrentHashMap<>();
     private final ConcurrentHashMap<String, OffsetHistoryInfo> offlineGroupHisInfoMap =
             new ConcurrentHashMap<>();
+    // the groups that have offsets modified since the last commit
+    private final ConcurrentHashSet<String> dirtyGroups = new ConcurrentHashSet<>();
+    private final int commitShardCnt;
+    private final ExecutorService commitExecutor;
 
     public DefaultOffsetManager(final BrokerConfig brokerConfig,
             final MetadataManager metadataManager) {
@@ -78,7 +91,22 @@ public class DefaultOffsetManager extends AbstractDaemonService implements Offse
         this.metadataManager = metadataManager;
         this.fileOffsetStorage = new FileOffsetStorage(brokerConfig.getBrokerId(),
                 brokerConfig.getOffsetStgFilePath(), brokerConfig.getOffsetStgFileSyncMs(),
-                brokerConfig.getOffsetStgSyncDurWarnMs());
+                brokerConfig.getOffsetStgSyncDurWarnMs(), brokerConfig.isEnableOffsetStgLog(),
+                brokerConfig.getOffsetStgLogCompactSize(), brokerConfig.getOffsetStgLogCompactDurMs());
+        this.commitShardCnt = brokerConfig.getOffsetStgCommitShardCnt();
+        this.commitExecutor = Executors.newFixedThreadPool(this.commitShardCnt,
+                new ThreadFactory() {
+
+                    private final AtomicInteger threadIndex = new AtomicInteger(0);
+
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        Thread t = new Thread(r,
+                                "Offset Commit Thread-" + threadIndex.getAndIncrement());
+                        t.setDaemon(true);
+                        return t;
+                    }
+                });
         if (brokerConfig.getZkConfig() != null
                 && (this.fileOffsetStorage.isFistUseFileStg()
                         || this.brokerConfig.isEnableWriteOffset2Zk())) {
@@ -157,6 +185,7 @@ public class DefaultOffsetManager extends AbstractDaemonService implements Offse
         this.commitTmpOffsets();
         logger.info("[Offset Manager] begin reserve final Offset.....");
         this.commitCfmOffsets(true);
+        this.commitExecutor.shutdown();
         this.fileOffsetStorage.close();
         if (this.zkOffsetStorage != null) {
             logger.info("[Offset Manager] begin shutdown offset loader.....");
@@ -200,6 +229,7 @@ public class DefaultOffsetManager extends AbstractDaemonService implements Offse
                 adjOffset = MixedUtils.mid(reqOffset, indexMinOffset, indexMaxOffset);
             }
             regInfo.getAndSetOffset(adjOffset);
+            this.dirtyGroups.add(group);
         }
         sBuilder.append("[Offset Manager]");
         switch (readStatus) {
@@ -338,6 +368,7 @@ public class DefaultOffsetManager extends AbstractDaemonService implements Offse
             return regInfo.getOffset();
         }
         updatedOffset = regInfo.addAndGetOffset(tmpOffset);
+        this.dirtyGroups.add(group);
         if (logger.isDebugEnabled()) {
             logger.debug(new StringBuilder(512)
                     .append("[Offset Manager] Update offset finished, offset=").append(updatedOffset)
@@ -370,6 +401,7 @@ public class DefaultOffsetManager extends AbstractDaemonService implements Offse
             OffsetStorageInfo regInfo =
                     loadOrCreateOffset(group, topic, partitionId, offsetCacheKey, 0);
             oldOffset = regInfo.getAndSetOffset(reSetOffset);
+            this.dirtyGroups.add(group);
             long currentOffset = regInfo.getOffset();
             long offsetDelta = indexMaxOffset - currentOffset;
             logger.info(new StringBuilder(512)
@@ -670,6 +702,7 @@ public class DefaultOffsetManager extends AbstractDaemonService implements Offse
                 OffsetStorageInfo regInfo = loadOrCreateOffset(group,
                         tuple3.getF0(), tuple3.getF1(), offsetCacheKey, 0);
                 oldOffset = regInfo.getAndSetOffset(tuple3.getF2());
+                this.dirtyGroups.add(group);
                 changed = true;
                 logger.info(strBuff
                         .append("[Offset Manager] Update offset by modifier=")
@@ -716,6 +749,7 @@ public class DefaultOffsetManager extends AbstractDaemonService implements Offse
                 OffsetStorageInfo regInfo = loadOrCreateOffset(group,
                         tuple4.getF1(), tuple4.getF2(), offsetCacheKey, 0);
                 oldOffset = regInfo.getAndSetOffset(tuple4.getF3());
+                this.dirtyGroups.add(group);
                 changed = true;
                 logger.info(strBuff.append("[Offset Manager2] Update offset by modifier=").append(modifier)
                         .append(",recordTime=").append(tuple4.getF0())
@@ -849,34 +883,103 @@ public class DefaultOffsetManager extends AbstractDaemonService implements Offse
         }
     }
 
+    /**
+     * Commit the modified offsets of the dirty groups.
+     * The dirty groups are split into shards by group name, and each shard
+     * is committed on the commit executor in parallel.
+     *
+     * @param retryable   whether retry if failure
+     * @return            whether the file storage is updated
+     */
     private boolean commitCfmOffsets(boolean retryable) {
+        if (this.dirtyGroups.isEmpty()) {
+            return false;
+        }
         boolean updated = false;
         long startTime = System.currentTimeMillis();
-        if (this.zkOffsetStorage == null) {
-            for (Map.Entry<String, ConcurrentHashMap<String, OffsetStorageInfo>> entry : cfmOffsetMap.entrySet()) {
-                if (TStringUtils.isBlank(entry.getKey())
-                        || entry.getValue() == null || entry.getValue().isEmpty()) {
-                    continue;
+        List<List<String>> groupShards = new ArrayList<>(this.commitShardCnt);
+        for (int i = 0; i < this.commitShardCnt; i++) {
+            groupShards.add(new ArrayList<>());
+        }
+        for (String group : this.dirtyGroups) {
+            // remove before committing, the group modified later is committed next time
+            this.dirtyGroups.remove(group);
+            groupShards.get((group.hashCode() & Integer.MAX_VALUE) % this.commitShardCnt).add(group);
+        }
+        List<Future<Boolean>> commitFutures = new ArrayList<>(this.commitShardCnt);
+        for (List<String> groupShard : groupShards) {
+            if (groupShard.isEmpty()) {
+                continue;
+            }
+            try {
+                commitFutures.add(this.commitExecutor.submit(
+                        () -> commitGroupOffsets(groupShard, retryable)));
+            } catch (RejectedExecutionException e) {
+                if (commitGroupOffsets(groupShard, retryable)) {
+                    updated = true;
                 }
-                if (this.fileOffsetStorage.commitOffset(entry.getKey(), entry.getValue().values(), retryable)) {
+            }
+        }
+        for (Future<Boolean> commitFuture : commitFutures) {
+            try {
+                if (commitFuture.get()) {
                     updated = true;
                 }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException e) {
+                logger.error("[Offset Manager] commit group offsets throw error ", e.getCause());
             }
-            BrokerSrvStatsHolder.updOffsetFileSyncDataDlt(System.currentTimeMillis() - startTime);
-        } else {
-            for (Map.Entry<String, ConcurrentHashMap<String, OffsetStorageInfo>> entry : cfmOffsetMap.entrySet()) {
-                if (TStringUtils.isBlank(entry.getKey())
-                        || entry.getValue() == null || entry.getValue().isEmpty()) {
-                    continue;
+        }
+        long endTime = System.currentTimeMillis();
+        if (this.zkOffsetStorage != null) {
+            BrokerSrvStatsHolder.updZKSyncDataDlt(endTime - startTime);
+        }
+        BrokerSrvStatsHolder.updOffsetFileSyncDataDlt(endTime - startTime);
+        return updated;
+    }
+
+    private boolean commitGroupOffsets(List<String> groups, boolean retryable) {
+        boolean updated = false;
+        for (String group : groups) {
+            ConcurrentHashMap<String, OffsetStorageInfo> regInfoMap = cfmOffsetMap.get(group);
+            if (regInfoMap == null || regInfoMap.isEmpty()) {
+                continue;
+            }
+            List<OffsetStorageInfo> modifiedInfos = new ArrayList<>();
+            for (OffsetStorageInfo regInfo : regInfoMap.values()) {
+                // reset the flag before the storages read the offset
+                if (regInfo.isModified()) {
+                    regInfo.setModified(false);
+                    modifiedInfos.add(regInfo);
                 }
-                if (this.fileOffsetStorage.commitOffset(entry.getKey(), entry.getValue().values(), retryable)) {
+            }
+            if (modifiedInfos.isEmpty()) {
+                continue;
+            }
+            boolean committed = false;
+            try {
+                committed = this.fileOffsetStorage.commitOffset(group, modifiedInfos, retryable);
+                if (committed) {
                     updated = true;
                 }
-                this.zkOffsetStorage.commitOffset(entry.getKey(), entry.getValue().values(), retryable);
+                if (this.zkOffsetStorage != null) {
+                    this.zkOffsetStorage.commitOffset(group, modifiedInfos, retryable);
+                }
+            } catch (Throwable e) {
+                logger.error(new StringBuilder(512)
+                        .append("[Offset Manager] commit offsets of group ")
+                        .append(group).append(" failure").toString(), e);
+            } finally {
+                if (!committed) {
+                    // restore the flags, the group is committed again next time
+                    for (OffsetStorageInfo regInfo : modifiedInfos) {
+                        regInfo.setModified(true);
+                    }
+                    this.dirtyGroups.add(group);
+                }
             }
-            long endTime = System.currentTimeMillis();
-            BrokerSrvStatsHolder.updZKSyncDataDlt(endTime - startTime);
-            BrokerSrvStatsHolder.updOffsetFileSyncDataDlt(endTime - startTime);
         }
         return updated;
     }
@@ -914,6 +1017,9 @@ public class DefaultOffsetManager extends AbstractDaemonService implements Offse
             regInfo = regInfoMap.putIfAbsent(offsetCacheKey, tmpRegInfo);
             if (regInfo == null) {
                 regInfo = tmpRegInfo;
+                if (regInfo.isModified()) {
+                    this.dirtyGroups.add(group);
+                }
             }
         }
         return regInfo;
@@ -30,6 +30,16 @@ public interface OffsetStorage {
 
     OffsetStorageInfo loadOffset(String group, String topic, int partitionId);
 
+    /**
+     * Commit the offsets of the group.
+     * The offset service only passes the entries modified since the last commit,
+     * and it resets their modified flags before the call.
+     *
+     * @param group            the consume group name
+     * @param offsetInfoList   the modified offset entries of the group
+     * @param isFailRetry      whether retry if failure
+     * @return                 whether the storage content is updated
+     */
     boolean commitOffset(String group, Collection<OffsetStorageInfo> offsetInfoList, boolean isFailRetry);
 
     Map<String, Set<String>> queryGroupTopicInfo(Set<String> groups);
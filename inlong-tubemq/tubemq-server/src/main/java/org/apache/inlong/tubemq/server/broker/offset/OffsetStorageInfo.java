@@ -36,7 +36,7 @@ public class OffsetStorageInfo implements Serializable {
     private boolean firstCreate = false;
     private long firstOffset = TBaseConstants.META_VALUE_UNDEFINED;
     private long createTime = TBaseConstants.META_VALUE_UNDEFINED;
-    private boolean modified = false;
+    private volatile boolean modified = false;
     private final AtomicLong lstUpdateTime = new AtomicLong(0);
 
     /**
@@ -132,18 +132,24 @@ public class OffsetStorageInfo implements Serializable {
         this.modified = modified;
     }
 
+    // the modified flag is set after the offset is updated, so that a commit
+    // clearing the flag before reading the offset never misses an update
     public long addAndGetOffset(long tmpOffset) {
         this.firstCreate = false;
-        this.modified = true;
         this.lstUpdateTime.set(System.currentTimeMillis());
-        return this.offset.addAndGet(tmpOffset - tmpOffset % DataStoreUtils.STORE_INDEX_HEAD_LEN);
+        long newOffset =
+                this.offset.addAndGet(tmpOffset - tmpOffset % DataStoreUtils.STORE_INDEX_HEAD_LEN);
+        this.modified = true;
+        return newOffset;
     }
 
     public long getAndSetOffset(long absOffset) {
         this.firstCreate = false;
-        this.modified = true;
         this.lstUpdateTime.set(System.currentTimeMillis());
-        return this.offset.getAndSet(absOffset - absOffset % DataStoreUtils.STORE_INDEX_HEAD_LEN);
+        long oldOffset =
+                this.offset.getAndSet(absOffset - absOffset % DataStoreUtils.STORE_INDEX_HEAD_LEN);
+        this.modified = true;
+        return oldOffset;
     }
 
     @Override
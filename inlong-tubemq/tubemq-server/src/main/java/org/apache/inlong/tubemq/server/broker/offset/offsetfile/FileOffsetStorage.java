@@ -34,10 +34,12 @@ import org.slf4j.LoggerFactory;
 import java.io.File;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -61,13 +63,40 @@ public class FileOffsetStorage extends AbstractDaemonService implements OffsetSt
     private final AtomicBoolean isUpdated = new AtomicBoolean(false);
     private GroupOffsetStgInfo groupOffsetInfo;
     private final ConcurrentHashMap<String, ConcurrentHashSet<String>> groupTopicsInfo = new ConcurrentHashMap<>();
+    // the offset log, the changed offsets are appended to it instead of storing the whole
+    // snapshot, and it is compacted into the snapshot periodically; null if not enabled
+    private final OffsetLogFile offsetLogFile;
+    private final long logCompactSize;
+    private final long logCompactDurMs;
+    private long lstCompactTime = System.currentTimeMillis();
+    // the changed offset keys of groups that are not yet appended to the offset log
+    private final ConcurrentHashMap<String, Set<String>> unLoggedOffsetKeys = new ConcurrentHashMap<>();
 
     public FileOffsetStorage(int brokerId, String offsetFilePath, long syncIntMs, long syncDurWarnMs) {
+        this(brokerId, offsetFilePath, syncIntMs, syncDurWarnMs, false, 0L, 0L);
+    }
+
+    /**
+     * Initial the file offset storage.
+     *
+     * @param brokerId          the broker id
+     * @param offsetFilePath    the offset storage path
+     * @param syncIntMs         the sync interval to the file
+     * @param syncDurWarnMs     the warning threshold of the sync duration
+     * @param enableOffsetLog   whether to append the changed offsets to the offset log
+     * @param logCompactSize    the offset log size that triggers the compaction
+     * @param logCompactDurMs   the max interval of the offset log compaction
+     */
+    public FileOffsetStorage(int brokerId, String offsetFilePath, long syncIntMs,
+            long syncDurWarnMs, boolean enableOffsetLog, long logCompactSize, long logCompactDurMs) {
         super("Offset-File", syncIntMs);
         this.brokerId = brokerId;
         this.syncDurWarnMs = syncDurWarnMs;
         this.offsetsDirBase = offsetFilePath + File.separator + offsetSubDir;
         this.offsetsFileBase = this.offsetsDirBase + File.separator + OFFSET_FILENAME;
+        this.offsetLogFile = enableOffsetLog ? new OffsetLogFile(this.offsetsDirBase) : null;
+        this.logCompactSize = logCompactSize;
+        this.logCompactDurMs = logCompactDurMs;
     }
 
     @Override
@@ -91,11 +120,23 @@ public class FileOffsetStorage extends AbstractDaemonService implements OffsetSt
         if (!this.isStarted.get()) {
             return;
         }
-        if (!this.isUpdated.compareAndSet(true, false)) {
-            return;
-        }
         long curStartTime = System.currentTimeMillis();
-        storeOffsetStgInfoToFile(this.groupOffsetInfo, this.offsetsFileBase);
+        if (this.offsetLogFile != null) {
+            // append the changed offsets, compact the log if removed records or oversized
+            if (this.isUpdated.get()
+                    || this.offsetLogFile.getCurSegSize() >= this.logCompactSize
+                    || (curStartTime - this.lstCompactTime >= this.logCompactDurMs
+                            && this.offsetLogFile.getCurSegSize() > 0)) {
+                compactOffsetLog();
+            } else {
+                appendOffsetLog();
+            }
+        } else {
+            if (!this.isUpdated.compareAndSet(true, false)) {
+                return;
+            }
+            storeOffsetStgInfoToFile(this.groupOffsetInfo, this.offsetsFileBase);
+        }
         long wastMs = System.currentTimeMillis() - curStartTime;
         if (wastMs > syncDurWarnMs) {
             logger.warn("[File offsets] sync offsets to file over warn value, wast={}ms, warnMs={}",
@@ -111,7 +152,12 @@ public class FileOffsetStorage extends AbstractDaemonService implements OffsetSt
         super.stop();
         logger.info("[File offsets] begin sync content to file, begin");
         long curStartTime = System.currentTimeMillis();
-        storeOffsetStgInfoToFile(this.groupOffsetInfo, this.offsetsFileBase);
+        if (this.offsetLogFile != null) {
+            compactOffsetLog();
+            this.offsetLogFile.close();
+        } else {
+            storeOffsetStgInfoToFile(this.groupOffsetInfo, this.offsetsFileBase);
+        }
         long wastMs = System.currentTimeMillis() - curStartTime;
         if (wastMs > syncDurWarnMs) {
             logger.warn("[File offsets] close and sync offsets to file, wast={}ms, warnMs={}",
@@ -162,12 +208,24 @@ public class FileOffsetStorage extends AbstractDaemonService implements OffsetSt
         if (offsetInfoList == null || offsetInfoList.isEmpty()) {
             return false;
         }
-        if (this.groupOffsetInfo.storeOffsetStgInfo(
+        if (!this.groupOffsetInfo.storeOffsetStgInfo(
                 group, offsetInfoList, this.groupTopicsInfo)) {
+            return false;
+        }
+        if (this.offsetLogFile == null) {
             isUpdated.set(true);
-            return true;
+        } else {
+            // record the keys atomically with the draining of the group
+            this.unLoggedOffsetKeys.compute(group, (k, v) -> {
+                Set<String> offsetKeys = (v == null) ? new HashSet<>() : v;
+                for (OffsetStorageInfo info : offsetInfoList) {
+                    offsetKeys.add(OffsetStgInfo.buildOffsetKey(
+                            info.getTopic(), info.getPartitionId()));
+                }
+                return offsetKeys;
+            });
         }
-        return false;
+        return true;
     }
 
     @Override
@@ -413,6 +471,9 @@ public class FileOffsetStorage extends AbstractDaemonService implements OffsetSt
                 return false;
             }
         }
+        if (!replayOffsetLog(tmpOffsetInfoMap)) {
+            return false;
+        }
         this.groupOffsetInfo = tmpOffsetInfoMap;
         Map<String, OffsetStgInfo> offsetStgInfos = tmpOffsetInfoMap.getGroupOffsetStgInfo();
         if (offsetStgInfos == null || offsetStgInfos.isEmpty()) {
@@ -448,6 +509,106 @@ public class FileOffsetStorage extends AbstractDaemonService implements OffsetSt
         return true;
     }
 
+    private boolean replayOffsetLog(GroupOffsetStgInfo offsetStgInfo) {
+        // the log is replayed even if not enabled, to recover the offsets logged before
+        OffsetLogFile logFile = (this.offsetLogFile == null)
+                ? new OffsetLogFile(this.offsetsDirBase)
+                : this.offsetLogFile;
+        try {
+            long recordCnt = logFile.replay(offsetStgInfo, offsetStgInfo.getLstLogSeq());
+            if (this.offsetLogFile == null) {
+                if (recordCnt > 0 || offsetStgInfo.getLstLogSeq() > 0) {
+                    offsetStgInfo.setLstLogSeq(0);
+                    RetValue retValue = storeOffsetStgInfoToFile(offsetStgInfo, this.offsetsFileBase);
+                    if (!retValue.isSuccess()) {
+                        return false;
+                    }
+                }
+                logFile.deleteSegmentsBefore(Long.MAX_VALUE);
+            } else {
+                // the following records are appended to a new segment,
+                // keep the replayed segments until the next compaction
+                logFile.rollSegment();
+            }
+            logger.info("[File offsets] replayed {} records of the offset log", recordCnt);
+            return true;
+        } catch (Throwable ex) {
+            if (ex instanceof IOException) {
+                ServiceStatusHolder.addReadIOErrCnt();
+                BrokerSrvStatsHolder.incDiskIOExcCnt();
+            }
+            logger.error("[File offsets] replay offset log failure", ex);
+            return false;
+        }
+    }
+
+    private void appendOffsetLog() {
+        if (this.unLoggedOffsetKeys.isEmpty()) {
+            return;
+        }
+        boolean appended = false;
+        List<PartStgInfo> partInfos = new ArrayList<>();
+        try {
+            for (String group : this.unLoggedOffsetKeys.keySet()) {
+                Set<String> offsetKeys = this.unLoggedOffsetKeys.remove(group);
+                Map<String, PartStgInfo> partStgInfos =
+                        this.groupOffsetInfo.getOffsetStgInfos(group);
+                if (offsetKeys == null || partStgInfos == null) {
+                    continue;
+                }
+                partInfos.clear();
+                for (String offsetKey : offsetKeys) {
+                    PartStgInfo partStgInfo = partStgInfos.get(offsetKey);
+                    if (partStgInfo != null) {
+                        partInfos.add(partStgInfo);
+                    }
+                }
+                if (!partInfos.isEmpty()) {
+                    this.offsetLogFile.append(group, partInfos);
+                    appended = true;
+                }
+            }
+            if (appended) {
+                this.offsetLogFile.flush();
+            }
+        } catch (Throwable ex) {
+            if (ex instanceof IOException) {
+                ServiceStatusHolder.addWriteIOErrCnt();
+                BrokerSrvStatsHolder.incDiskIOExcCnt();
+            }
+            // the segment may hold a partial record, store the snapshot instead
+            this.isUpdated.set(true);
+            logger.error("[File offsets] append offset log failure", ex);
+        }
+    }
+
+    private void compactOffsetLog() {
+        this.isUpdated.set(false);
+        // the changed offsets are included in the snapshot, those changed after
+        // the rolling are appended to the new segment
+        this.unLoggedOffsetKeys.clear();
+        long newLogSeq;
+        try {
+            newLogSeq = this.offsetLogFile.rollSegment();
+        } catch (Throwable ex) {
+            if (ex instanceof IOException) {
+                ServiceStatusHolder.addWriteIOErrCnt();
+                BrokerSrvStatsHolder.incDiskIOExcCnt();
+            }
+            this.isUpdated.set(true);
+            logger.error("[File offsets] roll offset log segment failure", ex);
+            return;
+        }
+        this.groupOffsetInfo.setLstLogSeq(newLogSeq);
+        RetValue retValue = storeOffsetStgInfoToFile(this.groupOffsetInfo, this.offsetsFileBase);
+        if (!retValue.isSuccess()) {
+            this.isUpdated.set(true);
+            return;
+        }
+        this.offsetLogFile.deleteSegmentsBefore(newLogSeq);
+        this.lstCompactTime = System.currentTimeMillis();
+    }
+
     private boolean checkAndRecoverStgFiles() {
         String fileContent;
         GroupOffsetStgInfo tmpGroupStgInfo;
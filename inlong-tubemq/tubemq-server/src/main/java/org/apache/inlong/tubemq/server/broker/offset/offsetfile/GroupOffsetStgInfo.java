@@ -32,6 +32,8 @@ public class GroupOffsetStgInfo {
 
     private final AtomicLong lstStoreTime = new AtomicLong(0);
     private final int brokerId;
+    // the first offset log segment not included in this snapshot
+    private long lstLogSeq = 0;
     private final ConcurrentHashMap<String, OffsetStgInfo> groupOffsetStgInfo = new ConcurrentHashMap<>();
 
     public GroupOffsetStgInfo(int brokerId) {
@@ -56,7 +58,7 @@ public class GroupOffsetStgInfo {
         ConcurrentHashSet<String> tmpSet;
         ConcurrentHashSet<String> topicSet;
         for (OffsetStorageInfo info : offsetInfoList) {
-            if (info == null || !info.isModified()) {
+            if (info == null) {
                 continue;
             }
             if (curOffsetStgInfo.updOffsetInfo(info)) {
@@ -71,7 +73,6 @@ public class GroupOffsetStgInfo {
                 topicSet.add(info.getTopic());
             }
             updated = true;
-            info.setModified(false);
         }
         return updated;
     }
@@ -88,6 +89,21 @@ public class GroupOffsetStgInfo {
         return curOffsetStgInfo.updOffsetInfo(topic, partId, 0, msgId, offset, System.currentTimeMillis());
     }
 
+    public void replayOffsetStgInfo(String group, String topic, int partId,
+            long lstRstTerm, long msgId, long lstOffset, long lstUpdTime,
+            long createOffset, long createTime) {
+        OffsetStgInfo curOffsetStgInfo = groupOffsetStgInfo.get(group);
+        if (curOffsetStgInfo == null) {
+            OffsetStgInfo tmpOffsetStgInfo = new OffsetStgInfo();
+            curOffsetStgInfo = groupOffsetStgInfo.putIfAbsent(group, tmpOffsetStgInfo);
+            if (curOffsetStgInfo == null) {
+                curOffsetStgInfo = tmpOffsetStgInfo;
+            }
+        }
+        curOffsetStgInfo.replayOffsetInfo(topic, partId, lstRstTerm,
+                msgId, lstOffset, lstUpdTime, createOffset, createTime);
+    }
+
     public Map<Integer, Long> queryGroupOffsetInfo(String group, String topic, Set<Integer> partIds) {
         OffsetStgInfo offsetStgInfo = groupOffsetStgInfo.get(group);
         if (offsetStgInfo == null) {
@@ -183,6 +199,14 @@ public class GroupOffsetStgInfo {
         lstStoreTime.set(System.currentTimeMillis());
     }
 
+    public long getLstLogSeq() {
+        return lstLogSeq;
+    }
+
+    public void setLstLogSeq(long lstLogSeq) {
+        this.lstLogSeq = lstLogSeq;
+    }
+
     public void clear() {
         this.groupOffsetStgInfo.clear();
     }
@@ -192,6 +216,7 @@ public class GroupOffsetStgInfo {
         return "GroupOffsetStgInfo{" +
                 "lstStoreTime=" + lstStoreTime +
                 ", brokerId=" + brokerId +
+                ", lstLogSeq=" + lstLogSeq +
                 ", groupOffsetStgInfo=" + groupOffsetStgInfo +
                 '}';
     }
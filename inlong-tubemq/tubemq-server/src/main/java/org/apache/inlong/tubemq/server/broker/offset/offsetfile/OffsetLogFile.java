@@ -0,0 +1,270 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.tubemq.server.broker.offset.offsetfile;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of the changed partition offsets.
+ *
+ * The log is split into segments named by an increasing sequence, each record holds the
+ * latest values of one partition offset, prefixed by its length and CRC32. The segments
+ * from the sequence recorded in the offset snapshot are replayed over the snapshot when
+ * loading, and a torn record at the tail of a segment ends its replay.
+ */
+public class OffsetLogFile {
+
+    private static final Logger logger = LoggerFactory.getLogger(OffsetLogFile.class);
+    private static final String LOG_FILENAME_PREFIX = "offsets.log.";
+    // the max length of a record, a larger length means a corrupted record
+    private static final int MAX_RECORD_LEN = 128 * 1024;
+    private final File logDir;
+    private final ByteArrayOutputStream recordBuffer = new ByteArrayOutputStream(4096);
+    private final DataOutputStream recordOutput = new DataOutputStream(recordBuffer);
+    private final ByteArrayOutputStream bodyBuffer = new ByteArrayOutputStream(256);
+    private final DataOutputStream bodyOutput = new DataOutputStream(bodyBuffer);
+    private final CRC32 crc32 = new CRC32();
+    private RandomAccessFile curFile = null;
+    private FileChannel curChannel = null;
+    private long curSeq = 0;
+    private long curSegSize = 0;
+
+    public OffsetLogFile(String logDirPath) {
+        this.logDir = new File(logDirPath);
+    }
+
+    /**
+     * Replay the log segments from the specified sequence over the offset snapshot.
+     *
+     * @param stgInfo     the loaded offset snapshot
+     * @param fromSeq     the first segment sequence not included in the snapshot
+     * @return            the count of replayed records
+     * @throws IOException   exception while reading the segments
+     */
+    public synchronized long replay(GroupOffsetStgInfo stgInfo, long fromSeq) throws IOException {
+        long recordCnt = 0;
+        // the new segments must not be skipped by the snapshot
+        this.curSeq = Math.max(this.curSeq, fromSeq);
+        for (long seq : listSegmentSeqs()) {
+            if (seq < fromSeq) {
+                continue;
+            }
+            recordCnt += replaySegment(getSegmentFile(seq), stgInfo);
+        }
+        return recordCnt;
+    }
+
+    /**
+     * Close the current segment and open a new one, the following records
+     * are appended to the new segment.
+     *
+     * @return            the sequence of the new segment
+     * @throws IOException   exception while creating the segment
+     */
+    public synchronized long rollSegment() throws IOException {
+        long newSeq = this.curSeq + 1;
+        List<Long> seqs = listSegmentSeqs();
+        if (!seqs.isEmpty()) {
+            newSeq = Math.max(newSeq, seqs.get(seqs.size() - 1) + 1);
+        }
+        closeCurSegment();
+        this.curFile = new RandomAccessFile(getSegmentFile(newSeq), "rw");
+        this.curChannel = this.curFile.getChannel();
+        this.curSeq = newSeq;
+        this.curSegSize = 0;
+        return newSeq;
+    }
+
+    /**
+     * Append the partition offsets of the group to the current segment.
+     *
+     * @param group        the consume group name
+     * @param partInfos    the changed partition offsets
+     * @throws IOException   exception while writing the records
+     */
+    public synchronized void append(String group, List<PartStgInfo> partInfos) throws IOException {
+        if (this.curChannel == null) {
+            throw new IOException("Offset log segment is not opened!");
+        }
+        this.recordBuffer.reset();
+        for (PartStgInfo partInfo : partInfos) {
+            this.bodyBuffer.reset();
+            this.bodyOutput.writeUTF(group);
+            this.bodyOutput.writeUTF(partInfo.getTopic());
+            this.bodyOutput.writeInt(partInfo.getPartId());
+            this.bodyOutput.writeLong(partInfo.getLstRstTerm());
+            this.bodyOutput.writeLong(partInfo.getMsgId());
+            this.bodyOutput.writeLong(partInfo.getLstOffset());
+            this.bodyOutput.writeLong(partInfo.getLstUpdTime());
+            this.bodyOutput.writeLong(partInfo.getCreateOffset());
+            this.bodyOutput.writeLong(partInfo.getCreateTime());
+            this.crc32.reset();
+            this.crc32.update(this.bodyBuffer.toByteArray(), 0, this.bodyBuffer.size());
+            this.recordOutput.writeInt(this.bodyBuffer.size());
+            this.recordOutput.writeInt((int) this.crc32.getValue());
+            this.bodyBuffer.writeTo(this.recordOutput);
+        }
+        ByteBuffer writeBuffer = ByteBuffer.wrap(this.recordBuffer.toByteArray());
+        while (writeBuffer.hasRemaining()) {
+            this.curSegSize += this.curChannel.write(writeBuffer);
+        }
+    }
+
+    /**
+     * Force the appended records to the disk.
+     *
+     * @throws IOException   exception while forcing
+     */
+    public synchronized void flush() throws IOException {
+        if (this.curChannel != null) {
+            this.curChannel.force(false);
+        }
+    }
+
+    /**
+     * Delete the segments before the specified sequence.
+     *
+     * @param seq   the first segment sequence to keep
+     */
+    public synchronized void deleteSegmentsBefore(long seq) {
+        for (long segSeq : listSegmentSeqs()) {
+            if (segSeq >= seq) {
+                break;
+            }
+            File segFile = getSegmentFile(segSeq);
+            if (!segFile.delete()) {
+                logger.warn("[File offsets] delete offset log segment {} failure!",
+                        segFile.getAbsoluteFile());
+            }
+        }
+    }
+
+    public synchronized long getCurSeq() {
+        return curSeq;
+    }
+
+    public synchronized long getCurSegSize() {
+        return curSegSize;
+    }
+
+    public synchronized void close() {
+        try {
+            closeCurSegment();
+        } catch (IOException e) {
+            logger.warn("[File offsets] close offset log segment failure", e);
+        }
+    }
+
+    private void closeCurSegment() throws IOException {
+        if (this.curFile == null) {
+            return;
+        }
+        try {
+            this.curChannel.force(false);
+            this.curFile.close();
+        } finally {
+            this.curFile = null;
+            this.curChannel = null;
+        }
+    }
+
+    private long replaySegment(File segFile, GroupOffsetStgInfo stgInfo) throws IOException {
+        long recordCnt = 0;
+        byte[] body = new byte[256];
+        try (DataInputStream input = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(segFile), 64 * 1024))) {
+            while (true) {
+                int bodyLen;
+                int checksum;
+                try {
+                    bodyLen = input.readInt();
+                    checksum = input.readInt();
+                    if (bodyLen <= 0 || bodyLen > MAX_RECORD_LEN) {
+                        logger.warn("[File offsets] found invalid record in offset log {}, skip the tail",
+                                segFile.getAbsoluteFile());
+                        break;
+                    }
+                    if (body.length < bodyLen) {
+                        body = new byte[bodyLen];
+                    }
+                    input.readFully(body, 0, bodyLen);
+                } catch (EOFException e) {
+                    break;
+                }
+                this.crc32.reset();
+                this.crc32.update(body, 0, bodyLen);
+                if ((int) this.crc32.getValue() != checksum) {
+                    logger.warn("[File offsets] found torn record in offset log {}, skip the tail",
+                            segFile.getAbsoluteFile());
+                    break;
+                }
+                DataInputStream bodyInput = new DataInputStream(
+                        new ByteArrayInputStream(body, 0, bodyLen));
+                stgInfo.replayOffsetStgInfo(bodyInput.readUTF(), bodyInput.readUTF(),
+                        bodyInput.readInt(), bodyInput.readLong(), bodyInput.readLong(),
+                        bodyInput.readLong(), bodyInput.readLong(), bodyInput.readLong(),
+                        bodyInput.readLong());
+                recordCnt++;
+            }
+        }
+        return recordCnt;
+    }
+
+    private List<Long> listSegmentSeqs() {
+        List<Long> seqs = new ArrayList<>();
+        File[] files = this.logDir.listFiles();
+        if (files == null) {
+            return seqs;
+        }
+        for (File file : files) {
+            String fileName = file.getName();
+            if (!file.isFile() || !fileName.startsWith(LOG_FILENAME_PREFIX)) {
+                continue;
+            }
+            try {
+                seqs.add(Long.parseLong(fileName.substring(LOG_FILENAME_PREFIX.length())));
+            } catch (NumberFormatException e) {
+                logger.warn("[File offsets] skip unknown offset log file {}", fileName);
+            }
+        }
+        Collections.sort(seqs);
+        return seqs;
+    }
+
+    private File getSegmentFile(long seq) {
+        return new File(this.logDir, LOG_FILENAME_PREFIX + String.format("%020d", seq));
+    }
+}
@@ -88,6 +88,24 @@ public class OffsetStgInfo {
         return isAdded;
     }
 
+    public void replayOffsetInfo(String topic, int partId, long lstRstTerm, long msgId,
+            long lstOffset, long lstUpdTime, long createOffset, long createTime) {
+        String key = buildOffsetKey(topic, partId);
+        PartStgInfo partInfo = this.partOffsetInfo.get(key);
+        if (partInfo == null) {
+            PartStgInfo tmpPartInfo = new PartStgInfo(topic, partId);
+            partInfo = this.partOffsetInfo.putIfAbsent(key, tmpPartInfo);
+            if (partInfo == null) {
+                partInfo = tmpPartInfo;
+            }
+        }
+        partInfo.updateOffset(lstRstTerm, msgId, true,
+                createOffset, createTime, lstOffset, lstUpdTime);
+        if (lstUpdTime > this.lstCommitTime) {
+            this.lstCommitTime = lstUpdTime;
+        }
+    }
+
     public long getLstCommitTime() {
         return lstCommitTime;
     }
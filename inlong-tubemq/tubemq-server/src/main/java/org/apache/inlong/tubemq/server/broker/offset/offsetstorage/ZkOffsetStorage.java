@@ -179,12 +179,8 @@ public class ZkOffsetStorage implements OffsetStorage {
             long newOffset = -1;
             long msgId = -1;
             synchronized (info) {
-                if (!info.isModified()) {
-                    continue;
-                }
                 newOffset = info.getOffset();
                 msgId = info.getMessageId();
-                info.setModified(false);
             }
             final String topic = info.getTopic();
             String offsetPath = sb.append(this.consumerZkDir).append("/")
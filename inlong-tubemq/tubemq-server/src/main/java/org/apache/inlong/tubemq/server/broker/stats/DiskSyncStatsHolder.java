@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.tubemq.server.broker.stats;
+
+import org.apache.inlong.tubemq.corebase.metric.impl.ESTHistogram;
+import org.apache.inlong.tubemq.corebase.metric.impl.SimpleHistogram;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * DiskSyncStatsHolder, the group sync statistics of the broker's data directories.
+ *
+ * A group sync pass covers all the pending stores of a disk, so its duration is counted
+ * once per data directory taking part in the pass, instead of once per message store.
+ */
+public class DiskSyncStatsHolder {
+
+    // data directory to sync statistics
+    private final ConcurrentHashMap<String, DirSyncStatsSet> dirStatsSets =
+            new ConcurrentHashMap<>();
+
+    /**
+     * Add group sync statistic of the data directory.
+     *
+     * @param dataDir     the data directory
+     * @param syncDlt     the duration of the group sync pass
+     * @param storeCnt    the store count of the data directory synced in the pass
+     */
+    public void addGroupSyncStats(String dataDir, long syncDlt, int storeCnt) {
+        DirSyncStatsSet statsSet = dirStatsSets.get(dataDir);
+        if (statsSet == null) {
+            DirSyncStatsSet newStatsSet = new DirSyncStatsSet();
+            statsSet = dirStatsSets.putIfAbsent(dataDir, newStatsSet);
+            if (statsSet == null) {
+                statsSet = newStatsSet;
+            }
+        }
+        statsSet.fileSyncDurStats.update(syncDlt);
+        statsSet.fileSyncStoreCnt.update(storeCnt);
+    }
+
+    /**
+     * Get the statistics of each data directory.
+     *
+     * @param needRefresh    whether reset the statistics
+     * @param dirValueMap    the data directory to statistic values map
+     */
+    public void getValue(boolean needRefresh, Map<String, Map<String, Long>> dirValueMap) {
+        for (Map.Entry<String, DirSyncStatsSet> entry : dirStatsSets.entrySet()) {
+            Map<String, Long> statsMap = new LinkedHashMap<>();
+            if (needRefresh) {
+                entry.getValue().fileSyncDurStats.snapShort(statsMap, false);
+                entry.getValue().fileSyncStoreCnt.snapShort(statsMap, false);
+            } else {
+                entry.getValue().fileSyncDurStats.getValue(statsMap, false);
+                entry.getValue().fileSyncStoreCnt.getValue(statsMap, false);
+            }
+            dirValueMap.put(entry.getKey(), statsMap);
+        }
+    }
+
+    /**
+     * Get the statistics of each data directory in json format.
+     *
+     * @param needRefresh    whether reset the statistics
+     * @param strBuff        the string buffer
+     */
+    public void getValue(boolean needRefresh, StringBuilder strBuff) {
+        int index = 0;
+        strBuff.append("[");
+        for (Map.Entry<String, DirSyncStatsSet> entry : dirStatsSets.entrySet()) {
+            if (index++ > 0) {
+                strBuff.append(",");
+            }
+            strBuff.append("{\"dataDir\":\"").append(entry.getKey()).append("\",");
+            if (needRefresh) {
+                entry.getValue().fileSyncDurStats.snapShort(strBuff, false);
+                strBuff.append(",");
+                entry.getValue().fileSyncStoreCnt.snapShort(strBuff, false);
+            } else {
+                entry.getValue().fileSyncDurStats.getValue(strBuff, false);
+                strBuff.append(",");
+                entry.getValue().fileSyncStoreCnt.getValue(strBuff, false);
+            }
+            strBuff.append("}");
+        }
+        strBuff.append("]");
+    }
+
+    private static class DirSyncStatsSet {
+
+        // statistics on the group sync time
+        protected final ESTHistogram fileSyncDurStats =
+                new ESTHistogram("file_sync_dlt", null);
+        // The store count of the data directory in the group sync
+        protected final SimpleHistogram fileSyncStoreCnt =
+                new SimpleHistogram("file_sync_store_cnt", null);
+    }
+}
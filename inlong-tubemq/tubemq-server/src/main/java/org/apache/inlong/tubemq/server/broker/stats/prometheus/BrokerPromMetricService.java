@@ -134,6 +134,27 @@ public class BrokerPromMetricService extends Collector {
             }
         }
         mfs.add(msgStoreCounter);
+        // data directory sync metric data
+        CounterMetricFamily diskSyncCounter =
+                new CounterMetricFamily(strBuff.append(promConfig.getPromClusterName())
+                        .append("&group=diskSync").toString(),
+                        "The data directory sync metrics of TubeMQ-Broker node.",
+                        Arrays.asList("diskSync", "dataDir"));
+        strBuff.delete(0, strBuff.length());
+        Map<String, Map<String, Long>> dirStatsMap = new LinkedHashMap<>();
+        tubeBroker.getStoreManager().getDiskGroupFlusher()
+                .getDiskSyncStatsHolder().getValue(true, dirStatsMap);
+        for (Map.Entry<String, Map<String, Long>> dirEntry : dirStatsMap.entrySet()) {
+            for (Map.Entry<String, Long> entry : dirEntry.getValue().entrySet()) {
+                labelValues.clear();
+                labelValues.add(entry.getKey());
+                labelValues.add(strBuff.append("dataDir=")
+                        .append(dirEntry.getKey()).toString());
+                strBuff.delete(0, strBuff.length());
+                diskSyncCounter.addMetric(labelValues, entry.getValue());
+            }
+        }
+        mfs.add(diskSyncCounter);
         return mfs;
     }
 }
@@ -198,4 +198,28 @@ public class DataStoreUtils {
         dataBuilder.clear();
         return transferedMessage;
     }
+
+    /**
+     * Count the message sent in store layout, the message time is not parsed
+     * in this case since the data is not read from file.
+     *
+     * @param dataTotalSize   the stored record size
+     * @param countMap        the statistics map
+     * @param statisKeyBase   the statistics key prefix
+     * @param sBuilder        the string buffer
+     */
+    public static void countRawStoreMsg(int dataTotalSize,
+            HashMap<String, TrafficInfo> countMap,
+            String statisKeyBase,
+            StringBuilder sBuilder) {
+        String baseKey = sBuilder.append(statisKeyBase).append("#").toString();
+        sBuilder.delete(0, sBuilder.length());
+        int payLoadLen = dataTotalSize - DataStoreUtils.STORE_DATA_HEADER_LEN;
+        TrafficInfo getCount = countMap.get(baseKey);
+        if (getCount == null) {
+            countMap.put(baseKey, new TrafficInfo(1L, payLoadLen));
+        } else {
+            getCount.addMsgCntAndSize(1L, payLoadLen);
+        }
+    }
 }
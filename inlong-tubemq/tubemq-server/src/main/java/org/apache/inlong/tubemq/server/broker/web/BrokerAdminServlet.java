@@ -1429,7 +1429,10 @@ public class BrokerAdminServlet extends AbstractWebHandler {
             sBuffer.append(",\"webAPI\":");
             WebCallStatsHolder.getValue(sBuffer);
         }
-        sBuffer.append("},\"count\":2}");
+        sBuffer.append(",\"diskSync\":");
+        broker.getStoreManager().getDiskGroupFlusher()
+                .getDiskSyncStatsHolder().getValue(needRefresh, sBuffer);
+        sBuffer.append("},\"count\":3}");
         WebParameterUtils.buildSuccessWithDataRetEnd(sBuffer, 1);
     }
 
@@ -111,6 +111,19 @@ public final class TServerConstants {
     public static final long CFG_DEF_GROUP_OFFSETS_STG_EXPIRED_DUR_MS = 20 * 24 * 60 * 60 * 1000L;
     public static final long CFG_MIN_GROUP_OFFSETS_STG_EXPIRED_DUR_MS = 24 * 60 * 60 * 1000L;
     public static final long CFG_GROUP_OFFSETS_STG_EXPIRED_CHECK_DUR_MS = 10 * 60 * 1000L;
+    public static final int CFG_DEFAULT_OFFSET_STG_COMMIT_SHARD_CNT = 4;
+    public static final int CFG_MAX_OFFSET_STG_COMMIT_SHARD_CNT = 64;
+    public static final long CFG_DEFAULT_OFFSET_STG_LOG_COMPACT_SIZE = 64 * 1024 * 1024L;
+    public static final long CFG_MIN_OFFSET_STG_LOG_COMPACT_SIZE = 1024 * 1024L;
+    public static final long CFG_DEFAULT_OFFSET_STG_LOG_COMPACT_DUR_MS = 60 * 60 * 1000L;
+    public static final long CFG_MIN_OFFSET_STG_LOG_COMPACT_DUR_MS = 60 * 1000L;
     public static final String CFG_DEF_BACKUP_PATH = "../conf";
     public static final int CFG_MAX_BACKUP_PATH_LENGTH = 1024;
+
+    public static final long CFG_DEFAULT_TIERED_STORE_VALID_DUR_MS = 7 * 24 * 60 * 60 * 1000L;
+    public static final long CFG_MIN_TIERED_STORE_VALID_DUR_MS = 60 * 60 * 1000L;
+    public static final long CFG_DEFAULT_TIERED_READ_CACHE_SIZE = 64 * 1024 * 1024L;
+    public static final long CFG_MIN_TIERED_READ_CACHE_SIZE = 1024 * 1024L;
+    public static final int CFG_DEFAULT_TIERED_READ_AHEAD_SIZE = 1024 * 1024;
+    public static final int CFG_MAX_TIERED_READ_AHEAD_SIZE = 16 * 1024 * 1024;
 }
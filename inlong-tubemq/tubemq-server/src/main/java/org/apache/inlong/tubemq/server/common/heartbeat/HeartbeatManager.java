@@ -19,15 +19,14 @@ package org.apache.inlong.tubemq.server.common.heartbeat;
 
 import org.apache.inlong.tubemq.corebase.TErrCodeConstants;
 import org.apache.inlong.tubemq.corebase.rv.ProcessResult;
-import org.apache.inlong.tubemq.corebase.utils.TStringUtils;
 import org.apache.inlong.tubemq.server.common.exception.HeartbeatException;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -35,6 +34,9 @@ import java.util.concurrent.Executors;
 public class HeartbeatManager {
 
     private static final Logger logger = LoggerFactory.getLogger(HeartbeatManager.class);
+    // the tick and size of the timeout wheels
+    private static final long WHEEL_TICK_MS = 200L;
+    private static final int WHEEL_SIZE = 512;
 
     private final ConcurrentHashMap<String, TimeoutInfo> brokerRegMap =
             new ConcurrentHashMap<>();
@@ -42,11 +44,17 @@ public class HeartbeatManager {
             new ConcurrentHashMap<>();
     private final ConcurrentHashMap<String, TimeoutInfo> consumerRegMap =
             new ConcurrentHashMap<>();
+    private final TimeoutWheel brokerWheel =
+            new TimeoutWheel(WHEEL_TICK_MS, WHEEL_SIZE, System.currentTimeMillis());
+    private final TimeoutWheel producerWheel =
+            new TimeoutWheel(WHEEL_TICK_MS, WHEEL_SIZE, System.currentTimeMillis());
+    private final TimeoutWheel consumerWheel =
+            new TimeoutWheel(WHEEL_TICK_MS, WHEEL_SIZE, System.currentTimeMillis());
     private final ExecutorService timeoutScanService = Executors.newCachedThreadPool();
     private long brokerTimeoutDlt = 0;
     private long producerTimeoutDlt = 0;
     private long consumerTimeoutDlt = 0;
-    private boolean isStopped = false;
+    private volatile boolean isStopped = false;
 
     public HeartbeatManager() {
 
@@ -96,7 +104,7 @@ public class HeartbeatManager {
      */
     public void regBrokerCheckBusiness(final long timeout, final TimeoutListener listener) {
         this.brokerTimeoutDlt = timeout;
-        this.registerCheckBusiness("Broker Node", this.brokerRegMap, listener);
+        this.registerCheckBusiness("Broker Node", this.brokerRegMap, this.brokerWheel, listener);
     }
 
     /**
@@ -107,7 +115,8 @@ public class HeartbeatManager {
      */
     public void regProducerCheckBusiness(final long timeout, final TimeoutListener listener) {
         this.producerTimeoutDlt = timeout;
-        this.registerCheckBusiness("Producer Node", this.producerRegMap, listener);
+        this.registerCheckBusiness("Producer Node",
+                this.producerRegMap, this.producerWheel, listener);
     }
 
     /**
@@ -118,43 +127,53 @@ public class HeartbeatManager {
      */
     public void regConsumerCheckBusiness(final long timeout, final TimeoutListener listener) {
         this.consumerTimeoutDlt = timeout;
-        this.registerCheckBusiness("Consumer Node", this.consumerRegMap, listener);
+        this.registerCheckBusiness("Consumer Node",
+                this.consumerRegMap, this.consumerWheel, listener);
     }
 
+    /**
+     * Check the node timeouts by the timeout wheel, only the nodes whose timeout bucket
+     * expired are checked, the renewed nodes are put back into the wheel, and the
+     * unregistered or re-registered nodes are dropped.
+     */
     private void registerCheckBusiness(final String businessType,
             final Map<String, TimeoutInfo> nodeMap,
+            final TimeoutWheel timeoutWheel,
             final TimeoutListener listener) {
 
         timeoutScanService.submit(new Runnable() {
 
             @Override
             public void run() {
+                List<TimeoutWheel.WheelEntry> expiredNodes = new ArrayList<>();
                 while (!isStopped) {
                     try {
                         long currentTime = System.currentTimeMillis();
-                        Set<String> removedNodeKey = new HashSet<>();
-                        for (Map.Entry<String, TimeoutInfo> entry : nodeMap.entrySet()) {
-                            if (TStringUtils.isBlank(entry.getKey()) || entry.getValue() == null) {
+                        timeoutWheel.advance(currentTime, expiredNodes);
+                        for (int i = 0; i < expiredNodes.size(); i++) {
+                            TimeoutWheel.WheelEntry entry = expiredNodes.get(i);
+                            TimeoutInfo timeoutInfo = entry.getTimeoutInfo();
+                            if (nodeMap.get(entry.getNodeId()) != timeoutInfo) {
                                 continue;
                             }
-                            if (currentTime >= entry.getValue().getTimeoutTime()) {
-                                removedNodeKey.add(entry.getKey());
+                            if (currentTime < timeoutInfo.getTimeoutTime()) {
+                                timeoutWheel.reschedule(entry, expiredNodes);
+                                continue;
                             }
-                        }
-                        if (!removedNodeKey.isEmpty()) {
-                            for (String nodeKey : removedNodeKey) {
-                                TimeoutInfo timeoutInfo = nodeMap.get(nodeKey);
-                                if (timeoutInfo == null) {
-                                    continue;
-                                }
-                                if (currentTime >= timeoutInfo.getTimeoutTime()) {
-                                    nodeMap.remove(nodeKey);
-                                    listener.onTimeout(nodeKey, timeoutInfo);
+                            if (nodeMap.remove(entry.getNodeId(), timeoutInfo)) {
+                                try {
+                                    listener.onTimeout(entry.getNodeId(), timeoutInfo);
+                                } catch (Throwable t) {
+                                    logger.error(new StringBuilder(256).append(businessType)
+                                            .append(" ").append(entry.getNodeId())
+                                            .append(" timeout process error!").toString(), t);
                                 }
                             }
                         }
-                        Thread.sleep(1000 * 1);
+                        expiredNodes.clear();
+                        Thread.sleep(WHEEL_TICK_MS);
                     } catch (Throwable t) {
+                        expiredNodes.clear();
                         logger.error(new StringBuilder(256)
                                 .append(businessType).append(" heartbeat scan error!").toString(), t);
                     }
@@ -171,8 +190,10 @@ public class HeartbeatManager {
      * @return the timeout info for the registered node
      */
     public TimeoutInfo regBrokerNode(String nodeId, String createId) {
-        return this.brokerRegMap.put(nodeId,
-                new TimeoutInfo(createId, this.brokerTimeoutDlt));
+        TimeoutInfo timeoutInfo = new TimeoutInfo(createId, this.brokerTimeoutDlt);
+        TimeoutInfo oldInfo = this.brokerRegMap.put(nodeId, timeoutInfo);
+        this.brokerWheel.schedule(nodeId, timeoutInfo);
+        return oldInfo;
     }
 
     /**
@@ -182,7 +203,10 @@ public class HeartbeatManager {
      * @return the timeout info of the registered node
      */
     public TimeoutInfo regProducerNode(final String nodeId) {
-        return this.producerRegMap.put(nodeId, new TimeoutInfo(this.producerTimeoutDlt));
+        TimeoutInfo timeoutInfo = new TimeoutInfo(this.producerTimeoutDlt);
+        TimeoutInfo oldInfo = this.producerRegMap.put(nodeId, timeoutInfo);
+        this.producerWheel.schedule(nodeId, timeoutInfo);
+        return oldInfo;
     }
 
     /**
@@ -192,7 +216,10 @@ public class HeartbeatManager {
      * @return the timeout info of the registered node
      */
     public TimeoutInfo regConsumerNode(final String nodeId) {
-        return this.consumerRegMap.put(nodeId, new TimeoutInfo(this.consumerTimeoutDlt));
+        TimeoutInfo timeoutInfo = new TimeoutInfo(this.consumerTimeoutDlt);
+        TimeoutInfo oldInfo = this.consumerRegMap.put(nodeId, timeoutInfo);
+        this.consumerWheel.schedule(nodeId, timeoutInfo);
+        return oldInfo;
     }
 
     /**
@@ -206,8 +233,11 @@ public class HeartbeatManager {
     public TimeoutInfo regConsumerNode(final String nodeId,
             final String consumerId,
             final String partStr) {
-        return this.consumerRegMap.put(nodeId,
-                new TimeoutInfo(consumerId, partStr, this.consumerTimeoutDlt));
+        TimeoutInfo timeoutInfo =
+                new TimeoutInfo(consumerId, partStr, this.consumerTimeoutDlt);
+        TimeoutInfo oldInfo = this.consumerRegMap.put(nodeId, timeoutInfo);
+        this.consumerWheel.schedule(nodeId, timeoutInfo);
+        return oldInfo;
     }
 
     /**
@@ -0,0 +1,188 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.tubemq.server.common.heartbeat;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Hierarchical timing wheel of the heartbeat timeouts.
+ *
+ * A node is put into the bucket of its timeout time, the lowest level holds the timeouts
+ * within wheelSize ticks, and each upper level holds wheelSize times longer timeouts in
+ * coarser buckets, which are cascaded down when the lower level wheel turns around.
+ * The heartbeats renew the timeout time of the nodes only, the node is checked when its
+ * bucket expires, and put back into the wheel if its timeout time has been renewed.
+ *
+ * The nodes are scheduled from any thread, while the wheel is advanced by a single thread.
+ */
+public class TimeoutWheel {
+
+    private final long tickMs;
+    private final int wheelSize;
+    // the nodes scheduled but not put into the wheel yet
+    private final ConcurrentLinkedQueue<WheelEntry> pendingEntries =
+            new ConcurrentLinkedQueue<>();
+    private final List<ArrayDeque<WheelEntry>[]> levels = new ArrayList<>();
+    // the current time of the wheel, in ticks
+    private long currentTick;
+    private int entryCount = 0;
+
+    public TimeoutWheel(long tickMs, int wheelSize, long startTime) {
+        this.tickMs = tickMs;
+        this.wheelSize = wheelSize;
+        this.currentTick = startTime / tickMs;
+    }
+
+    /**
+     * Schedule the timeout check of a node.
+     *
+     * @param nodeId       the node id
+     * @param timeoutInfo  the timeout info of the node
+     */
+    public void schedule(String nodeId, TimeoutInfo timeoutInfo) {
+        pendingEntries.offer(new WheelEntry(nodeId, timeoutInfo));
+    }
+
+    /**
+     * Advance the wheel to the current time, and collect the nodes whose
+     * scheduled timeout time has passed, the caller should check whether the
+     * timeout time of these nodes has been renewed.
+     *
+     * @param currentTime   the current time
+     * @param expiredNodes  the collected nodes
+     */
+    public void advance(long currentTime, List<WheelEntry> expiredNodes) {
+        WheelEntry entry;
+        while ((entry = pendingEntries.poll()) != null) {
+            insert(entry, expiredNodes);
+        }
+        long targetTick = currentTime / tickMs;
+        while (currentTick < targetTick) {
+            currentTick++;
+            if (entryCount == 0) {
+                // skip the empty rounds
+                currentTick = targetTick;
+                break;
+            }
+            // cascade the upper level buckets reached by the current tick
+            long levelUnit = 1;
+            int topLevel = 0;
+            for (int level = 1; level < levels.size(); level++) {
+                levelUnit *= wheelSize;
+                if (currentTick % levelUnit != 0) {
+                    break;
+                }
+                topLevel = level;
+            }
+            for (int level = topLevel; level > 0; level--) {
+                ArrayDeque<WheelEntry> bucket =
+                        levels.get(level)[(int) ((currentTick / getLevelUnit(level)) % wheelSize)];
+                while ((entry = bucket.poll()) != null) {
+                    entryCount--;
+                    insert(entry, expiredNodes);
+                }
+            }
+            if (!levels.isEmpty()) {
+                ArrayDeque<WheelEntry> bucket =
+                        levels.get(0)[(int) (currentTick % wheelSize)];
+                while ((entry = bucket.poll()) != null) {
+                    entryCount--;
+                    expiredNodes.add(entry);
+                }
+            }
+        }
+    }
+
+    /**
+     * Put the node back into the wheel with its renewed timeout time.
+     *
+     * @param entry         the node checked
+     * @param expiredNodes  the collected nodes if the renewed timeout time has passed
+     */
+    public void reschedule(WheelEntry entry, List<WheelEntry> expiredNodes) {
+        insert(entry, expiredNodes);
+    }
+
+    /**
+     * Get the count of the nodes in the wheel, not including the pending nodes.
+     *
+     * @return the node count
+     */
+    public int getEntryCount() {
+        return entryCount;
+    }
+
+    private void insert(WheelEntry entry, List<WheelEntry> expiredNodes) {
+        // the bucket of a node expires not earlier than its timeout time
+        long timeoutTick = (entry.getTimeoutInfo().getTimeoutTime() + tickMs - 1) / tickMs;
+        if (timeoutTick <= currentTick) {
+            expiredNodes.add(entry);
+            return;
+        }
+        int level = 0;
+        long levelUnit = 1;
+        while (timeoutTick / levelUnit - currentTick / levelUnit >= wheelSize) {
+            level++;
+            levelUnit *= wheelSize;
+        }
+        while (levels.size() <= level) {
+            levels.add(newBuckets());
+        }
+        levels.get(level)[(int) ((timeoutTick / levelUnit) % wheelSize)].add(entry);
+        entryCount++;
+    }
+
+    private long getLevelUnit(int level) {
+        long levelUnit = 1;
+        for (int i = 0; i < level; i++) {
+            levelUnit *= wheelSize;
+        }
+        return levelUnit;
+    }
+
+    @SuppressWarnings("unchecked")
+    private ArrayDeque<WheelEntry>[] newBuckets() {
+        ArrayDeque<WheelEntry>[] buckets = new ArrayDeque[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            buckets[i] = new ArrayDeque<>();
+        }
+        return buckets;
+    }
+
+    public static class WheelEntry {
+
+        private final String nodeId;
+        private final TimeoutInfo timeoutInfo;
+
+        public WheelEntry(String nodeId, TimeoutInfo timeoutInfo) {
+            this.nodeId = nodeId;
+            this.timeoutInfo = timeoutInfo;
+        }
+
+        public String getNodeId() {
+            return nodeId;
+        }
+
+        public TimeoutInfo getTimeoutInfo() {
+            return timeoutInfo;
+        }
+    }
+}
@@ -39,17 +39,27 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.PriorityQueue;
 import java.util.Queue;
 import java.util.Random;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
 
 /* Load balance class for server side load balance, (partition size) mod (consumer size) */
 public class DefaultLoadBalancer implements LoadBalancer {
 
     private static final Logger logger = LoggerFactory.getLogger(LoadBalancer.class);
     private static final Random RANDOM = new Random(System.currentTimeMillis());
+    // the expiration time of the settled state, the settled group is recalculated after it
+    private static final long SETTLED_STATE_EXPIRE_MS = 10 * 60 * 1000L;
+    // the groups whose assignment is settled, they are not recalculated until their
+    // consumers, disabled topics, the subscribe topology or the assignment change
+    private final ConcurrentHashMap<String, GroupBalanceState> settledGroups =
+            new ConcurrentHashMap<>();
+    private final AtomicLong lstPurgeTime = new AtomicLong(System.currentTimeMillis());
 
     public DefaultLoadBalancer() {
         // initial information
@@ -76,11 +86,17 @@ public class DefaultLoadBalancer implements LoadBalancer {
             StringBuilder strBuffer) {
         // #lizard forgives
         // load balance according to group
+        long startTime = System.currentTimeMillis();
+        long topologyVersion = brokerRunManager.getSubTopologyVersion();
+        int calcGroupCnt = 0;
+        int movedPartCnt = 0;
         Map<String/* consumer */, Map<String/* topic */, List<Partition>>> finalSubInfoMap =
                 new HashMap<>();
         Map<String, RebProcessInfo> rejGroupClientInfoMap = new HashMap<>();
         Set<String> onlineOfflineGroupSet = new HashSet<>();
         Set<String> boundGroupSet = new HashSet<>();
+        Set<String> skippedGroupSet = new HashSet<>();
+        Map<String, GroupBalanceState> settleCandidates = new HashMap<>();
         for (String group : groupSet) {
             if (group == null) {
                 continue;
@@ -144,17 +160,50 @@ public class DefaultLoadBalancer implements LoadBalancer {
                             curBClientRate, -2, true);
                 }
             }
+            // skip the group if nothing changed since it is settled
+            boolean isBalanceMapEmpty = consumeGroupInfo.isBalanceMapEmpty();
+            Set<String> disableTopicSet = (defMetaDataService == null)
+                    ? null
+                    : defMetaDataService.getDisableTopicByGroupName(group);
+            long consumerSig =
+                    getConsumerSignature(newConsumerList, topicSet, disableTopicSet);
+            long assignSig = getAssignSignature(newConsumerList, clusterState);
+            Map<String, Partition> partMap = null;
+            if (isBalanceMapEmpty) {
+                GroupBalanceState balanceState = settledGroups.get(group);
+                if (balanceState != null
+                        && startTime - balanceState.getSettledTime() <= SETTLED_STATE_EXPIRE_MS
+                        && balanceState.isUnchanged(consumerSig, assignSig)) {
+                    if (balanceState.getTopologyVersion() != topologyVersion) {
+                        // the topology changed, check the partitions of the group
+                        partMap = brokerRunManager.getSubBrokerAcceptSubParts(topicSet);
+                        if (balanceState.getPartSig() == getPartSignature(partMap)) {
+                            balanceState.setTopologyVersion(topologyVersion);
+                        }
+                    }
+                    if (balanceState.getTopologyVersion() == topologyVersion) {
+                        skippedGroupSet.add(group);
+                        continue;
+                    }
+                }
+            }
+            settledGroups.remove(group);
+            calcGroupCnt++;
             RebProcessInfo rebProcessInfo = new RebProcessInfo();
-            if (!consumeGroupInfo.isBalanceMapEmpty()) {
+            if (!isBalanceMapEmpty) {
                 rebProcessInfo = consumerHolder.getNeedRebNodeList(group);
                 if (!rebProcessInfo.isProcessInfoEmpty()) {
                     rejGroupClientInfoMap.put(group, rebProcessInfo);
                 }
             }
             List<ConsumerInfo> newConsumerList2 = new ArrayList<>();
-            Map<String, Partition> partMap =
-                    brokerRunManager.getSubBrokerAcceptSubParts(topicSet);
+            if (partMap == null) {
+                partMap = brokerRunManager.getSubBrokerAcceptSubParts(topicSet);
+            }
+            long partSig = getPartSignature(partMap);
             Map<String, NodeRebInfo> rebProcessInfoMap = consumeGroupInfo.getBalanceMap();
+            int heldPartCnt = 0;
+            int keptPartCnt = 0;
             for (ConsumerInfo consumer : newConsumerList) {
                 Map<String, List<Partition>> partitions = new HashMap<>();
                 finalSubInfoMap.put(consumer.getConsumerId(), partitions);
@@ -181,22 +230,28 @@ public class DefaultLoadBalancer implements LoadBalancer {
                         Map<String, Partition> partitionMap = entry.getValue();
                         if (partitionMap != null && !partitionMap.isEmpty()) {
                             for (Partition partition : partitionMap.values()) {
+                                heldPartCnt++;
                                 Partition curPart = partMap.remove(partition.getPartitionKey());
                                 if (curPart != null) {
                                     ps.add(curPart);
+                                    keptPartCnt++;
                                 }
                             }
                         }
                     }
                 }
             }
-            // random allocate
+            // allocate the unassigned partitions to the least loaded consumers
             if (!partMap.isEmpty()) {
                 onlineOfflineGroupSet.add(group);
                 if (!newConsumerList2.isEmpty()) {
-                    this.randomAssign(partMap, newConsumerList2,
+                    movedPartCnt += this.leastLoadAssign(partMap, newConsumerList2,
                             finalSubInfoMap, clusterState, rebProcessInfo.needProcessList);
                 }
+            } else if (isBalanceMapEmpty && heldPartCnt == keptPartCnt) {
+                // the group is settled if the balance does not move any partition
+                settleCandidates.put(group,
+                        new GroupBalanceState(consumerSig, assignSig, partSig, topologyVersion));
             }
         }
         List<String> groupsNeedToBalance = new ArrayList<>();
@@ -222,27 +277,43 @@ public class DefaultLoadBalancer implements LoadBalancer {
                 groupsNeedToBalance.remove(group);
             }
         }
+        if (!skippedGroupSet.isEmpty()) {
+            groupsNeedToBalance.removeAll(skippedGroupSet);
+        }
+        Set<String> movedGroupSet = new HashSet<>();
         if (!groupsNeedToBalance.isEmpty()) {
-            balance(finalSubInfoMap, consumerHolder, brokerRunManager,
-                    groupsNeedToBalance, clusterState, rejGroupClientInfoMap);
+            movedPartCnt += balance(finalSubInfoMap, consumerHolder, brokerRunManager,
+                    groupsNeedToBalance, clusterState, rejGroupClientInfoMap, movedGroupSet);
+        }
+        for (Entry<String, GroupBalanceState> entry : settleCandidates.entrySet()) {
+            if (!movedGroupSet.contains(entry.getKey())) {
+                entry.getValue().setSettledTime(startTime);
+                settledGroups.put(entry.getKey(), entry.getValue());
+            }
         }
+        purgeExpiredSettledGroups(startTime);
         if (!rejGroupClientInfoMap.isEmpty()) {
             for (Entry<String, RebProcessInfo> entry : rejGroupClientInfoMap.entrySet()) {
                 consumerHolder.setRebNodeProcessed(entry.getKey(),
                         entry.getValue().needProcessList);
             }
         }
+        MasterSrvStatsHolder.updSvrBalanceCycleStats(
+                System.currentTimeMillis() - startTime,
+                skippedGroupSet.size(), calcGroupCnt, movedPartCnt);
         return finalSubInfoMap;
     }
 
     // #lizard forgives
-    private void balance(
+    private int balance(
             Map<String, Map<String, List<Partition>>> clusterState,
             ConsumerInfoHolder consumerHolder,
             BrokerRunManager brokerRunManager,
             List<String> groupSet,
             Map<String, Map<String, Map<String, Partition>>> oldClusterState,
-            Map<String, RebProcessInfo> rejGroupClientInfoMap) {
+            Map<String, RebProcessInfo> rejGroupClientInfoMap,
+            Set<String> movedGroupSet) {
+        int movedPartCnt = 0;
         // according to group
         for (String group : groupSet) {
             ConsumeGroupInfo consumeGroupInfo = consumerHolder.getConsumeGroupInfo(group);
@@ -335,6 +406,10 @@ public class DefaultLoadBalancer implements LoadBalancer {
                     }
                 }
             }
+            if (!partitionToMove.isEmpty()) {
+                movedPartCnt += partitionToMove.size();
+                movedGroupSet.add(group);
+            }
             // random allocate the rest partition
             for (Entry<String, Integer> entry : serverToTake.entrySet()) {
                 for (int i = 0; i < entry.getValue() && partitionToMove.size() > 0; i++) {
@@ -352,6 +427,7 @@ public class DefaultLoadBalancer implements LoadBalancer {
                 }
             }
         }
+        return movedPartCnt;
     }
 
     private void assign(Partition partition,
@@ -365,55 +441,147 @@ public class DefaultLoadBalancer implements LoadBalancer {
     }
 
     /**
-     * Random assign partition
+     * Assign each partition to the consumer with the least partitions,
+     * the consumers in the filter list are not assigned the partitions they held.
      *
-     * @param partitionToAssignMap
-     * @param consumerList
-     * @param clusterState
-     * @param oldClusterState
-     * @param filterList
+     * @param partitionToAssignMap  the partitions to assign
+     * @param consumerList          the consumers to take the partitions
+     * @param clusterState          the new assignment
+     * @param oldClusterState       the current assignment
+     * @param filterList            the consumers to release their partitions
+     * @return                      the count of the assigned partitions
      */
-    private void randomAssign(Map<String, Partition> partitionToAssignMap,
+    private int leastLoadAssign(Map<String, Partition> partitionToAssignMap,
             List<ConsumerInfo> consumerList,
             Map<String, Map<String, List<Partition>>> clusterState,
             Map<String, Map<String, Map<String, Partition>>> oldClusterState,
             List<String> filterList) {
-        int searched = 1;
-        int consumerSize = consumerList.size();
+        if (consumerList.size() == 1
+                && filterList.contains(consumerList.get(0).getConsumerId())) {
+            return 0;
+        }
+        PriorityQueue<ConsumerLoad> loadQueue = new PriorityQueue<>(consumerList.size());
+        for (int i = 0; i < consumerList.size(); i++) {
+            String consumerId = consumerList.get(i).getConsumerId();
+            int load = 0;
+            Map<String, List<Partition>> partitions = clusterState.get(consumerId);
+            if (partitions != null) {
+                for (List<Partition> ps : partitions.values()) {
+                    load += ps.size();
+                }
+            }
+            loadQueue.add(new ConsumerLoad(consumerId, load, i));
+        }
+        int assignedCnt = 0;
+        List<ConsumerLoad> skippedLoads = new ArrayList<>();
         for (Partition partition : partitionToAssignMap.values()) {
-            ConsumerInfo consumer = null;
-            int indeId = RANDOM.nextInt(consumerSize);
-            do {
-                searched = 1;
-                consumer = consumerList.get(indeId);
-                if (filterList.contains(consumer.getConsumerId())) {
-                    if (consumerList.size() == 1) {
-                        searched = 0;
-                        break;
-                    }
-                    Map<String, Map<String, Partition>> oldPartitionMap =
-                            oldClusterState.get(consumer.getConsumerId());
-                    if (oldPartitionMap != null) {
-                        Map<String, Partition> oldPartitions =
-                                oldPartitionMap.get(partition.getTopic());
-                        if (oldPartitions != null) {
-                            if (oldPartitions.get(partition.getPartitionKey()) != null) {
-                                searched = 2;
-                                indeId = (indeId + 1) % consumerSize;
-                            }
-                        }
-                    }
+            ConsumerLoad selected = null;
+            while (!loadQueue.isEmpty()) {
+                ConsumerLoad consumerLoad = loadQueue.poll();
+                if (isHeldByFilteredConsumer(partition,
+                        consumerLoad.consumerId, oldClusterState, filterList)) {
+                    skippedLoads.add(consumerLoad);
+                    continue;
+                }
+                selected = consumerLoad;
+                break;
+            }
+            if (selected == null) {
+                // all the consumers released the partition, take the least loaded one
+                selected = skippedLoads.remove(0);
+            }
+            loadQueue.addAll(skippedLoads);
+            skippedLoads.clear();
+            assign(partition, clusterState, selected.consumerId);
+            selected.load++;
+            loadQueue.add(selected);
+            assignedCnt++;
+        }
+        return assignedCnt;
+    }
+
+    private boolean isHeldByFilteredConsumer(Partition partition, String consumerId,
+            Map<String, Map<String, Map<String, Partition>>> oldClusterState,
+            List<String> filterList) {
+        if (!filterList.contains(consumerId)) {
+            return false;
+        }
+        Map<String, Map<String, Partition>> oldPartitionMap =
+                oldClusterState.get(consumerId);
+        if (oldPartitionMap == null) {
+            return false;
+        }
+        Map<String, Partition> oldPartitions = oldPartitionMap.get(partition.getTopic());
+        return oldPartitions != null
+                && oldPartitions.get(partition.getPartitionKey()) != null;
+    }
+
+    private long getConsumerSignature(List<ConsumerInfo> consumerList,
+            Set<String> topicSet, Set<String> disableTopicSet) {
+        long signature = consumerList.size();
+        for (ConsumerInfo consumer : consumerList) {
+            signature += mixHash(consumer.getConsumerId().hashCode());
+        }
+        if (topicSet != null) {
+            for (String topic : topicSet) {
+                signature += mixHash(31L * topic.hashCode() + 17);
+            }
+        }
+        if (disableTopicSet != null) {
+            for (String topic : disableTopicSet) {
+                signature += mixHash(37L * topic.hashCode() + 19);
+            }
+        }
+        return signature;
+    }
+
+    private long getPartSignature(Map<String, Partition> partMap) {
+        long signature = partMap.size();
+        for (String partitionKey : partMap.keySet()) {
+            signature += mixHash(partitionKey.hashCode());
+        }
+        return signature;
+    }
+
+    private long getAssignSignature(List<ConsumerInfo> consumerList,
+            Map<String, Map<String, Map<String, Partition>>> clusterState) {
+        long signature = 0;
+        for (ConsumerInfo consumer : consumerList) {
+            Map<String, Map<String, Partition>> relation =
+                    clusterState.get(consumer.getConsumerId());
+            if (relation == null) {
+                continue;
+            }
+            long consumerHash = consumer.getConsumerId().hashCode();
+            for (Map<String, Partition> partitionMap : relation.values()) {
+                if (partitionMap == null) {
+                    continue;
+                }
+                for (String partitionKey : partitionMap.keySet()) {
+                    signature += mixHash((consumerHash << 32) ^ partitionKey.hashCode());
                 }
-            } while (searched >= 2);
-            if (searched == 0) {
-                return;
             }
-            Map<String, List<Partition>> partitions =
-                    clusterState.computeIfAbsent(consumer.getConsumerId(), k -> new HashMap<>());
-            List<Partition> ps = partitions.computeIfAbsent(
-                    partition.getTopic(), k -> new ArrayList<>());
-            ps.add(partition);
         }
+        return signature;
+    }
+
+    private static long mixHash(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+
+    private void purgeExpiredSettledGroups(long currentTime) {
+        long lastPurgeTime = lstPurgeTime.get();
+        if (currentTime - lastPurgeTime < SETTLED_STATE_EXPIRE_MS
+                || !lstPurgeTime.compareAndSet(lastPurgeTime, currentTime)) {
+            return;
+        }
+        settledGroups.entrySet().removeIf(
+                entry -> currentTime - entry.getValue().getSettledTime() > SETTLED_STATE_EXPIRE_MS);
     }
 
     /**
@@ -668,4 +836,72 @@ public class DefaultLoadBalancer implements LoadBalancer {
         }
         return finalSubInfoMap;
     }
+
+    private static class ConsumerLoad implements Comparable<ConsumerLoad> {
+
+        private final String consumerId;
+        private final int index;
+        private int load;
+
+        public ConsumerLoad(String consumerId, int load, int index) {
+            this.consumerId = consumerId;
+            this.load = load;
+            this.index = index;
+        }
+
+        @Override
+        public int compareTo(ConsumerLoad other) {
+            if (this.load != other.load) {
+                return Integer.compare(this.load, other.load);
+            }
+            return Integer.compare(this.index, other.index);
+        }
+    }
+
+    private static class GroupBalanceState {
+
+        // the signature of the consumers, their subscribed and disabled topics
+        private final long consumerSig;
+        // the signature of the current assignment
+        private final long assignSig;
+        // the signature of the subscribable partitions
+        private final long partSig;
+        // the subscribe topology version the partitions are checked
+        private volatile long topologyVersion;
+        // the time the group is settled
+        private volatile long settledTime;
+
+        public GroupBalanceState(long consumerSig, long assignSig,
+                long partSig, long topologyVersion) {
+            this.consumerSig = consumerSig;
+            this.assignSig = assignSig;
+            this.partSig = partSig;
+            this.topologyVersion = topologyVersion;
+        }
+
+        public boolean isUnchanged(long consumerSig, long assignSig) {
+            return this.consumerSig == consumerSig
+                    && this.assignSig == assignSig;
+        }
+
+        public long getPartSig() {
+            return partSig;
+        }
+
+        public long getTopologyVersion() {
+            return topologyVersion;
+        }
+
+        public void setTopologyVersion(long topologyVersion) {
+            this.topologyVersion = topologyVersion;
+        }
+
+        public long getSettledTime() {
+            return settledTime;
+        }
+
+        public void setSettledTime(long settledTime) {
+            this.settledTime = settledTime;
+        }
+    }
 }
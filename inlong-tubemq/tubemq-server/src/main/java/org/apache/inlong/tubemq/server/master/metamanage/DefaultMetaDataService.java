@@ -32,6 +32,7 @@ import org.apache.inlong.tubemq.server.master.MasterConfig;
 import org.apache.inlong.tubemq.server.master.TMaster;
 import org.apache.inlong.tubemq.server.master.bdbstore.MasterGroupStatus;
 import org.apache.inlong.tubemq.server.master.metamanage.metastore.ConfigObserver;
+import org.apache.inlong.tubemq.server.master.metamanage.metastore.MetaConfigSnapshot;
 import org.apache.inlong.tubemq.server.master.metamanage.metastore.dao.entity.BaseEntity;
 import org.apache.inlong.tubemq.server.master.metamanage.metastore.dao.entity.BrokerConfEntity;
 import org.apache.inlong.tubemq.server.master.metamanage.metastore.dao.entity.ClusterSettingEntity;
@@ -54,7 +55,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -713,6 +713,11 @@ public class DefaultMetaDataService implements MetaDataService {
         return new TopicProcessResult(brokerId, topicName, result);
     }
 
+    @Override
+    public MetaConfigSnapshot getMetaConfigSnapshot() {
+        return metaConfigMapper.getMetaConfigSnapshot();
+    }
+
     @Override
     public Map<String, List<TopicDeployEntity>> getTopicDeployInfoMap(Set<String> topicNameSet,
             Set<Integer> brokerIdSet,
@@ -723,12 +728,7 @@ public class DefaultMetaDataService implements MetaDataService {
     @Override
     public Map<Integer, List<TopicDeployEntity>> getTopicDeployInfoMap(Set<String> topicNameSet,
             Set<Integer> brokerIdSet) {
-        Map<Integer, BrokerConfEntity> qryBrokerInfoMap =
-                metaConfigMapper.getBrokerConfInfo(brokerIdSet, null, null);
-        if (qryBrokerInfoMap.isEmpty()) {
-            return Collections.emptyMap();
-        }
-        return metaConfigMapper.getTopicDeployInfoMap(topicNameSet, qryBrokerInfoMap.keySet());
+        return metaConfigMapper.getTopicDeployInfoMap(topicNameSet, brokerIdSet);
     }
 
     @Override
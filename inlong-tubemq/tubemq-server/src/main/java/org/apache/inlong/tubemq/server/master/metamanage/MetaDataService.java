@@ -24,6 +24,7 @@ import org.apache.inlong.tubemq.server.common.statusdef.ManageStatus;
 import org.apache.inlong.tubemq.server.common.statusdef.TopicStatus;
 import org.apache.inlong.tubemq.server.common.statusdef.TopicStsChgType;
 import org.apache.inlong.tubemq.server.master.metamanage.metastore.ConfigObserver;
+import org.apache.inlong.tubemq.server.master.metamanage.metastore.MetaConfigSnapshot;
 import org.apache.inlong.tubemq.server.master.metamanage.metastore.dao.entity.BaseEntity;
 import org.apache.inlong.tubemq.server.master.metamanage.metastore.dao.entity.BrokerConfEntity;
 import org.apache.inlong.tubemq.server.master.metamanage.metastore.dao.entity.ClusterSettingEntity;
@@ -345,6 +346,13 @@ public interface MetaDataService extends Server {
             String topicName, TopicStsChgType chgType,
             StringBuilder strBuff, ProcessResult result);
 
+    /**
+     * Get the snapshot of the broker, topic and group configures
+     *
+     * @return the current configure snapshot
+     */
+    MetaConfigSnapshot getMetaConfigSnapshot();
+
     /**
      * Get broker topic entity, if query entity is null, return all topic entity
      *
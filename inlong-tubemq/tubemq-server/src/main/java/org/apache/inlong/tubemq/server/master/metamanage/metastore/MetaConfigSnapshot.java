@@ -0,0 +1,278 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.tubemq.server.master.metamanage.metastore;
+
+import org.apache.inlong.tubemq.server.common.statusdef.EnableStatus;
+import org.apache.inlong.tubemq.server.master.metamanage.metastore.dao.entity.BrokerConfEntity;
+import org.apache.inlong.tubemq.server.master.metamanage.metastore.dao.entity.GroupConsumeCtrlEntity;
+import org.apache.inlong.tubemq.server.master.metamanage.metastore.dao.entity.GroupResCtrlEntity;
+import org.apache.inlong.tubemq.server.master.metamanage.metastore.dao.entity.TopicCtrlEntity;
+import org.apache.inlong.tubemq.server.master.metamanage.metastore.dao.entity.TopicDeployEntity;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable snapshot of the topic, broker and group configures.
+ *
+ * The snapshot is built from the cached configures of the meta store and replaced as a
+ * whole after the configures change, so the readers query a consistent view without
+ * locking. The topic to brokers, broker to topics and group to topics indexes are
+ * built together with the snapshot.
+ */
+public class MetaConfigSnapshot {
+
+    // the sum of the data versions of the configures included
+    private final long dataVersion;
+    private final Map<Integer, BrokerConfEntity> brokerConfMap;
+    private final Map<String, TopicCtrlEntity> topicCtrlMap;
+    private final Map<String, GroupResCtrlEntity> groupCtrlMap;
+    // brokerId - topicName - topic deploy configure
+    private final Map<Integer, Map<String, TopicDeployEntity>> brokerTopicIndex;
+    // topicName - brokerId - topic deploy configure
+    private final Map<String, Map<Integer, TopicDeployEntity>> topicBrokerIndex;
+    // groupName - topicName - group consume control configure
+    private final Map<String, Map<String, GroupConsumeCtrlEntity>> groupTopicIndex;
+
+    public MetaConfigSnapshot(long dataVersion,
+            Map<Integer, BrokerConfEntity> brokerConfMap,
+            Collection<TopicDeployEntity> topicDeployConfs,
+            Collection<TopicCtrlEntity> topicCtrlConfs,
+            Map<String, GroupResCtrlEntity> groupCtrlMap,
+            Collection<GroupConsumeCtrlEntity> consumeCtrlConfs) {
+        this.dataVersion = dataVersion;
+        this.brokerConfMap = Collections.unmodifiableMap(new HashMap<>(brokerConfMap));
+        this.groupCtrlMap = Collections.unmodifiableMap(new HashMap<>(groupCtrlMap));
+        Map<String, TopicCtrlEntity> topicCtrls = new HashMap<>();
+        for (TopicCtrlEntity entity : topicCtrlConfs) {
+            if (entity != null) {
+                topicCtrls.put(entity.getTopicName(), entity);
+            }
+        }
+        this.topicCtrlMap = Collections.unmodifiableMap(topicCtrls);
+        Map<Integer, Map<String, TopicDeployEntity>> brokerTopics = new HashMap<>();
+        Map<String, Map<Integer, TopicDeployEntity>> topicBrokers = new HashMap<>();
+        for (TopicDeployEntity entity : topicDeployConfs) {
+            if (entity == null) {
+                continue;
+            }
+            brokerTopics.computeIfAbsent(entity.getBrokerId(),
+                    k -> new HashMap<>()).put(entity.getTopicName(), entity);
+            topicBrokers.computeIfAbsent(entity.getTopicName(),
+                    k -> new HashMap<>()).put(entity.getBrokerId(), entity);
+        }
+        this.brokerTopicIndex = freezeIndex(brokerTopics);
+        this.topicBrokerIndex = freezeIndex(topicBrokers);
+        Map<String, Map<String, GroupConsumeCtrlEntity>> groupTopics = new HashMap<>();
+        for (GroupConsumeCtrlEntity entity : consumeCtrlConfs) {
+            if (entity == null) {
+                continue;
+            }
+            groupTopics.computeIfAbsent(entity.getGroupName(),
+                    k -> new HashMap<>()).put(entity.getTopicName(), entity);
+        }
+        this.groupTopicIndex = freezeIndex(groupTopics);
+    }
+
+    public long getDataVersion() {
+        return dataVersion;
+    }
+
+    public BrokerConfEntity getBrokerConf(int brokerId) {
+        return brokerConfMap.get(brokerId);
+    }
+
+    public Map<Integer, BrokerConfEntity> getBrokerConfMap() {
+        return brokerConfMap;
+    }
+
+    public TopicCtrlEntity getTopicCtrlConf(String topicName) {
+        return topicCtrlMap.get(topicName);
+    }
+
+    public GroupResCtrlEntity getGroupCtrlConf(String groupName) {
+        return groupCtrlMap.get(groupName);
+    }
+
+    /**
+     * Get the topic deploy configures of the topic
+     *
+     * @param topicName   the topic name
+     * @return  the brokerId - topic deploy configure map
+     */
+    public Map<Integer, TopicDeployEntity> getTopicBrokers(String topicName) {
+        Map<Integer, TopicDeployEntity> brokerMap = topicBrokerIndex.get(topicName);
+        return brokerMap == null ? Collections.emptyMap() : brokerMap;
+    }
+
+    /**
+     * Get the topic deploy configures in the broker
+     *
+     * @param brokerId   the broker id
+     * @return  the topic name - topic deploy configure map
+     */
+    public Map<String, TopicDeployEntity> getBrokerTopics(int brokerId) {
+        Map<String, TopicDeployEntity> topicMap = brokerTopicIndex.get(brokerId);
+        return topicMap == null ? Collections.emptyMap() : topicMap;
+    }
+
+    /**
+     * Get the consume control configures of the group
+     *
+     * @param groupName   the group name
+     * @return  the topic name - consume control configure map
+     */
+    public Map<String, GroupConsumeCtrlEntity> getGroupTopics(String groupName) {
+        Map<String, GroupConsumeCtrlEntity> topicMap = groupTopicIndex.get(groupName);
+        return topicMap == null ? Collections.emptyMap() : topicMap;
+    }
+
+    /**
+     * Get the topic deploy configures of the configured brokers,
+     * the brokers and topics are not filtered if the query set is empty
+     *
+     * @param topicNameSet   the query topic set
+     * @param brokerIdSet    the query broker id set
+     * @return  the brokerId - topic deploy configures map
+     */
+    public Map<Integer, List<TopicDeployEntity>> getTopicDeployInfoMap(
+            Set<String> topicNameSet, Set<Integer> brokerIdSet) {
+        Map<Integer, List<TopicDeployEntity>> retEntityMap = new HashMap<>();
+        Collection<Integer> qryBrokerIds =
+                (brokerIdSet == null || brokerIdSet.isEmpty())
+                        ? brokerConfMap.keySet()
+                        : brokerIdSet;
+        for (Integer brokerId : qryBrokerIds) {
+            if (brokerId == null || !brokerConfMap.containsKey(brokerId)) {
+                continue;
+            }
+            List<TopicDeployEntity> items = new ArrayList<>();
+            retEntityMap.put(brokerId, items);
+            Map<String, TopicDeployEntity> topicMap = getBrokerTopics(brokerId);
+            if (topicNameSet == null || topicNameSet.isEmpty()) {
+                items.addAll(topicMap.values());
+            } else {
+                for (String topicName : topicNameSet) {
+                    TopicDeployEntity entity = topicMap.get(topicName);
+                    if (entity != null) {
+                        items.add(entity);
+                    }
+                }
+            }
+        }
+        return retEntityMap;
+    }
+
+    /**
+     * Get the configured topic names in the brokers,
+     * all the brokers with topics are returned if the query set is empty
+     *
+     * @param brokerIdSet   the query broker id set
+     * @return  the brokerId - topic name set map
+     */
+    public Map<Integer, Set<String>> getConfiguredTopicInfo(Set<Integer> brokerIdSet) {
+        Map<Integer, Set<String>> retEntityMap = new HashMap<>();
+        if (brokerIdSet == null || brokerIdSet.isEmpty()) {
+            for (Map.Entry<Integer, Map<String, TopicDeployEntity>> entry : brokerTopicIndex.entrySet()) {
+                retEntityMap.put(entry.getKey(), new HashSet<>(entry.getValue().keySet()));
+            }
+        } else {
+            for (Integer brokerId : brokerIdSet) {
+                if (brokerId == null) {
+                    continue;
+                }
+                retEntityMap.put(brokerId, new HashSet<>(getBrokerTopics(brokerId).keySet()));
+            }
+        }
+        return retEntityMap;
+    }
+
+    /**
+     * Get the deployed broker id and ip of the topics,
+     * all the deployed topics are returned if the query set is empty
+     *
+     * @param topicNameSet   the query topic set
+     * @return  the topic - (broker id, broker ip) map
+     */
+    public Map<String, Map<Integer, String>> getTopicBrokerInfo(Set<String> topicNameSet) {
+        Map<String, Map<Integer, String>> retEntityMap = new HashMap<>();
+        Collection<String> qryTopics =
+                (topicNameSet == null || topicNameSet.isEmpty())
+                        ? topicBrokerIndex.keySet()
+                        : topicNameSet;
+        for (String topicName : qryTopics) {
+            if (topicName == null) {
+                continue;
+            }
+            Map<Integer, String> brokerInfoMap = new HashMap<>();
+            for (TopicDeployEntity entity : getTopicBrokers(topicName).values()) {
+                brokerInfoMap.put(entity.getBrokerId(), entity.getBrokerIp());
+            }
+            retEntityMap.put(topicName, brokerInfoMap);
+        }
+        return retEntityMap;
+    }
+
+    /**
+     * Get the deployed broker ids of the topics
+     *
+     * @param topicNameSet   the query topic set
+     * @return  the broker id set
+     */
+    public Set<Integer> getDeployedBrokerIdByTopic(Set<String> topicNameSet) {
+        Set<Integer> retSet = new HashSet<>();
+        if (topicNameSet == null || topicNameSet.isEmpty()) {
+            return retSet;
+        }
+        for (String topicName : topicNameSet) {
+            if (topicName != null) {
+                retSet.addAll(getTopicBrokers(topicName).keySet());
+            }
+        }
+        return retSet;
+    }
+
+    /**
+     * Get the topics disabled to consume by the group
+     *
+     * @param groupName   the group name
+     * @return  the disabled topic set
+     */
+    public Set<String> getDisableTopicByGroupName(String groupName) {
+        Set<String> disTopicSet = new HashSet<>();
+        for (GroupConsumeCtrlEntity entity : getGroupTopics(groupName).values()) {
+            if (entity.getConsumeEnable() == EnableStatus.STATUS_DISABLE) {
+                disTopicSet.add(entity.getTopicName());
+            }
+        }
+        return disTopicSet;
+    }
+
+    private static <K, S, V> Map<K, Map<S, V>> freezeIndex(Map<K, Map<S, V>> index) {
+        for (Map.Entry<K, Map<S, V>> entry : index.entrySet()) {
+            entry.setValue(Collections.unmodifiableMap(entry.getValue()));
+        }
+        return Collections.unmodifiableMap(index);
+    }
+}
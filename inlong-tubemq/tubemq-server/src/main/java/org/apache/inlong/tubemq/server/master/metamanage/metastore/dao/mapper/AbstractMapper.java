@@ -24,4 +24,11 @@ public interface AbstractMapper {
     void close();
 
     void loadConfig(StringBuilder strBuff) throws LoadMetaException;
+
+    /**
+     * Get the version of the cached data, the version increases after each change
+     *
+     * @return the data version
+     */
+    long getDataVersion();
 }
@@ -23,6 +23,7 @@ import org.apache.inlong.tubemq.server.common.statusdef.ManageStatus;
 import org.apache.inlong.tubemq.server.common.statusdef.TopicStatus;
 import org.apache.inlong.tubemq.server.master.metamanage.metastore.ConfigObserver;
 import org.apache.inlong.tubemq.server.master.metamanage.metastore.KeepAliveService;
+import org.apache.inlong.tubemq.server.master.metamanage.metastore.MetaConfigSnapshot;
 import org.apache.inlong.tubemq.server.master.metamanage.metastore.dao.entity.BaseEntity;
 import org.apache.inlong.tubemq.server.master.metamanage.metastore.dao.entity.BrokerConfEntity;
 import org.apache.inlong.tubemq.server.master.metamanage.metastore.dao.entity.ClusterSettingEntity;
@@ -303,6 +304,14 @@ public interface MetaConfigMapper extends KeepAliveService {
     boolean delTopicDeployInfo(String operator, int brokerId, String topicName,
             StringBuilder strBuff, ProcessResult result);
 
+    /**
+     * Get the snapshot of the broker, topic and group configures,
+     * the snapshot is rebuilt if the configures have changed
+     *
+     * @return the current configure snapshot
+     */
+    MetaConfigSnapshot getMetaConfigSnapshot();
+
     /**
      * Get broker topic entity, if query entity is null, return all topic entity
      *
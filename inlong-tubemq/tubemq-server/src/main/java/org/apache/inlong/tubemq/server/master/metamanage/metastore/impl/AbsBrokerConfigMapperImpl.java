@@ -36,11 +36,14 @@ import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 public abstract class AbsBrokerConfigMapperImpl implements BrokerConfigMapper {
 
     protected static final Logger logger =
             LoggerFactory.getLogger(AbsBrokerConfigMapperImpl.class);
+    // the data version, increased after each change of the cached data
+    private final AtomicLong dataVersion = new AtomicLong(0);
     // broker config store
     private final ConcurrentHashMap<Integer/* brokerId */, BrokerConfEntity> brokerConfCache =
             new ConcurrentHashMap<>();
@@ -313,6 +316,11 @@ public abstract class AbsBrokerConfigMapperImpl implements BrokerConfigMapper {
         return retInfo;
     }
 
+    @Override
+    public long getDataVersion() {
+        return dataVersion.get();
+    }
+
     /**
      * Clear cached data
      */
@@ -320,6 +328,7 @@ public abstract class AbsBrokerConfigMapperImpl implements BrokerConfigMapper {
         brokerIpIndexCache.clear();
         regionIndexCache.clear();
         brokerConfCache.clear();
+        dataVersion.incrementAndGet();
     }
 
     /**
@@ -343,6 +352,7 @@ public abstract class AbsBrokerConfigMapperImpl implements BrokerConfigMapper {
             }
         }
         brokerIdSet.add(entity.getBrokerId());
+        dataVersion.incrementAndGet();
     }
 
     /**
@@ -380,10 +390,10 @@ public abstract class AbsBrokerConfigMapperImpl implements BrokerConfigMapper {
         brokerIpIndexCache.remove(curEntity.getBrokerIp());
         ConcurrentHashSet<Integer> brokerIdSet =
                 regionIndexCache.get(curEntity.getRegionId());
-        if (brokerIdSet == null) {
-            return;
+        if (brokerIdSet != null) {
+            brokerIdSet.remove(brokerId);
         }
-        brokerIdSet.remove(brokerId);
+        dataVersion.incrementAndGet();
     }
 
     /**
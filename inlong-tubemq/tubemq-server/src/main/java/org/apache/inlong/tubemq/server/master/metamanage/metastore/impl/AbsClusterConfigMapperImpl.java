@@ -29,11 +29,14 @@ import org.slf4j.LoggerFactory;
 
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 public abstract class AbsClusterConfigMapperImpl implements ClusterConfigMapper {
 
     protected static final Logger logger =
             LoggerFactory.getLogger(AbsClusterConfigMapperImpl.class);
+    // the data version, increased after each change of the cached data
+    private final AtomicLong dataVersion = new AtomicLong(0);
     // data cache
     private final Map<String, ClusterSettingEntity> metaDataCache = new ConcurrentHashMap<>();
 
@@ -73,6 +76,7 @@ public abstract class AbsClusterConfigMapperImpl implements ClusterConfigMapper
         // Store data to persistent
         if (putConfig2Persistent(newEntity, strBuff, result)) {
             metaDataCache.put(newEntity.getRecordKey(), entity);
+            dataVersion.incrementAndGet();
         }
         return result.isSuccess();
     }
@@ -87,6 +91,7 @@ public abstract class AbsClusterConfigMapperImpl implements ClusterConfigMapper
         }
         delConfigFromPersistent(strBuff, TStoreConstants.TOKEN_DEFAULT_CLUSTER_SETTING);
         metaDataCache.remove(TStoreConstants.TOKEN_DEFAULT_CLUSTER_SETTING);
+        dataVersion.incrementAndGet();
         result.setSuccResult(null);
         return true;
     }
@@ -96,11 +101,17 @@ public abstract class AbsClusterConfigMapperImpl implements ClusterConfigMapper
         return metaDataCache.get(TStoreConstants.TOKEN_DEFAULT_CLUSTER_SETTING);
     }
 
+    @Override
+    public long getDataVersion() {
+        return dataVersion.get();
+    }
+
     /**
      * Clear cached data
      */
     protected void clearCachedData() {
         metaDataCache.clear();
+        dataVersion.incrementAndGet();
     }
 
     /**
@@ -110,6 +121,7 @@ public abstract class AbsClusterConfigMapperImpl implements ClusterConfigMapper
      */
     protected void putRecord2Caches(ClusterSettingEntity entity) {
         metaDataCache.put(entity.getRecordKey(), entity);
+        dataVersion.incrementAndGet();
     }
 
     /**
@@ -35,12 +35,15 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 public abstract class AbsConsumeCtrlMapperImpl implements ConsumeCtrlMapper {
 
     protected static final Logger logger =
             LoggerFactory.getLogger(AbsConsumeCtrlMapperImpl.class);
     // configure cache
+    // the data version, increased after each change of the cached data
+    private final AtomicLong dataVersion = new AtomicLong(0);
     private final ConcurrentHashMap<String/* recordKey */, GroupConsumeCtrlEntity> consumeCtrlCache =
             new ConcurrentHashMap<>();
     private final ConcurrentHashMap<String/* topicName */, ConcurrentHashSet<String>> topic2RecordCache =
@@ -377,6 +380,11 @@ public abstract class AbsConsumeCtrlMapperImpl implements ConsumeCtrlMapper {
         return totalMatchedSet;
     }
 
+    @Override
+    public long getDataVersion() {
+        return dataVersion.get();
+    }
+
     /**
      * Clear cached data
      */
@@ -384,6 +392,7 @@ public abstract class AbsConsumeCtrlMapperImpl implements ConsumeCtrlMapper {
         topic2RecordCache.clear();
         group2RecordCache.clear();
         consumeCtrlCache.clear();
+        dataVersion.incrementAndGet();
     }
 
     /**
@@ -414,6 +423,7 @@ public abstract class AbsConsumeCtrlMapperImpl implements ConsumeCtrlMapper {
             }
         }
         keySet.add(entity.getRecordKey());
+        dataVersion.incrementAndGet();
     }
 
     /**
@@ -464,5 +474,6 @@ public abstract class AbsConsumeCtrlMapperImpl implements ConsumeCtrlMapper {
                 group2RecordCache.remove(curEntity.getGroupName(), new ConcurrentHashSet<>());
             }
         }
+        dataVersion.incrementAndGet();
     }
 }
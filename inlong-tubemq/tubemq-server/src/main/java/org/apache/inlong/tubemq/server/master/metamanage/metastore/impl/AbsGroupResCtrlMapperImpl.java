@@ -29,11 +29,14 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 public abstract class AbsGroupResCtrlMapperImpl implements GroupResCtrlMapper {
 
     protected static final Logger logger =
             LoggerFactory.getLogger(AbsGroupResCtrlMapperImpl.class);
+    // the data version, increased after each change of the cached data
+    private final AtomicLong dataVersion = new AtomicLong(0);
     private final ConcurrentHashMap<String/* groupName */, GroupResCtrlEntity> groupBaseCtrlCache =
             new ConcurrentHashMap<>();
 
@@ -56,6 +59,7 @@ public abstract class AbsGroupResCtrlMapperImpl implements GroupResCtrlMapper {
         // Store data to persistent
         if (putConfig2Persistent(entity, strBuff, result)) {
             groupBaseCtrlCache.put(entity.getGroupName(), entity);
+            dataVersion.incrementAndGet();
         }
         return result.isSuccess();
     }
@@ -86,6 +90,7 @@ public abstract class AbsGroupResCtrlMapperImpl implements GroupResCtrlMapper {
         // Store data to persistent
         if (putConfig2Persistent(newEntity, strBuff, result)) {
             groupBaseCtrlCache.put(newEntity.getGroupName(), newEntity);
+            dataVersion.incrementAndGet();
             result.setSuccResult(null);
         }
         return result.isSuccess();
@@ -101,6 +106,7 @@ public abstract class AbsGroupResCtrlMapperImpl implements GroupResCtrlMapper {
         }
         delConfigFromPersistent(groupName, strBuff);
         groupBaseCtrlCache.remove(groupName);
+        dataVersion.incrementAndGet();
         result.setSuccResult(null);
         return true;
     }
@@ -134,11 +140,17 @@ public abstract class AbsGroupResCtrlMapperImpl implements GroupResCtrlMapper {
         return retMap;
     }
 
+    @Override
+    public long getDataVersion() {
+        return dataVersion.get();
+    }
+
     /**
      * Clear cached data
      */
     protected void clearCachedData() {
         groupBaseCtrlCache.clear();
+        dataVersion.incrementAndGet();
     }
 
     /**
@@ -148,6 +160,7 @@ public abstract class AbsGroupResCtrlMapperImpl implements GroupResCtrlMapper {
      */
     protected void putRecord2Caches(GroupResCtrlEntity entity) {
         groupBaseCtrlCache.put(entity.getGroupName(), entity);
+        dataVersion.incrementAndGet();
     }
 
     /**
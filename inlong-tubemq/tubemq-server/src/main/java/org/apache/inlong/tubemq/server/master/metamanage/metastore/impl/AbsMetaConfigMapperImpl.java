@@ -28,6 +28,7 @@ import org.apache.inlong.tubemq.server.common.utils.RowLock;
 import org.apache.inlong.tubemq.server.master.MasterConfig;
 import org.apache.inlong.tubemq.server.master.metamanage.DataOpErrCode;
 import org.apache.inlong.tubemq.server.master.metamanage.metastore.ConfigObserver;
+import org.apache.inlong.tubemq.server.master.metamanage.metastore.MetaConfigSnapshot;
 import org.apache.inlong.tubemq.server.master.metamanage.metastore.dao.entity.BaseEntity;
 import org.apache.inlong.tubemq.server.master.metamanage.metastore.dao.entity.BrokerConfEntity;
 import org.apache.inlong.tubemq.server.master.metamanage.metastore.dao.entity.ClusterSettingEntity;
@@ -51,12 +52,12 @@ import org.slf4j.LoggerFactory;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 public abstract class AbsMetaConfigMapperImpl implements MetaConfigMapper {
 
@@ -89,6 +90,11 @@ public abstract class AbsMetaConfigMapperImpl implements MetaConfigMapper {
     protected ConsumeCtrlMapper consumeCtrlMapper;
     // the observers focusing on active-standby switching
     private final List<ConfigObserver> eventObservers = new ArrayList<>();
+    // the snapshot of the broker, topic and group configures
+    private final AtomicReference<MetaConfigSnapshot> configSnapshot =
+            new AtomicReference<>();
+    // the lock of the snapshot rebuilding
+    private final Object snapshotLock = new Object();
 
     public AbsMetaConfigMapperImpl(MasterConfig masterConfig) {
         this.masterConfig = masterConfig;
@@ -806,6 +812,31 @@ public abstract class AbsMetaConfigMapperImpl implements MetaConfigMapper {
         return result.isSuccess();
     }
 
+    @Override
+    public MetaConfigSnapshot getMetaConfigSnapshot() {
+        MetaConfigSnapshot curSnapshot = configSnapshot.get();
+        if (curSnapshot != null && curSnapshot.getDataVersion() == getConfigDataVersion()) {
+            return curSnapshot;
+        }
+        synchronized (snapshotLock) {
+            // read the data version before copying the configures, so that a change
+            // during the copying leads to a rebuilding at the next query
+            long dataVersion = getConfigDataVersion();
+            curSnapshot = configSnapshot.get();
+            if (curSnapshot != null && curSnapshot.getDataVersion() == dataVersion) {
+                return curSnapshot;
+            }
+            curSnapshot = new MetaConfigSnapshot(dataVersion,
+                    brokerConfigMapper.getBrokerConfInfo((BrokerConfEntity) null),
+                    topicDeployMapper.getTopicConf((TopicDeployEntity) null),
+                    topicCtrlMapper.getTopicCtrlConf((TopicCtrlEntity) null),
+                    groupResCtrlMapper.getGroupResCtrlConf(null, null),
+                    consumeCtrlMapper.getGroupConsumeCtrlConf((GroupConsumeCtrlEntity) null));
+            configSnapshot.set(curSnapshot);
+            return curSnapshot;
+        }
+    }
+
     @Override
     public Map<String, List<TopicDeployEntity>> getTopicDeployInfoMap(Set<String> topicNameSet,
             Set<Integer> brokerIdSet,
@@ -816,12 +847,12 @@ public abstract class AbsMetaConfigMapperImpl implements MetaConfigMapper {
     @Override
     public Map<Integer, List<TopicDeployEntity>> getTopicDeployInfoMap(Set<String> topicNameSet,
             Set<Integer> brokerIdSet) {
-        Map<Integer, BrokerConfEntity> qryBrokerInfoMap =
-                brokerConfigMapper.getBrokerConfInfo(brokerIdSet, null, null);
-        if (qryBrokerInfoMap.isEmpty()) {
+        Map<Integer, List<TopicDeployEntity>> retEntityMap =
+                getMetaConfigSnapshot().getTopicDeployInfoMap(topicNameSet, brokerIdSet);
+        if (retEntityMap.isEmpty()) {
             return Collections.emptyMap();
         }
-        return topicDeployMapper.getTopicDeployInfoMap(topicNameSet, qryBrokerInfoMap.keySet());
+        return retEntityMap;
     }
 
     @Override
@@ -842,17 +873,17 @@ public abstract class AbsMetaConfigMapperImpl implements MetaConfigMapper {
 
     @Override
     public Map<Integer/* brokerId */, Set<String>> getConfiguredTopicInfo(Set<Integer> brokerIdSet) {
-        return topicDeployMapper.getConfiguredTopicInfo(brokerIdSet);
+        return getMetaConfigSnapshot().getConfiguredTopicInfo(brokerIdSet);
     }
 
     @Override
     public Map<String, Map<Integer, String>> getTopicBrokerInfo(Set<String> topicNameSet) {
-        return topicDeployMapper.getTopicBrokerInfo(topicNameSet);
+        return getMetaConfigSnapshot().getTopicBrokerInfo(topicNameSet);
     }
 
     @Override
     public Set<Integer> getDeployedBrokerIdByTopic(Set<String> topicNameSet) {
-        return topicDeployMapper.getDeployedBrokerIdByTopic(topicNameSet);
+        return getMetaConfigSnapshot().getDeployedBrokerIdByTopic(topicNameSet);
     }
 
     @Override
@@ -1232,19 +1263,7 @@ public abstract class AbsMetaConfigMapperImpl implements MetaConfigMapper {
 
     @Override
     public Set<String> getDisableTopicByGroupName(String groupName) {
-        Set<String> disTopicSet = new HashSet<>();
-        List<GroupConsumeCtrlEntity> qryResult =
-                consumeCtrlMapper.getConsumeCtrlByGroupName(groupName);
-        if (qryResult.isEmpty()) {
-            return disTopicSet;
-        }
-        for (GroupConsumeCtrlEntity ctrlEntity : qryResult) {
-            if (ctrlEntity != null
-                    && ctrlEntity.getConsumeEnable() == EnableStatus.STATUS_DISABLE) {
-                disTopicSet.add(ctrlEntity.getTopicName());
-            }
-        }
-        return disTopicSet;
+        return getMetaConfigSnapshot().getDisableTopicByGroupName(groupName);
     }
 
     @Override
@@ -1326,6 +1345,20 @@ public abstract class AbsMetaConfigMapperImpl implements MetaConfigMapper {
         clusterConfigMapper.close();
     }
 
+    /**
+     * Get the data version of the configures included in the snapshot,
+     * the sum increases after any change of these configures.
+     *
+     * @return the summed data version
+     */
+    private long getConfigDataVersion() {
+        return brokerConfigMapper.getDataVersion()
+                + topicDeployMapper.getDataVersion()
+                + topicCtrlMapper.getDataVersion()
+                + groupResCtrlMapper.getDataVersion()
+                + consumeCtrlMapper.getDataVersion();
+    }
+
     private boolean logExceptionInfo(Throwable e, String printPrefix,
             StringBuilder strBuff, ProcessResult result) {
         strBuff.delete(0, strBuff.length());
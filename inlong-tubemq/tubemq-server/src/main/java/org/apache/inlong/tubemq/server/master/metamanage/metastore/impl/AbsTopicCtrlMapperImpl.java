@@ -33,11 +33,14 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 public abstract class AbsTopicCtrlMapperImpl implements TopicCtrlMapper {
 
     protected static final Logger logger =
             LoggerFactory.getLogger(AbsTopicCtrlMapperImpl.class);
+    // the data version, increased after each change of the cached data
+    private final AtomicLong dataVersion = new AtomicLong(0);
     // data cache
     private final ConcurrentHashMap<String/* topicName */, TopicCtrlEntity> topicCtrlCache = new ConcurrentHashMap<>();
 
@@ -60,6 +63,7 @@ public abstract class AbsTopicCtrlMapperImpl implements TopicCtrlMapper {
         // Store data to persistent
         if (putConfig2Persistent(entity, strBuff, result)) {
             topicCtrlCache.put(entity.getTopicName(), entity);
+            dataVersion.incrementAndGet();
         }
         return result.isSuccess();
     }
@@ -89,6 +93,7 @@ public abstract class AbsTopicCtrlMapperImpl implements TopicCtrlMapper {
         // Store data to persistent
         if (putConfig2Persistent(newEntity, strBuff, result)) {
             topicCtrlCache.put(newEntity.getTopicName(), newEntity);
+            dataVersion.incrementAndGet();
             result.setSuccResult(null);
         }
         return result.isSuccess();
@@ -106,6 +111,7 @@ public abstract class AbsTopicCtrlMapperImpl implements TopicCtrlMapper {
         }
         delConfigFromPersistent(topicName, strBuff);
         topicCtrlCache.remove(topicName);
+        dataVersion.incrementAndGet();
         result.setSuccResult(null);
         return result.isSuccess();
     }
@@ -176,11 +182,17 @@ public abstract class AbsTopicCtrlMapperImpl implements TopicCtrlMapper {
         return resultMap;
     }
 
+    @Override
+    public long getDataVersion() {
+        return dataVersion.get();
+    }
+
     /**
      * Clear cached data
      */
     protected void clearCachedData() {
         topicCtrlCache.clear();
+        dataVersion.incrementAndGet();
     }
 
     /**
@@ -190,6 +202,7 @@ public abstract class AbsTopicCtrlMapperImpl implements TopicCtrlMapper {
      */
     protected void putRecord2Caches(TopicCtrlEntity entity) {
         topicCtrlCache.put(entity.getTopicName(), entity);
+        dataVersion.incrementAndGet();
     }
 
     /**
@@ -39,11 +39,14 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 public abstract class AbsTopicDeployMapperImpl implements TopicDeployMapper {
 
     protected static final Logger logger =
             LoggerFactory.getLogger(AbsTopicDeployMapperImpl.class);
+    // the data version, increased after each change of the cached data
+    private final AtomicLong dataVersion = new AtomicLong(0);
     // data cache
     private final ConcurrentHashMap<String/* recordKey */, TopicDeployEntity> topicDeployCache =
             new ConcurrentHashMap<>();
@@ -477,6 +480,11 @@ public abstract class AbsTopicDeployMapperImpl implements TopicDeployMapper {
         return new HashSet<>(topicName2RecordCache.keySet());
     }
 
+    @Override
+    public long getDataVersion() {
+        return dataVersion.get();
+    }
+
     /**
      * Clear cached data
      */
@@ -485,6 +493,7 @@ public abstract class AbsTopicDeployMapperImpl implements TopicDeployMapper {
         brokerId2RecordCache.clear();
         brokerId2TopicNameCache.clear();
         topicDeployCache.clear();
+        dataVersion.incrementAndGet();
     }
 
     /**
@@ -525,6 +534,7 @@ public abstract class AbsTopicDeployMapperImpl implements TopicDeployMapper {
             }
         }
         keySet.add(entity.getTopicName());
+        dataVersion.incrementAndGet();
     }
 
     /**
@@ -578,6 +588,7 @@ public abstract class AbsTopicDeployMapperImpl implements TopicDeployMapper {
                 brokerId2TopicNameCache.remove(curEntity.getBrokerId(), new ConcurrentHashSet<>());
             }
         }
+        dataVersion.incrementAndGet();
     }
 
     private Set<String> getMatchedRecords(Set<String> topicNameSet,
@@ -27,6 +27,7 @@ import org.apache.inlong.tubemq.server.common.statusdef.ManageStatus;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 /*
  *  Broker publish and subscribe information holder
@@ -42,6 +43,8 @@ public class BrokerPSInfoHolder {
     private final BrokerTopicInfoView subTopicInfoView = new BrokerTopicInfoView();
     // broker publish topic view info
     private final BrokerTopicInfoView pubTopicInfoView = new BrokerTopicInfoView();
+    // the version of the subscribe topology, changed when the subscribable partitions change
+    private final AtomicLong subTopologyVersion = new AtomicLong(0);
 
     public BrokerPSInfoHolder() {
 
@@ -59,6 +62,7 @@ public class BrokerPSInfoHolder {
         // remove broker topic info
         subTopicInfoView.rmvBrokerTopicInfo(brokerId);
         pubTopicInfoView.rmvBrokerTopicInfo(brokerId);
+        subTopologyVersion.incrementAndGet();
     }
 
     /**
@@ -79,6 +83,7 @@ public class BrokerPSInfoHolder {
         }
         // initial broker subscribe info
         subTopicInfoView.updBrokerTopicConfInfo(brokerId, topicInfoMap);
+        subTopologyVersion.incrementAndGet();
         // initial broker publish info
         pubTopicInfoView.updBrokerTopicConfInfo(brokerId, topicInfoMap);
     }
@@ -95,10 +100,14 @@ public class BrokerPSInfoHolder {
         } else {
             enablePubBrokerIdSet.remove(brokerId);
         }
+        boolean subChanged;
         if (mngStatus.isAcceptSubscribe()) {
-            enableSubBrokerIdSet.add(brokerId);
+            subChanged = enableSubBrokerIdSet.add(brokerId);
         } else {
-            enableSubBrokerIdSet.remove(brokerId);
+            subChanged = enableSubBrokerIdSet.remove(brokerId);
+        }
+        if (subChanged) {
+            subTopologyVersion.incrementAndGet();
         }
     }
 
@@ -122,9 +131,20 @@ public class BrokerPSInfoHolder {
             return true;
         }
         subTopicInfoView.updBrokerTopicConfInfo(brokerId, topicInfoMap);
+        subTopologyVersion.incrementAndGet();
         return pubTopicInfoView.fastUpdBrokerTopicConfInfo(brokerId, topicInfoMap);
     }
 
+    /**
+     * Get the version of the subscribe topology, the version changes
+     * when the subscribable partitions of the brokers may change
+     *
+     * @return the current version
+     */
+    public long getSubTopologyVersion() {
+        return subTopologyVersion.get();
+    }
+
     /**
      * update broker's publish topicInfo configures
      *
@@ -100,6 +100,8 @@ public interface BrokerRunManager {
 
     List<Partition> getSubBrokerAcceptSubParts(String topic);
 
+    long getSubTopologyVersion();
+
     void getSubBrokerTopicInfo(int brokerId, String topic, Tuple2<Boolean, TopicInfo> result);
 
     void getPubBrokerTopicInfo(int brokerId, String topic,
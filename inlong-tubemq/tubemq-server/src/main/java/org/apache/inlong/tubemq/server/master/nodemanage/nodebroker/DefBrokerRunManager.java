@@ -532,6 +532,11 @@ public class DefBrokerRunManager implements BrokerRunManager, ConfigObserver {
         return brokerPubSubInfo.getAcceptSubParts(topic);
     }
 
+    @Override
+    public long getSubTopologyVersion() {
+        return brokerPubSubInfo.getSubTopologyVersion();
+    }
+
     @Override
     public void getSubBrokerTopicInfo(int brokerId, String topic,
             Tuple2<Boolean, TopicInfo> result) {
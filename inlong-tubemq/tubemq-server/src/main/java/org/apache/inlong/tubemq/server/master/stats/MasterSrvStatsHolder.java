@@ -212,6 +212,23 @@ public class MasterSrvStatsHolder {
     public static void updSvrBalResetDurations(long dltTime) {
         switchableSets[getIndex()].svrResetBalanceStats.update(dltTime);
     }
+
+    /**
+     * Update the statistics of a server balance cycle.
+     *
+     * @param dltTime        the balance calculation duration
+     * @param skipGroupCnt   the count of the unchanged groups skipped
+     * @param calcGroupCnt   the count of the groups recalculated
+     * @param movedPartCnt   the count of the partitions assigned to other consumers
+     */
+    public static void updSvrBalanceCycleStats(long dltTime, int skipGroupCnt,
+            int calcGroupCnt, int movedPartCnt) {
+        ServiceStatsSet statsSet = switchableSets[getIndex()];
+        statsSet.svrBalanceCycleStats.update(dltTime);
+        statsSet.svrBalSkipGroupCnt.addValue(skipGroupCnt);
+        statsSet.svrBalCalcGroupCnt.addValue(calcGroupCnt);
+        statsSet.svrBalMovedPartCnt.addValue(movedPartCnt);
+    }
     // metric set operate APIs end
 
     // private functions
@@ -244,6 +261,13 @@ public class MasterSrvStatsHolder {
                     statsSet.cltBalGroupTmototCnt.getAndResetValue());
             statsSet.svrNormalBalanceStats.snapShort(statsMap, false);
             statsSet.svrResetBalanceStats.snapShort(statsMap, false);
+            statsSet.svrBalanceCycleStats.snapShort(statsMap, false);
+            statsMap.put(statsSet.svrBalSkipGroupCnt.getFullName(),
+                    statsSet.svrBalSkipGroupCnt.getAndResetValue());
+            statsMap.put(statsSet.svrBalCalcGroupCnt.getFullName(),
+                    statsSet.svrBalCalcGroupCnt.getAndResetValue());
+            statsMap.put(statsSet.svrBalMovedPartCnt.getFullName(),
+                    statsSet.svrBalMovedPartCnt.getAndResetValue());
             // for consumer
             statsMap.put(consumerOnlineCnt.getFullName(),
                     consumerOnlineCnt.getAndResetValue());
@@ -281,6 +305,13 @@ public class MasterSrvStatsHolder {
                     statsSet.cltBalGroupTmototCnt.getValue());
             statsSet.svrNormalBalanceStats.getValue(statsMap, false);
             statsSet.svrResetBalanceStats.getValue(statsMap, false);
+            statsSet.svrBalanceCycleStats.getValue(statsMap, false);
+            statsMap.put(statsSet.svrBalSkipGroupCnt.getFullName(),
+                    statsSet.svrBalSkipGroupCnt.getValue());
+            statsMap.put(statsSet.svrBalCalcGroupCnt.getFullName(),
+                    statsSet.svrBalCalcGroupCnt.getValue());
+            statsMap.put(statsSet.svrBalMovedPartCnt.getFullName(),
+                    statsSet.svrBalMovedPartCnt.getValue());
             // for consumer
             statsMap.put(consumerOnlineCnt.getFullName(),
                     consumerOnlineCnt.getValue());
@@ -329,6 +360,14 @@ public class MasterSrvStatsHolder {
             statsSet.svrNormalBalanceStats.snapShort(strBuff, false);
             strBuff.append(",");
             statsSet.svrResetBalanceStats.snapShort(strBuff, false);
+            strBuff.append(",");
+            statsSet.svrBalanceCycleStats.snapShort(strBuff, false);
+            strBuff.append(",\"").append(statsSet.svrBalSkipGroupCnt.getFullName())
+                    .append("\":").append(statsSet.svrBalSkipGroupCnt.getAndResetValue())
+                    .append(",\"").append(statsSet.svrBalCalcGroupCnt.getFullName())
+                    .append("\":").append(statsSet.svrBalCalcGroupCnt.getAndResetValue())
+                    .append(",\"").append(statsSet.svrBalMovedPartCnt.getFullName())
+                    .append("\":").append(statsSet.svrBalMovedPartCnt.getAndResetValue());
             // for consumer
             strBuff.append(",\"").append(consumerOnlineCnt.getFullName())
                     .append("\":").append(consumerOnlineCnt.getAndResetValue())
@@ -369,6 +408,14 @@ public class MasterSrvStatsHolder {
             statsSet.svrNormalBalanceStats.getValue(strBuff, false);
             strBuff.append(",");
             statsSet.svrResetBalanceStats.getValue(strBuff, false);
+            strBuff.append(",");
+            statsSet.svrBalanceCycleStats.getValue(strBuff, false);
+            strBuff.append(",\"").append(statsSet.svrBalSkipGroupCnt.getFullName())
+                    .append("\":").append(statsSet.svrBalSkipGroupCnt.getValue())
+                    .append(",\"").append(statsSet.svrBalCalcGroupCnt.getFullName())
+                    .append("\":").append(statsSet.svrBalCalcGroupCnt.getValue())
+                    .append(",\"").append(statsSet.svrBalMovedPartCnt.getFullName())
+                    .append("\":").append(statsSet.svrBalMovedPartCnt.getValue());
             // for consumer
             strBuff.append(",\"").append(consumerOnlineCnt.getFullName())
                     .append("\":").append(consumerOnlineCnt.getValue())
@@ -447,6 +494,18 @@ public class MasterSrvStatsHolder {
         // reset server balance delta time statistics
         protected final ESTHistogram svrResetBalanceStats =
                 new ESTHistogram("server_balance_reset", null);
+        // the balance calculation time of each server balance cycle statistics
+        protected final ESTHistogram svrBalanceCycleStats =
+                new ESTHistogram("server_balance_cycle", null);
+        // the unchanged groups skipped by server balance statistics
+        protected final LongStatsCounter svrBalSkipGroupCnt =
+                new LongStatsCounter("server_balance_skip_group_cnt", null);
+        // the groups recalculated by server balance statistics
+        protected final LongStatsCounter svrBalCalcGroupCnt =
+                new LongStatsCounter("server_balance_calc_group_cnt", null);
+        // the partitions moved by server balance statistics
+        protected final LongStatsCounter svrBalMovedPartCnt =
+                new LongStatsCounter("server_balance_moved_part_cnt", null);
 
         public ServiceStatsSet() {
             resetSinceTime();
@@ -17,9 +17,18 @@
 
 package org.apache.inlong.tubemq.server.broker.msgstore.disk;
 
+import org.apache.inlong.tubemq.corerpc.RpcDataRegion;
+import org.apache.inlong.tubemq.corerpc.netty.NettyFileRegion;
+import org.apache.inlong.tubemq.server.broker.utils.DataStoreUtils;
+
+import org.junit.Assert;
+
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
 
 /**
  * FileSegment test.
@@ -83,4 +92,94 @@ public class FileSegmentTest {
             }
         }
     }
-}
\ No newline at end of file
+
+    @org.junit.Test
+    public void mappedIndexTimeSearch() throws IOException {
+        File file = File.createTempFile("testindex", null);
+        FileSegment indexSegment = null;
+        try {
+            indexSegment = new FileSegment(0, file, true, SegmentType.INDEX);
+            int recordCnt = 3000;
+            ByteBuffer indexBuffer =
+                    ByteBuffer.allocate(recordCnt * DataStoreUtils.STORE_INDEX_HEAD_LEN);
+            for (int i = 0; i < recordCnt; i++) {
+                indexBuffer.putInt(1);
+                indexBuffer.putLong(i * 100L);
+                indexBuffer.putInt(100);
+                indexBuffer.putInt(0);
+                indexBuffer.putLong(1000L + i * 10L);
+            }
+            indexBuffer.flip();
+            indexSegment.append(indexBuffer, 1000L, 1000L + (recordCnt - 1) * 10L);
+            indexSegment.flush(true);
+            indexSegment.setMutable(false);
+            // read through the mapped index
+            ByteBuffer readBuffer = ByteBuffer.allocate(DataStoreUtils.STORE_INDEX_HEAD_LEN);
+            indexSegment.read(readBuffer, 2500L * DataStoreUtils.STORE_INDEX_HEAD_LEN);
+            readBuffer.flip();
+            Assert.assertEquals(2500L * 100L,
+                    readBuffer.getLong(DataStoreUtils.INDEX_POS_DATAOFFSET));
+            Assert.assertEquals(1000L + 2500L * 10L, indexSegment.getRecordTime(
+                    2500L * DataStoreUtils.STORE_INDEX_HEAD_LEN));
+            // narrow the search range through the sparse time index
+            long[] searchRange =
+                    indexSegment.getTimeSearchRange(1000L + 2500L * 10L, recordCnt - 1);
+            Assert.assertEquals(2048L, searchRange[0]);
+            Assert.assertEquals(recordCnt - 1, searchRange[1]);
+            searchRange = indexSegment.getTimeSearchRange(1000L + 1500L * 10L, recordCnt - 1);
+            Assert.assertEquals(1024L, searchRange[0]);
+            Assert.assertEquals(2048L, searchRange[1]);
+            searchRange = indexSegment.getTimeSearchRange(500L, recordCnt - 1);
+            Assert.assertEquals(0L, searchRange[0]);
+            Assert.assertEquals(0L, searchRange[1]);
+        } finally {
+            if (indexSegment != null) {
+                indexSegment.deleteFile();
+            }
+            file.deleteOnExit();
+        }
+    }
+
+    @org.junit.Test
+    public void dataRegionTransfer() throws IOException {
+        long start = 1000L;
+        File file = File.createTempFile("testdata", null);
+        FileSegment dataSegment = null;
+        try {
+            dataSegment = new FileSegment(start, file, true, SegmentType.DATA);
+            long appendTime = System.currentTimeMillis();
+            for (int i = 0; i < 10; i++) {
+                byte[] bytes = ("record-" + i).getBytes();
+                dataSegment.append(ByteBuffer.wrap(bytes), appendTime, appendTime);
+            }
+            dataSegment.flush(true);
+            // read a middle range through the copy path
+            long readOffset = start + 9L;
+            int readSize = (int) (dataSegment.getCachedSize() - 9L - 5L);
+            ByteBuffer readBuffer = ByteBuffer.allocate(readSize);
+            dataSegment.read(readBuffer, readOffset);
+            readBuffer.flip();
+            byte[] copyBytes = new byte[readBuffer.remaining()];
+            readBuffer.get(copyBytes);
+            // read the same range through the zero-copy file region
+            RpcDataRegion dataRegion = dataSegment.getDataRegion(readOffset, readSize);
+            Assert.assertEquals(9L, dataRegion.getPosition());
+            Assert.assertEquals(readSize, dataRegion.getCount());
+            NettyFileRegion fileRegion = new NettyFileRegion(dataRegion);
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            WritableByteChannel target = Channels.newChannel(output);
+            while (fileRegion.transferred() < fileRegion.count()) {
+                fileRegion.transferTo(target, fileRegion.transferred());
+            }
+            fileRegion.release();
+            Assert.assertArrayEquals(copyBytes, output.toByteArray());
+            // the shared file channel stays open after the region is released
+            Assert.assertTrue(dataRegion.getChannel().isOpen());
+        } finally {
+            if (dataSegment != null) {
+                dataSegment.deleteFile();
+            }
+            file.deleteOnExit();
+        }
+    }
+}
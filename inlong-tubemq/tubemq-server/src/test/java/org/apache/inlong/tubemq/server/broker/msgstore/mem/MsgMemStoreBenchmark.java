@@ -0,0 +1,181 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.tubemq.server.broker.msgstore.mem;
+
+import org.apache.inlong.tubemq.server.broker.stats.MsgStoreStatsHolder;
+import org.apache.inlong.tubemq.server.broker.utils.DataStoreUtils;
+import org.apache.inlong.tubemq.server.common.utils.AppendResult;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * MsgMemStore contended read/write throughput benchmark.
+ *
+ * One producer appends to the cache while three consumers read the latest messages.
+ * With lockedRead=true the readers take the lock shared with the writer before reading,
+ * as MsgMemStore.getMessages did before the lock-free read path; with lockedRead=false
+ * the readers only use the published write cursors.
+ *
+ * Run it through the main method from the test classpath.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Group)
+public class MsgMemStoreBenchmark {
+
+    private static final int READ_BACK_COUNT = 32;
+
+    @Param({"true", "false"})
+    public boolean lockedRead;
+
+    private final ReentrantReadWriteLock storeMutex = new ReentrantReadWriteLock();
+    private final ReentrantLock legacyLock = new ReentrantLock();
+    private final MsgStoreStatsHolder statsHolder = new MsgStoreStatsHolder();
+    private final AppendResult appendResult = new AppendResult();
+    private MsgMemStore msgMemStore;
+    private ByteBuffer dataBuffer;
+    private ByteBuffer indexBuffer;
+    private int dataLength;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        byte[] testData = new byte[256];
+        dataLength = DataStoreUtils.STORE_DATA_HEADER_LEN + testData.length;
+        dataBuffer = ByteBuffer.allocate(dataLength);
+        dataBuffer.putInt(DataStoreUtils.STORE_DATA_PREFX_LEN + testData.length);
+        dataBuffer.putInt(DataStoreUtils.STORE_DATA_TOKER_BEGIN_VALUE);
+        dataBuffer.putInt(33);
+        dataBuffer.putInt(0);
+        dataBuffer.putLong(-1L);
+        dataBuffer.putLong(2222L);
+        dataBuffer.putInt(255555);
+        dataBuffer.putInt(11);
+        dataBuffer.putLong(222L);
+        dataBuffer.putInt(1);
+        dataBuffer.put(testData);
+        dataBuffer.flip();
+        indexBuffer = ByteBuffer.allocate(DataStoreUtils.STORE_INDEX_HEAD_LEN);
+        indexBuffer.putInt(0);
+        indexBuffer.putLong(-1L);
+        indexBuffer.putInt(dataLength);
+        indexBuffer.putInt(32);
+        indexBuffer.putLong(System.currentTimeMillis());
+        indexBuffer.flip();
+        msgMemStore = new MsgMemStore(64 * 1024 * 1024, 200000, 0, 0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        msgMemStore.close();
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(1)
+    public boolean append() {
+        boolean appended;
+        storeMutex.readLock().lock();
+        try {
+            if (lockedRead) {
+                legacyLock.lock();
+                try {
+                    appended = appendToStore();
+                } finally {
+                    legacyLock.unlock();
+                }
+            } else {
+                appended = appendToStore();
+            }
+        } finally {
+            storeMutex.readLock().unlock();
+        }
+        if (!appended) {
+            // the cache is full, reset it as the flush does
+            storeMutex.writeLock().lock();
+            try {
+                msgMemStore.resetMemStoreStatus(msgMemStore.getDataLastWritePos(),
+                        msgMemStore.getIndexLastWritePos());
+            } finally {
+                storeMutex.writeLock().unlock();
+            }
+        }
+        return appended;
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(3)
+    public GetCacheMsgResult read() {
+        storeMutex.readLock().lock();
+        try {
+            long lastIndexPos;
+            if (lockedRead) {
+                legacyLock.lock();
+                try {
+                    lastIndexPos = msgMemStore.getIndexLastWritePos();
+                } finally {
+                    legacyLock.unlock();
+                }
+            } else {
+                lastIndexPos = msgMemStore.getIndexLastWritePos();
+            }
+            long readPos = Math.max(msgMemStore.getIndexStartWritePos(),
+                    lastIndexPos - READ_BACK_COUNT * DataStoreUtils.STORE_INDEX_HEAD_LEN);
+            return msgMemStore.getMessages(0, readPos,
+                    1024 * 1024, READ_BACK_COUNT, 0, false, false, null, 0);
+        } finally {
+            storeMutex.readLock().unlock();
+        }
+    }
+
+    private boolean appendToStore() {
+        return msgMemStore.appendMsg(statsHolder, 0, 32,
+                System.currentTimeMillis(), indexBuffer, dataLength, dataBuffer, appendResult);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(MsgMemStoreBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
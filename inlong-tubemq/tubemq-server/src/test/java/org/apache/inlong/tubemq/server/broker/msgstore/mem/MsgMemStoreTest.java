@@ -21,9 +21,11 @@ import org.apache.inlong.tubemq.server.broker.stats.MsgStoreStatsHolder;
 import org.apache.inlong.tubemq.server.broker.utils.DataStoreUtils;
 import org.apache.inlong.tubemq.server.common.utils.AppendResult;
 
+import org.junit.Assert;
 import org.junit.Test;
 
 import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * MsgMemStore test.
@@ -105,4 +107,129 @@ public class MsgMemStoreTest {
         // get messages
         GetCacheMsgResult getCacheMsgResult = msgMemStore.getMessages(0, 2, 1024, 1000, 0, false, false, null, 0);
     }
+
+    @Test
+    public void readWhileAppend() throws Exception {
+        final byte[] testData = "abcabdcdsdsdasdfasdfasdfsadfasdfasdfasdfasdfaaaaaaaaaaa".getBytes();
+        final int dataLength = DataStoreUtils.STORE_DATA_HEADER_LEN + testData.length;
+        final int msgCount = 5000;
+        final MsgMemStore msgMemStore =
+                new MsgMemStore(2 * 1024 * 1024, 10000, 0, 0);
+        final AtomicBoolean finished = new AtomicBoolean(false);
+        Thread writer = new Thread(() -> {
+            MsgStoreStatsHolder memStatsHolder = new MsgStoreStatsHolder();
+            AppendResult appendResult = new AppendResult();
+            for (int i = 0; i < msgCount; i++) {
+                ByteBuffer dataBuffer = ByteBuffer.allocate(dataLength);
+                dataBuffer.putInt(DataStoreUtils.STORE_DATA_PREFX_LEN + testData.length);
+                dataBuffer.putInt(DataStoreUtils.STORE_DATA_TOKER_BEGIN_VALUE);
+                dataBuffer.putInt(33);
+                dataBuffer.putInt(0);
+                dataBuffer.putLong(-1L);
+                dataBuffer.putLong(2222L);
+                dataBuffer.putInt(255555);
+                dataBuffer.putInt(11);
+                dataBuffer.putLong(i);
+                dataBuffer.putInt(1);
+                dataBuffer.put(testData);
+                dataBuffer.flip();
+                ByteBuffer indexBuffer =
+                        ByteBuffer.allocate(DataStoreUtils.STORE_INDEX_HEAD_LEN);
+                indexBuffer.putInt(0);
+                indexBuffer.putLong(-1L);
+                indexBuffer.putInt(dataLength);
+                indexBuffer.putInt(32);
+                indexBuffer.putLong(System.currentTimeMillis());
+                indexBuffer.flip();
+                msgMemStore.appendMsg(memStatsHolder, 0, 32,
+                        System.currentTimeMillis(), indexBuffer, dataLength, dataBuffer, appendResult);
+            }
+            finished.set(true);
+        });
+        writer.start();
+        // read without lock while writing, every returned message must be complete.
+        long readOffset = 0;
+        long readCount = 0;
+        while (readCount < msgCount) {
+            boolean writeFinished = finished.get();
+            GetCacheMsgResult result = msgMemStore.getMessages(0,
+                    readOffset, 1024 * 1024, 1000, 0, false, false, null, 0);
+            if (result.isSuccess) {
+                for (ByteBuffer msgBuffer : result.cacheMsgList) {
+                    Assert.assertEquals(dataLength, msgBuffer.remaining());
+                    Assert.assertEquals(DataStoreUtils.STORE_DATA_TOKER_BEGIN_VALUE,
+                            msgBuffer.getInt(4));
+                    Assert.assertEquals(readCount,
+                            msgBuffer.getLong(DataStoreUtils.STORE_HEADER_POS_MSGID));
+                    readCount++;
+                }
+                readOffset += result.dltOffset;
+            } else {
+                Assert.assertFalse(writeFinished);
+            }
+        }
+        writer.join();
+        Assert.assertEquals(msgCount, msgMemStore.getCurMsgCount());
+    }
+
+    @Test
+    public void appendMsgs() {
+        final byte[] testData = "abcabdcdsdsdasdfasdfasdfsadfasdfasdfasdfasdfaaaaaaaaaaa".getBytes();
+        final int dataLength = DataStoreUtils.STORE_DATA_HEADER_LEN + testData.length;
+        final int batchCount = 10;
+        final int[] keyCodes = new int[batchCount];
+        final ByteBuffer[] dataBuffers = new ByteBuffer[batchCount];
+        final ByteBuffer[] indexBuffers = new ByteBuffer[batchCount];
+        final AppendResult[] appendResults = new AppendResult[batchCount];
+        for (int i = 0; i < batchCount; i++) {
+            dataBuffers[i] = ByteBuffer.allocate(dataLength);
+            dataBuffers[i].putInt(DataStoreUtils.STORE_DATA_PREFX_LEN + testData.length);
+            dataBuffers[i].putInt(DataStoreUtils.STORE_DATA_TOKER_BEGIN_VALUE);
+            dataBuffers[i].putInt(33);
+            dataBuffers[i].putInt(0);
+            dataBuffers[i].putLong(-1L);
+            dataBuffers[i].putLong(2222L);
+            dataBuffers[i].putInt(255555);
+            dataBuffers[i].putInt(11);
+            dataBuffers[i].putLong(i);
+            dataBuffers[i].putInt(1);
+            dataBuffers[i].put(testData);
+            dataBuffers[i].flip();
+            indexBuffers[i] = ByteBuffer.allocate(DataStoreUtils.STORE_INDEX_HEAD_LEN);
+            indexBuffers[i].putInt(0);
+            indexBuffers[i].putLong(-1L);
+            indexBuffers[i].putInt(dataLength);
+            indexBuffers[i].putInt(32);
+            indexBuffers[i].putLong(System.currentTimeMillis());
+            indexBuffers[i].flip();
+            keyCodes[i] = 32;
+            appendResults[i] = new AppendResult();
+        }
+        MsgStoreStatsHolder memStatsHolder = new MsgStoreStatsHolder();
+        // the cache can't hold the whole batch, none of the messages is appended
+        MsgMemStore smallMemStore = new MsgMemStore(2 * 1024 * 1024, batchCount - 1, 0, 0);
+        Assert.assertFalse(smallMemStore.appendMsgs(memStatsHolder, 0, keyCodes,
+                System.currentTimeMillis(), indexBuffers, batchCount * dataLength,
+                dataBuffers, appendResults));
+        Assert.assertEquals(0, smallMemStore.getCurMsgCount());
+        // append the whole batch
+        MsgMemStore msgMemStore = new MsgMemStore(2 * 1024 * 1024, 10000, 0, 0);
+        Assert.assertTrue(msgMemStore.appendMsgs(memStatsHolder, 0, keyCodes,
+                System.currentTimeMillis(), indexBuffers, batchCount * dataLength,
+                dataBuffers, appendResults));
+        Assert.assertEquals(batchCount, msgMemStore.getCurMsgCount());
+        for (int i = 0; i < batchCount; i++) {
+            Assert.assertEquals((long) i * DataStoreUtils.STORE_INDEX_HEAD_LEN,
+                    appendResults[i].getAppendIndexOffset());
+        }
+        // read the batch back in order
+        GetCacheMsgResult result = msgMemStore.getMessages(0,
+                0, 1024 * 1024, 1000, 0, false, false, null, 0);
+        Assert.assertTrue(result.isSuccess);
+        Assert.assertEquals(batchCount, result.cacheMsgList.size());
+        for (int i = 0; i < batchCount; i++) {
+            Assert.assertEquals(i, result.cacheMsgList.get(i)
+                    .getLong(DataStoreUtils.STORE_HEADER_POS_MSGID));
+        }
+    }
 }
@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.tubemq.server.broker.msgstore.tiered;
+
+import org.apache.inlong.tubemq.server.broker.msgstore.disk.FileSegment;
+import org.apache.inlong.tubemq.server.broker.msgstore.disk.FileSegmentList;
+import org.apache.inlong.tubemq.server.broker.msgstore.disk.Segment;
+import org.apache.inlong.tubemq.server.broker.msgstore.disk.SegmentType;
+import org.apache.inlong.tubemq.server.broker.utils.DataStoreUtils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.List;
+
+/**
+ * TieredStoreService test.
+ */
+public class TieredStoreServiceTest {
+
+    @Test
+    public void offloadAndReadSegment() throws Exception {
+        File storeDir = Files.createTempDirectory("tiered_store").toFile();
+        File file = File.createTempFile("testindex", null);
+        TieredStoreService tieredStore = new TieredStoreService(
+                new LocalFileObjectStore(storeDir.getAbsolutePath()),
+                3600000L, 1024 * 1024L, TieredReadCache.CACHE_CHUNK_SIZE);
+        FileSegment indexSegment = null;
+        try {
+            // build a sealed index segment larger than one cache chunk
+            long start = 3000L * DataStoreUtils.STORE_INDEX_HEAD_LEN;
+            indexSegment = new FileSegment(start, file, true, SegmentType.INDEX);
+            int recordCnt = 3000;
+            ByteBuffer indexBuffer =
+                    ByteBuffer.allocate(recordCnt * DataStoreUtils.STORE_INDEX_HEAD_LEN);
+            for (int i = 0; i < recordCnt; i++) {
+                indexBuffer.putInt(1);
+                indexBuffer.putLong(i * 100L);
+                indexBuffer.putInt(100);
+                indexBuffer.putInt(0);
+                indexBuffer.putLong(1000L + i * 10L);
+            }
+            indexBuffer.flip();
+            indexSegment.append(indexBuffer, 1000L, 1000L + (recordCnt - 1) * 10L);
+            indexSegment.flush(true);
+            indexSegment.setMutable(false);
+            // offload the segment, and replace it in the segment list
+            FileSegmentList segList = new FileSegmentList(new Segment[]{indexSegment});
+            RemoteSegment remoteSeg =
+                    tieredStore.offloadSegment("test-0", SegmentType.INDEX, indexSegment);
+            segList.replace(indexSegment, remoteSeg);
+            Assert.assertEquals(start, segList.getMinOffset());
+            Assert.assertEquals(indexSegment.getLast(), segList.getMaxOffset());
+            Segment recordSeg = segList.findSegment(start + 2500L * DataStoreUtils.STORE_INDEX_HEAD_LEN);
+            Assert.assertSame(remoteSeg, recordSeg);
+            // read through the cache, the following chunk is read ahead
+            Assert.assertEquals(1000L + 10L, recordSeg.getRecordTime(
+                    start + DataStoreUtils.STORE_INDEX_HEAD_LEN));
+            ByteBuffer readBuffer = ByteBuffer.allocate(DataStoreUtils.STORE_INDEX_HEAD_LEN);
+            recordSeg.read(readBuffer, start + 2500L * DataStoreUtils.STORE_INDEX_HEAD_LEN);
+            readBuffer.flip();
+            Assert.assertEquals(2500L * 100L,
+                    readBuffer.getLong(DataStoreUtils.INDEX_POS_DATAOFFSET));
+            Assert.assertEquals(1000L + 2999L * 10L, recordSeg.getRecordTime(
+                    start + 2999L * DataStoreUtils.STORE_INDEX_HEAD_LEN));
+            Assert.assertEquals(1L, tieredStore.getReadCache().getMissCount());
+            Assert.assertEquals(2L, tieredStore.getReadCache().getHitCount());
+            Assert.assertTrue(remoteSeg.containTime(1500L));
+            // reload the remote segments
+            List<RemoteSegment> remoteSegs =
+                    tieredStore.loadSegments("test-0", SegmentType.INDEX);
+            Assert.assertEquals(1, remoteSegs.size());
+            Assert.assertEquals(start, remoteSegs.get(0).getStart());
+            Assert.assertEquals(indexSegment.getCachedSize(), remoteSegs.get(0).getCachedSize());
+            Assert.assertEquals(1000L, remoteSegs.get(0).getLeftAppendTime());
+            Assert.assertTrue(tieredStore.loadSegments("test-0", SegmentType.DATA).isEmpty());
+            // the expired remote segment is deleted from the object store
+            Assert.assertEquals(1, remoteSeg.checkAndSetExpired(
+                    System.currentTimeMillis() + 7200000L, 3600000L));
+            remoteSeg.deleteFile();
+            Assert.assertTrue(tieredStore.loadSegments("test-0", SegmentType.INDEX).isEmpty());
+            Assert.assertEquals(0L, tieredStore.getReadCache().getCachedSize());
+        } finally {
+            if (indexSegment != null) {
+                indexSegment.close();
+            }
+            tieredStore.close();
+            file.deleteOnExit();
+        }
+    }
+}
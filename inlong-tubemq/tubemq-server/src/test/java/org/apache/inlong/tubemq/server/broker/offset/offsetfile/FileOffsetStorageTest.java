@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.tubemq.server.broker.offset.offsetfile;
+
+import org.apache.inlong.tubemq.server.broker.offset.OffsetStorageInfo;
+import org.apache.inlong.tubemq.server.broker.utils.DataStoreUtils;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.file.Files;
+import java.util.Collections;
+
+/**
+ * FileOffsetStorage test.
+ */
+public class FileOffsetStorageTest {
+
+    private static final long OFFSET_UNIT = DataStoreUtils.STORE_INDEX_HEAD_LEN;
+
+    @Test
+    public void recoverOffsetsFromOffsetLog() throws Exception {
+        File stgDir = Files.createTempDirectory("offset_stg").toFile();
+        try {
+            FileOffsetStorage logStorage = new FileOffsetStorage(1,
+                    stgDir.getAbsolutePath(), 3600000L, 20000L, true, 1024 * 1024L, 3600000L);
+            logStorage.start();
+            OffsetStorageInfo info = new OffsetStorageInfo("test", 1, 0, 0, 10 * OFFSET_UNIT, 0);
+            Assert.assertTrue(logStorage.commitOffset("group1",
+                    Collections.singletonList(info), false));
+            info.addAndGetOffset(5 * OFFSET_UNIT);
+            logStorage.commitOffset("group1", Collections.singletonList(info), false);
+            logStorage.commitOffset("group2", Collections.singletonList(
+                    new OffsetStorageInfo("test", 1, 1, 0, 3 * OFFSET_UNIT, 0)), false);
+            // only the changed offsets are appended to the log
+            logStorage.loopProcess(new StringBuilder(256));
+            File[] logFiles = new File(logStorage.getOffsetsFileBase())
+                    .getParentFile().listFiles((dir, name) -> name.startsWith("offsets.log."));
+            Assert.assertNotNull(logFiles);
+            Assert.assertEquals(1, logFiles.length);
+            Assert.assertTrue(logFiles[0].length() > 0);
+            // a torn record at the tail is skipped
+            try (FileOutputStream output = new FileOutputStream(logFiles[0], true)) {
+                output.write(new byte[]{0, 0, 0, 60, 1, 2, 3});
+            }
+            // load the snapshot and the log without closing the storage
+            FileOffsetStorage recoverStorage = new FileOffsetStorage(1,
+                    stgDir.getAbsolutePath(), 3600000L, 20000L, true, 1024 * 1024L, 3600000L);
+            recoverStorage.start();
+            Assert.assertEquals(15 * OFFSET_UNIT,
+                    recoverStorage.loadOffset("group1", "test", 0).getOffset());
+            Assert.assertEquals(3 * OFFSET_UNIT,
+                    recoverStorage.loadOffset("group2", "test", 1).getOffset());
+            Assert.assertEquals(2, recoverStorage.queryGroupTopicInfo(null).size());
+            // compact the log into the snapshot while closing
+            recoverStorage.close();
+            logStorage.stop();
+            FileOffsetStorage fileStorage = new FileOffsetStorage(1,
+                    stgDir.getAbsolutePath(), 3600000L, 20000L);
+            fileStorage.start();
+            Assert.assertEquals(15 * OFFSET_UNIT,
+                    fileStorage.loadOffset("group1", "test", 0).getOffset());
+            fileStorage.close();
+        } finally {
+            FileUtils.deleteQuietly(stgDir);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.tubemq.server.broker.stats;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * DiskSyncStatsHolder test.
+ */
+public class DiskSyncStatsHolderTest {
+
+    @Test
+    public void testDiskSyncStatsHolder() {
+        DiskSyncStatsHolder statsHolder = new DiskSyncStatsHolder();
+        // two passes on /data1, one pass on /data2
+        statsHolder.addGroupSyncStats("/data1", 10, 3);
+        statsHolder.addGroupSyncStats("/data1", 30, 1);
+        statsHolder.addGroupSyncStats("/data2", 20, 2);
+        Map<String, Map<String, Long>> dirValueMap = new LinkedHashMap<>();
+        statsHolder.getValue(false, dirValueMap);
+        Assert.assertEquals(2, dirValueMap.size());
+        Map<String, Long> retMap = dirValueMap.get("/data1");
+        Assert.assertEquals(2, retMap.get("file_sync_dlt_count").longValue());
+        Assert.assertEquals(10, retMap.get("file_sync_dlt_min").longValue());
+        Assert.assertEquals(30, retMap.get("file_sync_dlt_max").longValue());
+        Assert.assertEquals(2, retMap.get("file_sync_store_cnt_count").longValue());
+        Assert.assertEquals(1, retMap.get("file_sync_store_cnt_min").longValue());
+        Assert.assertEquals(3, retMap.get("file_sync_store_cnt_max").longValue());
+        retMap = dirValueMap.get("/data2");
+        Assert.assertEquals(1, retMap.get("file_sync_dlt_count").longValue());
+        Assert.assertEquals(20, retMap.get("file_sync_dlt_max").longValue());
+        Assert.assertEquals(2, retMap.get("file_sync_store_cnt_max").longValue());
+        // snapshot resets the statistics
+        dirValueMap.clear();
+        statsHolder.getValue(true, dirValueMap);
+        Assert.assertEquals(2, dirValueMap.get("/data1").get("file_sync_dlt_count").longValue());
+        dirValueMap.clear();
+        statsHolder.getValue(false, dirValueMap);
+        Assert.assertEquals(0, dirValueMap.get("/data1").get("file_sync_dlt_count").longValue());
+        // json output
+        StringBuilder strBuff = new StringBuilder(512);
+        statsHolder.getValue(false, strBuff);
+        Assert.assertTrue(strBuff.toString().startsWith("[{\"dataDir\":\""));
+    }
+}
@@ -20,6 +20,7 @@ package org.apache.inlong.tubemq.server.common;
 import org.apache.inlong.tubemq.server.common.heartbeat.HeartbeatManager;
 import org.apache.inlong.tubemq.server.common.heartbeat.TimeoutInfo;
 import org.apache.inlong.tubemq.server.common.heartbeat.TimeoutListener;
+import org.apache.inlong.tubemq.server.common.heartbeat.TimeoutWheel;
 
 import org.junit.AfterClass;
 import org.junit.Assert;
@@ -28,6 +29,11 @@ import org.junit.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
 public class HeartbeatManagerTest {
 
     private static final Logger logger = LoggerFactory.getLogger(HeartbeatManager.class);
@@ -90,4 +96,83 @@ public class HeartbeatManagerTest {
         Assert.assertTrue(
                 heartbeatManager.getProducerRegMap().get("node1").getTimeoutTime() > System.currentTimeMillis());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testTimeoutWheel() {
+        long startTime = System.currentTimeMillis();
+        TimeoutWheel timeoutWheel = new TimeoutWheel(200L, 512, startTime);
+        TimeoutInfo shortInfo = new TimeoutInfo(1000L);
+        TimeoutInfo longInfo = new TimeoutInfo(300000L);
+        timeoutWheel.schedule("short", shortInfo);
+        timeoutWheel.schedule("long", longInfo);
+        List<TimeoutWheel.WheelEntry> expiredNodes = new ArrayList<>();
+        timeoutWheel.advance(startTime + 999L, expiredNodes);
+        Assert.assertTrue(expiredNodes.isEmpty());
+        Assert.assertEquals(2, timeoutWheel.getEntryCount());
+        // the bucket expires not earlier than the timeout time
+        timeoutWheel.advance(shortInfo.getTimeoutTime() + 200L, expiredNodes);
+        Assert.assertEquals(1, expiredNodes.size());
+        Assert.assertEquals("short", expiredNodes.get(0).getNodeId());
+        expiredNodes.clear();
+        // the long timeout is cascaded from the upper level
+        timeoutWheel.advance(longInfo.getTimeoutTime() - 1L, expiredNodes);
+        Assert.assertTrue(expiredNodes.isEmpty());
+        timeoutWheel.advance(longInfo.getTimeoutTime() + 200L, expiredNodes);
+        Assert.assertEquals(1, expiredNodes.size());
+        Assert.assertEquals("long", expiredNodes.get(0).getNodeId());
+        Assert.assertEquals(0, timeoutWheel.getEntryCount());
+    }
+
+    @Test
+    public void testLargeClientPopulation() {
+        final int clientCnt = 20000;
+        long startTime = System.currentTimeMillis();
+        TimeoutWheel timeoutWheel = new TimeoutWheel(200L, 512, startTime);
+        List<TimeoutInfo> timeoutInfos = new ArrayList<>(clientCnt);
+        // register the consumers with the key format of the master
+        for (int i = 0; i < clientCnt; i++) {
+            TimeoutInfo timeoutInfo = new TimeoutInfo(2000L);
+            timeoutInfos.add(timeoutInfo);
+            timeoutWheel.schedule(getConsumerKey(i), timeoutInfo);
+        }
+        List<TimeoutWheel.WheelEntry> expiredNodes = new ArrayList<>();
+        timeoutWheel.advance(startTime, expiredNodes);
+        Assert.assertTrue(expiredNodes.isEmpty());
+        Assert.assertEquals(clientCnt, timeoutWheel.getEntryCount());
+        // only the half of the consumers keep heartbeat
+        for (int i = 0; i < clientCnt; i += 2) {
+            timeoutInfos.get(i).updTimeoutTime(60000L);
+        }
+        long checkTime = timeoutInfos.get(clientCnt - 1).getTimeoutTime() + 200L;
+        timeoutWheel.advance(checkTime, expiredNodes);
+        Assert.assertEquals(clientCnt, expiredNodes.size());
+        // check the expired nodes as the heartbeat manager does
+        Set<String> timeoutNodes = new HashSet<>();
+        List<TimeoutWheel.WheelEntry> renewedExpired = new ArrayList<>();
+        for (TimeoutWheel.WheelEntry entry : expiredNodes) {
+            if (entry.getTimeoutInfo().getTimeoutTime() > checkTime) {
+                timeoutWheel.reschedule(entry, renewedExpired);
+            } else {
+                timeoutNodes.add(entry.getNodeId());
+            }
+        }
+        Assert.assertTrue(renewedExpired.isEmpty());
+        Assert.assertEquals(clientCnt / 2, timeoutNodes.size());
+        for (int i = 1; i < clientCnt; i += 2) {
+            Assert.assertTrue(timeoutNodes.contains(getConsumerKey(i)));
+        }
+        Assert.assertEquals(clientCnt / 2, timeoutWheel.getEntryCount());
+        // the renewed consumers expire once their renewed timeout time passes
+        expiredNodes.clear();
+        timeoutWheel.advance(timeoutInfos.get(0).getTimeoutTime() - 1L, expiredNodes);
+        Assert.assertTrue(expiredNodes.isEmpty());
+        timeoutWheel.advance(timeoutInfos.get(clientCnt - 2).getTimeoutTime() + 200L, expiredNodes);
+        Assert.assertEquals(clientCnt / 2, expiredNodes.size());
+        Assert.assertEquals(0, timeoutWheel.getEntryCount());
+    }
+
+    private String getConsumerKey(int index) {
+        return new StringBuilder(64).append("consumer-").append(index)
+                .append("@group-").append(index % 1000).toString();
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.tubemq.server.master.balance;
+
+import org.apache.inlong.tubemq.corebase.cluster.BrokerInfo;
+import org.apache.inlong.tubemq.corebase.cluster.Partition;
+import org.apache.inlong.tubemq.server.master.metamanage.MetaDataService;
+import org.apache.inlong.tubemq.server.master.nodemanage.nodebroker.BrokerRunManager;
+import org.apache.inlong.tubemq.server.master.nodemanage.nodeconsumer.ConsumeGroupInfo;
+import org.apache.inlong.tubemq.server.master.nodemanage.nodeconsumer.ConsumerInfo;
+import org.apache.inlong.tubemq.server.master.nodemanage.nodeconsumer.ConsumerInfoHolder;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * DefaultLoadBalancer test.
+ */
+public class DefaultLoadBalancerTest {
+
+    private static final String GROUP = "test_group";
+    private static final Set<String> TOPICS = Collections.singleton("test");
+
+    @Test
+    public void testSkipSettledGroup() {
+        List<Partition> partitions = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            partitions.add(new Partition(
+                    new BrokerInfo(i % 2 + 1, "127.0.0.1", 8123), "test", i));
+        }
+        List<ConsumerInfo> consumers = new ArrayList<>();
+        consumers.add(mockConsumer("consumer_1"));
+        consumers.add(mockConsumer("consumer_2"));
+        ConsumeGroupInfo groupInfo = mock(ConsumeGroupInfo.class);
+        when(groupInfo.getConsumerInfoList()).thenReturn(consumers);
+        when(groupInfo.getTopicSet()).thenReturn(TOPICS);
+        when(groupInfo.isBalanceMapEmpty()).thenReturn(true);
+        when(groupInfo.getBalanceMap()).thenReturn(new HashMap<>());
+        ConsumerInfoHolder consumerHolder = mock(ConsumerInfoHolder.class);
+        when(consumerHolder.getConsumeGroupInfo(GROUP)).thenReturn(groupInfo);
+        BrokerRunManager brokerRunManager = mock(BrokerRunManager.class);
+        when(brokerRunManager.getSubBrokerAcceptSubParts(anySet()))
+                .thenAnswer(invocation -> toPartMap(partitions));
+        when(brokerRunManager.getSubTopologyVersion()).thenReturn(1L);
+        DefaultLoadBalancer balancer = new DefaultLoadBalancer();
+        List<String> groups = Collections.singletonList(GROUP);
+        // the unassigned partitions are spread to the least loaded consumers
+        Map<String, Map<String, Map<String, Partition>>> clusterState = new HashMap<>();
+        clusterState.put("consumer_1", new HashMap<>());
+        clusterState.put("consumer_2", new HashMap<>());
+        Map<String, Map<String, List<Partition>>> result = balancer.balanceCluster(
+                clusterState, consumerHolder, brokerRunManager, groups,
+                mock(MetaDataService.class), new StringBuilder(512));
+        Assert.assertEquals(2, result.get("consumer_1").get("test").size());
+        Assert.assertEquals(2, result.get("consumer_2").get("test").size());
+        // the balanced assignment is kept and the group is settled
+        clusterState = toClusterState(result);
+        result = balancer.balanceCluster(clusterState, consumerHolder,
+                brokerRunManager, groups, mock(MetaDataService.class), new StringBuilder(512));
+        Assert.assertEquals(2, result.get("consumer_1").get("test").size());
+        Assert.assertEquals(2, result.get("consumer_2").get("test").size());
+        // the settled group is skipped
+        result = balancer.balanceCluster(clusterState, consumerHolder,
+                brokerRunManager, groups, mock(MetaDataService.class), new StringBuilder(512));
+        Assert.assertTrue(result.isEmpty());
+        // the topology change not affecting the group partitions is skipped
+        when(brokerRunManager.getSubTopologyVersion()).thenReturn(2L);
+        result = balancer.balanceCluster(clusterState, consumerHolder,
+                brokerRunManager, groups, mock(MetaDataService.class), new StringBuilder(512));
+        Assert.assertTrue(result.isEmpty());
+        // the new consumer takes the partitions of the loaded consumers only
+        consumers.add(mockConsumer("consumer_3"));
+        clusterState.put("consumer_3", new HashMap<>());
+        result = balancer.balanceCluster(clusterState, consumerHolder,
+                brokerRunManager, groups, mock(MetaDataService.class), new StringBuilder(512));
+        Assert.assertEquals(3, result.size());
+        Assert.assertEquals(1, result.get("consumer_3").get("test").size());
+        int assignedCnt = 0;
+        for (Map<String, List<Partition>> topicParts : result.values()) {
+            assignedCnt += topicParts.get("test").size();
+        }
+        Assert.assertEquals(4, assignedCnt);
+    }
+
+    @Test
+    public void testDisableTopicOnSettledGroup() {
+        List<Partition> partitions = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            partitions.add(new Partition(
+                    new BrokerInfo(i % 2 + 1, "127.0.0.1", 8123), "test", i));
+        }
+        List<ConsumerInfo> consumers = new ArrayList<>();
+        consumers.add(mockConsumer("consumer_1"));
+        consumers.add(mockConsumer("consumer_2"));
+        ConsumeGroupInfo groupInfo = mock(ConsumeGroupInfo.class);
+        when(groupInfo.getConsumerInfoList()).thenReturn(consumers);
+        when(groupInfo.getTopicSet()).thenReturn(TOPICS);
+        when(groupInfo.isBalanceMapEmpty()).thenReturn(true);
+        when(groupInfo.getBalanceMap()).thenReturn(new HashMap<>());
+        ConsumerInfoHolder consumerHolder = mock(ConsumerInfoHolder.class);
+        when(consumerHolder.getConsumeGroupInfo(GROUP)).thenReturn(groupInfo);
+        BrokerRunManager brokerRunManager = mock(BrokerRunManager.class);
+        when(brokerRunManager.getSubBrokerAcceptSubParts(anySet()))
+                .thenAnswer(invocation -> toPartMap(partitions));
+        when(brokerRunManager.getSubTopologyVersion()).thenReturn(1L);
+        MetaDataService metaDataService = mock(MetaDataService.class);
+        when(metaDataService.getDisableTopicByGroupName(GROUP))
+                .thenReturn(Collections.emptySet());
+        DefaultLoadBalancer balancer = new DefaultLoadBalancer();
+        List<String> groups = Collections.singletonList(GROUP);
+        // balance, settle and then skip the group
+        Map<String, Map<String, Map<String, Partition>>> clusterState = new HashMap<>();
+        clusterState.put("consumer_1", new HashMap<>());
+        clusterState.put("consumer_2", new HashMap<>());
+        Map<String, Map<String, List<Partition>>> result = balancer.balanceCluster(
+                clusterState, consumerHolder, brokerRunManager, groups,
+                metaDataService, new StringBuilder(512));
+        clusterState = toClusterState(result);
+        balancer.balanceCluster(clusterState, consumerHolder,
+                brokerRunManager, groups, metaDataService, new StringBuilder(512));
+        result = balancer.balanceCluster(clusterState, consumerHolder,
+                brokerRunManager, groups, metaDataService, new StringBuilder(512));
+        Assert.assertTrue(result.isEmpty());
+        // disabling the topic recalculates the settled group, so that
+        // the disabled partitions can be taken back from the consumers
+        when(metaDataService.getDisableTopicByGroupName(GROUP))
+                .thenReturn(Collections.singleton("test"));
+        result = balancer.balanceCluster(clusterState, consumerHolder,
+                brokerRunManager, groups, metaDataService, new StringBuilder(512));
+        Assert.assertEquals(2, result.size());
+        Assert.assertTrue(result.containsKey("consumer_1"));
+        Assert.assertTrue(result.containsKey("consumer_2"));
+    }
+
+    private ConsumerInfo mockConsumer(String consumerId) {
+        ConsumerInfo consumer = mock(ConsumerInfo.class);
+        when(consumer.getConsumerId()).thenReturn(consumerId);
+        return consumer;
+    }
+
+    private Map<String, Partition> toPartMap(List<Partition> partitions) {
+        Map<String, Partition> partMap = new HashMap<>();
+        for (Partition partition : partitions) {
+            partMap.put(partition.getPartitionKey(), partition);
+        }
+        return partMap;
+    }
+
+    private Map<String, Map<String, Map<String, Partition>>> toClusterState(
+            Map<String, Map<String, List<Partition>>> assignment) {
+        Map<String, Map<String, Map<String, Partition>>> clusterState = new HashMap<>();
+        for (Map.Entry<String, Map<String, List<Partition>>> entry : assignment.entrySet()) {
+            Map<String, Map<String, Partition>> topicParts = new HashMap<>();
+            for (Map.Entry<String, List<Partition>> topicEntry : entry.getValue().entrySet()) {
+                topicParts.put(topicEntry.getKey(), toPartMap(topicEntry.getValue()));
+            }
+            clusterState.put(entry.getKey(), topicParts);
+        }
+        return clusterState;
+    }
+}
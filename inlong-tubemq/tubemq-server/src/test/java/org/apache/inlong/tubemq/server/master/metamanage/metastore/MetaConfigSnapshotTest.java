@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.tubemq.server.master.metamanage.metastore;
+
+import org.apache.inlong.tubemq.server.common.statusdef.EnableStatus;
+import org.apache.inlong.tubemq.server.master.metamanage.metastore.dao.entity.BaseEntity;
+import org.apache.inlong.tubemq.server.master.metamanage.metastore.dao.entity.BrokerConfEntity;
+import org.apache.inlong.tubemq.server.master.metamanage.metastore.dao.entity.GroupConsumeCtrlEntity;
+import org.apache.inlong.tubemq.server.master.metamanage.metastore.dao.entity.GroupResCtrlEntity;
+import org.apache.inlong.tubemq.server.master.metamanage.metastore.dao.entity.TopicCtrlEntity;
+import org.apache.inlong.tubemq.server.master.metamanage.metastore.dao.entity.TopicDeployEntity;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * MetaConfigSnapshot test.
+ */
+public class MetaConfigSnapshotTest {
+
+    @Test
+    public void testSnapshotIndexes() {
+        BaseEntity opEntity = new BaseEntity("test", new Date());
+        Map<Integer, BrokerConfEntity> brokerConfMap = new HashMap<>();
+        for (int brokerId = 1; brokerId <= 3; brokerId++) {
+            brokerConfMap.put(brokerId,
+                    new BrokerConfEntity(opEntity, brokerId, "127.0.0." + brokerId));
+        }
+        List<TopicDeployEntity> deployConfs = new ArrayList<>();
+        deployConfs.add(new TopicDeployEntity(opEntity, 1, "topic1"));
+        deployConfs.add(new TopicDeployEntity(opEntity, 2, "topic1"));
+        deployConfs.add(new TopicDeployEntity(opEntity, 2, "topic2"));
+        // deployed on a broker without configure
+        deployConfs.add(new TopicDeployEntity(opEntity, 4, "topic3"));
+        List<TopicCtrlEntity> topicCtrlConfs = Arrays.asList(
+                new TopicCtrlEntity(opEntity, "topic1"), new TopicCtrlEntity(opEntity, "topic2"));
+        Map<String, GroupResCtrlEntity> groupCtrlMap = new HashMap<>();
+        groupCtrlMap.put("group1", new GroupResCtrlEntity(opEntity, "group1"));
+        GroupConsumeCtrlEntity ctrlEntity1 =
+                new GroupConsumeCtrlEntity(opEntity, "group1", "topic1");
+        ctrlEntity1.setConsumeEnable(EnableStatus.STATUS_DISABLE);
+        GroupConsumeCtrlEntity ctrlEntity2 =
+                new GroupConsumeCtrlEntity(opEntity, "group1", "topic2");
+        ctrlEntity2.setConsumeEnable(EnableStatus.STATUS_ENABLE);
+        MetaConfigSnapshot snapshot = new MetaConfigSnapshot(10L, brokerConfMap,
+                deployConfs, topicCtrlConfs, groupCtrlMap,
+                Arrays.asList(ctrlEntity1, ctrlEntity2));
+        Assert.assertEquals(10L, snapshot.getDataVersion());
+        Assert.assertNotNull(snapshot.getBrokerConf(1));
+        Assert.assertNotNull(snapshot.getTopicCtrlConf("topic2"));
+        Assert.assertNotNull(snapshot.getGroupCtrlConf("group1"));
+        // topic to brokers index
+        Assert.assertEquals(new HashSet<>(Arrays.asList(1, 2)),
+                snapshot.getTopicBrokers("topic1").keySet());
+        Assert.assertTrue(snapshot.getTopicBrokers("topic9").isEmpty());
+        Assert.assertEquals(new HashSet<>(Arrays.asList(1, 2, 4)),
+                snapshot.getDeployedBrokerIdByTopic(
+                        new HashSet<>(Arrays.asList("topic1", "topic3"))));
+        Map<String, Map<Integer, String>> topicBrokerInfo =
+                snapshot.getTopicBrokerInfo(Collections.singleton("topic9"));
+        Assert.assertTrue(topicBrokerInfo.get("topic9").isEmpty());
+        Assert.assertEquals(3, snapshot.getTopicBrokerInfo(null).size());
+        // broker to topics index
+        Map<Integer, Set<String>> brokerTopics = snapshot.getConfiguredTopicInfo(null);
+        Assert.assertEquals(new HashSet<>(Arrays.asList("topic1", "topic2")), brokerTopics.get(2));
+        Assert.assertTrue(snapshot.getConfiguredTopicInfo(
+                Collections.singleton(3)).get(3).isEmpty());
+        // only the configured brokers are returned
+        Map<Integer, List<TopicDeployEntity>> deployInfoMap =
+                snapshot.getTopicDeployInfoMap(Collections.singleton("topic2"), null);
+        Assert.assertEquals(new HashSet<>(Arrays.asList(1, 2, 3)), deployInfoMap.keySet());
+        Assert.assertEquals(1, deployInfoMap.get(2).size());
+        Assert.assertTrue(deployInfoMap.get(1).isEmpty());
+        Assert.assertTrue(snapshot.getTopicDeployInfoMap(
+                null, Collections.singleton(4)).isEmpty());
+        // group to topics index
+        Assert.assertEquals(2, snapshot.getGroupTopics("group1").size());
+        Assert.assertEquals(Collections.singleton("topic1"),
+                snapshot.getDisableTopicByGroupName("group1"));
+        Assert.assertTrue(snapshot.getDisableTopicByGroupName("group2").isEmpty());
+        // the snapshot is not changed by the source data
+        brokerConfMap.clear();
+        deployConfs.clear();
+        Assert.assertNotNull(snapshot.getBrokerConf(1));
+        try {
+            snapshot.getTopicBrokers("topic1").clear();
+            Assert.fail();
+        } catch (UnsupportedOperationException e) {
+            //
+        }
+    }
+}
@@ -99,6 +99,8 @@ public class MasterSrvStatsHolderTest {
         Assert.assertEquals(0, retMap.get("broker_forbidden_cnt").longValue());
         Assert.assertEquals(0, retMap.get("server_balance_normal_count").longValue());
         Assert.assertEquals(0, retMap.get("server_balance_reset_count").longValue());
+        Assert.assertNotNull(retMap.get("server_balance_cycle_count"));
+        Assert.assertNotNull(retMap.get("server_balance_moved_part_cnt"));
         retMap.clear();
         // get and snapshot content by StringBuilder
         StringBuilder strBuff = new StringBuilder(TBaseConstants.BUILDER_DEFAULT_SIZE);